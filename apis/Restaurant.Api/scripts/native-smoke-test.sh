@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Boots the native image (or the JVM jar with --jvm) against a throwaway local Postgres, waits for the
+# health endpoint and reports startup time and resident memory.
+#
+#   ./mvnw -Pnative native:compile -DskipTests && scripts/native-smoke-test.sh
+#   ./mvnw package -DskipTests && scripts/native-smoke-test.sh --jvm
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+MODE=native
+[[ "${1:-}" == "--jvm" ]] && MODE=jvm
+
+PG_CONTAINER=rms-smoke-postgres
+PG_PORT=${PG_PORT:-55432}
+APP_PORT=${APP_PORT:-18081}
+TIMEOUT=${TIMEOUT:-60}
+LOG_FILE=target/smoke-${MODE}.log
+
+cleanup() {
+    [[ -n "${APP_PID:-}" ]] && kill "$APP_PID" 2>/dev/null || true
+    docker rm -f "$PG_CONTAINER" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+docker run -d --rm --name "$PG_CONTAINER" -p "$PG_PORT:5432" \
+    -e POSTGRES_DB=rms -e POSTGRES_USER=rms_user -e POSTGRES_PASSWORD=rms_password \
+    postgres:16-alpine >/dev/null
+until docker exec "$PG_CONTAINER" pg_isready -U rms_user -d rms >/dev/null 2>&1; do sleep 0.5; done
+docker exec "$PG_CONTAINER" psql -U rms_user -d rms -q -c 'CREATE EXTENSION IF NOT EXISTS "uuid-ossp"'
+
+ARGS=(
+    "--server.port=$APP_PORT"
+    "--spring.datasource.url=jdbc:postgresql://localhost:$PG_PORT/rms"
+    "--spring.datasource.username=rms_user"
+    "--spring.datasource.password=rms_password"
+    "--management.endpoints.web.exposure.include=health"
+)
+
+if [[ "$MODE" == native ]]; then
+    [[ -x target/restaurant-api ]] || { echo "target/restaurant-api not found, build with -Pnative native:compile"; exit 1; }
+    target/restaurant-api "${ARGS[@]}" >"$LOG_FILE" 2>&1 &
+else
+    java -jar target/restaurant-api-*.jar "${ARGS[@]}" >"$LOG_FILE" 2>&1 &
+fi
+APP_PID=$!
+
+for ((i = 0; i < TIMEOUT * 10; i++)); do
+    if curl -fs "http://localhost:$APP_PORT/actuator/health" | grep -q '"UP"'; then
+        break
+    fi
+    if ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo "Application exited during startup, see $LOG_FILE"; exit 1
+    fi
+    sleep 0.1
+done
+curl -fs "http://localhost:$APP_PORT/actuator/health" | grep -q '"UP"' || { echo "Not healthy after ${TIMEOUT}s"; exit 1; }
+
+# Exercise the JPA, Flyway and Jackson paths once
+curl -fs "http://localhost:$APP_PORT/api/orders?restaurantId=00000000-0000-0000-0000-000000000001" >/dev/null
+
+STARTED=$(grep -o 'Started RestaurantApiApplication in [0-9.]* seconds' "$LOG_FILE" | grep -o '[0-9.]*' | head -1)
+RSS_KB=$(ps -o rss= -p "$APP_PID" | tr -d ' ')
+echo "mode=$MODE startup=${STARTED}s rss=$((RSS_KB / 1024))MB"
@@ -0,0 +1,49 @@
+package be.asafarim.rms.api.analytics;
+
+import be.asafarim.rms.api.analytics.dto.RevenuePointResponse;
+import be.asafarim.rms.api.analytics.dto.TopSellerResponse;
+import be.asafarim.rms.service.analytics.RevenueTimeSeriesService;
+import be.asafarim.rms.service.analytics.TopSellerWindow;
+import be.asafarim.rms.service.analytics.TopSellersService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Analytics", description = "Live in-memory analytics")
+public class AnalyticsController {
+
+    private final TopSellersService topSellersService;
+    private final RevenueTimeSeriesService revenueTimeSeriesService;
+
+    @GetMapping("/top-sellers")
+    @Operation(summary = "Top-selling menu items",
+            description = "Approximate top-K menu items by quantity sold at a location over a sliding window")
+    public ResponseEntity<List<TopSellerResponse>> getTopSellers(
+            @Parameter(description = "Location ID") @RequestParam UUID locationId,
+            @Parameter(description = "Time window") @RequestParam(defaultValue = "LAST_15_MINUTES") TopSellerWindow window,
+            @Parameter(description = "Number of items") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(topSellersService.getTopSellers(locationId, window, limit));
+    }
+
+    @GetMapping("/revenue")
+    @Operation(summary = "Live revenue time series",
+            description = "Per-minute revenue, orders, tips and average preparation time for a location, oldest first")
+    public ResponseEntity<List<RevenuePointResponse>> getRevenue(
+            @Parameter(description = "Location ID") @RequestParam UUID locationId,
+            @Parameter(description = "Number of minutes to return, up to the retained minutes")
+            @RequestParam(defaultValue = "60") int minutes) {
+        return ResponseEntity.ok(revenueTimeSeriesService.getSeries(locationId, minutes));
+    }
+}
@@ -0,0 +1,17 @@
+package be.asafarim.rms.api.analytics.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Builder
+public record RevenuePointResponse(
+        Instant minute,
+        BigDecimal revenue,
+        long orders,
+        BigDecimal tips,
+        long cancelled,
+        Double averagePrepSeconds
+) {
+}
@@ -0,0 +1,13 @@
+package be.asafarim.rms.api.analytics.dto;
+
+import lombok.Builder;
+
+import java.util.UUID;
+
+@Builder
+public record TopSellerResponse(
+        UUID menuItemId,
+        long quantity,
+        long maxOvercount
+) {
+}
@@ -0,0 +1,38 @@
+package be.asafarim.rms.api.kitchen;
+
+import be.asafarim.rms.api.kitchen.dto.ItemBumpRequest;
+import be.asafarim.rms.api.kitchen.dto.ItemBumpResponse;
+import be.asafarim.rms.service.kitchen.KitchenBumpService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/kitchen")
+@RequiredArgsConstructor
+@Tag(name = "Kitchen", description = "Kitchen display endpoints")
+public class KitchenController {
+
+    private final KitchenBumpService bumpService;
+
+    @PostMapping("/items/bump")
+    @Operation(summary = "Bump order items",
+            description = "Moves many order items, across many orders, to a new status in one call. "
+                    + "Orders whose items are all prepared are moved to READY.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Items bumped; unknown or closed items are skipped"),
+            @ApiResponse(responseCode = "400", description = "Invalid target status")
+    })
+    public ResponseEntity<ItemBumpResponse> bumpItems(
+            @Valid @RequestBody ItemBumpRequest request,
+            @RequestHeader(value = "X-User-Id", required = false) UUID userId) {
+        return ResponseEntity.ok(bumpService.bump(request, userId));
+    }
+}
@@ -0,0 +1,23 @@
+package be.asafarim.rms.api.kitchen.dto;
+
+import be.asafarim.rms.domain.order.OrderItemStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+public record ItemBumpRequest(
+        @NotBlank(message = "Station is required")
+        String station,
+
+        @NotEmpty(message = "At least one item is required")
+        @Size(max = 1000, message = "At most 1000 items can be bumped at once")
+        List<UUID> itemIds,
+
+        OrderItemStatus status
+) {
+}
@@ -0,0 +1,16 @@
+package be.asafarim.rms.api.kitchen.dto;
+
+import be.asafarim.rms.domain.order.OrderItemStatus;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+public record ItemBumpResponse(
+        OrderItemStatus status,
+        List<UUID> bumpedItemIds,
+        List<UUID> skippedItemIds,
+        List<UUID> readyOrderIds
+) {
+}
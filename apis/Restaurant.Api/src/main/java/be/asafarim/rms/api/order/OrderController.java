@@ -1,10 +1,22 @@
 package be.asafarim.rms.api.order;
 
+import be.asafarim.rms.api.order.dto.OrderChangesResponse;
+import be.asafarim.rms.api.order.dto.OrderEtaResponse;
 import be.asafarim.rms.api.order.dto.OrderRequest;
 import be.asafarim.rms.api.order.dto.OrderResponse;
 import be.asafarim.rms.api.order.dto.UpdateStatusRequest;
 import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.exception.OrderNotFoundException;
 import be.asafarim.rms.service.OrderService;
+import be.asafarim.rms.service.admission.AdmissionCaller;
+import be.asafarim.rms.service.admission.OrderAdmissionService;
+import be.asafarim.rms.service.coalescing.OrderReadCoalescer;
+import be.asafarim.rms.service.eta.EtaPredictor;
+import be.asafarim.rms.service.eta.OrderEtaStreams;
+import be.asafarim.rms.service.eventsourcing.OrderProjection;
+import be.asafarim.rms.service.eventsourcing.OrderReplayService;
+import be.asafarim.rms.service.metrics.OrderMetrics;
+import be.asafarim.rms.service.metrics.OrderOperationTimer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,14 +24,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.UUID;
 
@@ -30,6 +48,12 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderAdmissionService admissionService;
+    private final OrderReadCoalescer readCoalescer;
+    private final OrderReplayService replayService;
+    private final EtaPredictor etaPredictor;
+    private final OrderEtaStreams etaStreams;
+    private final OrderMetrics orderMetrics;
 
     @PostMapping
     @Operation(summary = "Place a new order", description = "Creates a new order with the specified items")
@@ -38,14 +62,28 @@ public class OrderController {
                     content = @Content(schema = @Schema(implementation = OrderResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid request data"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded, see Retry-After"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<OrderResponse> placeOrder(
-            @Valid @RequestBody OrderRequest request) {
-        OrderResponse response = orderService.placeOrder(request);
+            @Valid @RequestBody OrderRequest request,
+            @RequestHeader(value = AdmissionCaller.API_KEY_HEADER, required = false) String apiKey,
+            HttpServletRequest httpRequest) {
+        // Rate limited as the client owning the API key or the caller; the source in the body is only recorded
+        AdmissionCaller caller = admissionService.caller(apiKey,
+                SecurityContextHolder.getContext().getAuthentication(), httpRequest.getRemoteAddr());
+        OrderResponse response = admissionService.admit(request.restaurantId(), caller, () -> place(request));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // Timed out here rather than in OrderService so the latency includes the commit
+    private OrderResponse place(OrderRequest request) {
+        try (OrderOperationTimer timer = orderMetrics.start("place")
+                .tag(request.restaurantId(), request.sourceOrDefault(), request.type())) {
+            return timer.success(orderService.placeOrder(request));
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get order by ID", description = "Retrieves order details by its unique identifier")
     @ApiResponses(value = {
@@ -53,8 +91,74 @@ public class OrderController {
             @ApiResponse(responseCode = "404", description = "Order not found")
     })
     public ResponseEntity<OrderResponse> getOrder(
+            @Parameter(description = "Order ID") @PathVariable UUID id,
+            WebRequest webRequest) {
+        // Revalidation only needs the order's change version, not the order itself.
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(etag(orderService.getOrderChangeVersion(id)))) {
+            return null;
+        }
+        OrderResponse order = readCoalescer.getOrder(id);
+        return ResponseEntity.ok()
+                .eTag(etag(order.changeVersion() != null ? order.changeVersion() : 0L))
+                .body(order);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Get order changes",
+            description = "Orders of a location changed after the given version; terminal orders are tombstones")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes returned"),
+            @ApiResponse(responseCode = "304", description = "Nothing changed since the version in If-None-Match")
+    })
+    public ResponseEntity<OrderChangesResponse> getOrderChanges(
+            @Parameter(description = "Location ID") @RequestParam UUID locationId,
+            @Parameter(description = "Last version the client has seen") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes") @RequestParam(defaultValue = "200") int limit,
+            WebRequest webRequest) {
+        String etag = etag(orderService.getLocationChangeVersion(locationId));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(orderService.getOrderChanges(locationId, since, limit));
+    }
+
+    @GetMapping("/{id}/eta")
+    @Operation(summary = "Get estimated ready time",
+            description = "Current load-aware estimate; orders that left the kitchen report their ready time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estimate returned"),
+            @ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    public ResponseEntity<OrderEtaResponse> getOrderEta(
+            @Parameter(description = "Order ID") @PathVariable UUID id) {
+        return ResponseEntity.ok(currentEta(id));
+    }
+
+    @GetMapping(value = "/{id}/eta/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream estimated ready time",
+            description = "Server-sent 'eta' events whenever the estimate moves; completes once the order is ready")
+    public SseEmitter streamOrderEta(
+            @Parameter(description = "Order ID") @PathVariable UUID id) {
+        return etaStreams.subscribe(id, currentEta(id));
+    }
+
+    @GetMapping("/{id}/projection")
+    @Operation(summary = "Rebuild order from events",
+            description = "Replays the order's event stream and returns the resulting state")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Order rebuilt"),
+            @ApiResponse(responseCode = "404", description = "No events for this order")
+    })
+    public ResponseEntity<OrderProjection> getOrderProjection(
             @Parameter(description = "Order ID") @PathVariable UUID id) {
-        return ResponseEntity.ok(orderService.getOrder(id));
+        OrderProjection projection = replayService.rebuild(id);
+        if (projection == null) {
+            throw new OrderNotFoundException(id);
+        }
+        return ResponseEntity.ok(projection);
     }
 
     @GetMapping("/number/{orderNumber}")
@@ -62,7 +166,7 @@ public class OrderController {
     public ResponseEntity<OrderResponse> getOrderByNumber(
             @Parameter(description = "Order number (e.g., ORD-20251125-0001)")
             @PathVariable String orderNumber) {
-        return ResponseEntity.ok(orderService.getOrderByNumber(orderNumber));
+        return ResponseEntity.ok(readCoalescer.getOrderByNumber(orderNumber));
     }
 
     @GetMapping
@@ -70,13 +174,19 @@ public class OrderController {
     public ResponseEntity<Page<OrderResponse>> getOrders(
             @Parameter(description = "Restaurant ID") @RequestParam UUID restaurantId,
             @Parameter(description = "Filter by status") @RequestParam(required = false) OrderStatus status,
-            @PageableDefault(size = 20) Pageable pageable) {
-        
+            @PageableDefault(size = 20) Pageable pageable,
+            WebRequest webRequest) {
+        // Any order change of the restaurant moves this version; the query string keys the cached page.
+        String etag = etag(orderService.getRestaurantChangeVersion(restaurantId));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         Page<OrderResponse> orders = status != null
                 ? orderService.getOrdersByStatus(restaurantId, status, pageable)
                 : orderService.getOrders(restaurantId, pageable);
-        
-        return ResponseEntity.ok(orders);
+
+        return ResponseEntity.ok().eTag(etag).body(orders);
     }
 
     @PatchMapping("/{id}/status")
@@ -90,7 +200,9 @@ public class OrderController {
             @Parameter(description = "Order ID") @PathVariable UUID id,
             @Valid @RequestBody UpdateStatusRequest request,
             @RequestHeader(value = "X-User-Id", required = false) UUID userId) {
-        return ResponseEntity.ok(orderService.updateOrderStatus(id, request, userId));
+        try (OrderOperationTimer timer = orderMetrics.start("update_status")) {
+            return ResponseEntity.ok(timer.success(orderService.updateOrderStatus(id, request, userId, timer)));
+        }
     }
 
     @PostMapping("/{id}/cancel")
@@ -104,6 +216,28 @@ public class OrderController {
             @Parameter(description = "Order ID") @PathVariable UUID id,
             @Parameter(description = "Cancellation reason") @RequestParam String reason,
             @RequestHeader(value = "X-User-Id", required = false) UUID userId) {
-        return ResponseEntity.ok(orderService.cancelOrder(id, reason, userId));
+        try (OrderOperationTimer timer = orderMetrics.start("cancel")) {
+            return ResponseEntity.ok(timer.success(orderService.cancelOrder(id, reason, userId, timer)));
+        }
+    }
+
+    private static String etag(long changeVersion) {
+        return "\"" + changeVersion + "\"";
+    }
+
+    private OrderEtaResponse currentEta(UUID id) {
+        return etaPredictor.current(id).orElseGet(() -> {
+            OrderResponse order = readCoalescer.getOrder(id);
+            boolean open = order.status() == OrderStatus.PENDING
+                    || order.status() == OrderStatus.CONFIRMED
+                    || order.status() == OrderStatus.IN_PROGRESS;
+            boolean ready = order.status() == OrderStatus.READY || order.status() == OrderStatus.COMPLETED;
+            return OrderEtaResponse.builder()
+                    .orderId(id)
+                    .estimatedReadyAt(open ? order.estimatedReadyAt() : null)
+                    .ready(ready)
+                    .closed(!open)
+                    .build();
+        });
     }
 }
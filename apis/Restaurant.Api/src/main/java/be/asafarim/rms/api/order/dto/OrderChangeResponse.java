@@ -0,0 +1,19 @@
+package be.asafarim.rms.api.order.dto;
+
+import be.asafarim.rms.domain.order.OrderStatus;
+import lombok.Builder;
+
+import java.util.UUID;
+
+/**
+ * One entry of a delta sync. Orders that reached a terminal status are sent as tombstones without a body.
+ */
+@Builder
+public record OrderChangeResponse(
+        UUID orderId,
+        long changeVersion,
+        OrderStatus status,
+        boolean tombstone,
+        OrderResponse order
+) {
+}
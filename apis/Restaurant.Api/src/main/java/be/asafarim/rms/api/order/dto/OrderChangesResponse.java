@@ -0,0 +1,20 @@
+package be.asafarim.rms.api.order.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Orders of a location changed after {@code since}, oldest first. Pass {@code version} as the next
+ * {@code since}; {@code hasMore} means the page was cut at {@code limit}.
+ */
+@Builder
+public record OrderChangesResponse(
+        UUID locationId,
+        long since,
+        long version,
+        boolean hasMore,
+        List<OrderChangeResponse> changes
+) {
+}
@@ -0,0 +1,21 @@
+package be.asafarim.rms.api.order.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param ready  the order is ready for pickup or already completed
+ * @param closed no further updates follow: the order is ready, completed, cancelled or refunded. A closed order
+ *               that is not {@code ready} was withdrawn and will never be ready
+ */
+@Builder
+public record OrderEtaResponse(
+        UUID orderId,
+        Instant estimatedReadyAt,
+        int queuePosition,
+        boolean ready,
+        boolean closed
+) {
+}
@@ -1,5 +1,6 @@
 package be.asafarim.rms.api.order.dto;
 
+import be.asafarim.rms.domain.order.OrderSource;
 import be.asafarim.rms.domain.order.OrderType;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
@@ -30,6 +31,14 @@ public record OrderRequest(
         String discountCode,
         Integer loyaltyPointsToUse,
         String notes,
-        String paymentMethod
+        String paymentMethod,
+        OrderSource source
 ) {
+
+    /**
+     * The source the order is recorded with: {@link OrderSource#POS} unless the request names one
+     */
+    public OrderSource sourceOrDefault() {
+        return source != null ? source : OrderSource.POS;
+    }
 }
@@ -25,6 +25,7 @@ public record OrderResponse(
         Integer loyaltyPointsEarned,
         Instant estimatedReadyAt,
         Instant createdAt,
+        Long changeVersion,
         List<OrderItemResponse> items,
         List<StatusHistoryResponse> statusHistory
 ) {
@@ -0,0 +1,95 @@
+package be.asafarim.rms.config;
+
+import be.asafarim.rms.domain.order.OrderSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Admission control for order writes, bound from {@code rms.admission.*}.
+ *
+ * @param enabled     whether admission control is applied at all
+ * @param restaurant  rate limit applied to each restaurant
+ * @param sources     rate limits per {@link OrderSource}; sources without an entry use {@code defaultSource}
+ * @param defaultSource rate limit for sources not listed in {@code sources}
+ * @param clients     integrations identified by the API key they send, by client id
+ * @param concurrency adaptive limit on concurrent order writes
+ */
+@ConfigurationProperties(prefix = "rms.admission")
+public record AdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Rate restaurant,
+        Map<OrderSource, Rate> sources,
+        Rate defaultSource,
+        Map<String, Client> clients,
+        @DefaultValue Concurrency concurrency
+) {
+
+    public AdmissionProperties {
+        sources = sources != null ? Map.copyOf(sources) : Map.of();
+        defaultSource = defaultSource != null ? defaultSource : new Rate(200, 400);
+        clients = clients != null ? Map.copyOf(clients) : Map.of();
+    }
+
+    public Rate rateFor(OrderSource source) {
+        return sources.getOrDefault(source, defaultSource);
+    }
+
+    /**
+     * The id of the client whose API key is {@code apiKey}, compared in constant time; empty for unknown keys.
+     */
+    public Optional<String> clientId(String apiKey) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return Optional.empty();
+        }
+        byte[] presented = apiKey.getBytes(StandardCharsets.UTF_8);
+        return clients.entrySet().stream()
+                .filter(client -> MessageDigest.isEqual(
+                        client.getValue().apiKey().getBytes(StandardCharsets.UTF_8), presented))
+                .map(Map.Entry::getKey)
+                .findFirst();
+    }
+
+    /**
+     * An integration allowed to send orders, such as a delivery platform bridge.
+     *
+     * @param apiKey shared secret the client sends in the {@code X-Api-Key} header
+     * @param source source whose rate the client is limited at
+     */
+    public record Client(String apiKey, OrderSource source) {
+
+        public Client {
+            if (apiKey == null || apiKey.isBlank() || source == null) {
+                throw new IllegalArgumentException("Admission clients need an api-key and a source");
+            }
+        }
+    }
+
+    /**
+     * @param permitsPerSecond sustained rate
+     * @param burst            number of requests that may be admitted back to back
+     */
+    public record Rate(
+            @DefaultValue("20") double permitsPerSecond,
+            @DefaultValue("40") int burst
+    ) {
+    }
+
+    /**
+     * AIMD concurrency limit: grows by one per window of successful calls faster than
+     * {@code latencyTarget} and shrinks by {@code backoffRatio} when a call is slower or fails.
+     */
+    public record Concurrency(
+            @DefaultValue("32") int initialLimit,
+            @DefaultValue("4") int minLimit,
+            @DefaultValue("256") int maxLimit,
+            @DefaultValue("250ms") Duration latencyTarget,
+            @DefaultValue("0.9") double backoffRatio
+    ) {
+    }
+}
@@ -0,0 +1,45 @@
+package be.asafarim.rms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * In-memory live analytics, bound from {@code rms.analytics.*}.
+ *
+ * @param topSellers sizing of the per-location heavy-hitters summaries
+ * @param revenue    sizing of the per-location revenue time series
+ */
+@ConfigurationProperties(prefix = "rms.analytics")
+public record AnalyticsProperties(
+        @DefaultValue TopSellers topSellers,
+        @DefaultValue Revenue revenue
+) {
+
+    /**
+     * @param sliceCapacity  items tracked per one-minute slice, also the largest top-K that can be served
+     * @param dailyCapacity  items tracked for the "today" window
+     * @param sketchWidth    Count-Min sketch width (error is about {@code e / width} of the window volume)
+     * @param sketchDepth    Count-Min sketch depth (failure probability about {@code exp(-depth)})
+     * @param refresh        maximum staleness of a served ranking
+     * @param zone           time zone defining "today"
+     */
+    public record TopSellers(
+            @DefaultValue("50") int sliceCapacity,
+            @DefaultValue("200") int dailyCapacity,
+            @DefaultValue("272") int sketchWidth,
+            @DefaultValue("4") int sketchDepth,
+            @DefaultValue("1s") Duration refresh,
+            @DefaultValue("Europe/Brussels") String zone
+    ) {
+    }
+
+    /**
+     * @param minutes number of per-minute buckets kept per location, also the backfill horizon
+     */
+    public record Revenue(
+            @DefaultValue("1440") int minutes
+    ) {
+    }
+}
@@ -0,0 +1,41 @@
+package be.asafarim.rms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Load-aware estimated-ready-time predictor, bound from {@code rms.eta.*}.
+ *
+ * @param defaultParallelism items a kitchen prepares at the same time, for locations not listed below
+ * @param parallelism        per-location override of {@code defaultParallelism}
+ * @param defaultPrepTime    preparation time assumed for menu items without history
+ * @param smoothing          weight of a new observation in the per-item moving average
+ * @param history            how far back preparation times are loaded at startup
+ * @param refresh            interval at which queued ETAs are recomputed even when nothing moved
+ * @param pushThreshold      minimum ETA change that is pushed to subscribed clients
+ * @param streamTimeout      lifetime of one ETA event stream
+ */
+@ConfigurationProperties(prefix = "rms.eta")
+public record EtaProperties(
+        @DefaultValue("3") int defaultParallelism,
+        Map<UUID, Integer> parallelism,
+        @DefaultValue("8m") Duration defaultPrepTime,
+        @DefaultValue("0.2") double smoothing,
+        @DefaultValue("14d") Duration history,
+        @DefaultValue("15s") Duration refresh,
+        @DefaultValue("30s") Duration pushThreshold,
+        @DefaultValue("30m") Duration streamTimeout
+) {
+
+    public EtaProperties {
+        parallelism = parallelism != null ? Map.copyOf(parallelism) : Map.of();
+    }
+
+    public int parallelismFor(UUID locationId) {
+        return Math.max(1, parallelism.getOrDefault(locationId, defaultParallelism));
+    }
+}
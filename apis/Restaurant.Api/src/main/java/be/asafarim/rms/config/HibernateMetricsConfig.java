@@ -0,0 +1,19 @@
+package be.asafarim.rms.config;
+
+import be.asafarim.rms.service.metrics.QueryCountingStatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Installs the statement inspector behind the per-request Hibernate query count metric.
+ */
+@Configuration
+public class HibernateMetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingCustomizer() {
+        return properties -> properties.putIfAbsent("hibernate.session_factory.statement_inspector",
+                new QueryCountingStatementInspector());
+    }
+}
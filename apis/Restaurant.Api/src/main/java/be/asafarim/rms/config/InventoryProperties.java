@@ -0,0 +1,24 @@
+package be.asafarim.rms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Asynchronous stock deduction, bound from {@code rms.inventory.*}.
+ *
+ * @param enabled        whether placed and cancelled orders move stock
+ * @param flushInterval  window over which deltas are coalesced before they are written
+ * @param recipeRefresh  interval at which the in-memory recipe index is reloaded
+ * @param maxAttempts    flushes a buffer is retried while the database is unavailable before it is written order
+ *                       by order, dropping and logging the orders that still fail
+ */
+@ConfigurationProperties(prefix = "rms.inventory")
+public record InventoryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2s") Duration flushInterval,
+        @DefaultValue("5m") Duration recipeRefresh,
+        @DefaultValue("30") int maxAttempts
+) {
+}
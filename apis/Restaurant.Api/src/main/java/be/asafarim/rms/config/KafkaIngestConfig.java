@@ -0,0 +1,103 @@
+package be.asafarim.rms.config;
+
+import be.asafarim.rms.messaging.InboundOrderMessage;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Batch consumer infrastructure for inbound delivery-platform orders.
+ * <p>
+ * Records are consumed in batches with manual acknowledgement. Values that cannot be deserialized or mapped go
+ * straight to the dead-letter topic; a record failing on its own is retried with exponential backoff before it
+ * is dead-lettered. Offsets of records preceding a failure are committed, so a poison message never blocks its
+ * partition. Transient database failures never get here: the listener hands the batch back for redelivery
+ * itself, so an outage delays orders instead of dead-lettering them.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rms.ingest.kafka", name = "enabled", havingValue = "true")
+public class KafkaIngestConfig {
+
+    public static final String CONTAINER_FACTORY = "inboundOrderContainerFactory";
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, InboundOrderMessage> inboundOrderContainerFactory(
+            KafkaProperties kafkaProperties,
+            ObjectProvider<SslBundles> sslBundles,
+            KafkaIngestProperties ingestProperties) {
+        Map<String, Object> consumerProps = new LinkedHashMap<>(
+                kafkaProperties.buildConsumerProperties(sslBundles.getIfAvailable()));
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, ingestProperties.groupId());
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, ingestProperties.maxPollRecords());
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        consumerProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        consumerProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, InboundOrderMessage.class.getName());
+        consumerProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+        ConcurrentKafkaListenerContainerFactory<String, InboundOrderMessage> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(consumerProps));
+        factory.setBatchListener(true);
+        factory.setConcurrency(ingestProperties.concurrency());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(inboundOrderErrorHandler(kafkaProperties, sslBundles, ingestProperties));
+        return factory;
+    }
+
+    private DefaultErrorHandler inboundOrderErrorHandler(KafkaProperties kafkaProperties,
+                                                         ObjectProvider<SslBundles> sslBundles,
+                                                         KafkaIngestProperties ingestProperties) {
+        Map<String, Object> producerProps = new LinkedHashMap<>(
+                kafkaProperties.buildProducerProperties(sslBundles.getIfAvailable()));
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+
+        // Undeserializable records are republished as the original bytes, everything else as JSON.
+        Map<String, Object> bytesProps = new LinkedHashMap<>(producerProps);
+        bytesProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        Map<String, Object> jsonProps = new LinkedHashMap<>(producerProps);
+        jsonProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        jsonProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(bytesProps)));
+        templates.put(Object.class, new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(jsonProps)));
+
+        // Keep the source partition so per-restaurant ordering survives in the dead-letter topic.
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(templates,
+                (record, ex) -> new TopicPartition(ingestProperties.deadLetterTopic(), record.partition()));
+
+        ExponentialBackOff backOff = new ExponentialBackOff(500L, 2.0);
+        backOff.setMaxInterval(10_000L);
+        backOff.setMaxElapsedTime(60_000L);
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+        return errorHandler;
+    }
+}
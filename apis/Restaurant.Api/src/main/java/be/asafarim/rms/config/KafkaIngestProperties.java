@@ -0,0 +1,32 @@
+package be.asafarim.rms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Inbound order ingestion from delivery platforms, bound from {@code rms.ingest.kafka.*}.
+ *
+ * @param enabled            start the inbound order listener
+ * @param topic              topic carrying inbound orders, keyed by restaurant ID
+ * @param deadLetterTopic    topic receiving records that cannot be deserialized, mapped or persisted
+ * @param groupId            consumer group
+ * @param concurrency        number of consumer threads (at most one per partition is useful)
+ * @param maxPollRecords     upper bound on the size of a batch persisted in one transaction
+ * @param slowBatchThreshold a batch taking longer than this to persist pauses consumption
+ * @param pauseDuration      how long consumption stays paused after a slow batch, and the delay before a batch
+ *                           that hit a transient database failure is redelivered
+ */
+@ConfigurationProperties(prefix = "rms.ingest.kafka")
+public record KafkaIngestProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("orders.inbound") String topic,
+        @DefaultValue("orders.inbound.DLT") String deadLetterTopic,
+        @DefaultValue("rms-order-ingest") String groupId,
+        @DefaultValue("3") int concurrency,
+        @DefaultValue("500") int maxPollRecords,
+        @DefaultValue("2s") Duration slowBatchThreshold,
+        @DefaultValue("5s") Duration pauseDuration
+) {
+}
@@ -0,0 +1,17 @@
+package be.asafarim.rms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Loyalty points ledger, bound from {@code rms.loyalty.*}.
+ *
+ * @param compactionInterval how often settled entries are folded into {@code customers.loyalty_points}
+ */
+@ConfigurationProperties(prefix = "rms.loyalty")
+public record LoyaltyProperties(
+        @DefaultValue("10m") Duration compactionInterval
+) {
+}
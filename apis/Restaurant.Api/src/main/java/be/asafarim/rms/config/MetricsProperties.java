@@ -0,0 +1,15 @@
+package be.asafarim.rms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Custom order metrics, bound from {@code rms.metrics.*}.
+ *
+ * @param maxRestaurantTags distinct restaurant IDs used as tag values; later restaurants are tagged {@code other}
+ */
+@ConfigurationProperties(prefix = "rms.metrics")
+public record MetricsProperties(
+        @DefaultValue("100") int maxRestaurantTags
+) {
+}
@@ -0,0 +1,66 @@
+package be.asafarim.rms.config;
+
+import be.asafarim.rms.api.order.dto.OrderEtaResponse;
+import be.asafarim.rms.domain.order.Order;
+import be.asafarim.rms.domain.order.OrderItem;
+import be.asafarim.rms.domain.order.OrderItemModifier;
+import be.asafarim.rms.domain.order.OrderItemStatus;
+import be.asafarim.rms.domain.order.OrderSource;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.OrderStatusHistory;
+import be.asafarim.rms.domain.order.OrderType;
+import be.asafarim.rms.messaging.InboundOrderMessage;
+import be.asafarim.rms.repository.KitchenQueueItemView;
+import be.asafarim.rms.repository.MenuItemPrepTimeView;
+import be.asafarim.rms.repository.MinuteRevenueView;
+import be.asafarim.rms.repository.OrderDeadlineView;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image ({@code -Pnative}) that Spring AOT cannot infer.
+ * <p>
+ * Entities are also registered by the JPA AOT processing, but listing them keeps Hibernate's reflective
+ * access explicit. Projection interfaces of native queries are JDK proxies, and the Kafka and SSE payloads
+ * are serialized outside Spring MVC, so neither is discovered from controller signatures. Lombok and MapStruct
+ * run at compile time and need nothing here; Flyway, springdoc, Kafka and Hibernate ship their own hints.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeRuntimeHints.Registrar.class)
+@RegisterReflectionForBinding({InboundOrderMessage.class, OrderEtaResponse.class})
+public class NativeRuntimeHints {
+
+    private static final List<Class<?>> ENTITY_TYPES = List.of(
+            Order.class, OrderItem.class, OrderItemModifier.class, OrderStatusHistory.class,
+            OrderStatus.class, OrderItemStatus.class, OrderSource.class, OrderType.class);
+
+    private static final List<Class<?>> PROJECTION_TYPES = List.of(
+            OrderDeadlineView.class, MinuteRevenueView.class, MenuItemPrepTimeView.class, KitchenQueueItemView.class);
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> type : ENTITY_TYPES) {
+                hints.reflection().registerType(type,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+            for (Class<?> type : PROJECTION_TYPES) {
+                hints.proxies().registerJdkProxy(type, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+                hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("db/migration/*.sql");
+        }
+    }
+}
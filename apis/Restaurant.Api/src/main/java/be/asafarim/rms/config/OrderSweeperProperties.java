@@ -0,0 +1,25 @@
+package be.asafarim.rms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Deadlines enforced by the in-memory order sweeper, bound from {@code rms.orders.sweeper.*}.
+ *
+ * @param enabled          whether the sweeper runs at all
+ * @param tick             resolution of the timing wheel
+ * @param pendingTimeout   PENDING orders not confirmed within this window are auto-cancelled
+ * @param confirmedTimeout CONFIRMED orders not started within this window raise an escalation alert
+ * @param lateGrace        IN_PROGRESS orders this long past {@code estimatedReadyAt} are counted as late
+ */
+@ConfigurationProperties(prefix = "rms.orders.sweeper")
+public record OrderSweeperProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1s") Duration tick,
+        @DefaultValue("15m") Duration pendingTimeout,
+        @DefaultValue("20m") Duration confirmedTimeout,
+        @DefaultValue("5m") Duration lateGrace
+) {
+}
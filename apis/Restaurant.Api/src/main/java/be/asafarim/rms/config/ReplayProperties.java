@@ -0,0 +1,21 @@
+package be.asafarim.rms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Event replay job, bound from {@code rms.replay.*}.
+ *
+ * @param enabled     run a full replay into {@code order_projections} at startup, then verify it
+ * @param parallelism restaurants projected concurrently, each holding two pooled connections (cursor and writes)
+ * @param fetchSize   rows fetched per cursor round trip
+ * @param batchSize   projections written per JDBC batch
+ */
+@ConfigurationProperties(prefix = "rms.replay")
+public record ReplayProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("8") int parallelism,
+        @DefaultValue("5000") int fetchSize,
+        @DefaultValue("1000") int batchSize
+) {
+}
@@ -0,0 +1,40 @@
+package be.asafarim.rms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-replica routing, bound from {@code rms.datasource.routing.*}. The primary keeps using
+ * {@code spring.datasource.*}.
+ *
+ * @param enabled          route read-only transactions to replicas
+ * @param replicas         replica connection settings
+ * @param maxLag           replicas lagging further behind the primary are skipped
+ * @param stickiness       reads within this window after a client's own write go to the primary
+ * @param lagCheckInterval how often replica lag is sampled
+ */
+@ConfigurationProperties(prefix = "rms.datasource.routing")
+public record ReplicaRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        List<Replica> replicas,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("5s") Duration stickiness,
+        @DefaultValue("2s") Duration lagCheckInterval
+) {
+
+    public ReplicaRoutingProperties {
+        replicas = replicas != null ? List.copyOf(replicas) : List.of();
+    }
+
+    public record Replica(
+            String name,
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10") int maxPoolSize
+    ) {
+    }
+}
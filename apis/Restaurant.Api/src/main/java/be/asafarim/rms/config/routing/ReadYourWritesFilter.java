@@ -0,0 +1,73 @@
+package be.asafarim.rms.config.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Gives clients read-your-writes consistency on top of replica routing.
+ * <p>
+ * Every mutating request is answered with an {@value #HEADER} carrying the write time. A client that echoes the
+ * token back within the stickiness window has its reads served by the primary instead of a replica that may not
+ * have replayed the write yet. Tokens dated further ahead of this server's clock than {@link #MAX_CLOCK_SKEW}
+ * (the most instances may disagree by) are ignored, so a client cannot pin itself to the primary with a token
+ * from the future.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Consistency-Token";
+    static final Duration MAX_CLOCK_SKEW = Duration.ofSeconds(1);
+
+    private final Duration stickiness;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration stickiness) {
+        this(stickiness, Clock.systemUTC());
+    }
+
+    ReadYourWritesFilter(Duration stickiness, Clock clock) {
+        this.stickiness = stickiness;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = clock.millis();
+        if (isMutating(request.getMethod())) {
+            response.setHeader(HEADER, Long.toString(now));
+        } else if (isWithinStickiness(request.getHeader(HEADER), now)) {
+            ConsistencyContext.requirePrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ConsistencyContext.clear();
+        }
+    }
+
+    private boolean isWithinStickiness(String token, long now) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        try {
+            long writtenAt = Long.parseLong(token.trim());
+            return writtenAt - now <= MAX_CLOCK_SKEW.toMillis() && now - writtenAt <= stickiness.toMillis();
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static boolean isMutating(String method) {
+        return switch (method) {
+            case "POST", "PUT", "PATCH", "DELETE" -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,223 @@
+package be.asafarim.rms.config.routing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically samples replication lag on every replica and keeps the set of replicas that are close enough
+ * to the primary to serve reads. The monitor owns the replica pools and closes them on shutdown.
+ * <p>
+ * Lag is measured against the primary's WAL position rather than the replica's own view: each check records
+ * the primary's {@code pg_current_wal_lsn()}, and a replica is as far behind as the newest recorded position it
+ * has replayed is old. A replica that stopped receiving WAL therefore falls behind as the primary moves on, and
+ * one without a WAL receiver, or that cannot be queried, is treated as infinitely behind until the next check.
+ * A server that is not in recovery (the primary itself as a logical stand-in) has no lag.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    public static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn() - '0/0'::pg_lsn";
+    private static final String REPLICA_QUERY = """
+            SELECT pg_is_in_recovery(),
+                   EXISTS (SELECT 1 FROM pg_stat_wal_receiver),
+                   COALESCE(pg_last_wal_replay_lsn() - '0/0'::pg_lsn, 0)
+            """;
+
+    /**
+     * WAL positions as byte offsets, so they compare as numbers.
+     */
+    interface WalProbe {
+
+        long primaryLsn() throws SQLException;
+
+        ReplicaWal replica(DataSource replica) throws SQLException;
+    }
+
+    /**
+     * @param inRecovery whether the server is a standby
+     * @param receiving  whether a WAL receiver is connected to an upstream server
+     * @param replayLsn  last WAL position replayed
+     */
+    record ReplicaWal(boolean inRecovery, boolean receiving, long replayLsn) {
+    }
+
+    private record PrimarySample(long atMillis, long lsn) {
+    }
+
+    private final Map<String, DataSource> replicas;
+    private final long maxLagMillis;
+    private final long historyMillis;
+    private final WalProbe probe;
+    private final Clock clock;
+    // Primary positions, oldest first; only touched by the refreshing thread
+    private final Deque<PrimarySample> primarySamples = new ArrayDeque<>();
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                             Duration checkInterval) {
+        this(replicas, maxLag, checkInterval, new JdbcWalProbe(primary), Clock.systemUTC());
+        long interval = checkInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Samples once and does not schedule further checks; {@link #refresh()} is called explicitly.
+     */
+    ReplicaLagMonitor(Map<String, DataSource> replicas, Duration maxLag, Duration checkInterval, WalProbe probe,
+                      Clock clock) {
+        this.replicas = Map.copyOf(replicas);
+        this.maxLagMillis = maxLag.toMillis();
+        // Enough history to tell a replica more than maxLag behind from one whose position is merely unknown
+        this.historyMillis = maxLag.toMillis() + 2 * checkInterval.toMillis();
+        this.probe = probe;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresh();
+    }
+
+    /**
+     * @return the name of a replica that may serve reads, or {@code null} if none is healthy
+     */
+    public String nextHealthyReplica() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(roundRobin.getAndIncrement(), candidates.size()));
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Last measured lag per replica; {@link #UNKNOWN_LAG} when it is unreachable, has no WAL receiver or is
+     * behind every recorded primary position.
+     */
+    public Map<String, Long> getLagMillis() {
+        return Map.copyOf(lagMillis);
+    }
+
+    synchronized void refresh() {
+        long now = clock.millis();
+        samplePrimary(now);
+        List<String> next = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> {
+            long lag;
+            try {
+                lag = lagOf(probe.replica(dataSource), now);
+            } catch (Exception ex) {
+                lag = UNKNOWN_LAG;
+                log.warn("Replica {} is unreachable: {}", name, ex.getMessage());
+            }
+            lagMillis.put(name, lag);
+            if (lag <= maxLagMillis) {
+                next.add(name);
+            } else {
+                log.debug("Replica {} is {} behind, routing reads to the primary", name,
+                        lag == UNKNOWN_LAG ? "too far" : lag + " ms");
+            }
+        });
+        healthy = List.copyOf(next);
+    }
+
+    private void samplePrimary(long now) {
+        try {
+            primarySamples.addLast(new PrimarySample(now, probe.primaryLsn()));
+        } catch (Exception ex) {
+            // Replicas are still compared against the positions recorded so far
+            log.warn("Could not read the primary WAL position: {}", ex.getMessage());
+        }
+        while (primarySamples.size() > 1 && primarySamples.peekFirst().atMillis() < now - historyMillis) {
+            primarySamples.removeFirst();
+        }
+    }
+
+    private long lagOf(ReplicaWal wal, long now) {
+        if (!wal.inRecovery()) {
+            return 0;
+        }
+        if (!wal.receiving()) {
+            return UNKNOWN_LAG;
+        }
+        Iterator<PrimarySample> newestFirst = primarySamples.descendingIterator();
+        boolean latest = true;
+        while (newestFirst.hasNext()) {
+            PrimarySample sample = newestFirst.next();
+            if (wal.replayLsn() >= sample.lsn()) {
+                // Everything written up to this sample is visible; anything missing was written after it
+                return latest ? 0 : now - sample.atMillis();
+            }
+            latest = false;
+        }
+        return UNKNOWN_LAG;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("Failed to close replica pool: {}", ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private record JdbcWalProbe(DataSource primary) implements WalProbe {
+
+        @Override
+        public long primaryLsn() throws SQLException {
+            try (Connection connection = primary.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(PRIMARY_LSN_QUERY)) {
+                if (!rs.next()) {
+                    throw new SQLException("No WAL position returned");
+                }
+                return rs.getLong(1);
+            }
+        }
+
+        @Override
+        public ReplicaWal replica(DataSource replica) throws SQLException {
+            try (Connection connection = replica.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(REPLICA_QUERY)) {
+                if (!rs.next()) {
+                    throw new SQLException("No replication status returned");
+                }
+                return new ReplicaWal(rs.getBoolean(1), rs.getBoolean(2), rs.getLong(3));
+            }
+        }
+    }
+}
@@ -112,6 +112,10 @@ public class Order {
     @Column(name = "staff_id")
     private UUID staffId;
 
+    /** Assigned by {@code OrderChangeTracker} just before commit; never written through the entity. */
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<OrderItem> items = new ArrayList<>();
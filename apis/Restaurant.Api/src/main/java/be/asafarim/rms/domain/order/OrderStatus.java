@@ -7,5 +7,9 @@ public enum OrderStatus {
     READY,
     COMPLETED,
     CANCELLED,
-    REFUNDED
+    REFUNDED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == CANCELLED || this == REFUNDED;
+    }
 }
@@ -0,0 +1,21 @@
+package be.asafarim.rms.domain.order.event;
+
+import be.asafarim.rms.domain.order.OrderItemStatus;
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published by {@code KitchenBumpService} after a station moved a set of order items to a new status.
+ */
+@Builder
+public record OrderItemsBumpedEvent(
+        String station,
+        OrderItemStatus status,
+        List<UUID> orderItemIds,
+        List<UUID> orderIds,
+        Instant occurredAt
+) {
+}
@@ -0,0 +1,36 @@
+package be.asafarim.rms.domain.order.event;
+
+import be.asafarim.rms.domain.order.OrderStatus;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published by {@code OrderService} when a new order has been persisted.
+ * Listeners should use {@code @TransactionalEventListener} so they only observe committed orders.
+ */
+@Builder
+public record OrderPlacedEvent(
+        UUID orderId,
+        UUID restaurantId,
+        UUID locationId,
+        OrderStatus status,
+        Instant estimatedReadyAt,
+        Instant occurredAt,
+        BigDecimal totalAmount,
+        BigDecimal taxAmount,
+        BigDecimal tipAmount,
+        List<Line> lines
+) {
+
+    @Builder
+    public record Line(
+            UUID orderItemId,
+            UUID menuItemId,
+            int quantity
+    ) {
+    }
+}
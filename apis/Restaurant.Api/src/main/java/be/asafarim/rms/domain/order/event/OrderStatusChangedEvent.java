@@ -0,0 +1,26 @@
+package be.asafarim.rms.domain.order.event;
+
+import be.asafarim.rms.domain.order.OrderStatus;
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by {@code OrderService} after an order moved from one status to another.
+ */
+@Builder
+public record OrderStatusChangedEvent(
+        UUID orderId,
+        UUID restaurantId,
+        UUID locationId,
+        OrderStatus previousStatus,
+        OrderStatus newStatus,
+        Instant previousStatusAt,
+        Instant estimatedReadyAt,
+        Instant placedAt,
+        Instant occurredAt,
+        String notes,
+        UUID changedBy
+) {
+}
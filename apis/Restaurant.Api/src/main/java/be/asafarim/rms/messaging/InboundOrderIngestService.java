@@ -0,0 +1,55 @@
+package be.asafarim.rms.messaging;
+
+import be.asafarim.rms.api.order.dto.OrderRequest;
+import be.asafarim.rms.api.order.dto.OrderResponse;
+import be.asafarim.rms.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Places inbound delivery-platform orders exactly once per external order ID.
+ * <p>
+ * Kafka redelivers a batch whose offsets were not committed, for instance after a rebalance or a crash between
+ * the database commit and the offset commit. The external IDs are claimed in {@code inbound_order_receipts} in
+ * the same transaction as the orders, so a redelivered order is skipped instead of placed twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InboundOrderIngestService {
+
+    private final InboundOrderReceiptStore receiptStore;
+    private final OrderService orderService;
+
+    /**
+     * @return the orders placed, in message order; duplicates of earlier deliveries are left out
+     */
+    @Transactional
+    public List<OrderResponse> placeNew(List<InboundOrderMessage> messages) {
+        Set<InboundOrderReceiptStore.Receipt> claimed = new HashSet<>(receiptStore.claim(messages.stream()
+                .map(InboundOrderMessage::receipt)
+                .filter(Objects::nonNull)
+                .toList()));
+
+        List<OrderRequest> requests = new ArrayList<>(messages.size());
+        for (InboundOrderMessage message : messages) {
+            InboundOrderReceiptStore.Receipt receipt = message.receipt();
+            // remove() so a key repeated within the batch is placed once
+            if (receipt == null || claimed.remove(receipt)) {
+                requests.add(message.toOrderRequest());
+            }
+        }
+        if (requests.size() < messages.size()) {
+            log.info("Skipped {} inbound orders already placed", messages.size() - requests.size());
+        }
+        return requests.isEmpty() ? List.of() : orderService.placeOrders(requests);
+    }
+}
@@ -0,0 +1,230 @@
+package be.asafarim.rms.messaging;
+
+import be.asafarim.rms.config.KafkaIngestConfig;
+import be.asafarim.rms.config.KafkaIngestProperties;
+import be.asafarim.rms.domain.order.OrderSource;
+import be.asafarim.rms.service.metrics.OrderMetrics;
+import be.asafarim.rms.service.metrics.OrderOperationTimer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes inbound delivery-platform orders in batches and persists each batch in one transaction through
+ * {@link InboundOrderIngestService#placeNew(List)}, which skips orders already placed by an earlier delivery.
+ * <p>
+ * Producers key records by restaurant ID, so all orders of a restaurant land on one partition and are placed
+ * in publication order. Offsets are acknowledged manually once a batch is committed. Failures are split in two:
+ * <ul>
+ *     <li>a transient database failure (connection lost, lock timeout, deadlock) is not the record's fault, so
+ *     the batch is redelivered from the first unplaced record after {@code pause-duration}, as often as it
+ *     takes, and never reaches the dead-letter topic;</li>
+ *     <li>a record that cannot be mapped, or that fails on its own when the batch is replayed record by record,
+ *     is a poison record and goes to the error handler, which dead-letters it.</li>
+ * </ul>
+ * When persisting a batch takes longer than the configured threshold the container is paused for a while so the
+ * pool can recover.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rms.ingest.kafka", name = "enabled", havingValue = "true")
+@Slf4j
+public class InboundOrderListener {
+
+    public static final String LISTENER_ID = "inbound-orders";
+
+    private final InboundOrderIngestService ingestService;
+    private final KafkaIngestProperties properties;
+    private final KafkaListenerEndpointRegistry registry;
+    private final OrderMetrics orderMetrics;
+    private final Counter ingested;
+    private final Counter duplicates;
+    private final Counter rejected;
+    private final Counter retried;
+    private final Timer batchTimer;
+    private final ScheduledExecutorService resumer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "inbound-orders-resume");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InboundOrderListener(InboundOrderIngestService ingestService,
+                                KafkaIngestProperties properties,
+                                KafkaListenerEndpointRegistry registry,
+                                OrderMetrics orderMetrics,
+                                MeterRegistry meterRegistry) {
+        this.ingestService = ingestService;
+        this.properties = properties;
+        this.registry = registry;
+        this.orderMetrics = orderMetrics;
+        this.ingested = Counter.builder("rms.ingest.orders")
+                .description("Inbound orders persisted from Kafka")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("rms.ingest.orders.duplicate")
+                .description("Redelivered inbound orders skipped because they were already placed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("rms.ingest.orders.rejected")
+                .description("Inbound orders sent to the dead-letter topic")
+                .register(meterRegistry);
+        this.retried = Counter.builder("rms.ingest.batch.retried")
+                .description("Batches redelivered after a transient database failure")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("rms.ingest.batch")
+                .description("Time to persist one batch of inbound orders")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(id = LISTENER_ID,
+            topics = "${rms.ingest.kafka.topic:orders.inbound}",
+            containerFactory = KafkaIngestConfig.CONTAINER_FACTORY)
+    public void onBatch(List<ConsumerRecord<String, InboundOrderMessage>> records, Acknowledgment ack) {
+        List<InboundOrderMessage> messages = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, InboundOrderMessage> record : records) {
+            try {
+                if (record.value() == null) {
+                    throw new IllegalArgumentException("Record at offset " + record.offset() + " could not be deserialized");
+                }
+                record.value().validate();
+            } catch (IllegalArgumentException ex) {
+                // Persist the valid prefix; the error handler commits it and dead-letters this record.
+                if (!persist(records, messages, ack)) {
+                    return;
+                }
+                rejected.increment();
+                throw new BatchListenerFailedException(ex.getMessage(), ex, record);
+            }
+            messages.add(record.value());
+        }
+
+        if (persist(records, messages, ack)) {
+            ack.acknowledge();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        resumer.shutdownNow();
+    }
+
+    /**
+     * Places {@code messages}, the leading records of {@code records}.
+     *
+     * @return {@code false} if a transient failure left some of them unplaced and the batch was handed back for
+     * redelivery; the caller must then neither acknowledge nor fail the batch
+     */
+    private boolean persist(List<ConsumerRecord<String, InboundOrderMessage>> records,
+                            List<InboundOrderMessage> messages,
+                            Acknowledgment ack) {
+        if (messages.isEmpty()) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            placed(place(messages), messages.size());
+        } catch (RuntimeException ex) {
+            if (isTransient(ex)) {
+                redeliverFrom(0, ack, ex);
+                return false;
+            }
+            log.warn("Batch of {} inbound orders failed, isolating the offending record: {}",
+                    messages.size(), ex.getMessage());
+            if (!persistIndividually(records, messages, ack)) {
+                return false;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (elapsed > properties.slowBatchThreshold().toNanos()) {
+            pause("batch of " + messages.size() + " took " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+        }
+        return true;
+    }
+
+    private boolean persistIndividually(List<ConsumerRecord<String, InboundOrderMessage>> records,
+                                        List<InboundOrderMessage> messages,
+                                        Acknowledgment ack) {
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                placed(place(List.of(messages.get(i))), 1);
+            } catch (RuntimeException ex) {
+                if (isTransient(ex)) {
+                    redeliverFrom(i, ack, ex);
+                    return false;
+                }
+                rejected.increment();
+                throw new BatchListenerFailedException(ex.getMessage(), ex, records.get(i));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Places one batch, timed as {@code place_batch} around the ingest transaction so the commit is included.
+     *
+     * @return how many of the orders were new
+     */
+    private int place(List<InboundOrderMessage> messages) {
+        try (OrderOperationTimer timer = orderMetrics.start("place_batch")) {
+            for (InboundOrderMessage message : messages) {
+                timer.include(message.restaurantId(), OrderSource.THIRD_PARTY, message.type());
+            }
+            return timer.success(ingestService.placeNew(messages)).size();
+        }
+    }
+
+    private void placed(int placed, int delivered) {
+        ingested.increment(placed);
+        duplicates.increment(delivered - placed);
+    }
+
+    /**
+     * Commits the offsets before {@code index} and seeks back to it. The container sleeps for
+     * {@code pause-duration} while still polling, so the consumer keeps its partitions.
+     */
+    private void redeliverFrom(int index, Acknowledgment ack, RuntimeException cause) {
+        log.warn("Database unavailable, redelivering inbound orders in {}: {}",
+                properties.pauseDuration(), cause.getMessage());
+        retried.increment();
+        ack.nack(index, properties.pauseDuration());
+    }
+
+    private static boolean isTransient(Throwable ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    private void pause(String reason) {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container == null || container.isPauseRequested()) {
+            return;
+        }
+        log.warn("Pausing inbound order consumption for {}: {}", properties.pauseDuration(), reason);
+        container.pause();
+        resumer.schedule(() -> {
+            log.info("Resuming inbound order consumption");
+            container.resume();
+        }, properties.pauseDuration().toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
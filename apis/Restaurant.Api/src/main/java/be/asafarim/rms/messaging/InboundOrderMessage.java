@@ -0,0 +1,86 @@
+package be.asafarim.rms.messaging;
+
+import be.asafarim.rms.api.order.dto.ModifierRequest;
+import be.asafarim.rms.api.order.dto.OrderItemRequest;
+import be.asafarim.rms.api.order.dto.OrderRequest;
+import be.asafarim.rms.domain.order.OrderSource;
+import be.asafarim.rms.domain.order.OrderType;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Order as published by a delivery-platform integration on the inbound orders topic.
+ */
+@Builder
+public record InboundOrderMessage(
+        String platform,
+        String externalOrderId,
+        UUID restaurantId,
+        UUID locationId,
+        OrderType type,
+        UUID customerId,
+        List<Item> items,
+        String notes
+) {
+
+    @Builder
+    public record Item(
+            UUID menuItemId,
+            int quantity,
+            String notes,
+            List<UUID> modifierOptionIds
+    ) {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the message lacks data required to place an order
+     */
+    public void validate() {
+        if (restaurantId == null || locationId == null || type == null) {
+            throw new IllegalArgumentException("Inbound order " + externalOrderId
+                    + " is missing restaurantId, locationId or type");
+        }
+        if (items == null || items.isEmpty() || items.stream().anyMatch(i -> i.menuItemId() == null)) {
+            throw new IllegalArgumentException("Inbound order " + externalOrderId + " has no valid items");
+        }
+    }
+
+    /**
+     * The key this order is deduplicated under, or {@code null} when the platform sent no external ID
+     */
+    public InboundOrderReceiptStore.Receipt receipt() {
+        return externalOrderId == null ? null
+                : new InboundOrderReceiptStore.Receipt(platform != null ? platform : "", externalOrderId);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the message lacks data required to place an order
+     */
+    public OrderRequest toOrderRequest() {
+        validate();
+
+        List<OrderItemRequest> itemRequests = items.stream()
+                .map(item -> OrderItemRequest.builder()
+                        .menuItemId(item.menuItemId())
+                        .quantity(item.quantity())
+                        .notes(item.notes())
+                        .modifiers(item.modifierOptionIds() == null ? null : item.modifierOptionIds().stream()
+                                .map(ModifierRequest::new)
+                                .toList())
+                        .build())
+                .toList();
+
+        String reference = platform != null ? "[" + platform + " " + externalOrderId + "]" : null;
+        return OrderRequest.builder()
+                .restaurantId(restaurantId)
+                .locationId(locationId)
+                .type(type)
+                .customerId(customerId)
+                .items(itemRequests)
+                .notes(reference == null ? notes : notes == null ? reference : reference + " " + notes)
+                .source(OrderSource.THIRD_PARTY)
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package be.asafarim.rms.messaging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC access to {@code inbound_order_receipts}, the external IDs of delivery-platform orders already placed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InboundOrderReceiptStore {
+
+    // A key taken by a concurrent, uncommitted claim blocks until that transaction ends, then counts as taken.
+    private static final String CLAIM = """
+            INSERT INTO inbound_order_receipts (platform, external_order_id)
+            SELECT * FROM unnest(CAST(? AS VARCHAR[]), CAST(? AS VARCHAR[]))
+            ON CONFLICT DO NOTHING
+            RETURNING platform, external_order_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Receipt(String platform, String externalOrderId) {
+    }
+
+    /**
+     * Records {@code receipts} in the current transaction.
+     *
+     * @return the receipts that were not recorded before; a key repeated within {@code receipts} is returned once
+     */
+    public List<Receipt> claim(Collection<Receipt> receipts) {
+        if (receipts.isEmpty()) {
+            return List.of();
+        }
+        String[] platforms = receipts.stream().map(Receipt::platform).toArray(String[]::new);
+        String[] externalIds = receipts.stream().map(Receipt::externalOrderId).toArray(String[]::new);
+        return jdbcTemplate.query(CLAIM,
+                (rs, rowNum) -> new Receipt(rs.getString("platform"), rs.getString("external_order_id")),
+                platforms, externalIds);
+    }
+}
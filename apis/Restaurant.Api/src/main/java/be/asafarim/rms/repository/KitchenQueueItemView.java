@@ -0,0 +1,26 @@
+package be.asafarim.rms.repository;
+
+import java.util.UUID;
+
+/**
+ * One item of a non-terminal order, used to rebuild the ETA predictor's kitchen queues. Timestamps are epoch
+ * milliseconds; {@code startedAtMillis} is {@code null} until the order went {@code IN_PROGRESS}.
+ */
+public interface KitchenQueueItemView {
+
+    UUID getOrderId();
+
+    UUID getLocationId();
+
+    Number getPlacedAtMillis();
+
+    Number getStartedAtMillis();
+
+    UUID getOrderItemId();
+
+    UUID getMenuItemId();
+
+    Number getQuantity();
+
+    String getItemStatus();
+}
@@ -0,0 +1,15 @@
+package be.asafarim.rms.repository;
+
+import java.util.UUID;
+
+/**
+ * Historical preparation time of one menu item, used to seed the ETA predictor.
+ */
+public interface MenuItemPrepTimeView {
+
+    UUID getMenuItemId();
+
+    Number getSamples();
+
+    Number getAvgMillis();
+}
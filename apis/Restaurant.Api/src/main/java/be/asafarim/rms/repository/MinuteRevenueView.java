@@ -0,0 +1,23 @@
+package be.asafarim.rms.repository;
+
+import java.util.UUID;
+
+/**
+ * Per-location, per-minute order aggregates used to backfill the live revenue buffers.
+ */
+public interface MinuteRevenueView {
+
+    UUID getLocationId();
+
+    Number getEpochMinute();
+
+    Number getRevenue();
+
+    Number getOrders();
+
+    Number getTips();
+
+    Number getPrepared();
+
+    Number getPrepMillis();
+}
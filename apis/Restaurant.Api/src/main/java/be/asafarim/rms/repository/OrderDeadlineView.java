@@ -0,0 +1,22 @@
+package be.asafarim.rms.repository;
+
+import be.asafarim.rms.domain.order.OrderStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lightweight projection used to rebuild in-memory order deadlines without loading aggregates.
+ */
+public interface OrderDeadlineView {
+
+    UUID getId();
+
+    OrderStatus getStatus();
+
+    Instant getCreatedAt();
+
+    Instant getUpdatedAt();
+
+    Instant getEstimatedReadyAt();
+}
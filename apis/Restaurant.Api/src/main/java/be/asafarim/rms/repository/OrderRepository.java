@@ -25,6 +25,11 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     List<Order> findByRestaurantIdAndStatusIn(UUID restaurantId, List<OrderStatus> statuses);
 
+    List<Order> findByLocationIdAndChangeVersionGreaterThanOrderByChangeVersionAsc(
+            UUID locationId, long changeVersion, Pageable pageable);
+
+    List<Order> findByLocationIdAndChangeVersion(UUID locationId, long changeVersion);
+
     @Query("SELECT o FROM Order o WHERE o.restaurantId = :restaurantId " +
             "AND o.createdAt BETWEEN :start AND :end")
     List<Order> findByRestaurantIdAndDateRange(
@@ -40,6 +45,43 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             "AND FUNCTION('DATE', o.createdAt) = CURRENT_DATE")
     long countTodayOrders(@Param("restaurantId") UUID restaurantId);
 
+    @Query("SELECT o.id AS id, o.status AS status, o.createdAt AS createdAt, " +
+            "o.updatedAt AS updatedAt, o.estimatedReadyAt AS estimatedReadyAt " +
+            "FROM Order o WHERE o.status IN :statuses")
+    List<OrderDeadlineView> findDeadlineViewsByStatusIn(@Param("statuses") List<OrderStatus> statuses);
+
+    @Query(value = "SELECT location_id AS locationId, " +
+            "CAST(FLOOR(EXTRACT(EPOCH FROM created_at) / 60) AS BIGINT) AS epochMinute, " +
+            "SUM(total_amount) AS revenue, COUNT(*) AS orders, SUM(tip_amount) AS tips, " +
+            "0 AS prepared, 0 AS prepMillis " +
+            "FROM orders WHERE created_at >= :since GROUP BY 1, 2", nativeQuery = true)
+    List<MinuteRevenueView> aggregateRevenueByMinute(@Param("since") Instant since);
+
+    @Query(value = "SELECT location_id AS locationId, " +
+            "CAST(FLOOR(EXTRACT(EPOCH FROM ready_at) / 60) AS BIGINT) AS epochMinute, " +
+            "0 AS revenue, 0 AS orders, 0 AS tips, COUNT(*) AS prepared, " +
+            "SUM(EXTRACT(EPOCH FROM (ready_at - created_at)) * 1000) AS prepMillis " +
+            "FROM orders WHERE ready_at >= :since GROUP BY 1, 2", nativeQuery = true)
+    List<MinuteRevenueView> aggregatePrepTimeByMinute(@Param("since") Instant since);
+
+    @Query(value = "SELECT i.menu_item_id AS menuItemId, COUNT(*) AS samples, AVG(p.millis) AS avgMillis " +
+            "FROM order_items i JOIN orders o ON o.id = i.order_id " +
+            "CROSS JOIN LATERAL (SELECT EXTRACT(EPOCH FROM (COALESCE(i.prepared_at, o.ready_at) - COALESCE(" +
+            "(SELECT MIN(h.created_at) FROM order_status_history h " +
+            "WHERE h.order_id = o.id AND h.status = 'IN_PROGRESS'), o.created_at))) * 1000 AS millis) p " +
+            "WHERE COALESCE(i.prepared_at, o.ready_at) >= :since AND i.status <> 'CANCELLED' AND p.millis > 0 " +
+            "GROUP BY i.menu_item_id", nativeQuery = true)
+    List<MenuItemPrepTimeView> aggregatePrepTimeByMenuItem(@Param("since") Instant since);
+
+    @Query(value = "SELECT o.id AS orderId, o.location_id AS locationId, " +
+            "CAST(EXTRACT(EPOCH FROM o.created_at) * 1000 AS BIGINT) AS placedAtMillis, " +
+            "CAST(EXTRACT(EPOCH FROM (SELECT MIN(h.created_at) FROM order_status_history h " +
+            "WHERE h.order_id = o.id AND h.status = 'IN_PROGRESS')) * 1000 AS BIGINT) AS startedAtMillis, " +
+            "i.id AS orderItemId, i.menu_item_id AS menuItemId, i.quantity AS quantity, i.status AS itemStatus " +
+            "FROM orders o JOIN order_items i ON i.order_id = o.id " +
+            "WHERE o.status IN ('PENDING', 'CONFIRMED', 'IN_PROGRESS') ORDER BY o.created_at, o.id", nativeQuery = true)
+    List<KitchenQueueItemView> findKitchenQueueItems();
+
     @Query("SELECT MAX(o.orderNumber) FROM Order o WHERE o.restaurantId = :restaurantId " +
             "AND o.orderNumber LIKE :prefix%")
     Optional<String> findLastOrderNumber(
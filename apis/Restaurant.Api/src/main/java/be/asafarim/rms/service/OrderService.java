@@ -2,12 +2,22 @@ package be.asafarim.rms.service;
 
 import be.asafarim.rms.api.order.dto.*;
 import be.asafarim.rms.domain.order.*;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
 import be.asafarim.rms.exception.OrderNotFoundException;
 import be.asafarim.rms.exception.InvalidOrderStateException;
 import be.asafarim.rms.repository.OrderRepository;
+import be.asafarim.rms.service.eta.EtaPredictor;
+import be.asafarim.rms.service.loyalty.LoyaltyLedger;
+import be.asafarim.rms.service.metrics.OrderMetrics;
+import be.asafarim.rms.service.metrics.OrderOperationTimer;
+import be.asafarim.rms.service.sync.OrderChangeTracker;
+import be.asafarim.rms.service.sync.OrderChangeVersionStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,7 +26,10 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -25,10 +38,20 @@ import java.util.UUID;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EtaPredictor etaPredictor;
+    private final LoyaltyLedger loyaltyLedger;
+    private final OrderMetrics orderMetrics;
+    private final OrderChangeVersionStore changeVersions;
+    private final OrderChangeTracker changeTracker;
     // In a real implementation, you'd inject MenuService, InventoryService, etc.
 
     private static final BigDecimal DEFAULT_TAX_RATE = new BigDecimal("0.09"); // 9% VAT
+    private static final int MAX_CHANGES_PAGE = 500;
 
+    /**
+     * Callers time this as the {@code place} operation, so the commit is included.
+     */
     @Transactional
     public OrderResponse placeOrder(OrderRequest request) {
         log.info("Placing order for restaurant: {}", request.restaurantId());
@@ -36,130 +59,345 @@ public class OrderService {
         // Generate order number
         String orderNumber = generateOrderNumber(request.restaurantId());
 
-        // Create order entity
-        Order order = Order.builder()
-                .restaurantId(request.restaurantId())
-                .locationId(request.locationId())
-                .orderNumber(orderNumber)
-                .type(request.type())
-                .tableId(request.tableId())
-                .customerId(request.customerId())
-                .discountCode(request.discountCode())
-                .loyaltyPointsUsed(request.loyaltyPointsToUse() != null ? request.loyaltyPointsToUse() : 0)
-                .notes(request.notes())
-                .source(OrderSource.POS)
-                .status(OrderStatus.PENDING)
-                .build();
-
-        // Process order items
-        for (OrderItemRequest itemRequest : request.items()) {
-            OrderItem orderItem = createOrderItem(itemRequest);
-            order.addItem(orderItem);
-        }
-
-        // Calculate totals
-        order.calculateTotals();
-
-        // Calculate loyalty points earned (1 point per euro)
-        int pointsEarned = order.getTotalAmount().intValue();
-        order.setLoyaltyPointsEarned(pointsEarned);
-
-        // Set estimated ready time (15 mins from now for demo)
-        order.setEstimatedReadyAt(Instant.now().plusSeconds(900));
-
-        // Add initial status to history
-        order.updateStatus(OrderStatus.PENDING, null, "Order created");
+        Order order = buildOrder(request, orderNumber);
 
         // Save order
         Order savedOrder = orderRepository.save(order);
 
         log.info("Order placed successfully: {}", savedOrder.getOrderNumber());
 
+        publishPlaced(savedOrder);
+
         // In a real system, publish OrderPlacedEvent to Kafka here
         // kafkaTemplate.send("orders.placed", new OrderPlacedEvent(savedOrder));
 
+        applyStampedVersions(List.of(savedOrder));
         return mapToResponse(savedOrder);
     }
 
+    /**
+     * Places a batch of orders in a single transaction. Order numbers are allocated once per restaurant
+     * and incremented in memory, so the batch issues one sequence lookup per restaurant instead of one per order.
+     * Callers time this as the {@code place_batch} operation, so the commit is included.
+     */
+    @Transactional
+    public List<OrderResponse> placeOrders(List<OrderRequest> requests) {
+        Map<UUID, String> lastOrderNumbers = new HashMap<>();
+        List<Order> orders = new ArrayList<>(requests.size());
+
+        for (OrderRequest request : requests) {
+            String orderNumber = lastOrderNumbers.compute(request.restaurantId(),
+                    (restaurantId, last) -> last == null
+                            ? generateOrderNumber(restaurantId)
+                            : nextOrderNumber(last));
+            orders.add(buildOrder(request, orderNumber));
+        }
+
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        savedOrders.forEach(this::publishPlaced);
+
+        log.info("Placed batch of {} orders", savedOrders.size());
+
+        applyStampedVersions(savedOrders);
+        return savedOrders.stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public OrderResponse getOrder(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException(orderId));
-        return mapToResponse(order);
+        try (OrderOperationTimer timer = orderMetrics.start("get")) {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new OrderNotFoundException(orderId));
+            timer.tag(order);
+            return timer.success(mapToResponse(order));
+        }
     }
 
     @Transactional(readOnly = true)
     public OrderResponse getOrderByNumber(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
-                .orElseThrow(() -> new OrderNotFoundException(orderNumber));
-        return mapToResponse(order);
+        try (OrderOperationTimer timer = orderMetrics.start("get_by_number")) {
+            Order order = orderRepository.findByOrderNumber(orderNumber)
+                    .orElseThrow(() -> new OrderNotFoundException(orderNumber));
+            timer.tag(order);
+            return timer.success(mapToResponse(order));
+        }
     }
 
     @Transactional(readOnly = true)
     public Page<OrderResponse> getOrders(UUID restaurantId, Pageable pageable) {
-        return orderRepository.findByRestaurantId(restaurantId, pageable)
-                .map(this::mapToResponse);
+        try (OrderOperationTimer timer = orderMetrics.start("list").restaurant(restaurantId)) {
+            return timer.success(orderRepository.findByRestaurantId(restaurantId, pageable)
+                    .map(this::mapToResponse));
+        }
     }
 
     @Transactional(readOnly = true)
     public Page<OrderResponse> getOrdersByStatus(UUID restaurantId, OrderStatus status, Pageable pageable) {
-        return orderRepository.findByRestaurantIdAndStatus(restaurantId, status, pageable)
-                .map(this::mapToResponse);
+        try (OrderOperationTimer timer = orderMetrics.start("list_by_status").restaurant(restaurantId)) {
+            return timer.success(orderRepository.findByRestaurantIdAndStatus(restaurantId, status, pageable)
+                    .map(this::mapToResponse));
+        }
     }
 
+    /**
+     * Orders of a location whose change version is above {@code since}. When nothing changed this is a single
+     * primary-key lookup. Orders stamped in the same transaction share a version and are never split across
+     * pages.
+     */
+    @Transactional(readOnly = true)
+    public OrderChangesResponse getOrderChanges(UUID locationId, long since, int limit) {
+        try (OrderOperationTimer timer = orderMetrics.start("changes")) {
+            int pageSize = Math.clamp(limit, 1, MAX_CHANGES_PAGE);
+            long current = changeVersions.locationVersion(locationId);
+            if (since >= current) {
+                return timer.success(OrderChangesResponse.builder()
+                        .locationId(locationId)
+                        .since(since)
+                        .version(current)
+                        .changes(List.of())
+                        .build());
+            }
+
+            List<Order> changed = orderRepository.findByLocationIdAndChangeVersionGreaterThanOrderByChangeVersionAsc(
+                    locationId, since, PageRequest.of(0, pageSize + 1));
+            boolean hasMore = changed.size() > pageSize;
+            if (hasMore) {
+                long boundary = changed.get(pageSize).getChangeVersion();
+                changed = changed.subList(0, pageSize).stream()
+                        .filter(order -> order.getChangeVersion() < boundary)
+                        .toList();
+                if (changed.isEmpty()) {
+                    // A single transaction wrote more orders than fit on a page; send it whole.
+                    changed = orderRepository.findByLocationIdAndChangeVersion(locationId, boundary);
+                }
+            }
+
+            long lastVersion = changed.isEmpty() ? since : changed.get(changed.size() - 1).getChangeVersion();
+            return timer.success(OrderChangesResponse.builder()
+                    .locationId(locationId)
+                    .since(since)
+                    .version(hasMore ? lastVersion : Math.max(current, lastVersion))
+                    .hasMore(hasMore)
+                    .changes(changed.stream().map(this::mapToChange).toList())
+                    .build());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long getLocationChangeVersion(UUID locationId) {
+        return changeVersions.locationVersion(locationId);
+    }
+
+    @Transactional(readOnly = true)
+    public long getRestaurantChangeVersion(UUID restaurantId) {
+        return changeVersions.restaurantVersion(restaurantId);
+    }
+
+    @Transactional(readOnly = true)
+    public long getOrderChangeVersion(UUID orderId) {
+        return changeVersions.orderVersion(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+    }
+
+    /**
+     * Callers time this as the {@code update_status} operation, so the commit is included; the timer is only
+     * tagged here once the order is loaded.
+     */
     @Transactional
-    public OrderResponse updateOrderStatus(UUID orderId, UpdateStatusRequest request, UUID changedBy) {
+    public OrderResponse updateOrderStatus(UUID orderId, UpdateStatusRequest request, UUID changedBy,
+                                           OrderOperationTimer timer) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        timer.tag(order);
 
-        validateStatusTransition(order.getStatus(), request.status());
+        OrderStatus previousStatus = order.getStatus();
+        Instant previousStatusAt = lastStatusChangeAt(order);
+        validateStatusTransition(previousStatus, request.status());
 
         order.updateStatus(request.status(), changedBy, request.notes());
 
         Order savedOrder = orderRepository.save(order);
 
         log.info("Order {} status updated to {}", savedOrder.getOrderNumber(), request.status());
+        publishStatusChanged(savedOrder, previousStatus, previousStatusAt, request.notes(), changedBy);
 
         // In a real system, publish OrderStatusChangedEvent to Kafka
         // kafkaTemplate.send("orders.status-changed", new OrderStatusChangedEvent(savedOrder));
 
+        applyStampedVersions(List.of(savedOrder));
         return mapToResponse(savedOrder);
     }
 
+    /**
+     * Callers time this as the {@code cancel} operation, so the commit is included; the timer is only tagged
+     * here once the order is loaded.
+     */
     @Transactional
-    public OrderResponse cancelOrder(UUID orderId, String reason, UUID cancelledBy) {
+    public OrderResponse cancelOrder(UUID orderId, String reason, UUID cancelledBy, OrderOperationTimer timer) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        timer.tag(order);
 
         if (order.getStatus() == OrderStatus.COMPLETED || order.getStatus() == OrderStatus.CANCELLED) {
+            orderMetrics.invalidTransition(order.getStatus(), OrderStatus.CANCELLED);
             throw new InvalidOrderStateException(
                     "Cannot cancel order in status: " + order.getStatus());
         }
 
+        OrderStatus previousStatus = order.getStatus();
+        Instant previousStatusAt = lastStatusChangeAt(order);
         order.setCancellationReason(reason);
         order.updateStatus(OrderStatus.CANCELLED, cancelledBy, reason);
 
         Order savedOrder = orderRepository.save(order);
 
         log.info("Order {} cancelled: {}", savedOrder.getOrderNumber(), reason);
+        loyaltyLedger.reverseOrder(savedOrder);
+        publishStatusChanged(savedOrder, previousStatus, previousStatusAt, reason, cancelledBy);
 
+        applyStampedVersions(List.of(savedOrder));
         return mapToResponse(savedOrder);
     }
 
+    /**
+     * Cancels an order that is still {@code PENDING}. Used by the deadline sweeper, which may race with a
+     * concurrent confirmation; in that case the order is left untouched. The sweeper times this as the
+     * {@code auto_cancel} operation, so the commit is included.
+     *
+     * @return {@code true} if the order was cancelled
+     */
+    @Transactional
+    public boolean cancelIfStillPending(UUID orderId, String reason, OrderOperationTimer timer) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        timer.tag(order);
+
+        if (order.getStatus() != OrderStatus.PENDING) {
+            return false;
+        }
+
+        Instant previousStatusAt = lastStatusChangeAt(order);
+        order.setCancellationReason(reason);
+        order.updateStatus(OrderStatus.CANCELLED, null, reason);
+        Order savedOrder = orderRepository.save(order);
+
+        log.info("Order {} auto-cancelled: {}", savedOrder.getOrderNumber(), reason);
+        loyaltyLedger.reverseOrder(savedOrder);
+        publishStatusChanged(savedOrder, OrderStatus.PENDING, previousStatusAt, reason, null);
+        return true;
+    }
+
     // Helper methods
 
+    private Order buildOrder(OrderRequest request, String orderNumber) {
+        // Create order entity
+        Order order = Order.builder()
+                .restaurantId(request.restaurantId())
+                .locationId(request.locationId())
+                .orderNumber(orderNumber)
+                .type(request.type())
+                .tableId(request.tableId())
+                .customerId(request.customerId())
+                .discountCode(request.discountCode())
+                .loyaltyPointsUsed(request.loyaltyPointsToUse() != null ? request.loyaltyPointsToUse() : 0)
+                .notes(request.notes())
+                .source(request.sourceOrDefault())
+                .status(OrderStatus.PENDING)
+                .build();
+
+        // Process order items
+        for (OrderItemRequest itemRequest : request.items()) {
+            OrderItem orderItem = createOrderItem(itemRequest);
+            order.addItem(orderItem);
+        }
+
+        // Calculate totals
+        order.calculateTotals();
+
+        // Calculate loyalty points earned (1 point per euro)
+        int pointsEarned = order.getTotalAmount().intValue();
+        order.setLoyaltyPointsEarned(pointsEarned);
+
+        // Estimate ready time from the current kitchen load (in memory, no query)
+        order.setEstimatedReadyAt(etaPredictor.estimate(order.getLocationId(), order.getItems()));
+
+        // Redeem points against the stored balance; earned points are credited when the order commits
+        loyaltyLedger.applyOrder(order);
+
+        // Add initial status to history
+        order.updateStatus(OrderStatus.PENDING, null, "Order created");
+
+        return order;
+    }
+
+    private void publishPlaced(Order order) {
+        eventPublisher.publishEvent(OrderPlacedEvent.builder()
+                .orderId(order.getId())
+                .restaurantId(order.getRestaurantId())
+                .locationId(order.getLocationId())
+                .status(order.getStatus())
+                .estimatedReadyAt(order.getEstimatedReadyAt())
+                .occurredAt(Instant.now())
+                .totalAmount(order.getTotalAmount())
+                .taxAmount(order.getTaxAmount())
+                .tipAmount(order.getTipAmount())
+                .lines(order.getItems().stream()
+                        .map(item -> OrderPlacedEvent.Line.builder()
+                                .orderItemId(item.getId())
+                                .menuItemId(item.getMenuItemId())
+                                .quantity(item.getQuantity())
+                                .build())
+                        .toList())
+                .build());
+    }
+
+    private void publishStatusChanged(Order order, OrderStatus previousStatus, Instant previousStatusAt,
+                                      String notes, UUID changedBy) {
+        eventPublisher.publishEvent(OrderStatusChangedEvent.builder()
+                .orderId(order.getId())
+                .restaurantId(order.getRestaurantId())
+                .locationId(order.getLocationId())
+                .previousStatus(previousStatus)
+                .newStatus(order.getStatus())
+                .previousStatusAt(previousStatusAt)
+                .estimatedReadyAt(order.getEstimatedReadyAt())
+                .placedAt(order.getCreatedAt())
+                .occurredAt(Instant.now())
+                .notes(notes)
+                .changedBy(changedBy)
+                .build());
+    }
+
+    /**
+     * When the order entered its current status, from {@link OrderStatusHistory}. Must be called before the
+     * next status is added.
+     */
+    private Instant lastStatusChangeAt(Order order) {
+        Instant last = null;
+        for (OrderStatusHistory history : order.getStatusHistory()) {
+            if (history.getCreatedAt() != null && (last == null || history.getCreatedAt().isAfter(last))) {
+                last = history.getCreatedAt();
+            }
+        }
+        return last != null ? last : order.getCreatedAt();
+    }
+
     private String generateOrderNumber(UUID restaurantId) {
         String prefix = "ORD-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-";
         
         return orderRepository.findLastOrderNumber(restaurantId, prefix)
-                .map(lastNumber -> {
-                    String seqPart = lastNumber.substring(prefix.length());
-                    int nextSeq = Integer.parseInt(seqPart) + 1;
-                    return prefix + String.format("%04d", nextSeq);
-                })
+                .map(this::nextOrderNumber)
                 .orElse(prefix + "0001");
     }
 
+    private String nextOrderNumber(String lastNumber) {
+        int separator = lastNumber.lastIndexOf('-') + 1;
+        String prefix = lastNumber.substring(0, separator);
+        int nextSeq = Integer.parseInt(lastNumber.substring(separator)) + 1;
+        return prefix + String.format("%04d", nextSeq);
+    }
+
     private OrderItem createOrderItem(OrderItemRequest itemRequest) {
         // In a real implementation, fetch menu item from MenuService
         BigDecimal unitPrice = new BigDecimal("12.50"); // Demo price
@@ -198,11 +436,27 @@ public class OrderService {
         };
 
         if (!valid) {
+            orderMetrics.invalidTransition(current, target);
             throw new InvalidOrderStateException(
                     String.format("Invalid status transition from %s to %s", current, target));
         }
     }
 
+    /**
+     * Stamps the orders of this transaction now, so their responses carry the change version they commit with
+     * instead of the one they were loaded with. {@code change_version} is not updatable through the entity, so
+     * setting it writes nothing.
+     */
+    private void applyStampedVersions(List<Order> orders) {
+        Map<UUID, Long> versions = changeTracker.stampPending();
+        for (Order order : orders) {
+            Long version = versions.get(order.getId());
+            if (version != null) {
+                order.setChangeVersion(version);
+            }
+        }
+    }
+
     private OrderResponse mapToResponse(Order order) {
         List<OrderItemResponse> itemResponses = order.getItems().stream()
                 .map(this::mapItemToResponse)
@@ -231,11 +485,23 @@ public class OrderService {
                 .loyaltyPointsEarned(order.getLoyaltyPointsEarned())
                 .estimatedReadyAt(order.getEstimatedReadyAt())
                 .createdAt(order.getCreatedAt())
+                .changeVersion(order.getChangeVersion())
                 .items(itemResponses)
                 .statusHistory(historyResponses)
                 .build();
     }
 
+    private OrderChangeResponse mapToChange(Order order) {
+        boolean tombstone = order.getStatus().isTerminal();
+        return OrderChangeResponse.builder()
+                .orderId(order.getId())
+                .changeVersion(order.getChangeVersion())
+                .status(order.getStatus())
+                .tombstone(tombstone)
+                .order(tombstone ? null : mapToResponse(order))
+                .build();
+    }
+
     private OrderItemResponse mapItemToResponse(OrderItem item) {
         List<ModifierResponse> modifierResponses = item.getModifiers().stream()
                 .map(m -> ModifierResponse.builder()
@@ -0,0 +1,66 @@
+package be.asafarim.rms.service.admission;
+
+import be.asafarim.rms.config.AdmissionProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global limit on concurrent order writes that adapts to observed latency using additive-increase /
+ * multiplicative-decrease: each call completing under the latency target grows the limit by {@code 1/limit}
+ * (about one per round trip of the whole window), each slow or failed call shrinks it by the backoff ratio.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Current limit as raw {@code double} bits so it can be updated with compare-and-set. */
+    private final AtomicLong limitBits;
+
+    public AdaptiveConcurrencyLimiter(AdmissionProperties.Concurrency config) {
+        this.minLimit = config.minLimit();
+        this.maxLimit = config.maxLimit();
+        this.latencyTargetNanos = config.latencyTarget().toNanos();
+        this.backoffRatio = config.backoffRatio();
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(
+                Math.clamp(config.initialLimit(), minLimit, maxLimit)));
+    }
+
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean success) {
+        inFlight.decrementAndGet();
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double updated = success && latencyNanos <= latencyTargetNanos
+                    ? Math.min(maxLimit, limit + 1.0 / limit)
+                    : Math.max(minLimit, limit * backoffRatio);
+            if (updated == limit || limitBits.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+                return;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,40 @@
+package be.asafarim.rms.service.admission;
+
+import be.asafarim.rms.config.AdmissionProperties;
+import be.asafarim.rms.domain.order.OrderSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Who an order write is rate limited as, in this order: a configured client whose API key the request carries
+ * (limited at that client's source rate), the authenticated principal, or the client address. Unknown API keys
+ * are ignored and the {@code source} in the request body never counts, so a client cannot escape its limit by
+ * changing what it sends.
+ *
+ * @param key    identity the per-caller token bucket is kept under
+ * @param source source whose rate applies, from the client's configuration; {@code null} for the default
+ */
+public record AdmissionCaller(String key, OrderSource source) {
+
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    public static AdmissionCaller of(AdmissionProperties properties, String apiKey,
+                                     Authentication authentication, String remoteAddress) {
+        String clientId = properties.clientId(apiKey).orElse(null);
+        if (clientId != null) {
+            return new AdmissionCaller("client:" + clientId, properties.clients().get(clientId).source());
+        }
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return new AdmissionCaller("address:" + remoteAddress, null);
+        }
+        return new AdmissionCaller("principal:" + authentication.getName(), null);
+    }
+
+    /**
+     * The {@code source} tag of admission meters: an {@link OrderSource} name or {@code default}
+     */
+    public String sourceTag() {
+        return source != null ? source.name() : "default";
+    }
+}
@@ -0,0 +1,163 @@
+package be.asafarim.rms.service.admission;
+
+import be.asafarim.rms.config.AdmissionProperties;
+import be.asafarim.rms.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for order writes. A request must pass, in order, the token bucket of its caller (see
+ * {@link AdmissionCaller}), the token bucket of its restaurant and the global adaptive concurrency limit.
+ * Permits taken by earlier checks are refunded when a later one rejects, so a rejected request costs nothing.
+ * Rejections fail fast with {@link AdmissionRejectedException} so a single noisy integration cannot exhaust the
+ * connection pool.
+ * <p>
+ * Meters are tagged with the caller's source ({@link AdmissionCaller#sourceTag()}) but not per restaurant or
+ * caller, to keep their cardinality bounded. Idle buckets are dropped once either bucket map grows past
+ * {@link #MAX_IDLE_BUCKETS}, so neither grows without bound under address or restaurant id churn.
+ */
+@Service
+@Slf4j
+public class OrderAdmissionService {
+
+    private static final Duration CONCURRENCY_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final int MAX_IDLE_BUCKETS = 10_000;
+
+    private final AdmissionProperties properties;
+    private final Map<UUID, TokenBucket> restaurantBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> callerBuckets = new ConcurrentHashMap<>();
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Map<String, Timer> writeLatencies = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public OrderAdmissionService(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(properties.concurrency());
+
+        Gauge.builder("rms.admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent order writes")
+                .register(meterRegistry);
+        Gauge.builder("rms.admission.concurrency.in-flight", concurrencyLimiter,
+                        AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Order writes currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Who a request is limited as; see {@link AdmissionCaller}.
+     *
+     * @param apiKey value of the {@value AdmissionCaller#API_KEY_HEADER} header, if any
+     */
+    public AdmissionCaller caller(String apiKey, Authentication authentication, String remoteAddress) {
+        return AdmissionCaller.of(properties, apiKey, authentication, remoteAddress);
+    }
+
+    /**
+     * Runs {@code write} if the request is admitted, feeding its latency back into the concurrency limit.
+     *
+     * @throws AdmissionRejectedException if the caller, the restaurant or the service is over its limit
+     */
+    public <T> T admit(UUID restaurantId, AdmissionCaller caller, Supplier<T> write) {
+        if (!properties.enabled()) {
+            return write.get();
+        }
+
+        long now = System.nanoTime();
+        TokenBucket callerBucket = callerBucket(caller, now);
+        long wait = callerBucket.tryAcquire(now);
+        if (wait > 0) {
+            throw reject("source", caller, "Too many orders from this client (source " + caller.sourceTag() + ")",
+                    Duration.ofNanos(wait));
+        }
+
+        TokenBucket restaurantBucket = restaurantBucket(restaurantId, now);
+        wait = restaurantBucket.tryAcquire(now);
+        if (wait > 0) {
+            callerBucket.refund();
+            throw reject("restaurant", caller, "Too many orders for restaurant " + restaurantId,
+                    Duration.ofNanos(wait));
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            callerBucket.refund();
+            restaurantBucket.refund();
+            throw reject("concurrency", caller, "Order service is at capacity", CONCURRENCY_RETRY_AFTER);
+        }
+
+        boolean success = false;
+        long start = System.nanoTime();
+        try {
+            T result = write.get();
+            success = true;
+            return result;
+        } catch (RuntimeException ex) {
+            // Business errors are not a capacity signal; only database failures shrink the limit.
+            success = !(ex instanceof DataAccessException);
+            throw ex;
+        } finally {
+            long latency = System.nanoTime() - start;
+            concurrencyLimiter.release(latency, success);
+            writeLatency(caller).record(latency, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private TokenBucket callerBucket(AdmissionCaller caller, long now) {
+        evictIdle(callerBuckets, now);
+        String key = caller.sourceTag() + "|" + caller.key();
+        return callerBuckets.computeIfAbsent(key, k -> {
+            AdmissionProperties.Rate rate = caller.source() != null
+                    ? properties.rateFor(caller.source())
+                    : properties.defaultSource();
+            return new TokenBucket(rate.permitsPerSecond(), rate.burst(), now);
+        });
+    }
+
+    private TokenBucket restaurantBucket(UUID restaurantId, long now) {
+        evictIdle(restaurantBuckets, now);
+        return restaurantBuckets.computeIfAbsent(restaurantId, id -> {
+            AdmissionProperties.Rate rate = properties.restaurant();
+            return new TokenBucket(rate.permitsPerSecond(), rate.burst(), now);
+        });
+    }
+
+    private static void evictIdle(Map<?, TokenBucket> buckets, long now) {
+        if (buckets.size() > MAX_IDLE_BUCKETS) {
+            // Full buckets carry no state; dropping them loses nothing
+            buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        }
+    }
+
+    private Timer writeLatency(AdmissionCaller caller) {
+        return writeLatencies.computeIfAbsent(caller.sourceTag(), source -> Timer.builder("rms.admission.write.latency")
+                .description("Latency of admitted order writes")
+                .tag("source", source)
+                .register(meterRegistry));
+    }
+
+    private AdmissionRejectedException reject(String reason, AdmissionCaller caller, String message,
+                                              Duration retryAfter) {
+        rejections.computeIfAbsent(reason + "|" + caller.sourceTag(), key -> Counter.builder("rms.admission.rejected")
+                        .description("Order writes rejected by admission control")
+                        .tag("reason", reason)
+                        .tag("source", caller.sourceTag())
+                        .register(meterRegistry))
+                .increment();
+        log.debug("Rejected order write ({}): {}, retry after {}", reason, message, retryAfter);
+        return new AdmissionRejectedException(message, retryAfter);
+    }
+}
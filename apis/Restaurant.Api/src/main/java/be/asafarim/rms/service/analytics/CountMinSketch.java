@@ -0,0 +1,70 @@
+package be.asafarim.rms.service.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch (Cormode &amp; Muthukrishnan) over 64-bit key hashes.
+ * <p>
+ * Estimates never undercount; with {@code width = ceil(e / epsilon)} and {@code depth = ceil(ln(1 / delta))}
+ * they overcount by at most {@code epsilon * total} with probability {@code 1 - delta}. Memory is fixed at
+ * {@code width * depth} counters regardless of how many distinct keys are added. Not thread-safe.
+ */
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[][] table;
+    private long total;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.table = new long[depth][width];
+    }
+
+    public void add(long keyHash, long weight) {
+        total += weight;
+        for (int row = 0; row < depth; row++) {
+            table[row][index(keyHash, row)] += weight;
+        }
+    }
+
+    public long estimate(long keyHash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row][index(keyHash, row)]);
+        }
+        return min;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public void clear() {
+        for (long[] row : table) {
+            Arrays.fill(row, 0L);
+        }
+        total = 0;
+    }
+
+    private int index(long keyHash, int row) {
+        // Kirsch-Mitzenmacher double hashing: row i uses h1 + i * h2.
+        long h1 = mix(keyHash);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        return (int) Math.floorMod(h1 + row * h2, (long) width);
+    }
+
+    /** MurmurHash3 64-bit finalizer. */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85B53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,157 @@
+package be.asafarim.rms.service.analytics;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sliding-window heavy hitters for one location.
+ * <p>
+ * Sales are recorded into one-minute slices held in a 60-slot ring; each slice keeps a {@link SpaceSaving}
+ * summary (which items are hot) and a {@link CountMinSketch} (how many of them were sold). The 15-minute and
+ * one-hour windows merge the most recent slices; "today" has its own summary that resets at midnight. Memory is
+ * fixed by the slice capacity and sketch size, whatever the menu size or order volume. Ranked snapshots are
+ * cached per window and rebuilt at most once per refresh interval, so reads are constant time.
+ */
+final class LocationTopSellers {
+
+    record TopSeller(UUID menuItemId, long quantity, long maxOvercount) {
+    }
+
+    private static final int SLICES = 60;
+
+    private final int sliceCapacity;
+    private final int sketchWidth;
+    private final int sketchDepth;
+    private final long refreshMillis;
+    private final ZoneId zone;
+    private final Slice[] ring = new Slice[SLICES];
+    private final Slice today;
+    private LocalDate todayDate;
+    private final Map<TopSellerWindow, Snapshot> snapshots = new EnumMap<>(TopSellerWindow.class);
+
+    LocationTopSellers(int sliceCapacity, int dailyCapacity, int sketchWidth, int sketchDepth,
+                       long refreshMillis, ZoneId zone) {
+        this.sliceCapacity = sliceCapacity;
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+        this.refreshMillis = refreshMillis;
+        this.zone = zone;
+        this.today = new Slice(Long.MIN_VALUE, dailyCapacity, sketchWidth, sketchDepth);
+    }
+
+    synchronized void record(UUID menuItemId, int quantity, Instant at) {
+        long minute = at.getEpochSecond() / 60;
+        int index = (int) Math.floorMod(minute, (long) SLICES);
+        Slice slice = ring[index];
+        if (slice == null || slice.minute != minute) {
+            slice = new Slice(minute, sliceCapacity, sketchWidth, sketchDepth);
+            ring[index] = slice;
+        }
+        slice.add(menuItemId, quantity);
+
+        LocalDate date = LocalDate.ofInstant(at, zone);
+        if (!date.equals(todayDate)) {
+            todayDate = date;
+            today.reset();
+        }
+        today.add(menuItemId, quantity);
+    }
+
+    synchronized List<TopSeller> top(TopSellerWindow window, Instant now) {
+        Snapshot snapshot = snapshots.get(window);
+        if (snapshot == null || now.toEpochMilli() - snapshot.computedAt >= refreshMillis) {
+            snapshot = new Snapshot(now.toEpochMilli(), compute(window, now));
+            snapshots.put(window, snapshot);
+        }
+        return snapshot.ranking;
+    }
+
+    private List<TopSeller> compute(TopSellerWindow window, Instant now) {
+        List<Slice> slices = new ArrayList<>();
+        switch (window) {
+            case LAST_15_MINUTES -> collectSlices(slices, now, 15);
+            case LAST_HOUR -> collectSlices(slices, now, 60);
+            case TODAY -> {
+                if (LocalDate.ofInstant(now, zone).equals(todayDate)) {
+                    slices.add(today);
+                }
+            }
+        }
+
+        // Candidates are the union of the per-slice heavy hitters; their counts come from the sketches,
+        // and the guaranteed lower bound from Space-Saving gives the reported overcount.
+        Map<UUID, long[]> candidates = new HashMap<>();
+        for (Slice slice : slices) {
+            for (SpaceSaving.Counter<UUID> counter : slice.summary.counters()) {
+                candidates.putIfAbsent(counter.key(), new long[2]);
+            }
+        }
+        for (Map.Entry<UUID, long[]> candidate : candidates.entrySet()) {
+            long hash = hash(candidate.getKey());
+            long estimate = 0;
+            for (Slice slice : slices) {
+                estimate += slice.sketch.estimate(hash);
+            }
+            candidate.getValue()[0] = estimate;
+        }
+        for (Slice slice : slices) {
+            for (SpaceSaving.Counter<UUID> counter : slice.summary.counters()) {
+                candidates.get(counter.key())[1] += counter.count() - counter.error();
+            }
+        }
+
+        return candidates.entrySet().stream()
+                .map(e -> new TopSeller(e.getKey(), e.getValue()[0], e.getValue()[0] - e.getValue()[1]))
+                .sorted(Comparator.comparingLong(TopSeller::quantity).reversed())
+                .limit(sliceCapacity)
+                .toList();
+    }
+
+    private void collectSlices(List<Slice> slices, Instant now, int minutes) {
+        long currentMinute = now.getEpochSecond() / 60;
+        for (Slice slice : ring) {
+            if (slice != null && slice.minute > currentMinute - minutes && slice.minute <= currentMinute) {
+                slices.add(slice);
+            }
+        }
+    }
+
+    private static long hash(UUID id) {
+        return id.getMostSignificantBits() * 31 + id.getLeastSignificantBits();
+    }
+
+    private record Snapshot(long computedAt, List<TopSeller> ranking) {
+    }
+
+    private static final class Slice {
+        private final long minute;
+        private final int capacity;
+        private SpaceSaving<UUID> summary;
+        private final CountMinSketch sketch;
+
+        Slice(long minute, int capacity, int sketchWidth, int sketchDepth) {
+            this.minute = minute;
+            this.capacity = capacity;
+            this.summary = new SpaceSaving<>(capacity);
+            this.sketch = new CountMinSketch(sketchWidth, sketchDepth);
+        }
+
+        void add(UUID menuItemId, int quantity) {
+            summary.offer(menuItemId, quantity);
+            sketch.add(hash(menuItemId), quantity);
+        }
+
+        void reset() {
+            summary = new SpaceSaving<>(capacity);
+            sketch.clear();
+        }
+    }
+}
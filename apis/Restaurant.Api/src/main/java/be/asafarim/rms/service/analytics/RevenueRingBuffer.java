@@ -0,0 +1,151 @@
+package be.asafarim.rms.service.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size, lock-free ring of per-minute buckets for one location.
+ * <p>
+ * Slot {@code minute % size} holds the bucket for that minute. A writer that finds a stale bucket swaps in a
+ * fresh one with compare-and-set; counters inside a bucket are plain atomics, so concurrent writers never block.
+ * Monetary values are kept in cents. Cumulative totals survive ring wrap-around and back the Micrometer meters.
+ */
+public final class RevenueRingBuffer {
+
+    public record Point(long epochMinute, long revenueCents, long orders, long tipCents, long cancelled,
+                        long preparedOrders, long prepMillis) {
+    }
+
+    private final int size;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final AtomicLong totalRevenueCents = new AtomicLong();
+    private final AtomicLong totalOrders = new AtomicLong();
+    private final AtomicLong totalTipCents = new AtomicLong();
+    private volatile long lastPrepMillis;
+
+    public RevenueRingBuffer(int size) {
+        this.size = size;
+        this.buckets = new AtomicReferenceArray<>(size);
+    }
+
+    public void recordOrder(long epochMinute, long revenueCents, long tipCents) {
+        Bucket bucket = bucket(epochMinute);
+        if (bucket != null) {
+            bucket.revenueCents.addAndGet(revenueCents);
+            bucket.orders.incrementAndGet();
+            bucket.tipCents.addAndGet(tipCents);
+        }
+        totalRevenueCents.addAndGet(revenueCents);
+        totalOrders.incrementAndGet();
+        totalTipCents.addAndGet(tipCents);
+    }
+
+    public void recordCancellation(long epochMinute) {
+        Bucket bucket = bucket(epochMinute);
+        if (bucket != null) {
+            bucket.cancelled.incrementAndGet();
+        }
+    }
+
+    public void recordPrepared(long epochMinute, long prepMillis) {
+        Bucket bucket = bucket(epochMinute);
+        if (bucket != null) {
+            bucket.preparedOrders.incrementAndGet();
+            bucket.prepMillis.addAndGet(prepMillis);
+        }
+        lastPrepMillis = prepMillis;
+    }
+
+    /**
+     * Adds pre-aggregated values for one minute, used when backfilling from the database.
+     */
+    public void backfill(long epochMinute, long revenueCents, long orders, long tipCents,
+                         long preparedOrders, long prepMillis) {
+        Bucket bucket = bucket(epochMinute);
+        if (bucket == null) {
+            return;
+        }
+        bucket.revenueCents.addAndGet(revenueCents);
+        bucket.orders.addAndGet(orders);
+        bucket.tipCents.addAndGet(tipCents);
+        bucket.preparedOrders.addAndGet(preparedOrders);
+        bucket.prepMillis.addAndGet(prepMillis);
+        totalRevenueCents.addAndGet(revenueCents);
+        totalOrders.addAndGet(orders);
+        totalTipCents.addAndGet(tipCents);
+    }
+
+    /**
+     * @param minutes number of minutes wanted, clamped to between zero and the ring size
+     * @return one point per minute in {@code (currentMinute - minutes, currentMinute]}, oldest first,
+     *         with zeroes for minutes without activity
+     */
+    public List<Point> range(long currentMinute, int minutes) {
+        int span = Math.clamp(minutes, 0, size);
+        List<Point> points = new ArrayList<>(span);
+        for (long minute = currentMinute - span + 1; minute <= currentMinute; minute++) {
+            Bucket bucket = buckets.get(index(minute));
+            if (bucket != null && bucket.minute == minute) {
+                points.add(new Point(minute, bucket.revenueCents.get(), bucket.orders.get(), bucket.tipCents.get(),
+                        bucket.cancelled.get(), bucket.preparedOrders.get(), bucket.prepMillis.get()));
+            } else {
+                points.add(new Point(minute, 0, 0, 0, 0, 0, 0));
+            }
+        }
+        return points;
+    }
+
+    public long totalRevenueCents() {
+        return totalRevenueCents.get();
+    }
+
+    public long totalOrders() {
+        return totalOrders.get();
+    }
+
+    public long totalTipCents() {
+        return totalTipCents.get();
+    }
+
+    public long lastPrepMillis() {
+        return lastPrepMillis;
+    }
+
+    private Bucket bucket(long minute) {
+        int index = index(minute);
+        while (true) {
+            Bucket current = buckets.get(index);
+            if (current != null && current.minute == minute) {
+                return current;
+            }
+            if (current != null && current.minute > minute) {
+                // Older than the ring can hold.
+                return null;
+            }
+            Bucket fresh = new Bucket(minute);
+            if (buckets.compareAndSet(index, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int index(long minute) {
+        return (int) Math.floorMod(minute, (long) size);
+    }
+
+    private static final class Bucket {
+        private final long minute;
+        private final AtomicLong revenueCents = new AtomicLong();
+        private final AtomicLong orders = new AtomicLong();
+        private final AtomicLong tipCents = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong preparedOrders = new AtomicLong();
+        private final AtomicLong prepMillis = new AtomicLong();
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package be.asafarim.rms.service.analytics;
+
+import be.asafarim.rms.api.analytics.dto.RevenuePointResponse;
+import be.asafarim.rms.config.AnalyticsProperties;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import be.asafarim.rms.repository.MinuteRevenueView;
+import be.asafarim.rms.repository.OrderRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live per-minute revenue, order, tip and preparation-time series per location.
+ * <p>
+ * Buffers are filled from committed order lifecycle events and backfilled from the database once at startup,
+ * so dashboard refreshes and metric scrapes are served from memory and never touch Postgres.
+ */
+@Service
+@Slf4j
+public class RevenueTimeSeriesService {
+
+    private final OrderRepository orderRepository;
+    private final MeterRegistry meterRegistry;
+    private final int minutes;
+    private final Clock clock = Clock.systemUTC();
+    private final Map<UUID, RevenueRingBuffer> buffers = new ConcurrentHashMap<>();
+
+    public RevenueTimeSeriesService(OrderRepository orderRepository,
+                                    MeterRegistry meterRegistry,
+                                    AnalyticsProperties properties) {
+        this.orderRepository = orderRepository;
+        this.meterRegistry = meterRegistry;
+        this.minutes = properties.revenue().minutes();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Instant since = clock.instant().minus(Duration.ofMinutes(minutes));
+        List<MinuteRevenueView> revenue = orderRepository.aggregateRevenueByMinute(since);
+        List<MinuteRevenueView> prepTimes = orderRepository.aggregatePrepTimeByMinute(since);
+        for (MinuteRevenueView row : revenue) {
+            apply(row);
+        }
+        for (MinuteRevenueView row : prepTimes) {
+            apply(row);
+        }
+        log.info("Backfilled revenue buffers for {} locations from {} aggregated minutes",
+                buffers.size(), revenue.size() + prepTimes.size());
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        buffer(event.locationId()).recordOrder(epochMinute(event.occurredAt()),
+                cents(event.totalAmount()), cents(event.tipAmount()));
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.newStatus() == OrderStatus.CANCELLED) {
+            buffer(event.locationId()).recordCancellation(epochMinute(event.occurredAt()));
+        } else if (event.newStatus() == OrderStatus.READY && event.placedAt() != null) {
+            long prepMillis = Duration.between(event.placedAt(), event.occurredAt()).toMillis();
+            buffer(event.locationId()).recordPrepared(epochMinute(event.occurredAt()), Math.max(0, prepMillis));
+        }
+    }
+
+    public List<RevenuePointResponse> getSeries(UUID locationId, int lastMinutes) {
+        RevenueRingBuffer buffer = buffers.get(locationId);
+        if (buffer == null) {
+            return List.of();
+        }
+        return buffer.range(epochMinute(clock.instant()), lastMinutes).stream()
+                .map(point -> RevenuePointResponse.builder()
+                        .minute(Instant.ofEpochSecond(point.epochMinute() * 60))
+                        .revenue(BigDecimal.valueOf(point.revenueCents(), 2))
+                        .orders(point.orders())
+                        .tips(BigDecimal.valueOf(point.tipCents(), 2))
+                        .cancelled(point.cancelled())
+                        .averagePrepSeconds(point.preparedOrders() == 0 ? null
+                                : point.prepMillis() / 1000.0 / point.preparedOrders())
+                        .build())
+                .toList();
+    }
+
+    private void apply(MinuteRevenueView row) {
+        buffer(row.getLocationId()).backfill(
+                row.getEpochMinute().longValue(),
+                cents(row.getRevenue()),
+                row.getOrders().longValue(),
+                cents(row.getTips()),
+                row.getPrepared().longValue(),
+                row.getPrepMillis() == null ? 0 : row.getPrepMillis().longValue());
+    }
+
+    private RevenueRingBuffer buffer(UUID locationId) {
+        return buffers.computeIfAbsent(locationId, this::register);
+    }
+
+    private RevenueRingBuffer register(UUID locationId) {
+        RevenueRingBuffer buffer = new RevenueRingBuffer(minutes);
+        Tags tags = Tags.of("location", locationId.toString());
+        FunctionCounter.builder("rms.revenue", buffer, b -> b.totalRevenueCents() / 100.0)
+                .description("Gross order revenue since startup (including backfill)")
+                .baseUnit("euros")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("rms.revenue.orders", buffer, RevenueRingBuffer::totalOrders)
+                .description("Orders placed since startup (including backfill)")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("rms.revenue.tips", buffer, b -> b.totalTipCents() / 100.0)
+                .description("Tips since startup (including backfill)")
+                .baseUnit("euros")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("rms.revenue.last.prep.time", buffer, b -> b.lastPrepMillis() / 1000.0)
+                .description("Preparation time of the most recently readied order")
+                .baseUnit("seconds")
+                .tags(tags)
+                .register(meterRegistry);
+        return buffer;
+    }
+
+    private static long epochMinute(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 60);
+    }
+
+    private static long cents(Number amount) {
+        if (amount == null) {
+            return 0;
+        }
+        BigDecimal value = amount instanceof BigDecimal decimal ? decimal : new BigDecimal(amount.toString());
+        return value.movePointRight(2).longValue();
+    }
+}
@@ -0,0 +1,123 @@
+package be.asafarim.rms.service.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving heavy-hitters summary (Metwally, Agrawal &amp; El Abbadi).
+ * <p>
+ * Tracks at most {@code capacity} keys. When a new key arrives and the summary is full, the key with the
+ * smallest count is replaced and its count becomes the newcomer's error bound. Any key whose true frequency
+ * exceeds {@code total / capacity} is guaranteed to be present, and reported counts overestimate by at most the
+ * recorded error. Counters live in an indexed min-heap, so updates are O(log capacity). Not thread-safe.
+ */
+public final class SpaceSaving<K> {
+
+    public record Counter<K>(K key, long count, long error) {
+    }
+
+    private final int capacity;
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<K, Integer> positions;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(K key, long weight) {
+        total += weight;
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+        } else if (size < capacity) {
+            keys[size] = key;
+            counts[size] = weight;
+            errors[size] = 0;
+            positions.put(key, size);
+            siftUp(size++);
+        } else {
+            // Replace the minimum; its count is the newcomer's worst-case overestimate.
+            long floor = counts[0];
+            positions.remove(keyAt(0));
+            keys[0] = key;
+            counts[0] = floor + weight;
+            errors[0] = floor;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public List<Counter<K>> counters() {
+        List<Counter<K>> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Counter<>(keyAt(i), counts[i], errors[i]));
+        }
+        result.sort(Comparator.comparingLong((Counter<K> c) -> c.count()).reversed());
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int index) {
+        return (K) keys[index];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[parent] <= counts[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int smallest = right < size && counts[right] < counts[left] ? right : left;
+            if (counts[index] <= counts[smallest]) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Object key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        positions.put(keyAt(a), a);
+        positions.put(keyAt(b), b);
+    }
+}
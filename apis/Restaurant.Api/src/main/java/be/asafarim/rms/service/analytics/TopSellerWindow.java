@@ -0,0 +1,7 @@
+package be.asafarim.rms.service.analytics;
+
+public enum TopSellerWindow {
+    LAST_15_MINUTES,
+    LAST_HOUR,
+    TODAY
+}
@@ -0,0 +1,63 @@
+package be.asafarim.rms.service.analytics;
+
+import be.asafarim.rms.api.analytics.dto.TopSellerResponse;
+import be.asafarim.rms.config.AnalyticsProperties;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live "top sellers right now" per location, fed from committed orders instead of
+ * {@code GROUP BY menu_item_id} over {@code order_items}.
+ */
+@Service
+public class TopSellersService {
+
+    private final AnalyticsProperties.TopSellers config;
+    private final ZoneId zone;
+    private final Clock clock = Clock.systemUTC();
+    private final Map<UUID, LocationTopSellers> locations = new ConcurrentHashMap<>();
+
+    public TopSellersService(AnalyticsProperties properties) {
+        this.config = properties.topSellers();
+        this.zone = ZoneId.of(config.zone());
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.lines() == null || event.lines().isEmpty()) {
+            return;
+        }
+        LocationTopSellers tracker = locations.computeIfAbsent(event.locationId(), id -> newTracker());
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            tracker.record(line.menuItemId(), line.quantity(), event.occurredAt());
+        }
+    }
+
+    public List<TopSellerResponse> getTopSellers(UUID locationId, TopSellerWindow window, int limit) {
+        LocationTopSellers tracker = locations.get(locationId);
+        if (tracker == null) {
+            return List.of();
+        }
+        return tracker.top(window, clock.instant()).stream()
+                .limit(Math.max(0, limit))
+                .map(seller -> TopSellerResponse.builder()
+                        .menuItemId(seller.menuItemId())
+                        .quantity(seller.quantity())
+                        .maxOvercount(seller.maxOvercount())
+                        .build())
+                .toList();
+    }
+
+    private LocationTopSellers newTracker() {
+        return new LocationTopSellers(config.sliceCapacity(), config.dailyCapacity(),
+                config.sketchWidth(), config.sketchDepth(), config.refresh().toMillis(), zone);
+    }
+}
@@ -0,0 +1,116 @@
+package be.asafarim.rms.service.coalescing;
+
+import be.asafarim.rms.api.order.dto.OrderResponse;
+import be.asafarim.rms.config.routing.ConsistencyContext;
+import be.asafarim.rms.domain.order.event.OrderItemsBumpedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import be.asafarim.rms.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-flight layer in front of {@link OrderService#getOrder} and {@link OrderService#getOrderByNumber}.
+ * <p>
+ * When an order changes, kitchen screens, waiter apps and the customer status page all re-read it at once;
+ * identical concurrent reads now share one transaction and aggregate load, and the result is reused for a very
+ * short micro-TTL. Entries are dropped as soon as a status or item change for the order commits, and requests
+ * that must read their own writes bypass the layer so they never join a load served by a lagging replica.
+ * {@code rms.orders.reads} counts reads by outcome; {@code coalesced + cached} over the total is the
+ * coalescing ratio.
+ */
+@Service
+public class OrderReadCoalescer {
+
+    private final OrderService orderService;
+    private final SingleFlight<UUID, OrderResponse> byId;
+    private final SingleFlight<String, OrderResponse> byNumber;
+    private final Map<UUID, String> numbersById = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "order-read-coalescer-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderReadCoalescer(OrderService orderService,
+                              MeterRegistry meterRegistry,
+                              @Value("${rms.orders.read-coalescing.ttl:100ms}") Duration ttl) {
+        this.orderService = orderService;
+        this.byId = new SingleFlight<>(ttl.toNanos(), outcomeCounter(meterRegistry, "id"));
+        this.byNumber = new SingleFlight<>(ttl.toNanos(), outcomeCounter(meterRegistry, "number"));
+
+        long purgeMillis = Math.max(1000, ttl.toMillis() * 10);
+        purger.scheduleWithFixedDelay(this::purge, purgeMillis, purgeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public OrderResponse getOrder(UUID orderId) {
+        if (ConsistencyContext.isPrimaryRequired()) {
+            return orderService.getOrder(orderId);
+        }
+        return byId.load(orderId, () -> orderService.getOrder(orderId));
+    }
+
+    public OrderResponse getOrderByNumber(String orderNumber) {
+        if (ConsistencyContext.isPrimaryRequired()) {
+            return orderService.getOrderByNumber(orderNumber);
+        }
+        return byNumber.load(orderNumber, () -> {
+            OrderResponse response = orderService.getOrderByNumber(orderNumber);
+            numbersById.put(response.id(), orderNumber);
+            return response;
+        });
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        invalidate(event.orderId());
+    }
+
+    @TransactionalEventListener
+    public void onOrderItemsBumped(OrderItemsBumpedEvent event) {
+        event.orderIds().forEach(this::invalidate);
+    }
+
+    public void invalidate(UUID orderId) {
+        byId.invalidate(orderId);
+        String orderNumber = numbersById.remove(orderId);
+        if (orderNumber != null) {
+            byNumber.invalidate(orderNumber);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        purger.shutdownNow();
+    }
+
+    private void purge() {
+        byId.purgeExpired();
+        byNumber.purgeExpired();
+        numbersById.values().removeIf(orderNumber -> !byNumber.contains(orderNumber));
+    }
+
+    private static SingleFlight.OutcomeListener outcomeCounter(MeterRegistry registry, String lookup) {
+        Map<SingleFlight.Outcome, Counter> counters = new EnumMap<>(SingleFlight.Outcome.class);
+        for (SingleFlight.Outcome outcome : SingleFlight.Outcome.values()) {
+            counters.put(outcome, Counter.builder("rms.orders.reads")
+                    .description("Order detail reads by single-flight outcome")
+                    .tag("lookup", lookup)
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry));
+        }
+        return outcome -> counters.get(outcome).increment();
+    }
+}
@@ -0,0 +1,111 @@
+package be.asafarim.rms.service.coalescing;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one.
+ * <p>
+ * The first caller for a key becomes the leader and runs the loader; callers arriving while it runs wait for
+ * and share its result. A successful result is then served for {@code ttlNanos} before the next caller triggers a
+ * fresh load. Failures are shared with the callers already waiting but never cached.
+ */
+public final class SingleFlight<K, V> {
+
+    public enum Outcome {
+        LOADED,
+        COALESCED,
+        CACHED
+    }
+
+    @FunctionalInterface
+    public interface OutcomeListener {
+        void onOutcome(Outcome outcome);
+    }
+
+    private final long ttlNanos;
+    private final OutcomeListener listener;
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    public SingleFlight(long ttlNanos, OutcomeListener listener) {
+        this.ttlNanos = ttlNanos;
+        this.listener = listener;
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        while (true) {
+            Flight<V> existing = flights.get(key);
+            if (existing != null) {
+                if (!existing.future.isDone()) {
+                    listener.onOutcome(Outcome.COALESCED);
+                    return await(existing);
+                }
+                if (!existing.future.isCompletedExceptionally()
+                        && System.nanoTime() - existing.completedAt <= ttlNanos) {
+                    listener.onOutcome(Outcome.CACHED);
+                    return existing.future.join();
+                }
+                flights.remove(key, existing);
+                continue;
+            }
+
+            Flight<V> mine = new Flight<>();
+            if (flights.putIfAbsent(key, mine) != null) {
+                continue;
+            }
+            listener.onOutcome(Outcome.LOADED);
+            try {
+                V value = loader.get();
+                mine.completedAt = System.nanoTime();
+                mine.future.complete(value);
+                return value;
+            } catch (RuntimeException | Error ex) {
+                flights.remove(key, mine);
+                mine.future.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Drops the cached result or in-flight load for {@code key}; the next caller loads afresh.
+     */
+    public void invalidate(K key) {
+        flights.remove(key);
+    }
+
+    public boolean contains(K key) {
+        return flights.containsKey(key);
+    }
+
+    /**
+     * Removes completed entries older than the TTL so idle keys do not accumulate.
+     */
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        flights.entrySet().removeIf(entry -> entry.getValue().future.isDone()
+                && now - entry.getValue().completedAt > ttlNanos);
+    }
+
+    private V await(Flight<V> flight) {
+        try {
+            return flight.future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long completedAt;
+    }
+}
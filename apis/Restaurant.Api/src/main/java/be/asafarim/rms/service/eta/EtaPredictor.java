@@ -0,0 +1,233 @@
+package be.asafarim.rms.service.eta;
+
+import be.asafarim.rms.api.order.dto.OrderEtaResponse;
+import be.asafarim.rms.config.EtaProperties;
+import be.asafarim.rms.domain.order.OrderItem;
+import be.asafarim.rms.domain.order.OrderItemStatus;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.event.OrderItemsBumpedEvent;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import be.asafarim.rms.repository.KitchenQueueItemView;
+import be.asafarim.rms.repository.MenuItemPrepTimeView;
+import be.asafarim.rms.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Predicts when an order will be ready from the current kitchen load of its location.
+ * <p>
+ * Each location keeps an in-memory {@link KitchenQueue} of open orders, fed by committed order lifecycle and
+ * kitchen bump events and rebuilt from the database once at startup. Preparation times are learned per menu
+ * item from the moment an item (or its order) is started until it is bumped. {@link #estimate} therefore needs
+ * no database access and runs in microseconds; queued ETAs are recomputed whenever a location's queue moves and
+ * changes are pushed to {@link OrderEtaStreams}.
+ */
+@Service
+@Slf4j
+public class EtaPredictor {
+
+    private final EtaProperties properties;
+    private final OrderRepository orderRepository;
+    private final OrderEtaStreams streams;
+    private final PrepTimeEstimates prepTimes;
+    private final Clock clock = Clock.systemUTC();
+    private final Map<UUID, KitchenQueue> queues = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> locationsByOrder = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "order-eta-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EtaPredictor(EtaProperties properties,
+                        OrderRepository orderRepository,
+                        OrderEtaStreams streams,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.orderRepository = orderRepository;
+        this.streams = streams;
+        this.prepTimes = new PrepTimeEstimates(properties.smoothing(), properties.defaultPrepTime().toMillis());
+
+        Gauge.builder("rms.eta.queued.orders", locationsByOrder, Map::size)
+                .description("Open orders tracked by the ETA predictor")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Instant now = clock.instant();
+        for (MenuItemPrepTimeView row : orderRepository.aggregatePrepTimeByMenuItem(now.minus(properties.history()))) {
+            prepTimes.seed(row.getMenuItemId(), row.getSamples().longValue(), row.getAvgMillis().doubleValue());
+        }
+
+        Map<UUID, Map<UUID, KitchenQueue.Item>> itemsByOrder = new LinkedHashMap<>();
+        Map<UUID, Instant> startedByOrder = new LinkedHashMap<>();
+        for (KitchenQueueItemView row : orderRepository.findKitchenQueueItems()) {
+            locationsByOrder.put(row.getOrderId(), row.getLocationId());
+            Map<UUID, KitchenQueue.Item> items = itemsByOrder.computeIfAbsent(row.getOrderId(), id -> new LinkedHashMap<>());
+            if (row.getStartedAtMillis() != null) {
+                startedByOrder.put(row.getOrderId(), Instant.ofEpochMilli(row.getStartedAtMillis().longValue()));
+            }
+            if (isOpen(row.getItemStatus())) {
+                items.put(row.getOrderItemId(), item(row.getMenuItemId(), row.getQuantity().intValue()));
+            }
+        }
+        itemsByOrder.forEach((orderId, items) -> queue(locationsByOrder.get(orderId))
+                .add(orderId, items, startedByOrder.get(orderId), null));
+        queues.keySet().forEach(locationId -> recompute(locationId, now));
+        log.info("ETA predictor loaded {} menu item prep times and {} open orders in {} locations",
+                prepTimes.size(), itemsByOrder.size(), queues.size());
+
+        long refreshMillis = properties.refresh().toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshAll, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Estimates when an order with the given items placed now at {@code locationId} will be ready.
+     */
+    public Instant estimate(UUID locationId, Collection<OrderItem> items) {
+        List<KitchenQueue.Item> work = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            work.add(item(item.getMenuItemId(), item.getQuantity()));
+        }
+        return queue(locationId).estimate(work, properties.parallelismFor(locationId), clock.instant());
+    }
+
+    public Optional<OrderEtaResponse> current(UUID orderId) {
+        UUID locationId = locationsByOrder.get(orderId);
+        KitchenQueue.EtaUpdate eta = locationId != null ? queue(locationId).current(orderId) : null;
+        return Optional.ofNullable(eta).map(update -> response(update, false));
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        Map<UUID, KitchenQueue.Item> items = new LinkedHashMap<>();
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            items.put(line.orderItemId(), item(line.menuItemId(), line.quantity()));
+        }
+        locationsByOrder.put(event.orderId(), event.locationId());
+        queue(event.locationId()).add(event.orderId(), items, null, event.estimatedReadyAt());
+        recompute(event.locationId(), clock.instant());
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        KitchenQueue queue = queue(event.locationId());
+        if (event.newStatus() == OrderStatus.IN_PROGRESS) {
+            queue.markStarted(event.orderId(), event.occurredAt());
+        } else if (event.newStatus() == OrderStatus.READY || event.newStatus().isTerminal()) {
+            if (event.newStatus() == OrderStatus.READY) {
+                observe(queue.markPrepared(event.orderId(), null, event.occurredAt()));
+            }
+            queue.remove(event.orderId());
+            locationsByOrder.remove(event.orderId());
+            // A cancelled or refunded order closes the stream without ever becoming ready.
+            boolean ready = event.newStatus() == OrderStatus.READY || event.newStatus() == OrderStatus.COMPLETED;
+            streams.publish(OrderEtaResponse.builder()
+                    .orderId(event.orderId())
+                    .estimatedReadyAt(ready ? event.occurredAt() : null)
+                    .ready(ready)
+                    .closed(true)
+                    .build());
+        } else {
+            return;
+        }
+        recompute(event.locationId(), clock.instant());
+    }
+
+    @TransactionalEventListener
+    public void onOrderItemsBumped(OrderItemsBumpedEvent event) {
+        Set<UUID> itemIds = new HashSet<>(event.orderItemIds());
+        Set<UUID> locations = new HashSet<>();
+        for (UUID orderId : event.orderIds()) {
+            UUID locationId = locationsByOrder.get(orderId);
+            if (locationId == null) {
+                continue;
+            }
+            KitchenQueue queue = queue(locationId);
+            if (event.status() == OrderItemStatus.PREPARING) {
+                queue.markItemsStarted(orderId, itemIds, event.occurredAt());
+            } else {
+                observe(queue.markPrepared(orderId, itemIds, event.occurredAt()));
+            }
+            locations.add(locationId);
+        }
+        Instant now = clock.instant();
+        locations.forEach(locationId -> recompute(locationId, now));
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    private void refreshAll() {
+        try {
+            Instant now = clock.instant();
+            queues.keySet().forEach(locationId -> recompute(locationId, now));
+        } catch (RuntimeException ex) {
+            log.error("ETA refresh failed", ex);
+        }
+    }
+
+    private void recompute(UUID locationId, Instant now) {
+        List<KitchenQueue.EtaUpdate> changed = queue(locationId).recompute(properties.parallelismFor(locationId),
+                now, properties.pushThreshold().toMillis());
+        for (KitchenQueue.EtaUpdate update : changed) {
+            streams.publish(response(update, false));
+        }
+    }
+
+    private void observe(List<KitchenQueue.Prepared> prepared) {
+        for (KitchenQueue.Prepared item : prepared) {
+            prepTimes.observe(item.menuItemId(), item.millis());
+        }
+    }
+
+    private KitchenQueue queue(UUID locationId) {
+        return queues.computeIfAbsent(locationId, id -> new KitchenQueue());
+    }
+
+    private KitchenQueue.Item item(UUID menuItemId, Integer quantity) {
+        int units = quantity != null ? Math.max(1, quantity) : 1;
+        return new KitchenQueue.Item(menuItemId, units, prepTimes.expectedMillis(menuItemId));
+    }
+
+    private static boolean isOpen(String itemStatus) {
+        return itemStatus == null
+                || itemStatus.equals(OrderItemStatus.PENDING.name())
+                || itemStatus.equals(OrderItemStatus.PREPARING.name());
+    }
+
+    private static OrderEtaResponse response(KitchenQueue.EtaUpdate update, boolean ready) {
+        return OrderEtaResponse.builder()
+                .orderId(update.orderId())
+                .estimatedReadyAt(update.estimatedReadyAt())
+                .queuePosition(update.queuePosition())
+                .ready(ready)
+                .build();
+    }
+}
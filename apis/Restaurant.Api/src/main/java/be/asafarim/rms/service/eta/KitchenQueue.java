@@ -0,0 +1,182 @@
+package be.asafarim.rms.service.eta;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Open orders of one location in placement order, with their unprepared items.
+ * <p>
+ * The expected work of all unprepared items is kept as a running sum, so estimating a new order costs O(its
+ * items). Recomputing the ETAs of queued orders walks the queue once.
+ */
+final class KitchenQueue {
+
+    record Item(UUID menuItemId, int quantity, long unitMillis) {
+        long workMillis() {
+            return unitMillis * quantity;
+        }
+    }
+
+    record Prepared(UUID menuItemId, long millis) {
+    }
+
+    record EtaUpdate(UUID orderId, Instant estimatedReadyAt, int queuePosition) {
+    }
+
+    private static final class QueuedItem {
+        private final Item item;
+        private Instant startedAt;
+
+        QueuedItem(Item item) {
+            this.item = item;
+        }
+    }
+
+    private static final class QueuedOrder {
+        private final UUID orderId;
+        private final Map<UUID, QueuedItem> items = new LinkedHashMap<>();
+        private Instant startedAt;
+        private Instant estimatedReadyAt;
+        private Instant pushedEta;
+        private int queuePosition;
+
+        QueuedOrder(UUID orderId) {
+            this.orderId = orderId;
+        }
+    }
+
+    private final Map<UUID, QueuedOrder> orders = new LinkedHashMap<>();
+    private long queuedWorkMillis;
+
+    synchronized Instant estimate(Collection<Item> items, int parallelism, Instant now) {
+        long ownWork = 0;
+        long critical = 0;
+        for (Item item : items) {
+            ownWork += item.workMillis();
+            critical = Math.max(critical, item.unitMillis());
+        }
+        long wait = queuedWorkMillis / parallelism;
+        return now.plusMillis(wait + Math.max(critical, ownWork / parallelism));
+    }
+
+    synchronized void add(UUID orderId, Map<UUID, Item> items, Instant startedAt, Instant estimatedReadyAt) {
+        if (orders.containsKey(orderId)) {
+            return;
+        }
+        QueuedOrder order = new QueuedOrder(orderId);
+        order.startedAt = startedAt;
+        order.estimatedReadyAt = estimatedReadyAt;
+        order.pushedEta = estimatedReadyAt;
+        items.forEach((orderItemId, item) -> {
+            order.items.put(orderItemId, new QueuedItem(item));
+            queuedWorkMillis += item.workMillis();
+        });
+        orders.put(orderId, order);
+    }
+
+    synchronized void markStarted(UUID orderId, Instant at) {
+        QueuedOrder order = orders.get(orderId);
+        if (order != null && order.startedAt == null) {
+            order.startedAt = at;
+        }
+    }
+
+    synchronized void markItemsStarted(UUID orderId, Set<UUID> orderItemIds, Instant at) {
+        QueuedOrder order = orders.get(orderId);
+        if (order == null) {
+            return;
+        }
+        for (UUID orderItemId : orderItemIds) {
+            QueuedItem queued = order.items.get(orderItemId);
+            if (queued != null && queued.startedAt == null) {
+                queued.startedAt = at;
+            }
+        }
+    }
+
+    /**
+     * Removes the given items (or all items when {@code orderItemIds} is {@code null}) from the queue and
+     * returns how long each of them took, measured from the moment it or its order was started.
+     */
+    synchronized List<Prepared> markPrepared(UUID orderId, Set<UUID> orderItemIds, Instant at) {
+        QueuedOrder order = orders.get(orderId);
+        if (order == null) {
+            return List.of();
+        }
+        List<Prepared> prepared = new ArrayList<>();
+        var iterator = order.items.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (orderItemIds != null && !orderItemIds.contains(entry.getKey())) {
+                continue;
+            }
+            QueuedItem queued = entry.getValue();
+            queuedWorkMillis -= queued.item.workMillis();
+            iterator.remove();
+            Instant since = queued.startedAt != null ? queued.startedAt : order.startedAt;
+            if (since != null) {
+                prepared.add(new Prepared(queued.item.menuItemId(), at.toEpochMilli() - since.toEpochMilli()));
+            }
+        }
+        return prepared;
+    }
+
+    synchronized boolean remove(UUID orderId) {
+        QueuedOrder order = orders.remove(orderId);
+        if (order == null) {
+            return false;
+        }
+        order.items.values().forEach(queued -> queuedWorkMillis -= queued.item.workMillis());
+        return true;
+    }
+
+    synchronized EtaUpdate current(UUID orderId) {
+        QueuedOrder order = orders.get(orderId);
+        return order != null ? new EtaUpdate(orderId, order.estimatedReadyAt, order.queuePosition) : null;
+    }
+
+    /**
+     * Recomputes the ETA of every queued order and returns those that moved by at least {@code thresholdMillis}
+     * since they were last pushed.
+     * <p>
+     * Orders are served first come, first served across {@code parallelism} workers. Items already in
+     * preparation only contribute their expected remaining time.
+     */
+    synchronized List<EtaUpdate> recompute(int parallelism, Instant now, long thresholdMillis) {
+        List<EtaUpdate> changed = new ArrayList<>();
+        long ahead = 0;
+        int position = 0;
+        for (QueuedOrder order : orders.values()) {
+            long ownWork = 0;
+            long critical = 0;
+            for (QueuedItem queued : order.items.values()) {
+                Instant since = queued.startedAt != null ? queued.startedAt : order.startedAt;
+                long elapsed = since != null ? Math.max(0, now.toEpochMilli() - since.toEpochMilli()) : 0;
+                long unit = queued.item.unitMillis();
+                ownWork += Math.max(queued.item.workMillis() - elapsed, queued.item.workMillis() / 10);
+                critical = Math.max(critical, Math.max(unit - elapsed, unit / 10));
+            }
+            Instant eta = now.plusMillis(ahead / parallelism + Math.max(critical, ownWork / parallelism));
+            ahead += ownWork;
+
+            order.estimatedReadyAt = eta;
+            order.queuePosition = ++position;
+            if (order.pushedEta == null
+                    || Math.abs(eta.toEpochMilli() - order.pushedEta.toEpochMilli()) >= thresholdMillis) {
+                order.pushedEta = eta;
+                changed.add(new EtaUpdate(order.orderId, eta, position));
+            }
+        }
+        return changed;
+    }
+
+    synchronized int size() {
+        return orders.size();
+    }
+}
@@ -0,0 +1,96 @@
+package be.asafarim.rms.service.eta;
+
+import be.asafarim.rms.api.order.dto.OrderEtaResponse;
+import be.asafarim.rms.config.EtaProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-sent event streams of ETA updates for customer-facing clients. Sends run on a dedicated thread so a
+ * slow client never holds up the request that moved the queue.
+ */
+@Component
+@Slf4j
+public class OrderEtaStreams {
+
+    static final String EVENT_NAME = "eta";
+
+    private final EtaProperties properties;
+    private final Map<UUID, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "order-eta-push");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderEtaStreams(EtaProperties properties) {
+        this.properties = properties;
+    }
+
+    public SseEmitter subscribe(UUID orderId, OrderEtaResponse current) {
+        SseEmitter emitter = new SseEmitter(properties.streamTimeout().toMillis());
+        List<SseEmitter> subscribers = emitters.computeIfAbsent(orderId, id -> new CopyOnWriteArrayList<>());
+        subscribers.add(emitter);
+        Runnable unsubscribe = () -> remove(orderId, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(ex -> unsubscribe.run());
+
+        sender.execute(() -> send(orderId, emitter, current));
+        if (current.closed()) {
+            sender.execute(emitter::complete);
+        }
+        return emitter;
+    }
+
+    public void publish(OrderEtaResponse update) {
+        List<SseEmitter> subscribers = update.closed()
+                ? emitters.remove(update.orderId())
+                : emitters.get(update.orderId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> {
+            for (SseEmitter emitter : subscribers) {
+                send(update.orderId(), emitter, update);
+                if (update.closed()) {
+                    emitter.complete();
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+        emitters.values().forEach(subscribers -> subscribers.forEach(SseEmitter::complete));
+        emitters.clear();
+    }
+
+    private void send(UUID orderId, SseEmitter emitter, OrderEtaResponse update) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(update));
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Dropping ETA stream of order {}: {}", orderId, ex.getMessage());
+            remove(orderId, emitter);
+        }
+    }
+
+    private void remove(UUID orderId, SseEmitter emitter) {
+        emitters.computeIfPresent(orderId, (id, subscribers) -> {
+            subscribers.remove(emitter);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package be.asafarim.rms.service.eta;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling preparation time per menu item, as an exponentially weighted moving average. The first observations
+ * are averaged evenly so a handful of samples is enough to replace the default.
+ */
+public final class PrepTimeEstimates {
+
+    private record Stat(double meanMillis, long samples) {
+    }
+
+    private final double smoothing;
+    private final long defaultMillis;
+    private final Map<UUID, Stat> stats = new ConcurrentHashMap<>();
+
+    public PrepTimeEstimates(double smoothing, long defaultMillis) {
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("smoothing must be in (0, 1]");
+        }
+        this.smoothing = smoothing;
+        this.defaultMillis = defaultMillis;
+    }
+
+    public long expectedMillis(UUID menuItemId) {
+        Stat stat = stats.get(menuItemId);
+        return stat != null ? Math.round(stat.meanMillis()) : defaultMillis;
+    }
+
+    public void seed(UUID menuItemId, long samples, double meanMillis) {
+        if (samples > 0 && meanMillis > 0) {
+            stats.put(menuItemId, new Stat(meanMillis, samples));
+        }
+    }
+
+    public void observe(UUID menuItemId, long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        stats.compute(menuItemId, (id, stat) -> {
+            if (stat == null) {
+                return new Stat(millis, 1);
+            }
+            double weight = Math.max(smoothing, 1.0 / (stat.samples() + 1));
+            return new Stat(stat.meanMillis() + weight * (millis - stat.meanMillis()), stat.samples() + 1);
+        });
+    }
+
+    public int size() {
+        return stats.size();
+    }
+}
@@ -0,0 +1,24 @@
+package be.asafarim.rms.service.eventsourcing;
+
+import be.asafarim.rms.domain.order.OrderStatus;
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of an order's append-only event stream ({@code order_events}).
+ */
+@Builder
+public record OrderEventRecord(
+        long id,
+        UUID orderId,
+        UUID restaurantId,
+        UUID locationId,
+        OrderEventType type,
+        OrderStatus status,
+        String notes,
+        UUID changedBy,
+        Instant occurredAt
+) {
+}
@@ -0,0 +1,45 @@
+package be.asafarim.rms.service.eventsourcing;
+
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Appends order lifecycle events to {@code order_events} inside the transaction that produced them, so the
+ * stream and the {@code orders} table can never diverge.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderEventRecorder {
+
+    private final OrderEventStore eventStore;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        eventStore.append(OrderEventRecord.builder()
+                .orderId(event.orderId())
+                .restaurantId(event.restaurantId())
+                .locationId(event.locationId())
+                .type(OrderEventType.PLACED)
+                .status(event.status())
+                .occurredAt(event.occurredAt())
+                .build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        eventStore.append(OrderEventRecord.builder()
+                .orderId(event.orderId())
+                .restaurantId(event.restaurantId())
+                .locationId(event.locationId())
+                .type(OrderEventType.STATUS_CHANGED)
+                .status(event.newStatus())
+                .notes(event.notes())
+                .changedBy(event.changedBy())
+                .occurredAt(event.occurredAt())
+                .build());
+    }
+}
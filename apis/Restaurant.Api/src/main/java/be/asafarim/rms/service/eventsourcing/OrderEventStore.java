@@ -0,0 +1,115 @@
+package be.asafarim.rms.service.eventsourcing;
+
+import be.asafarim.rms.domain.order.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access to the append-only {@code order_events} stream and the {@code order_projections} read model.
+ * Plain JDBC is used so replays can stream millions of rows and write projections in batches.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderEventStore {
+
+    private static final String EVENT_COLUMNS =
+            "id, order_id, restaurant_id, location_id, type, status, notes, changed_by, occurred_at";
+
+    private static final RowMapper<OrderEventRecord> EVENT_MAPPER = (rs, rowNum) -> OrderEventRecord.builder()
+            .id(rs.getLong("id"))
+            .orderId(rs.getObject("order_id", UUID.class))
+            .restaurantId(rs.getObject("restaurant_id", UUID.class))
+            .locationId(rs.getObject("location_id", UUID.class))
+            .type(OrderEventType.valueOf(rs.getString("type")))
+            .status(OrderStatus.valueOf(rs.getString("status")))
+            .notes(rs.getString("notes"))
+            .changedBy(rs.getObject("changed_by", UUID.class))
+            .occurredAt(rs.getTimestamp("occurred_at").toInstant())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(OrderEventRecord event) {
+        jdbcTemplate.update("INSERT INTO order_events " +
+                        "(order_id, restaurant_id, location_id, type, status, notes, changed_by, occurred_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                event.orderId(), event.restaurantId(), event.locationId(), event.type().name(),
+                event.status().name(), event.notes(), event.changedBy(), Timestamp.from(event.occurredAt()));
+    }
+
+    public List<OrderEventRecord> findByOrderId(UUID orderId) {
+        return jdbcTemplate.query("SELECT " + EVENT_COLUMNS + " FROM order_events WHERE order_id = ? ORDER BY id",
+                EVENT_MAPPER, orderId);
+    }
+
+    public List<UUID> findRestaurantIds() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT restaurant_id FROM order_events", UUID.class);
+    }
+
+    /**
+     * Streams every event of a restaurant grouped by order and in append order. Must run inside a transaction
+     * so the PostgreSQL driver uses a server-side cursor instead of materialising the result.
+     */
+    public void streamRestaurant(UUID restaurantId, int fetchSize, Consumer<OrderEventRecord> consumer) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT " + EVENT_COLUMNS +
+                    " FROM order_events WHERE restaurant_id = ? ORDER BY order_id, id");
+            statement.setFetchSize(fetchSize);
+            statement.setObject(1, restaurantId);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(EVENT_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+    public void upsertProjections(List<OrderProjection> projections) {
+        jdbcTemplate.batchUpdate("INSERT INTO order_projections " +
+                        "(order_id, restaurant_id, location_id, status, placed_at, ready_at, completed_at, " +
+                        "cancelled_at, cancellation_reason, last_event_id, projected_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW()) " +
+                        "ON CONFLICT (order_id) DO UPDATE SET status = EXCLUDED.status, " +
+                        "ready_at = EXCLUDED.ready_at, completed_at = EXCLUDED.completed_at, " +
+                        "cancelled_at = EXCLUDED.cancelled_at, cancellation_reason = EXCLUDED.cancellation_reason, " +
+                        "last_event_id = EXCLUDED.last_event_id, projected_at = NOW()",
+                projections, projections.size(), (ps, p) -> {
+                    ps.setObject(1, p.orderId());
+                    ps.setObject(2, p.restaurantId());
+                    ps.setObject(3, p.locationId());
+                    ps.setString(4, p.status().name());
+                    ps.setTimestamp(5, timestamp(p.placedAt()));
+                    ps.setTimestamp(6, timestamp(p.readyAt()));
+                    ps.setTimestamp(7, timestamp(p.completedAt()));
+                    ps.setTimestamp(8, timestamp(p.cancelledAt()));
+                    ps.setString(9, p.cancellationReason());
+                    ps.setLong(10, p.lastEventId());
+                });
+    }
+
+    /**
+     * Counts projected orders whose status or lifecycle timestamps disagree with {@code orders}.
+     * Timestamps are compared with a one-second tolerance, since events are stamped when they are published.
+     */
+    public long countProjectionMismatches() {
+        Long mismatches = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_projections p " +
+                "JOIN orders o ON o.id = p.order_id " +
+                "WHERE p.status <> o.status " +
+                "OR (p.ready_at IS NULL) <> (o.ready_at IS NULL) " +
+                "OR (p.completed_at IS NULL) <> (o.completed_at IS NULL) " +
+                "OR (p.cancelled_at IS NULL) <> (o.cancelled_at IS NULL) " +
+                "OR ABS(EXTRACT(EPOCH FROM (p.ready_at - o.ready_at))) > 1 " +
+                "OR ABS(EXTRACT(EPOCH FROM (p.completed_at - o.completed_at))) > 1 " +
+                "OR ABS(EXTRACT(EPOCH FROM (p.cancelled_at - o.cancelled_at))) > 1", Long.class);
+        return mismatches != null ? mismatches : 0;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
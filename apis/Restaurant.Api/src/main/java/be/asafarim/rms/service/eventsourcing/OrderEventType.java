@@ -0,0 +1,6 @@
+package be.asafarim.rms.service.eventsourcing;
+
+public enum OrderEventType {
+    PLACED,
+    STATUS_CHANGED
+}
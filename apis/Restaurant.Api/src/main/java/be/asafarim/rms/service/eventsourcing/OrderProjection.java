@@ -0,0 +1,25 @@
+package be.asafarim.rms.service.eventsourcing;
+
+import be.asafarim.rms.domain.order.OrderStatus;
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Order state derived purely from its event stream.
+ */
+@Builder(toBuilder = true)
+public record OrderProjection(
+        UUID orderId,
+        UUID restaurantId,
+        UUID locationId,
+        OrderStatus status,
+        Instant placedAt,
+        Instant readyAt,
+        Instant completedAt,
+        Instant cancelledAt,
+        String cancellationReason,
+        long lastEventId
+) {
+}
@@ -0,0 +1,41 @@
+package be.asafarim.rms.service.eventsourcing;
+
+import java.util.List;
+
+/**
+ * Folds order events into an {@link OrderProjection}, mirroring the timestamp rules of
+ * {@link be.asafarim.rms.domain.order.Order#updateStatus}.
+ */
+public final class OrderProjector {
+
+    private OrderProjector() {
+    }
+
+    public static OrderProjection project(List<OrderEventRecord> events) {
+        OrderProjection state = null;
+        for (OrderEventRecord event : events) {
+            state = apply(state, event);
+        }
+        return state;
+    }
+
+    public static OrderProjection apply(OrderProjection state, OrderEventRecord event) {
+        OrderProjection.OrderProjectionBuilder next = state == null
+                ? OrderProjection.builder()
+                        .orderId(event.orderId())
+                        .restaurantId(event.restaurantId())
+                        .locationId(event.locationId())
+                        .placedAt(event.occurredAt())
+                : state.toBuilder();
+
+        next.status(event.status()).lastEventId(event.id());
+        switch (event.status()) {
+            case READY -> next.readyAt(event.occurredAt());
+            case COMPLETED -> next.completedAt(event.occurredAt());
+            case CANCELLED -> next.cancelledAt(event.occurredAt()).cancellationReason(event.notes());
+            default -> {
+            }
+        }
+        return next.build();
+    }
+}
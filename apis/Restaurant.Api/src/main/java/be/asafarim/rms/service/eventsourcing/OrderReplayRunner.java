@@ -0,0 +1,24 @@
+package be.asafarim.rms.service.eventsourcing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off replay command: {@code java -jar restaurant-api.jar --rms.replay.enabled=true
+ * --spring.main.web-application-type=none}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rms.replay", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OrderReplayRunner implements ApplicationRunner {
+
+    private final OrderReplayService replayService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        replayService.replayAll();
+    }
+}
@@ -0,0 +1,142 @@
+package be.asafarim.rms.service.eventsourcing;
+
+import be.asafarim.rms.config.ReplayProperties;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds order state from {@code order_events}.
+ * <p>
+ * A full replay projects every restaurant in parallel: each worker streams one restaurant's events through a
+ * server-side cursor, folds them per order with {@link OrderProjector} and upserts {@code order_projections} in
+ * JDBC batches. Only the projection table is written, never {@code orders}.
+ * <p>
+ * Batches are written while the read-only cursor transaction is still open, so each write runs in its own
+ * transaction on a second connection: a worker holds two pooled connections, and a projection batch is committed
+ * as soon as it is written instead of when the restaurant's stream ends.
+ */
+@Service
+@Slf4j
+public class OrderReplayService {
+
+    @Builder
+    public record ReplayReport(
+            int restaurants,
+            long orders,
+            long events,
+            Duration elapsed,
+            long mismatches
+    ) {
+        public double eventsPerSecond() {
+            return elapsed.isZero() ? events : events * 1000.0 / elapsed.toMillis();
+        }
+    }
+
+    private final OrderEventStore eventStore;
+    private final ReplayProperties properties;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public OrderReplayService(OrderEventStore eventStore,
+                              ReplayProperties properties,
+                              PlatformTransactionManager transactionManager) {
+        this.eventStore = eventStore;
+        this.properties = properties;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public OrderProjection rebuild(UUID orderId) {
+        return OrderProjector.project(eventStore.findByOrderId(orderId));
+    }
+
+    public ReplayReport replayAll() {
+        long start = System.nanoTime();
+        List<UUID> restaurants = eventStore.findRestaurantIds();
+        AtomicLong orders = new AtomicLong();
+        AtomicLong events = new AtomicLong();
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, properties.parallelism()));
+        try {
+            List<Future<?>> tasks = new ArrayList<>(restaurants.size());
+            for (UUID restaurantId : restaurants) {
+                tasks.add(workers.submit(() -> replayRestaurant(restaurantId, orders, events)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replay interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Replay failed", ex.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        ReplayReport report = ReplayReport.builder()
+                .restaurants(restaurants.size())
+                .orders(orders.get())
+                .events(events.get())
+                .elapsed(Duration.ofNanos(System.nanoTime() - start))
+                .mismatches(eventStore.countProjectionMismatches())
+                .build();
+        log.info("Replayed {} events for {} orders of {} restaurants in {} ({} events/s), {} mismatches",
+                report.events(), report.orders(), report.restaurants(), report.elapsed(),
+                Math.round(report.eventsPerSecond()), report.mismatches());
+        return report;
+    }
+
+    private void replayRestaurant(UUID restaurantId, AtomicLong orders, AtomicLong events) {
+        List<OrderProjection> batch = new ArrayList<>(properties.batchSize());
+        OrderProjection[] current = new OrderProjection[1];
+
+        readTransaction.executeWithoutResult(status -> eventStore.streamRestaurant(restaurantId,
+                properties.fetchSize(), event -> {
+                    events.incrementAndGet();
+                    OrderProjection state = current[0];
+                    if (state != null && !state.orderId().equals(event.orderId())) {
+                        flushIfFull(batch, state);
+                        orders.incrementAndGet();
+                        state = null;
+                    }
+                    current[0] = OrderProjector.apply(state, event);
+                }));
+
+        if (current[0] != null) {
+            batch.add(current[0]);
+            orders.incrementAndGet();
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void flushIfFull(List<OrderProjection> batch, OrderProjection projection) {
+        batch.add(projection);
+        if (batch.size() >= properties.batchSize()) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<OrderProjection> batch) {
+        writeTransaction.executeWithoutResult(status -> eventStore.upsertProjections(batch));
+    }
+}
@@ -0,0 +1,324 @@
+package be.asafarim.rms.service.inventory;
+
+import be.asafarim.rms.config.InventoryProperties;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves ingredient stock for placed and cancelled orders outside the POS transaction.
+ * <p>
+ * Committed order events are expanded through an in-memory recipe index into one {@code OUT} movement per
+ * ingredient and order, and buffered. Every {@code flushInterval} the buffer is written in one transaction:
+ * the movements as a JDBC batch, reversals for orders cancelled before the kitchen started them, and a single
+ * {@code current_stock} update per ingredient with the coalesced net delta. Ingredients that drop to their
+ * reorder point publish a {@link ReorderPointCrossedEvent}.
+ * <p>
+ * Quantities keep the four decimals of the recipes, so the consumption of small portions is never rounded
+ * away. A flush failing because the database is unavailable is put back and retried up to
+ * {@code maxAttempts} times. Any other failure, or running out of attempts, writes the buffer order by order
+ * instead, so one bad movement (an ingredient deleted meanwhile) cannot block the others; orders that still fail
+ * are logged with their movements and counted in {@code rms.inventory.failed}.
+ */
+@Service
+@Slf4j
+public class InventoryDeductionPipeline {
+
+    private static final int STOCK_SCALE = 4;
+
+    private final InventoryProperties properties;
+    private final InventoryStore store;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter movementCounter;
+    private final Counter alertCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "inventory-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<StockMovement> pendingMovements = new ArrayList<>();
+    private Set<UUID> pendingCancellations = new LinkedHashSet<>();
+    private volatile Map<UUID, List<RecipeLine>> recipes = Map.of();
+    private int failedAttempts; // consecutive failed flushes, only touched by the flushing thread
+
+    public InventoryDeductionPipeline(InventoryProperties properties,
+                                      InventoryStore store,
+                                      TransactionTemplate transactionTemplate,
+                                      ApplicationEventPublisher eventPublisher,
+                                      MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.movementCounter = Counter.builder("rms.inventory.movements")
+                .description("Stock movements written for orders")
+                .register(meterRegistry);
+        this.alertCounter = Counter.builder("rms.inventory.reorder.alerts")
+                .description("Ingredients that dropped to their reorder point")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("rms.inventory.failed")
+                .description("Orders whose stock movements could not be written and were dropped")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("rms.inventory.flush")
+                .description("Time to write one coalesced batch of stock changes")
+                .register(meterRegistry);
+        Gauge.builder("rms.inventory.pending", this, InventoryDeductionPipeline::pendingMovements)
+                .description("Stock movements waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            log.info("Inventory deduction is disabled");
+            return;
+        }
+        reloadRecipes();
+        long refreshMillis = properties.recipeRefresh().toMillis();
+        flusher.scheduleWithFixedDelay(this::reloadRecipes, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        long flushMillis = properties.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        Map<UUID, BigDecimal> consumed = new HashMap<>();
+        Map<UUID, List<RecipeLine>> index = recipes;
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            List<RecipeLine> recipe = index.get(line.menuItemId());
+            if (recipe == null) {
+                continue;
+            }
+            BigDecimal units = BigDecimal.valueOf(line.quantity());
+            for (RecipeLine ingredient : recipe) {
+                consumed.merge(ingredient.ingredientId(), ingredient.quantity().multiply(units), BigDecimal::add);
+            }
+        }
+        if (consumed.isEmpty()) {
+            return;
+        }
+
+        List<StockMovement> movements = new ArrayList<>(consumed.size());
+        consumed.forEach((ingredientId, quantity) -> {
+            BigDecimal rounded = quantity.setScale(STOCK_SCALE, RoundingMode.HALF_UP);
+            if (rounded.signum() > 0) {
+                movements.add(StockMovement.builder()
+                        .ingredientId(ingredientId)
+                        .type(StockMovementType.OUT)
+                        .quantity(rounded)
+                        .referenceType(InventoryStore.ORDER_REFERENCE)
+                        .referenceId(event.orderId())
+                        .build());
+            }
+        });
+        lock.lock();
+        try {
+            pendingMovements.addAll(movements);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        // Ingredients of orders the kitchen already started are considered used.
+        if (!properties.enabled() || event.newStatus() != OrderStatus.CANCELLED
+                || (event.previousStatus() != OrderStatus.PENDING && event.previousStatus() != OrderStatus.CONFIRMED)) {
+            return;
+        }
+        lock.lock();
+        try {
+            pendingCancellations.add(event.orderId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    void flush() {
+        List<StockMovement> movements;
+        Set<UUID> cancellations;
+        lock.lock();
+        try {
+            if (pendingMovements.isEmpty() && pendingCancellations.isEmpty()) {
+                return;
+            }
+            movements = pendingMovements;
+            cancellations = pendingCancellations;
+            pendingMovements = new ArrayList<>();
+            pendingCancellations = new LinkedHashSet<>();
+        } finally {
+            lock.unlock();
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<StockLevelChange> changes = transactionTemplate.execute(status -> write(movements, cancellations));
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            movementCounter.increment(movements.size());
+            failedAttempts = 0;
+            alertCrossings(changes);
+        } catch (RuntimeException ex) {
+            if (isTransient(ex) && ++failedAttempts < properties.maxAttempts()) {
+                log.warn("Writing {} stock movements and {} cancellations failed (attempt {} of {}), will retry: {}",
+                        movements.size(), cancellations.size(), failedAttempts, properties.maxAttempts(),
+                        ex.getMessage());
+                requeue(movements, cancellations);
+                return;
+            }
+            failedAttempts = 0;
+            log.warn("Writing {} stock movements and {} cancellations failed, writing them order by order",
+                    movements.size(), cancellations.size(), ex);
+            writeIndividually(movements, cancellations);
+        }
+    }
+
+    /**
+     * Writes each order's movements, and its cancellation if any, in its own transaction. Orders that fail are
+     * dropped; the log line carries everything needed to book them by hand.
+     */
+    private void writeIndividually(List<StockMovement> movements, Set<UUID> cancellations) {
+        Map<UUID, List<StockMovement>> byOrder = new LinkedHashMap<>();
+        for (StockMovement movement : movements) {
+            byOrder.computeIfAbsent(movement.referenceId(), id -> new ArrayList<>()).add(movement);
+        }
+        for (UUID orderId : cancellations) {
+            byOrder.putIfAbsent(orderId, List.of());
+        }
+
+        byOrder.forEach((orderId, orderMovements) -> {
+            Set<UUID> cancelled = cancellations.contains(orderId) ? Set.of(orderId) : Set.of();
+            try {
+                List<StockLevelChange> changes =
+                        transactionTemplate.execute(status -> write(orderMovements, cancelled));
+                movementCounter.increment(orderMovements.size());
+                alertCrossings(changes);
+            } catch (RuntimeException ex) {
+                failedCounter.increment();
+                log.error("Dropping stock changes of order {} (cancelled: {}, movements: {}): {}",
+                        orderId, !cancelled.isEmpty(), orderMovements, ex.getMessage());
+            }
+        });
+    }
+
+    private static boolean isTransient(Throwable ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    private List<StockLevelChange> write(List<StockMovement> movements, Set<UUID> cancellations) {
+        Map<UUID, BigDecimal> deltas = new HashMap<>();
+        if (!movements.isEmpty()) {
+            store.insertMovements(movements);
+            for (StockMovement movement : movements) {
+                deltas.merge(movement.ingredientId(), movement.signedQuantity(), BigDecimal::add);
+            }
+        }
+        // Runs after the inserts so orders placed and cancelled within one window are reversed as well.
+        if (!cancellations.isEmpty()) {
+            store.reverseOrderMovements(List.copyOf(cancellations))
+                    .forEach((ingredientId, restored) -> deltas.merge(ingredientId, restored, BigDecimal::add));
+        }
+        deltas.values().removeIf(delta -> delta.signum() == 0);
+        return deltas.isEmpty() ? List.of() : store.applyDeltas(deltas);
+    }
+
+    private void alertCrossings(List<StockLevelChange> changes) {
+        Instant now = Instant.now();
+        for (StockLevelChange change : changes) {
+            if (!change.crossedBelowReorderPoint()) {
+                continue;
+            }
+            alertCounter.increment();
+            log.warn("Ingredient {} ({}) is at {}, reorder point {}",
+                    change.name(), change.ingredientId(), change.currentStock(), change.reorderPoint());
+            eventPublisher.publishEvent(ReorderPointCrossedEvent.builder()
+                    .ingredientId(change.ingredientId())
+                    .restaurantId(change.restaurantId())
+                    .name(change.name())
+                    .currentStock(change.currentStock())
+                    .reorderPoint(change.reorderPoint())
+                    .occurredAt(now)
+                    .build());
+        }
+    }
+
+    private void requeue(List<StockMovement> movements, Set<UUID> cancellations) {
+        lock.lock();
+        try {
+            movements.addAll(pendingMovements);
+            pendingMovements = movements;
+            cancellations.addAll(pendingCancellations);
+            pendingCancellations = cancellations;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reloadRecipes() {
+        try {
+            Map<UUID, List<RecipeLine>> loaded = store.loadRecipes();
+            loaded.replaceAll((menuItemId, lines) -> List.copyOf(lines));
+            recipes = Map.copyOf(loaded);
+            log.debug("Loaded recipes for {} menu items", loaded.size());
+        } catch (RuntimeException ex) {
+            log.error("Reloading recipes failed, keeping the previous index", ex);
+        }
+    }
+
+    private double pendingMovements() {
+        lock.lock();
+        try {
+            return pendingMovements.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
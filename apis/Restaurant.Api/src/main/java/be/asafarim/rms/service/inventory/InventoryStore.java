@@ -0,0 +1,113 @@
+package be.asafarim.rms.service.inventory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC access to recipes, {@code stock_movements} and {@code ingredients.current_stock}. Every write is one
+ * statement or one JDBC batch regardless of how many orders were coalesced into it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryStore {
+
+    public static final String ORDER_REFERENCE = "ORDER";
+    public static final String ORDER_CANCELLED_REFERENCE = "ORDER_CANCELLED";
+
+    private static final String REVERSE_ORDER_MOVEMENTS = """
+            INSERT INTO stock_movements (ingredient_id, type, quantity, reference_type, reference_id)
+            SELECT m.ingredient_id, 'IN', m.quantity, ?, m.reference_id
+              FROM stock_movements m
+             WHERE m.reference_type = ?
+               AND m.type = 'OUT'
+               AND m.reference_id = ANY(?)
+               AND NOT EXISTS (SELECT 1 FROM stock_movements r
+                                WHERE r.reference_type = ? AND r.reference_id = m.reference_id)
+            RETURNING ingredient_id, quantity
+            """;
+
+    private static final String APPLY_DELTAS = """
+            UPDATE ingredients i
+               SET current_stock = COALESCE(i.current_stock, 0) + d.delta
+              FROM unnest(?::uuid[], ?::numeric[]) AS d(id, delta)
+             WHERE i.id = d.id
+            RETURNING i.id, i.restaurant_id, i.name, i.current_stock, i.reorder_point, d.delta
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Map<UUID, List<RecipeLine>> loadRecipes() {
+        Map<UUID, List<RecipeLine>> recipes = new HashMap<>();
+        jdbcTemplate.query("SELECT r.menu_item_id, r.ingredient_id, r.quantity FROM recipes r " +
+                        "JOIN ingredients i ON i.id = r.ingredient_id WHERE i.status = 'ACTIVE'",
+                (RowCallbackHandler) rs -> recipes
+                        .computeIfAbsent(rs.getObject("menu_item_id", UUID.class), id -> new ArrayList<>())
+                        .add(new RecipeLine(rs.getObject("ingredient_id", UUID.class), rs.getBigDecimal("quantity"))));
+        return recipes;
+    }
+
+    public void insertMovements(List<StockMovement> movements) {
+        jdbcTemplate.batchUpdate("INSERT INTO stock_movements " +
+                        "(ingredient_id, type, quantity, reference_type, reference_id) VALUES (?, ?, ?, ?, ?)",
+                movements.stream()
+                        .map(m -> new Object[]{m.ingredientId(), m.type().name(), m.quantity(),
+                                m.referenceType(), m.referenceId()})
+                        .toList());
+    }
+
+    /**
+     * Books an {@code IN} movement for every {@code OUT} movement of the given orders that has not been
+     * reversed yet.
+     *
+     * @return the restored quantity per ingredient
+     */
+    public Map<UUID, BigDecimal> reverseOrderMovements(List<UUID> orderIds) {
+        Map<UUID, BigDecimal> restored = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(REVERSE_ORDER_MOVEMENTS);
+            statement.setString(1, ORDER_CANCELLED_REFERENCE);
+            statement.setString(2, ORDER_REFERENCE);
+            statement.setArray(3, connection.createArrayOf("uuid", orderIds.toArray()));
+            statement.setString(4, ORDER_CANCELLED_REFERENCE);
+            return statement;
+        }, (RowCallbackHandler) rs -> restored.merge(rs.getObject("ingredient_id", UUID.class),
+                rs.getBigDecimal("quantity"), BigDecimal::add));
+        return restored;
+    }
+
+    /**
+     * Adds each delta to its ingredient's {@code current_stock} in a single statement.
+     */
+    public List<StockLevelChange> applyDeltas(Map<UUID, BigDecimal> deltas) {
+        UUID[] ids = deltas.keySet().toArray(UUID[]::new);
+        BigDecimal[] amounts = new BigDecimal[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            amounts[i] = deltas.get(ids[i]);
+        }
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(APPLY_DELTAS);
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            statement.setArray(2, connection.createArrayOf("numeric", amounts));
+            return statement;
+        }, (rs, rowNum) -> {
+            BigDecimal current = rs.getBigDecimal("current_stock");
+            return StockLevelChange.builder()
+                    .ingredientId(rs.getObject("id", UUID.class))
+                    .restaurantId(rs.getObject("restaurant_id", UUID.class))
+                    .name(rs.getString("name"))
+                    .previousStock(current.subtract(rs.getBigDecimal("delta")))
+                    .currentStock(current)
+                    .reorderPoint(rs.getBigDecimal("reorder_point"))
+                    .build();
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package be.asafarim.rms.service.inventory;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Quantity of one ingredient consumed by one unit of a menu item, in the ingredient's unit.
+ */
+public record RecipeLine(
+        UUID ingredientId,
+        BigDecimal quantity
+) {
+}
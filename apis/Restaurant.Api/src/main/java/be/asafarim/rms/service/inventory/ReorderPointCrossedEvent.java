@@ -0,0 +1,22 @@
+package be.asafarim.rms.service.inventory;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by {@link InventoryDeductionPipeline} when an ingredient's stock drops to or below its reorder
+ * point. Fired once per crossing, not for every later deduction.
+ */
+@Builder
+public record ReorderPointCrossedEvent(
+        UUID ingredientId,
+        UUID restaurantId,
+        String name,
+        BigDecimal currentStock,
+        BigDecimal reorderPoint,
+        Instant occurredAt
+) {
+}
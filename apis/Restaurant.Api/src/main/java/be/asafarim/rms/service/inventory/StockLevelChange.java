@@ -0,0 +1,26 @@
+package be.asafarim.rms.service.inventory;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Result of applying one coalesced delta to an ingredient's {@code current_stock}.
+ */
+@Builder
+public record StockLevelChange(
+        UUID ingredientId,
+        UUID restaurantId,
+        String name,
+        BigDecimal previousStock,
+        BigDecimal currentStock,
+        BigDecimal reorderPoint
+) {
+
+    public boolean crossedBelowReorderPoint() {
+        return reorderPoint != null
+                && previousStock.compareTo(reorderPoint) > 0
+                && currentStock.compareTo(reorderPoint) <= 0;
+    }
+}
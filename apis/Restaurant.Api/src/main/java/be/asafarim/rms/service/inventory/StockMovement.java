@@ -0,0 +1,23 @@
+package be.asafarim.rms.service.inventory;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One {@code stock_movements} row. {@code quantity} is always positive; {@link #type()} gives the direction.
+ */
+@Builder
+public record StockMovement(
+        UUID ingredientId,
+        StockMovementType type,
+        BigDecimal quantity,
+        String referenceType,
+        UUID referenceId
+) {
+
+    public BigDecimal signedQuantity() {
+        return type == StockMovementType.IN ? quantity : quantity.negate();
+    }
+}
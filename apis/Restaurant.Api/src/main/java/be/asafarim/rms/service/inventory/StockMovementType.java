@@ -0,0 +1,8 @@
+package be.asafarim.rms.service.inventory;
+
+public enum StockMovementType {
+    IN,
+    OUT,
+    ADJUSTMENT,
+    WASTE
+}
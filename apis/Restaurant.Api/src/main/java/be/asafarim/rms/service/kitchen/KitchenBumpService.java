@@ -0,0 +1,189 @@
+package be.asafarim.rms.service.kitchen;
+
+import be.asafarim.rms.api.kitchen.dto.ItemBumpRequest;
+import be.asafarim.rms.api.kitchen.dto.ItemBumpResponse;
+import be.asafarim.rms.domain.order.OrderItemStatus;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.event.OrderItemsBumpedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import be.asafarim.rms.exception.InvalidOrderStateException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Item-level status changes for kitchen display screens.
+ * <p>
+ * A bump is a few set-based statements instead of one aggregate load per order: the items are updated with a
+ * single {@code UPDATE ... WHERE id = ANY(?)}, then every touched {@code IN_PROGRESS} order whose items are all
+ * prepared is promoted to {@code READY} in a second statement. History rows for promoted orders are inserted
+ * as one JDBC batch and the usual {@link OrderStatusChangedEvent} is published for each of them.
+ * <p>
+ * The orders owning the bumped items are locked first. Without that, two stations bumping the last items of
+ * one order concurrently would each see the other's item as not yet prepared, and neither would promote it.
+ * With the lock the second bump waits for the first to commit, and its promotion check, a new statement under
+ * read committed, sees the first bump's items.
+ */
+@Service
+@Slf4j
+public class KitchenBumpService {
+
+    // Locked in id order, so bumps spanning several orders cannot deadlock each other.
+    private static final String LOCK_ORDERS = """
+            SELECT o.id
+              FROM orders o
+             WHERE o.id IN (SELECT i.order_id FROM order_items i WHERE i.id = ANY(?))
+             ORDER BY o.id
+               FOR UPDATE
+            """;
+
+    private static final String BUMP_ITEMS = """
+            UPDATE order_items i
+               SET status = ?,
+                   prepared_at = CASE WHEN ? THEN COALESCE(i.prepared_at, NOW()) ELSE i.prepared_at END
+              FROM orders o
+             WHERE i.id = ANY(?)
+               AND o.id = i.order_id
+               AND o.status IN ('CONFIRMED', 'IN_PROGRESS', 'READY')
+               AND i.status NOT IN ('SERVED', 'CANCELLED')
+            RETURNING i.id, i.order_id
+            """;
+
+    private static final String PROMOTE_READY_ORDERS = """
+            UPDATE orders o
+               SET status = 'READY', ready_at = NOW(), updated_at = NOW()
+             WHERE o.id = ANY(?)
+               AND o.status = 'IN_PROGRESS'
+               AND NOT EXISTS (SELECT 1 FROM order_items i
+                                WHERE i.order_id = o.id
+                                  AND i.status NOT IN ('READY', 'SERVED', 'CANCELLED'))
+            RETURNING o.id, o.restaurant_id, o.location_id, o.estimated_ready_at, o.created_at,
+                      (SELECT MAX(h.created_at) FROM order_status_history h WHERE h.order_id = o.id) AS last_changed_at
+            """;
+
+    private static final String INSERT_HISTORY =
+            "INSERT INTO order_status_history (order_id, status, notes, changed_by) VALUES (?, 'READY', ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DistributionSummary bumpSize;
+
+    public KitchenBumpService(JdbcTemplate jdbcTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.bumpSize = DistributionSummary.builder("rms.kitchen.bump.items")
+                .description("Order items moved per kitchen bump")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public ItemBumpResponse bump(ItemBumpRequest request, UUID changedBy) {
+        OrderItemStatus target = request.status() != null ? request.status() : OrderItemStatus.READY;
+        if (target != OrderItemStatus.PREPARING && target != OrderItemStatus.READY
+                && target != OrderItemStatus.SERVED) {
+            throw new InvalidOrderStateException("Kitchen cannot bump items to status: " + target);
+        }
+        boolean prepared = target != OrderItemStatus.PREPARING;
+        UUID[] itemIds = new LinkedHashSet<>(request.itemIds()).toArray(UUID[]::new);
+
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(LOCK_ORDERS);
+            statement.setArray(1, connection.createArrayOf("uuid", itemIds));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            // Only the row locks are needed
+        });
+
+        List<UUID> bumpedItemIds = new ArrayList<>(itemIds.length);
+        Set<UUID> orderIds = new LinkedHashSet<>();
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(BUMP_ITEMS);
+            statement.setString(1, target.name());
+            statement.setBoolean(2, prepared);
+            statement.setArray(3, connection.createArrayOf("uuid", itemIds));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            bumpedItemIds.add(rs.getObject(1, UUID.class));
+            orderIds.add(rs.getObject(2, UUID.class));
+        });
+
+        List<UUID> readyOrderIds = prepared && !orderIds.isEmpty()
+                ? promoteReadyOrders(orderIds, request.station(), changedBy)
+                : List.of();
+
+        Set<UUID> skipped = new LinkedHashSet<>(List.of(itemIds));
+        bumpedItemIds.forEach(skipped::remove);
+        bumpSize.record(bumpedItemIds.size());
+        log.debug("Station {} bumped {} items to {}, {} orders ready",
+                request.station(), bumpedItemIds.size(), target, readyOrderIds.size());
+
+        if (!bumpedItemIds.isEmpty()) {
+            eventPublisher.publishEvent(OrderItemsBumpedEvent.builder()
+                    .station(request.station())
+                    .status(target)
+                    .orderItemIds(List.copyOf(bumpedItemIds))
+                    .orderIds(List.copyOf(orderIds))
+                    .occurredAt(Instant.now())
+                    .build());
+        }
+
+        return ItemBumpResponse.builder()
+                .status(target)
+                .bumpedItemIds(bumpedItemIds)
+                .skippedItemIds(List.copyOf(skipped))
+                .readyOrderIds(readyOrderIds)
+                .build();
+    }
+
+    private List<UUID> promoteReadyOrders(Set<UUID> orderIds, String station, UUID changedBy) {
+        UUID[] candidates = orderIds.toArray(UUID[]::new);
+        String notes = "All items prepared (" + station + ")";
+        Instant now = Instant.now();
+
+        List<OrderStatusChangedEvent> events = jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(PROMOTE_READY_ORDERS);
+            statement.setArray(1, connection.createArrayOf("uuid", candidates));
+            return statement;
+        }, (rs, rowNum) -> OrderStatusChangedEvent.builder()
+                .orderId(rs.getObject("id", UUID.class))
+                .restaurantId(rs.getObject("restaurant_id", UUID.class))
+                .locationId(rs.getObject("location_id", UUID.class))
+                .previousStatus(OrderStatus.IN_PROGRESS)
+                .newStatus(OrderStatus.READY)
+                .previousStatusAt(toInstant(rs.getTimestamp("last_changed_at")))
+                .estimatedReadyAt(toInstant(rs.getTimestamp("estimated_ready_at")))
+                .placedAt(toInstant(rs.getTimestamp("created_at")))
+                .occurredAt(now)
+                .notes(notes)
+                .changedBy(changedBy)
+                .build());
+
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, events.stream()
+                .map(event -> new Object[]{event.orderId(), notes, changedBy})
+                .toList());
+        events.forEach(eventPublisher::publishEvent);
+        return events.stream().map(OrderStatusChangedEvent::orderId).toList();
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
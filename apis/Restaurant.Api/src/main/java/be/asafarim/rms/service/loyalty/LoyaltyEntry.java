@@ -0,0 +1,21 @@
+package be.asafarim.rms.service.loyalty;
+
+import lombok.Builder;
+
+import java.util.UUID;
+
+/**
+ * One {@code loyalty_transactions} row. {@code points} is signed: redemptions and reversals are negative.
+ * {@code balanceAfter} is only set for applied debits; the balance after a credit is computed when it is
+ * inserted.
+ */
+@Builder
+public record LoyaltyEntry(
+        UUID customerId,
+        UUID orderId,
+        LoyaltyTransactionType type,
+        int points,
+        Integer balanceAfter,
+        String description
+) {
+}
@@ -0,0 +1,173 @@
+package be.asafarim.rms.service.loyalty;
+
+import be.asafarim.rms.config.LoyaltyProperties;
+import be.asafarim.rms.domain.order.Order;
+import be.asafarim.rms.exception.InvalidOrderStateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loyalty points ledger that keeps the hot {@code customers.loyalty_points} row out of the accrual path.
+ * <p>
+ * Spending points is checked and applied in the database, in the transaction that places or cancels the order:
+ * {@link LoyaltyLedgerStore#redeem} debits the customer row only if the balance covers it, so concurrent orders
+ * on any number of instances can never redeem the same points twice. Credits (earned points, refunds of redeemed
+ * points) cannot overdraw a balance, so they skip the customer row: they are inserted into
+ * {@code loyalty_transactions} in the same transaction, uncompacted, and folded into
+ * {@code customers.loyalty_points} by a background compaction. A committed order therefore never loses its
+ * credit, and one that rolls back never had one.
+ */
+@Service
+@Slf4j
+public class LoyaltyLedger {
+
+    private final LoyaltyProperties properties;
+    private final LoyaltyLedgerStore store;
+    private final Counter rejectedRedemptions;
+    private final Counter appendedEntries;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "loyalty-ledger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LoyaltyLedger(LoyaltyProperties properties,
+                         LoyaltyLedgerStore store,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.rejectedRedemptions = Counter.builder("rms.loyalty.redemptions.rejected")
+                .description("Orders rejected because the customer had too few points")
+                .register(meterRegistry);
+        this.appendedEntries = Counter.builder("rms.loyalty.entries")
+                .description("Credits appended to the loyalty ledger")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long compactionMillis = properties.compactionInterval().toMillis();
+        writer.scheduleWithFixedDelay(this::compact, compactionMillis, compactionMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The committed balance, including credits that have not been compacted yet.
+     */
+    public int balance(UUID customerId) {
+        return store.loadBalance(customerId);
+    }
+
+    /**
+     * Redeems the points an order uses and credits the points it earns, both in the transaction that places the
+     * order. Must be called inside that transaction.
+     *
+     * @throws InvalidOrderStateException if points are redeemed without a customer or the balance is too low
+     */
+    public void applyOrder(Order order) {
+        int used = order.getLoyaltyPointsUsed() != null ? order.getLoyaltyPointsUsed() : 0;
+        int earned = order.getLoyaltyPointsEarned() != null ? order.getLoyaltyPointsEarned() : 0;
+        UUID customerId = order.getCustomerId();
+        if (customerId == null) {
+            if (used > 0) {
+                throw new InvalidOrderStateException("Loyalty points can only be redeemed by a known customer");
+            }
+            return;
+        }
+
+        if (used > 0) {
+            OptionalInt remaining = store.redeem(customerId, used);
+            if (remaining.isEmpty()) {
+                rejectedRedemptions.increment();
+                throw new InvalidOrderStateException(String.format(
+                        "Insufficient loyalty points: %d requested, %d available",
+                        used, store.loadBalance(customerId)));
+            }
+            // The order is saved after this call; its ID is known by the time the transaction commits.
+            beforeCommit(() -> store.appendApplied(entry(customerId, order.getId(), LoyaltyTransactionType.REDEEM,
+                    -used, remaining.getAsInt(), "Redeemed on order " + order.getOrderNumber())));
+        }
+        if (earned > 0) {
+            beforeCommit(() -> credit(entry(customerId, order.getId(), LoyaltyTransactionType.EARN,
+                    earned, null, "Earned on order " + order.getOrderNumber())));
+        }
+    }
+
+    /**
+     * Takes back the points {@code order} earned and gives back its redeemed points, both in the cancelling
+     * transaction.
+     */
+    public void reverseOrder(Order order) {
+        int used = order.getLoyaltyPointsUsed() != null ? order.getLoyaltyPointsUsed() : 0;
+        int earned = order.getLoyaltyPointsEarned() != null ? order.getLoyaltyPointsEarned() : 0;
+        UUID customerId = order.getCustomerId();
+        if (customerId == null) {
+            return;
+        }
+        if (earned > 0) {
+            int balance = store.debit(customerId, earned);
+            store.appendApplied(entry(customerId, order.getId(), LoyaltyTransactionType.ADJUST, -earned, balance,
+                    "Reversal for cancelled order " + order.getOrderNumber()));
+        }
+        if (used > 0) {
+            credit(entry(customerId, order.getId(), LoyaltyTransactionType.ADJUST,
+                    used, null, "Refund for cancelled order " + order.getOrderNumber()));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.shutdownNow();
+    }
+
+    private void credit(LoyaltyEntry entry) {
+        store.append(entry);
+        appendedEntries.increment();
+    }
+
+    private void compact() {
+        try {
+            int customers = store.compact();
+            log.debug("Compacted loyalty ledger into {} customer balances", customers);
+        } catch (RuntimeException ex) {
+            log.error("Loyalty ledger compaction failed", ex);
+        }
+    }
+
+    private static LoyaltyEntry entry(UUID customerId, UUID orderId, LoyaltyTransactionType type,
+                                      int points, Integer balanceAfter, String description) {
+        return LoyaltyEntry.builder()
+                .customerId(customerId)
+                .orderId(orderId)
+                .type(type)
+                .points(points)
+                .balanceAfter(balanceAfter)
+                .description(description)
+                .build();
+    }
+
+    private static void beforeCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                action.run();
+            }
+        });
+    }
+}
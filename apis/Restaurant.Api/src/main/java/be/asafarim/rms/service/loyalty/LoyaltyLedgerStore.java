@@ -0,0 +1,143 @@
+package be.asafarim.rms.service.loyalty;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * JDBC access to the append-only {@code loyalty_transactions} ledger and the compacted balances in
+ * {@code customers.loyalty_points}.
+ * <p>
+ * A balance is the compacted points plus every entry not folded in yet. Credits are appended uncompacted and
+ * folded in later; debits are applied to {@code customers.loyalty_points} at once, under the customer's row lock,
+ * and their entries are appended already compacted. Two instances redeeming for one customer therefore serialize
+ * on that row and can never both spend the same points.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoyaltyLedgerStore {
+
+    private static final String COMPACT = """
+            WITH settled AS (
+                UPDATE loyalty_transactions SET compacted_at = NOW()
+                 WHERE compacted_at IS NULL
+                RETURNING customer_id, points
+            ), totals AS (
+                SELECT customer_id, SUM(points) AS points FROM settled GROUP BY customer_id
+            )
+            INSERT INTO customers (id, loyalty_points)
+            SELECT customer_id, points FROM totals
+            ON CONFLICT (id) DO UPDATE SET loyalty_points = COALESCE(customers.loyalty_points, 0) + EXCLUDED.loyalty_points
+            """;
+
+    // The no-op update takes the row lock, creating the row on first use; the debit that follows is a new
+    // statement, so it reads the balance as committed by whoever held the lock before.
+    private static final String LOCK_CUSTOMER = """
+            INSERT INTO customers (id, loyalty_points) VALUES (?, 0)
+            ON CONFLICT (id) DO UPDATE SET loyalty_points = customers.loyalty_points
+            """;
+
+    private static final String REDEEM = """
+            UPDATE customers c
+               SET loyalty_points = COALESCE(c.loyalty_points, 0) - ?
+             WHERE c.id = ?
+               AND COALESCE(c.loyalty_points, 0) + COALESCE((SELECT SUM(t.points) FROM loyalty_transactions t
+                                                             WHERE t.customer_id = c.id
+                                                               AND t.compacted_at IS NULL), 0) >= ?
+            RETURNING COALESCE(c.loyalty_points, 0) + COALESCE((SELECT SUM(t.points) FROM loyalty_transactions t
+                                                                WHERE t.customer_id = c.id
+                                                                  AND t.compacted_at IS NULL), 0)
+            """;
+
+    private static final String DEBIT = """
+            UPDATE customers c
+               SET loyalty_points = COALESCE(c.loyalty_points, 0) - ?
+             WHERE c.id = ?
+            RETURNING COALESCE(c.loyalty_points, 0) + COALESCE((SELECT SUM(t.points) FROM loyalty_transactions t
+                                                                WHERE t.customer_id = c.id
+                                                                  AND t.compacted_at IS NULL), 0)
+            """;
+
+    // Credits do not touch the customer row, so their balance is computed from the ledger when they are inserted.
+    private static final String APPEND = """
+            INSERT INTO loyalty_transactions (customer_id, order_id, type, points, balance_after, description)
+            VALUES (?, ?, ?, ?,
+                    COALESCE((SELECT loyalty_points FROM customers WHERE id = ?), 0)
+                    + COALESCE((SELECT SUM(points) FROM loyalty_transactions
+                                 WHERE customer_id = ? AND compacted_at IS NULL), 0) + ?,
+                    ?)
+            """;
+
+    private static final String APPEND_APPLIED = """
+            INSERT INTO loyalty_transactions
+                   (customer_id, order_id, type, points, balance_after, description, compacted_at)
+            VALUES (?, ?, ?, ?, ?, ?, NOW())
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Current balance: the compacted points plus every entry not folded in yet. Read in one statement, so a
+     * concurrent compaction is either fully visible or not at all.
+     */
+    public int loadBalance(UUID customerId) {
+        Integer balance = jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT loyalty_points FROM customers WHERE id = ?), 0) " +
+                        "+ COALESCE((SELECT SUM(points) FROM loyalty_transactions " +
+                        "WHERE customer_id = ? AND compacted_at IS NULL), 0)",
+                Integer.class, customerId, customerId);
+        return balance != null ? balance : 0;
+    }
+
+    /**
+     * Takes {@code points} off the balance if it covers them. The customer row stays locked until the calling
+     * transaction ends, so the check and the debit are atomic across instances.
+     *
+     * @return the balance after the debit, or empty if the balance was too low and nothing changed
+     */
+    public OptionalInt redeem(UUID customerId, int points) {
+        jdbcTemplate.update(LOCK_CUSTOMER, customerId);
+        List<Integer> balance = jdbcTemplate.queryForList(REDEEM, Integer.class, points, customerId, points);
+        return balance.isEmpty() ? OptionalInt.empty() : OptionalInt.of(balance.get(0));
+    }
+
+    /**
+     * Takes {@code points} off the balance unconditionally, for reversals that may leave it negative.
+     *
+     * @return the balance after the debit
+     */
+    public int debit(UUID customerId, int points) {
+        jdbcTemplate.update(LOCK_CUSTOMER, customerId);
+        Integer balance = jdbcTemplate.queryForObject(DEBIT, Integer.class, points, customerId);
+        return balance != null ? balance : -points;
+    }
+
+    /**
+     * Appends a credit that is not reflected in {@code customers.loyalty_points} yet; compaction folds it in.
+     */
+    public void append(LoyaltyEntry entry) {
+        jdbcTemplate.update(APPEND, entry.customerId(), entry.orderId(), entry.type().name(), entry.points(),
+                entry.customerId(), entry.customerId(), entry.points(), entry.description());
+    }
+
+    /**
+     * Appends the entry of a debit already applied by {@link #redeem} or {@link #debit}, marked as compacted.
+     */
+    public void appendApplied(LoyaltyEntry entry) {
+        jdbcTemplate.update(APPEND_APPLIED, entry.customerId(), entry.orderId(), entry.type().name(),
+                entry.points(), entry.balanceAfter(), entry.description());
+    }
+
+    /**
+     * Folds all uncompacted entries into {@code customers.loyalty_points} in one statement.
+     *
+     * @return the number of customers updated
+     */
+    public int compact() {
+        return jdbcTemplate.update(COMPACT);
+    }
+}
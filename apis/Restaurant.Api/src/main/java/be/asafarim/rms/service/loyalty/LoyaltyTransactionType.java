@@ -0,0 +1,8 @@
+package be.asafarim.rms.service.loyalty;
+
+public enum LoyaltyTransactionType {
+    EARN,
+    REDEEM,
+    ADJUST,
+    EXPIRE
+}
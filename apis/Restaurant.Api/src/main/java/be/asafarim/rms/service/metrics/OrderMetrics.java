@@ -0,0 +1,114 @@
+package be.asafarim.rms.service.metrics;
+
+import be.asafarim.rms.config.MetricsProperties;
+import be.asafarim.rms.domain.order.OrderSource;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.OrderType;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Order lifecycle meters.
+ * <ul>
+ *     <li>{@code rms.orders.operation}: latency of every {@code OrderService} operation, tagged with operation,
+ *     outcome, restaurant, source and type; a batch whose orders differ in one of the last three is tagged
+ *     {@code mixed} for it</li>
+ *     <li>{@code rms.orders.transition}: histogram of the time an order spent in one status before moving to the
+ *     next, tagged {@code from}/{@code to}, for committed transitions only</li>
+ *     <li>{@code rms.orders.transitions.invalid}: rejected status transitions</li>
+ * </ul>
+ * Restaurant IDs are used as tag values for the first {@code maxRestaurantTags} restaurants seen and collapse to
+ * {@code other} afterwards, so cardinality stays bounded.
+ */
+@Component
+public class OrderMetrics {
+
+    static final String UNKNOWN = "unknown";
+    static final String MIXED = "mixed";
+    private static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final int maxRestaurantTags;
+    private final Set<UUID> taggedRestaurants = ConcurrentHashMap.newKeySet();
+
+    public OrderMetrics(MeterRegistry registry, MetricsProperties properties) {
+        this.registry = registry;
+        this.maxRestaurantTags = properties.maxRestaurantTags();
+    }
+
+    public OrderOperationTimer start(String operation) {
+        return new OrderOperationTimer(this, operation, Timer.start(registry));
+    }
+
+    public void invalidTransition(OrderStatus from, OrderStatus to) {
+        Counter.builder("rms.orders.transitions.invalid")
+                .description("Order status transitions rejected as invalid")
+                .tag("from", from.name())
+                .tag("to", to.name())
+                .register(registry)
+                .increment();
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.previousStatusAt() == null || event.previousStatus() == null) {
+            return;
+        }
+        Duration inStatus = Duration.between(event.previousStatusAt(), event.occurredAt());
+        if (inStatus.isNegative()) {
+            return;
+        }
+        Timer.builder("rms.orders.transition")
+                .description("Time an order spent in a status before moving to the next")
+                .tag("from", event.previousStatus().name())
+                .tag("to", event.newStatus().name())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofSeconds(1))
+                .maximumExpectedValue(Duration.ofHours(4))
+                .register(registry)
+                .record(inStatus);
+    }
+
+    void stop(OrderOperationTimer timer) {
+        timer.sample().stop(Timer.builder("rms.orders.operation")
+                .description("Latency of order service operations")
+                .tag("operation", timer.operation())
+                .tag("outcome", timer.succeeded() ? "success" : "error")
+                .tag("restaurant", timer.mixedRestaurants() ? MIXED : restaurantTag(timer.restaurantId()))
+                .tag("source", timer.mixedSources() ? MIXED : tag(timer.source()))
+                .tag("type", timer.mixedTypes() ? MIXED : tag(timer.type()))
+                .register(registry));
+    }
+
+    private String restaurantTag(UUID restaurantId) {
+        if (restaurantId == null) {
+            return UNKNOWN;
+        }
+        if (taggedRestaurants.contains(restaurantId)) {
+            return restaurantId.toString();
+        }
+        // Racy by at most a few entries, which is fine for a cardinality guard.
+        if (taggedRestaurants.size() < maxRestaurantTags) {
+            taggedRestaurants.add(restaurantId);
+            return restaurantId.toString();
+        }
+        return OTHER;
+    }
+
+    private static String tag(OrderSource source) {
+        return source != null ? source.name() : UNKNOWN;
+    }
+
+    private static String tag(OrderType type) {
+        return type != null ? type.name() : UNKNOWN;
+    }
+}
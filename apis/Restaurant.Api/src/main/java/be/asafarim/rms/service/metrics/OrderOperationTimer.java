@@ -0,0 +1,112 @@
+package be.asafarim.rms.service.metrics;
+
+import be.asafarim.rms.domain.order.Order;
+import be.asafarim.rms.domain.order.OrderSource;
+import be.asafarim.rms.domain.order.OrderType;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Times one {@code OrderService} call in a try-with-resources block. Tags are filled in as the order becomes
+ * known; the call counts as successful only if it passed its result through {@link #success(Object)}.
+ * <p>
+ * Writes are timed by the caller around the transactional call, so the commit is part of the latency.
+ */
+public final class OrderOperationTimer implements AutoCloseable {
+
+    private final OrderMetrics metrics;
+    private final String operation;
+    private final Timer.Sample sample;
+    private UUID restaurantId;
+    private OrderSource source;
+    private OrderType type;
+    private boolean mixedRestaurants;
+    private boolean mixedSources;
+    private boolean mixedTypes;
+    private int orders;
+    private boolean succeeded;
+
+    OrderOperationTimer(OrderMetrics metrics, String operation, Timer.Sample sample) {
+        this.metrics = metrics;
+        this.operation = operation;
+        this.sample = sample;
+    }
+
+    public OrderOperationTimer restaurant(UUID restaurantId) {
+        this.restaurantId = restaurantId;
+        return this;
+    }
+
+    public OrderOperationTimer tag(UUID restaurantId, OrderSource source, OrderType type) {
+        this.restaurantId = restaurantId;
+        this.source = source;
+        this.type = type;
+        return this;
+    }
+
+    public OrderOperationTimer tag(Order order) {
+        return tag(order.getRestaurantId(), order.getSource(), order.getType());
+    }
+
+    /**
+     * Adds one order of a batch. A tag keeps its value while every order of the batch shares it and is reported
+     * as {@code mixed} otherwise, so the batch is not tagged after whichever order came first.
+     */
+    public OrderOperationTimer include(UUID restaurantId, OrderSource source, OrderType type) {
+        if (orders++ == 0) {
+            return tag(restaurantId, source, type);
+        }
+        mixedRestaurants |= !Objects.equals(this.restaurantId, restaurantId);
+        mixedSources |= this.source != source;
+        mixedTypes |= this.type != type;
+        return this;
+    }
+
+    public <T> T success(T result) {
+        this.succeeded = true;
+        return result;
+    }
+
+    @Override
+    public void close() {
+        metrics.stop(this);
+    }
+
+    String operation() {
+        return operation;
+    }
+
+    Timer.Sample sample() {
+        return sample;
+    }
+
+    UUID restaurantId() {
+        return restaurantId;
+    }
+
+    OrderSource source() {
+        return source;
+    }
+
+    OrderType type() {
+        return type;
+    }
+
+    boolean mixedRestaurants() {
+        return mixedRestaurants;
+    }
+
+    boolean mixedSources() {
+        return mixedSources;
+    }
+
+    boolean mixedTypes() {
+        return mixedTypes;
+    }
+
+    boolean succeeded() {
+        return succeeded;
+    }
+}
@@ -0,0 +1,100 @@
+package be.asafarim.rms.service.sync;
+
+import be.asafarim.rms.domain.order.event.OrderItemsBumpedEvent;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Assigns change versions to every order written in a transaction.
+ * <p>
+ * Order writes all publish a lifecycle event; the IDs are collected while the transaction runs and stamped in
+ * one statement just before commit, so a batch of orders costs one counter bump per location and the counter
+ * row stays locked only for the commit itself. Writes that return the orders they touched call
+ * {@link #stampPending()} at their very end instead, so the response carries the version that commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderChangeTracker {
+
+    private final OrderChangeVersionStore store;
+    private final EntityManager entityManager;
+
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        track(List.of(event.orderId()));
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        track(List.of(event.orderId()));
+    }
+
+    @EventListener
+    public void onOrderItemsBumped(OrderItemsBumpedEvent event) {
+        track(event.orderIds());
+    }
+
+    /**
+     * Stamps the orders written so far in the current transaction now rather than at commit. The counter rows
+     * stay locked from here until the commit; orders written after this call are stamped at commit as usual.
+     *
+     * @return the version each order was stamped with, empty outside a transaction
+     */
+    public Map<UUID, Long> stampPending() {
+        PendingStamp pending = (PendingStamp) TransactionSynchronizationManager.getResource(this);
+        return pending != null ? pending.stamp() : Map.of();
+    }
+
+    private void track(Collection<UUID> orderIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            store.stamp(orderIds);
+            return;
+        }
+        PendingStamp pending = (PendingStamp) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingStamp();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.orderIds.addAll(orderIds);
+    }
+
+    private final class PendingStamp implements TransactionSynchronization {
+
+        private final Set<UUID> orderIds = new LinkedHashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            stamp();
+        }
+
+        Map<UUID, Long> stamp() {
+            if (orderIds.isEmpty()) {
+                return Map.of();
+            }
+            // New orders are still queued in the persistence context; the stamp has to see their rows.
+            entityManager.flush();
+            Map<UUID, Long> versions = store.stamp(List.copyOf(orderIds));
+            orderIds.clear();
+            return versions;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OrderChangeTracker.this);
+        }
+    }
+}
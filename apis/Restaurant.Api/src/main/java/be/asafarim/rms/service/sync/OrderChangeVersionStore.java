@@ -0,0 +1,88 @@
+package be.asafarim.rms.service.sync;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access to the per-location counters in {@code order_change_versions} and {@code orders.change_version}.
+ * Every lookup is a primary-key or single-index read, so "has anything changed" never touches order rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderChangeVersionStore {
+
+    // Counters are locked in location order, so concurrent multi-location writers cannot deadlock. The row lock
+    // is held until commit, which keeps the versions of one location committing in increasing order.
+    private static final String STAMP = """
+            WITH touched AS (
+                SELECT DISTINCT location_id, restaurant_id FROM orders WHERE id = ANY(?)
+            ), bumped AS (
+                INSERT INTO order_change_versions AS v (location_id, restaurant_id, version)
+                SELECT location_id, restaurant_id, 1 FROM touched ORDER BY location_id
+                ON CONFLICT (location_id) DO UPDATE SET version = v.version + 1
+                RETURNING v.location_id, v.version
+            )
+            UPDATE orders o
+               SET change_version = b.version
+              FROM bumped b
+             WHERE o.id = ANY(?)
+               AND o.location_id = b.location_id
+            RETURNING o.id, o.change_version
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Bumps the counter of every location touched by {@code orderIds} once and stamps the orders with it.
+     *
+     * @return the version each order was stamped with
+     */
+    public Map<UUID, Long> stamp(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        UUID[] ids = orderIds.toArray(UUID[]::new);
+        Map<UUID, Long> versions = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(STAMP);
+            Array array = connection.createArrayOf("uuid", ids);
+            statement.setArray(1, array);
+            statement.setArray(2, array);
+            return statement;
+        }, (RowCallbackHandler) rs -> versions.put(rs.getObject(1, UUID.class), rs.getLong(2)));
+        return versions;
+    }
+
+    public long locationVersion(UUID locationId) {
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM order_change_versions WHERE location_id = ?", Long.class, locationId);
+        return versions.isEmpty() ? 0L : versions.get(0);
+    }
+
+    /**
+     * Sum of the counters of all locations of a restaurant. Counters only grow, so the sum changes whenever
+     * any order of the restaurant does.
+     */
+    public long restaurantVersion(UUID restaurantId) {
+        Long sum = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(version), 0) FROM order_change_versions WHERE restaurant_id = ?",
+                Long.class, restaurantId);
+        return sum != null ? sum : 0L;
+    }
+
+    public Optional<Long> orderVersion(UUID orderId) {
+        return jdbcTemplate.queryForList("SELECT change_version FROM orders WHERE id = ?", Long.class, orderId)
+                .stream()
+                .findFirst();
+    }
+}
@@ -0,0 +1,229 @@
+package be.asafarim.rms.service.timer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Hierarchical hashed timing wheel (Varghese &amp; Lauck, as used by the Linux kernel timers).
+ * <p>
+ * Level 0 has one slot per tick; every higher level covers {@code wheelSize} slots of the level below.
+ * Scheduling, re-arming and cancelling are O(1); entries are cascaded down one level at a time as the
+ * wheel turns. Each key owns at most one pending timeout, so scheduling a key again replaces its deadline.
+ * Expired entries are handed to the expiry callback outside the internal lock.
+ */
+public final class HierarchicalTimingWheel<K, V> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final long startMillis;
+    private final Slot<K, V>[][] wheels;
+    private final Map<K, Entry<K, V>> entries = new HashMap<>();
+    private final BiConsumer<K, V> onExpired;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Next tick that has not been processed yet. */
+    private long nextTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis,
+                                   BiConsumer<K, V> onExpired) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        if (levels < 1 || levels * Integer.numberOfTrailingZeros(wheelSize) > 62) {
+            throw new IllegalArgumentException("Unsupported number of levels: " + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = levels;
+        this.startMillis = startMillis;
+        this.onExpired = onExpired;
+        this.wheels = new Slot[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                wheels[level][slot] = new Slot<>();
+            }
+        }
+    }
+
+    /**
+     * Schedules (or re-arms) the timeout for {@code key}. Deadlines in the past fire on the next tick.
+     */
+    public void schedule(K key, V value, long deadlineMillis) {
+        lock.lock();
+        try {
+            Entry<K, V> entry = entries.get(key);
+            if (entry != null) {
+                entry.unlink();
+            } else {
+                entry = new Entry<>(key);
+                entries.put(key, entry);
+            }
+            entry.value = value;
+            entry.deadlineTick = toTick(deadlineMillis);
+            place(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels the pending timeout for {@code key}, if any.
+     *
+     * @return {@code true} if a timeout was pending
+     */
+    public boolean cancel(K key) {
+        lock.lock();
+        try {
+            Entry<K, V> entry = entries.remove(key);
+            if (entry == null) {
+                return false;
+            }
+            entry.unlink();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Turns the wheel up to {@code nowMillis} and fires every entry whose deadline has passed.
+     *
+     * @return the number of expired entries
+     */
+    public int advance(long nowMillis) {
+        List<Entry<K, V>> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+            while (nextTick <= targetTick) {
+                int index = (int) (nextTick & mask);
+                if (index == 0) {
+                    for (int level = 1; level < levels; level++) {
+                        int levelIndex = (int) ((nextTick >>> (bits * level)) & mask);
+                        cascade(wheels[level][levelIndex]);
+                        if (levelIndex != 0) {
+                            break;
+                        }
+                    }
+                }
+                long currentTick = nextTick++;
+                Slot<K, V> slot = wheels[0][index];
+                for (Entry<K, V> entry = slot.head; entry != null; ) {
+                    Entry<K, V> next = entry.next;
+                    entry.unlink();
+                    if (entry.deadlineTick > currentTick) {
+                        // Deadline was clamped to the wheel horizon; keep cascading towards it.
+                        place(entry);
+                    } else {
+                        entries.remove(entry.key);
+                        expired.add(entry);
+                    }
+                    entry = next;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Entry<K, V> entry : expired) {
+            onExpired.accept(entry.key, entry.value);
+        }
+        return expired.size();
+    }
+
+    private void cascade(Slot<K, V> slot) {
+        for (Entry<K, V> entry = slot.head; entry != null; ) {
+            Entry<K, V> next = entry.next;
+            entry.unlink();
+            place(entry);
+            entry = next;
+        }
+    }
+
+    private void place(Entry<K, V> entry) {
+        long expires = entry.deadlineTick;
+        long delta = expires - nextTick;
+        if (delta < 0) {
+            wheels[0][(int) (nextTick & mask)].add(entry);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (delta < (1L << (bits * (level + 1)))) {
+                wheels[level][(int) ((expires >>> (bits * level)) & mask)].add(entry);
+                return;
+            }
+        }
+        // Beyond the horizon: park at the furthest slot and re-place when it cascades down.
+        long clamped = nextTick + (1L << (bits * levels)) - 1;
+        int top = levels - 1;
+        wheels[top][(int) ((clamped >>> (bits * top)) & mask)].add(entry);
+    }
+
+    private long toTick(long millis) {
+        // Round up so an entry never fires before its deadline.
+        return Math.floorDiv(millis - startMillis + tickMillis - 1, tickMillis);
+    }
+
+    private static final class Slot<K, V> {
+        private Entry<K, V> head;
+
+        void add(Entry<K, V> entry) {
+            entry.slot = this;
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private V value;
+        private long deadlineTick;
+        private Slot<K, V> slot;
+        private Entry<K, V> prev;
+        private Entry<K, V> next;
+
+        Entry(K key) {
+            this.key = key;
+        }
+
+        void unlink() {
+            if (slot == null) {
+                return;
+            }
+            if (prev != null) {
+                prev.next = next;
+            } else {
+                slot.head = next;
+            }
+            if (next != null) {
+                next.prev = prev;
+            }
+            slot = null;
+            prev = null;
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package be.asafarim.rms.service.timer;
+
+import be.asafarim.rms.config.OrderSweeperProperties;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import be.asafarim.rms.exception.OrderNotFoundException;
+import be.asafarim.rms.repository.OrderDeadlineView;
+import be.asafarim.rms.repository.OrderRepository;
+import be.asafarim.rms.service.OrderService;
+import be.asafarim.rms.service.metrics.OrderMetrics;
+import be.asafarim.rms.service.metrics.OrderOperationTimer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects stale and overdue orders without scanning the {@code orders} table.
+ * <p>
+ * Every non-terminal order owns exactly one deadline in a {@link HierarchicalTimingWheel}. The deadline is
+ * armed when the order is placed, re-armed on every status change and dropped once the order reaches a
+ * terminal status. On startup the wheel is rebuilt from the database.
+ */
+@Component
+@Slf4j
+public class OrderDeadlineSweeper {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+    private static final List<OrderStatus> TRACKED_STATUSES =
+            List.of(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.IN_PROGRESS);
+
+    public enum DeadlineAction {
+        AUTO_CANCEL,
+        ESCALATE,
+        LATE
+    }
+
+    private final OrderSweeperProperties properties;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final OrderMetrics orderMetrics;
+    private final Clock clock;
+    private final HierarchicalTimingWheel<UUID, DeadlineAction> wheel;
+    private final Map<DeadlineAction, Counter> expiredCounters = new EnumMap<>(DeadlineAction.class);
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService actionExecutor;
+
+    public OrderDeadlineSweeper(OrderSweeperProperties properties,
+                                OrderRepository orderRepository,
+                                OrderService orderService,
+                                OrderMetrics orderMetrics,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.orderMetrics = orderMetrics;
+        this.clock = Clock.systemUTC();
+        this.wheel = new HierarchicalTimingWheel<>(properties.tick().toMillis(), WHEEL_SIZE, WHEEL_LEVELS,
+                clock.millis(), this::onExpired);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "order-deadline-ticker"));
+        this.actionExecutor = Executors.newSingleThreadExecutor(r -> daemon(r, "order-deadline-actions"));
+
+        for (DeadlineAction action : DeadlineAction.values()) {
+            expiredCounters.put(action, Counter.builder("rms.orders.deadline.expired")
+                    .description("Order deadlines that expired, by resulting action")
+                    .tag("action", action.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("rms.orders.deadline.armed", wheel, HierarchicalTimingWheel::size)
+                .description("Non-terminal orders currently tracked by the deadline sweeper")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            log.info("Order deadline sweeper is disabled");
+            return;
+        }
+        List<OrderDeadlineView> live = orderRepository.findDeadlineViewsByStatusIn(TRACKED_STATUSES);
+        for (OrderDeadlineView view : live) {
+            Instant since = view.getUpdatedAt() != null ? view.getUpdatedAt() : view.getCreatedAt();
+            arm(view.getId(), view.getStatus(), since, view.getEstimatedReadyAt());
+        }
+        log.info("Order deadline sweeper rebuilt {} deadlines from the database", live.size());
+
+        long tickMillis = properties.tick().toMillis();
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (properties.enabled()) {
+            arm(event.orderId(), event.status(), event.occurredAt(), event.estimatedReadyAt());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (properties.enabled()) {
+            arm(event.orderId(), event.newStatus(), event.occurredAt(), event.estimatedReadyAt());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        actionExecutor.shutdown();
+    }
+
+    private void arm(UUID orderId, OrderStatus status, Instant since, Instant estimatedReadyAt) {
+        Instant from = since != null ? since : clock.instant();
+        switch (status) {
+            case PENDING -> wheel.schedule(orderId, DeadlineAction.AUTO_CANCEL,
+                    from.plus(properties.pendingTimeout()).toEpochMilli());
+            case CONFIRMED -> wheel.schedule(orderId, DeadlineAction.ESCALATE,
+                    from.plus(properties.confirmedTimeout()).toEpochMilli());
+            case IN_PROGRESS -> wheel.schedule(orderId, DeadlineAction.LATE,
+                    (estimatedReadyAt != null ? estimatedReadyAt : from).plus(properties.lateGrace()).toEpochMilli());
+            default -> wheel.cancel(orderId);
+        }
+    }
+
+    private void tick() {
+        try {
+            wheel.advance(clock.millis());
+        } catch (RuntimeException ex) {
+            log.error("Order deadline sweeper tick failed", ex);
+        }
+    }
+
+    private void onExpired(UUID orderId, DeadlineAction action) {
+        expiredCounters.get(action).increment();
+        switch (action) {
+            case AUTO_CANCEL -> actionExecutor.execute(() -> autoCancel(orderId));
+            case ESCALATE -> log.warn("Order {} has not been started within {} of confirmation",
+                    orderId, properties.confirmedTimeout());
+            case LATE -> log.warn("Order {} is more than {} past its estimated ready time",
+                    orderId, properties.lateGrace());
+        }
+    }
+
+    private void autoCancel(UUID orderId) {
+        try (OrderOperationTimer timer = orderMetrics.start("auto_cancel")) {
+            timer.success(orderService.cancelIfStillPending(orderId,
+                    "Auto-cancelled: not confirmed within " + properties.pendingTimeout(), timer));
+        } catch (OrderNotFoundException ex) {
+            log.debug("Skipping auto-cancel of missing order {}", orderId);
+        } catch (RuntimeException ex) {
+            log.error("Auto-cancel of order {} failed", orderId, ex);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,49 @@
+-- Append-only event stream per order and the read model rebuilt from it
+
+CREATE TABLE order_events (
+    id BIGSERIAL PRIMARY KEY,
+    order_id UUID NOT NULL,
+    restaurant_id UUID NOT NULL,
+    location_id UUID NOT NULL,
+    type VARCHAR(30) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    notes TEXT,
+    changed_by UUID,
+    occurred_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_order_events_order ON order_events(order_id, id);
+CREATE INDEX idx_order_events_restaurant ON order_events(restaurant_id, order_id, id);
+
+-- Projection target for replays; production writes keep going to orders
+CREATE TABLE order_projections (
+    order_id UUID PRIMARY KEY,
+    restaurant_id UUID NOT NULL,
+    location_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    placed_at TIMESTAMPTZ NOT NULL,
+    ready_at TIMESTAMPTZ,
+    completed_at TIMESTAMPTZ,
+    cancelled_at TIMESTAMPTZ,
+    cancellation_reason TEXT,
+    last_event_id BIGINT NOT NULL,
+    projected_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_order_projections_restaurant ON order_projections(restaurant_id);
+
+-- Seed the stream from the existing status history
+INSERT INTO order_events (order_id, restaurant_id, location_id, type, status, notes, changed_by, occurred_at)
+SELECT h.order_id,
+       o.restaurant_id,
+       o.location_id,
+       CASE WHEN h.created_at = first_h.created_at AND h.status = 'PENDING' THEN 'PLACED' ELSE 'STATUS_CHANGED' END,
+       h.status,
+       h.notes,
+       h.changed_by,
+       h.created_at
+FROM order_status_history h
+JOIN orders o ON o.id = h.order_id
+JOIN (SELECT order_id, MIN(created_at) AS created_at FROM order_status_history GROUP BY order_id) first_h
+  ON first_h.order_id = h.order_id
+ORDER BY h.created_at, h.id;
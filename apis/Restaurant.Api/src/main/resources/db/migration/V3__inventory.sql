@@ -0,0 +1,36 @@
+-- Inventory tables from docs/02-DATABASE-SCHEMA.sql; restaurants and menu items live in other services,
+-- so their references are kept as plain UUID columns
+
+CREATE TABLE ingredients (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    restaurant_id UUID NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    unit VARCHAR(20) NOT NULL,
+    cost_per_unit DECIMAL(10,4),
+    current_stock DECIMAL(10,2) DEFAULT 0,
+    reorder_point DECIMAL(10,2),
+    status VARCHAR(20) DEFAULT 'ACTIVE'
+);
+
+CREATE TABLE recipes (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    menu_item_id UUID NOT NULL,
+    ingredient_id UUID NOT NULL REFERENCES ingredients(id),
+    quantity DECIMAL(10,4) NOT NULL,
+    unit VARCHAR(20) NOT NULL,
+    UNIQUE(menu_item_id, ingredient_id)
+);
+
+CREATE TABLE stock_movements (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    ingredient_id UUID NOT NULL REFERENCES ingredients(id),
+    type VARCHAR(20) NOT NULL, -- IN, OUT, ADJUSTMENT, WASTE
+    quantity DECIMAL(10,2) NOT NULL,
+    reference_type VARCHAR(50),
+    reference_id UUID,
+    created_at TIMESTAMPTZ DEFAULT NOW()
+);
+
+CREATE INDEX idx_ingredients_restaurant ON ingredients(restaurant_id);
+CREATE INDEX idx_stock_movements_ingredient ON stock_movements(ingredient_id, created_at);
+CREATE INDEX idx_stock_movements_reference ON stock_movements(reference_type, reference_id);
@@ -0,0 +1,36 @@
+-- Customers and the append-only loyalty ledger from docs/02-DATABASE-SCHEMA.sql.
+-- Orders reference customers that may not have a profile row yet, so the ledger keeps customer_id without a
+-- foreign key; compaction creates the customers row on first use.
+
+CREATE TABLE customers (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    restaurant_id UUID,
+    email VARCHAR(255),
+    phone VARCHAR(20),
+    first_name VARCHAR(100),
+    last_name VARCHAR(100),
+    loyalty_points INT DEFAULT 0,
+    loyalty_tier VARCHAR(20) DEFAULT 'BRONZE',
+    total_orders INT DEFAULT 0,
+    total_spent DECIMAL(12,2) DEFAULT 0,
+    preferences JSONB DEFAULT '{}',
+    status VARCHAR(20) DEFAULT 'ACTIVE',
+    created_at TIMESTAMPTZ DEFAULT NOW(),
+    UNIQUE(restaurant_id, email)
+);
+
+CREATE TABLE loyalty_transactions (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    customer_id UUID NOT NULL,
+    order_id UUID,
+    type VARCHAR(20) NOT NULL, -- EARN, REDEEM, ADJUST, EXPIRE
+    points INT NOT NULL,
+    balance_after INT NOT NULL,
+    description VARCHAR(255),
+    created_at TIMESTAMPTZ DEFAULT NOW(),
+    -- Set once the points have been folded into customers.loyalty_points
+    compacted_at TIMESTAMPTZ
+);
+
+CREATE INDEX idx_loyalty_transactions_customer ON loyalty_transactions(customer_id, created_at);
+CREATE INDEX idx_loyalty_transactions_pending ON loyalty_transactions(customer_id) WHERE compacted_at IS NULL;
@@ -0,0 +1,21 @@
+-- Per-location change versions for delta sync. Every transaction that writes orders bumps the counter of each
+-- location it touched and stamps those orders with the new value, so clients can ask for "everything after N".
+
+CREATE TABLE order_change_versions (
+    location_id UUID PRIMARY KEY,
+    restaurant_id UUID NOT NULL,
+    version BIGINT NOT NULL
+);
+
+CREATE INDEX idx_order_change_versions_restaurant ON order_change_versions(restaurant_id);
+
+ALTER TABLE orders ADD COLUMN change_version BIGINT NOT NULL DEFAULT 0;
+
+INSERT INTO order_change_versions (location_id, restaurant_id, version)
+SELECT location_id, (array_agg(restaurant_id))[1], 1
+  FROM orders
+ GROUP BY location_id;
+
+UPDATE orders SET change_version = 1;
+
+CREATE INDEX idx_orders_location_change_version ON orders(location_id, change_version);
@@ -0,0 +1,9 @@
+-- One row per delivery-platform order already placed. Kafka delivers at least once, so the ingest claims the
+-- external ID here in the same transaction as the order insert; a redelivered record finds it taken.
+
+CREATE TABLE inbound_order_receipts (
+    platform VARCHAR(50) NOT NULL,
+    external_order_id VARCHAR(100) NOT NULL,
+    received_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (platform, external_order_id)
+);
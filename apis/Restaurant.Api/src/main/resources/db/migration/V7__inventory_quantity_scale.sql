@@ -0,0 +1,5 @@
+-- Recipe quantities have four decimals; stock kept at two dropped the consumption of small portions
+-- (0.004 kg of a spice rounds to 0.00). Keep stock and movements at the recipe scale so deductions are exact.
+
+ALTER TABLE ingredients ALTER COLUMN current_stock TYPE DECIMAL(12,4);
+ALTER TABLE stock_movements ALTER COLUMN quantity TYPE DECIMAL(12,4);
@@ -0,0 +1,67 @@
+package be.asafarim.rms.config.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+
+    private final ReadYourWritesFilter filter =
+            new ReadYourWritesFilter(Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void writesAreAnsweredWithTheirTimeAsToken() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/orders"), response, (req, res) -> { });
+
+        assertThat(response.getHeader(ReadYourWritesFilter.HEADER)).isEqualTo(Long.toString(NOW.toEpochMilli()));
+    }
+
+    @Test
+    void readsWithARecentTokenGoToThePrimary() throws Exception {
+        assertThat(readsFromPrimary(NOW.minusSeconds(4))).isTrue();
+        assertThat(readsFromPrimary(NOW.plus(ReadYourWritesFilter.MAX_CLOCK_SKEW))).isTrue();
+    }
+
+    @Test
+    void expiredFutureAndMalformedTokensAreIgnored() throws Exception {
+        assertThat(readsFromPrimary(NOW.minusSeconds(6))).isFalse();
+        assertThat(readsFromPrimary(NOW.plus(ReadYourWritesFilter.MAX_CLOCK_SKEW).plusMillis(1))).isFalse();
+        assertThat(readsFromPrimary(NOW.plus(Duration.ofDays(365)))).isFalse();
+        assertThat(readsFrom("not-a-time")).isFalse();
+        assertThat(readsFrom(null)).isFalse();
+    }
+
+    @Test
+    void primaryRequirementEndsWithTheRequest() throws Exception {
+        readsFromPrimary(NOW);
+
+        assertThat(ConsistencyContext.isPrimaryRequired()).isFalse();
+    }
+
+    private boolean readsFromPrimary(Instant writtenAt) throws Exception {
+        return readsFrom(Long.toString(writtenAt.toEpochMilli()));
+    }
+
+    private boolean readsFrom(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+        if (token != null) {
+            request.addHeader(ReadYourWritesFilter.HEADER, token);
+        }
+        AtomicBoolean primary = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> primary.set(ConsistencyContext.isPrimaryRequired()));
+        return primary.get();
+    }
+}
@@ -0,0 +1,153 @@
+package be.asafarim.rms.config.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReplicaLagMonitorTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+    private static final Duration CHECK_INTERVAL = Duration.ofSeconds(1);
+
+    private final DataSource replica = mock(DataSource.class);
+    private final FakeWal wal = new FakeWal();
+    private final MutableClock clock = new MutableClock();
+    private ReplicaLagMonitor monitor;
+
+    @AfterEach
+    void close() {
+        monitor.close();
+    }
+
+    @Test
+    void caughtUpReplicaServesReads() {
+        wal.primaryLsn = 100;
+        wal.replicas.put(replica, new ReplicaLagMonitor.ReplicaWal(true, true, 100));
+        monitor = start();
+
+        assertThat(monitor.nextHealthyReplica()).isEqualTo("replica");
+        assertThat(monitor.getLagMillis()).containsEntry("replica", 0L);
+    }
+
+    @Test
+    void replicaThatStoppedReceivingFallsBehindAsThePrimaryMovesOn() {
+        wal.primaryLsn = 100;
+        // Replayed everything it received, which is how a disconnected replica looks from the inside
+        wal.replicas.put(replica, new ReplicaLagMonitor.ReplicaWal(true, true, 100));
+        monitor = start();
+
+        for (int second = 1; second <= 6; second++) {
+            wal.primaryLsn += 10;
+            tick();
+        }
+
+        assertThat(monitor.getLagMillis()).containsEntry("replica", 6_000L);
+        assertThat(monitor.nextHealthyReplica()).isNull();
+    }
+
+    @Test
+    void replicaBetweenSamplesIsAsOldAsTheNewestPositionItReplayed() {
+        wal.primaryLsn = 100;
+        wal.replicas.put(replica, new ReplicaLagMonitor.ReplicaWal(true, true, 100));
+        monitor = start();
+        wal.primaryLsn = 200;
+        tick();
+        wal.primaryLsn = 300;
+        wal.replicas.put(replica, new ReplicaLagMonitor.ReplicaWal(true, true, 250));
+        tick();
+
+        assertThat(monitor.getLagMillis()).containsEntry("replica", 1_000L);
+        assertThat(monitor.nextHealthyReplica()).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaWithoutAWalReceiverIsInfinitelyBehind() {
+        wal.primaryLsn = 100;
+        wal.replicas.put(replica, new ReplicaLagMonitor.ReplicaWal(true, false, 100));
+        monitor = start();
+
+        assertThat(monitor.getLagMillis()).containsEntry("replica", ReplicaLagMonitor.UNKNOWN_LAG);
+        assertThat(monitor.nextHealthyReplica()).isNull();
+    }
+
+    @Test
+    void unreachableReplicaAndUnknownPositionsAreUnhealthy() {
+        wal.primaryLsn = 100;
+        wal.replicas.put(replica, new ReplicaLagMonitor.ReplicaWal(true, true, 50));
+        monitor = start();
+        assertThat(monitor.nextHealthyReplica()).isNull();
+
+        wal.replicas.remove(replica);
+        tick();
+        assertThat(monitor.getLagMillis()).containsEntry("replica", ReplicaLagMonitor.UNKNOWN_LAG);
+        assertThat(monitor.nextHealthyReplica()).isNull();
+    }
+
+    @Test
+    void serverNotInRecoveryHasNoLag() {
+        wal.primaryLsn = 100;
+        wal.replicas.put(replica, new ReplicaLagMonitor.ReplicaWal(false, false, 0));
+        monitor = start();
+
+        assertThat(monitor.nextHealthyReplica()).isEqualTo("replica");
+    }
+
+    private ReplicaLagMonitor start() {
+        return new ReplicaLagMonitor(Map.of("replica", replica), MAX_LAG, CHECK_INTERVAL, wal, clock);
+    }
+
+    private void tick() {
+        clock.now = clock.now.plus(CHECK_INTERVAL);
+        monitor.refresh();
+    }
+
+    private static final class FakeWal implements ReplicaLagMonitor.WalProbe {
+        long primaryLsn;
+        final Map<DataSource, ReplicaLagMonitor.ReplicaWal> replicas = new HashMap<>();
+
+        @Override
+        public long primaryLsn() {
+            return primaryLsn;
+        }
+
+        @Override
+        public ReplicaLagMonitor.ReplicaWal replica(DataSource dataSource) throws SQLException {
+            ReplicaLagMonitor.ReplicaWal state = replicas.get(dataSource);
+            if (state == null) {
+                throw new SQLException("connection refused");
+            }
+            return state;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        Instant now = Instant.parse("2026-03-01T12:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
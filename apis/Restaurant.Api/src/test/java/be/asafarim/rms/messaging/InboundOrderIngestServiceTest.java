@@ -0,0 +1,99 @@
+package be.asafarim.rms.messaging;
+
+import be.asafarim.rms.api.order.dto.OrderRequest;
+import be.asafarim.rms.api.order.dto.OrderResponse;
+import be.asafarim.rms.domain.order.OrderType;
+import be.asafarim.rms.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InboundOrderIngestServiceTest {
+
+    private final InboundOrderReceiptStore receiptStore = mock(InboundOrderReceiptStore.class);
+    private final OrderService orderService = mock(OrderService.class);
+    private final InboundOrderIngestService service = new InboundOrderIngestService(receiptStore, orderService);
+
+    @Test
+    void skipsOrdersWhoseExternalIdWasAlreadyClaimed() {
+        // "b" was placed by an earlier delivery, so the claim only returns "a" and "c".
+        when(receiptStore.claim(anyCollection())).thenReturn(List.of(receipt("a"), receipt("c")));
+        when(orderService.placeOrders(anyList())).thenAnswer(i -> responses(i.getArgument(0)));
+
+        List<OrderResponse> placed = service.placeNew(List.of(message("a"), message("b"), message("c")));
+
+        assertThat(placed).hasSize(2);
+        assertThat(placedNotes()).containsExactly("[test a]", "[test c]");
+    }
+
+    @Test
+    void placesAnExternalIdRepeatedWithinTheBatchOnce() {
+        when(receiptStore.claim(anyCollection())).thenReturn(List.of(receipt("a")));
+        when(orderService.placeOrders(anyList())).thenAnswer(i -> responses(i.getArgument(0)));
+
+        service.placeNew(List.of(message("a"), message("a")));
+
+        assertThat(placedNotes()).containsExactly("[test a]");
+    }
+
+    @Test
+    void alwaysPlacesOrdersWithoutExternalId() {
+        when(receiptStore.claim(anyCollection())).thenReturn(List.of());
+        when(orderService.placeOrders(anyList())).thenAnswer(i -> responses(i.getArgument(0)));
+
+        service.placeNew(List.of(message(null), message(null)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<InboundOrderReceiptStore.Receipt>> claimed =
+                ArgumentCaptor.forClass(Collection.class);
+        verify(receiptStore).claim(claimed.capture());
+        assertThat(claimed.getValue()).isEmpty();
+        assertThat(placedNotes()).hasSize(2);
+    }
+
+    @Test
+    void placesNothingWhenTheWholeBatchWasSeenBefore() {
+        when(receiptStore.claim(anyCollection())).thenReturn(List.of());
+
+        assertThat(service.placeNew(List.of(message("a"), message("b")))).isEmpty();
+        verify(orderService, never()).placeOrders(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> placedNotes() {
+        ArgumentCaptor<List<OrderRequest>> requests = ArgumentCaptor.forClass(List.class);
+        verify(orderService).placeOrders(requests.capture());
+        return requests.getValue().stream().map(OrderRequest::notes).toList();
+    }
+
+    private static List<OrderResponse> responses(List<OrderRequest> requests) {
+        return Collections.nCopies(requests.size(), null);
+    }
+
+    private static InboundOrderReceiptStore.Receipt receipt(String externalOrderId) {
+        return new InboundOrderReceiptStore.Receipt("test", externalOrderId);
+    }
+
+    private static InboundOrderMessage message(String externalOrderId) {
+        return InboundOrderMessage.builder()
+                .platform(externalOrderId != null ? "test" : null)
+                .externalOrderId(externalOrderId)
+                .restaurantId(UUID.randomUUID())
+                .locationId(UUID.randomUUID())
+                .type(OrderType.DELIVERY)
+                .items(List.of(InboundOrderMessage.Item.builder().menuItemId(UUID.randomUUID()).quantity(1).build()))
+                .build();
+    }
+}
@@ -0,0 +1,222 @@
+package be.asafarim.rms.messaging;
+
+import be.asafarim.rms.api.order.dto.OrderResponse;
+import be.asafarim.rms.config.KafkaIngestConfig;
+import be.asafarim.rms.config.KafkaIngestProperties;
+import be.asafarim.rms.config.MetricsProperties;
+import be.asafarim.rms.service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = InboundOrderListenerTest.TestConfig.class, properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "rms.ingest.kafka.enabled=true",
+        "rms.ingest.kafka.concurrency=1",
+        "rms.ingest.kafka.pause-duration=200ms",
+        "rms.ingest.kafka.slow-batch-threshold=1m"
+})
+@EmbeddedKafka(partitions = 1, topics = {"orders.inbound", "orders.inbound.DLT"})
+@Slf4j
+class InboundOrderListenerTest {
+
+    private static final String TOPIC = "orders.inbound";
+    private static final String DEAD_LETTER_TOPIC = "orders.inbound.DLT";
+
+    private static final UUID RESTAURANT = UUID.randomUUID();
+    private static final UUID LOCATION = UUID.randomUUID();
+    private static final UUID MENU_ITEM = UUID.randomUUID();
+
+    // Shared by all tests; each test only looks at the external IDs it published.
+    private static final Queue<InboundOrderMessage> placed = new ConcurrentLinkedQueue<>();
+    private static final Queue<Integer> batchSizes = new ConcurrentLinkedQueue<>();
+
+    private static Consumer<String, String> deadLetters;
+    private static final List<ConsumerRecord<String, String>> deadLettered =
+            Collections.synchronizedList(new ArrayList<>());
+
+    @Configuration
+    @ImportAutoConfiguration(KafkaAutoConfiguration.class)
+    @EnableConfigurationProperties({KafkaIngestProperties.class, MetricsProperties.class})
+    @Import({KafkaIngestConfig.class, InboundOrderListener.class, OrderMetrics.class})
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private InboundOrderIngestService ingestService;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    private KafkaTemplate<String, String> producer;
+
+    @BeforeAll
+    static void subscribeToDeadLetters(@Autowired EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("dead-letter-check", "true", broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        deadLetters = new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new StringDeserializer())
+                .createConsumer();
+        broker.consumeFromAnEmbeddedTopic(deadLetters, DEAD_LETTER_TOPIC);
+    }
+
+    @AfterAll
+    static void closeDeadLetters() {
+        deadLetters.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        producer = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                KafkaTestUtils.producerProps(broker), new StringSerializer(), new StringSerializer()));
+        when(ingestService.placeNew(anyList())).thenAnswer(invocation -> placeAll(invocation.getArgument(0)));
+    }
+
+    @Test
+    void poisonRecordsAreDeadLetteredAndTheRestArePlaced() {
+        send(order("poison-1"));
+        producer.send(TOPIC, RESTAURANT.toString(), "{not json");
+        send(order("poison-2"));
+        producer.send(TOPIC, RESTAURANT.toString(), """
+                {"platform":"test","externalOrderId":"poison-empty","restaurantId":"%s","locationId":"%s",
+                 "type":"DELIVERY","items":[]}""".formatted(RESTAURANT, LOCATION));
+        send(order("poison-3"));
+
+        await(() -> placedIds("poison-").size() == 3);
+        await(() -> deadLetteredValues().stream().filter(v -> v.contains("not json") || v.contains("poison-empty"))
+                .count() == 2);
+        assertThat(placedIds("poison-")).containsExactly("poison-1", "poison-2", "poison-3");
+    }
+
+    @Test
+    void transientDatabaseFailuresAreRetriedWithoutDeadLettering() {
+        AtomicInteger failures = new AtomicInteger();
+        when(ingestService.placeNew(anyList())).thenAnswer(invocation -> {
+            if (failures.getAndIncrement() < 3) {
+                throw new TransientDataAccessResourceException("connection refused");
+            }
+            return placeAll(invocation.getArgument(0));
+        });
+
+        for (int i = 1; i <= 5; i++) {
+            send(order("transient-" + i));
+        }
+
+        await(() -> placedIds("transient-").size() == 5);
+        assertThat(placedIds("transient-"))
+                .containsExactly("transient-1", "transient-2", "transient-3", "transient-4", "transient-5");
+        assertThat(failures.get()).isGreaterThan(3);
+        assertThat(deadLetteredValues()).noneMatch(v -> v.contains("transient-"));
+    }
+
+    @Test
+    void consumesInLargeBatches() {
+        int count = 20_000;
+        int batchesBefore = batchSizes.size();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            send(order("bulk-" + i));
+        }
+        producer.flush();
+
+        await(() -> placedIds("bulk-").size() == count);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        List<Integer> sizes = batchSizes.stream().skip(batchesBefore).toList();
+        log.info("Ingested {} orders in {} ms ({} orders/s) in {} batches of up to {}", count, elapsedMillis,
+                count * 1000L / Math.max(1, elapsedMillis), sizes.size(), Collections.max(sizes));
+
+        // One transaction per poll, not per record: with max.poll.records=500 the batches must be large.
+        assertThat(sizes).allMatch(size -> size <= 500);
+        assertThat(Collections.max(sizes)).isGreaterThanOrEqualTo(100);
+        assertThat(sizes.size()).isLessThan(count / 20);
+        assertThat(elapsedMillis).isLessThan(60_000);
+    }
+
+    private static List<OrderResponse> placeAll(List<InboundOrderMessage> messages) {
+        batchSizes.add(messages.size());
+        placed.addAll(messages);
+        return Collections.nCopies(messages.size(), null);
+    }
+
+    private static List<String> placedIds(String prefix) {
+        return placed.stream()
+                .map(InboundOrderMessage::externalOrderId)
+                .filter(id -> id.startsWith(prefix))
+                .toList();
+    }
+
+    private static List<String> deadLetteredValues() {
+        deadLetters.poll(Duration.ofMillis(100)).forEach(deadLettered::add);
+        return deadLettered.stream().map(ConsumerRecord::value).toList();
+    }
+
+    private void send(String json) {
+        producer.send(TOPIC, RESTAURANT.toString(), json);
+    }
+
+    private static String order(String externalOrderId) {
+        return """
+                {"platform":"test","externalOrderId":"%s","restaurantId":"%s","locationId":"%s","type":"DELIVERY",
+                 "items":[{"menuItemId":"%s","quantity":1}]}"""
+                .formatted(externalOrderId, RESTAURANT, LOCATION, MENU_ITEM);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 60 s").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package be.asafarim.rms.service.admission;
+
+import be.asafarim.rms.config.AdmissionProperties;
+import be.asafarim.rms.domain.order.OrderSource;
+import be.asafarim.rms.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderAdmissionServiceTest {
+
+    private static final String BRIDGE_KEY = "bridge-secret";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OrderAdmissionService admission = new OrderAdmissionService(new AdmissionProperties(
+            true,
+            new AdmissionProperties.Rate(1_000, 1_000),
+            Map.of(OrderSource.THIRD_PARTY, new AdmissionProperties.Rate(1, 2)),
+            new AdmissionProperties.Rate(1, 5),
+            Map.of("delivery-bridge", new AdmissionProperties.Client(BRIDGE_KEY, OrderSource.THIRD_PARTY)),
+            new AdmissionProperties.Concurrency(32, 4, 256, Duration.ofMillis(250), 0.9)),
+            registry);
+
+    @Test
+    void apiKeyOfAConfiguredClientSelectsItsSourceRate() {
+        AdmissionCaller caller = admission.caller(BRIDGE_KEY, null, "10.0.0.1");
+
+        assertThat(caller).isEqualTo(new AdmissionCaller("client:delivery-bridge", OrderSource.THIRD_PARTY));
+        UUID restaurant = UUID.randomUUID();
+        admission.admit(restaurant, caller, () -> "ok");
+        admission.admit(restaurant, caller, () -> "ok");
+        assertThatThrownBy(() -> admission.admit(restaurant, caller, () -> "ok"))
+                .isInstanceOf(AdmissionRejectedException.class);
+
+        assertThat(registry.get("rms.admission.rejected")
+                .tag("reason", "source")
+                .tag("source", "THIRD_PARTY")
+                .counter().count()).isEqualTo(1);
+        assertThat(registry.get("rms.admission.write.latency")
+                .tag("source", "THIRD_PARTY")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void unknownApiKeysAreLimitedByAddressAtTheDefaultRate() {
+        AdmissionCaller caller = admission.caller("guessed", null, "10.0.0.2");
+
+        assertThat(caller).isEqualTo(new AdmissionCaller("address:10.0.0.2", null));
+        assertThat(admission.caller("other-guess", null, "10.0.0.2")).isEqualTo(caller);
+        assertThat(caller.sourceTag()).isEqualTo("default");
+    }
+}
@@ -0,0 +1,57 @@
+package be.asafarim.rms.service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long START = 5 * SECOND;
+
+    @Test
+    void admitsTheBurstBackToBackThenAsksToWaitOneInterval() {
+        TokenBucket bucket = new TokenBucket(10, 3, START);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(START)).isZero();
+        }
+        assertThat(bucket.tryAcquire(START)).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    void refillsAtTheSustainedRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, START);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(START);
+        }
+
+        long later = START + SECOND / 10;
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isPositive();
+        assertThat(bucket.isIdle(later)).isFalse();
+    }
+
+    @Test
+    void idleTimeNeverBuildsUpMoreThanTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, START);
+
+        long muchLater = START + 60 * SECOND;
+        assertThat(bucket.isIdle(muchLater)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(muchLater)).isZero();
+        }
+        assertThat(bucket.tryAcquire(muchLater)).isPositive();
+    }
+
+    @Test
+    void refundGivesThePermitBack() {
+        TokenBucket bucket = new TokenBucket(10, 1, START);
+        assertThat(bucket.tryAcquire(START)).isZero();
+        assertThat(bucket.tryAcquire(START)).isPositive();
+
+        bucket.refund();
+
+        assertThat(bucket.tryAcquire(START)).isZero();
+    }
+}
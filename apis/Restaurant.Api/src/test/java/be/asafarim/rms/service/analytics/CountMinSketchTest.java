@@ -0,0 +1,47 @@
+package be.asafarim.rms.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+
+    private static final int KEYS = 5_000;
+    private static final int WIDTH = 272;
+    private static final int DEPTH = 4;
+
+    @Test
+    void neverUndercountsAndStaysWithinTheErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH, DEPTH);
+        long[] exact = new long[KEYS];
+        ZipfStream stream = new ZipfStream(KEYS, 1.1, 42);
+        for (int i = 0; i < 200_000; i++) {
+            int key = stream.next();
+            int weight = 1 + stream.nextInt(3);
+            exact[key] += weight;
+            sketch.add(key, weight);
+        }
+
+        // epsilon = e / width; the bound may fail for at most delta = exp(-depth) of the keys.
+        double bound = Math.E / WIDTH * sketch.total();
+        int withinBound = 0;
+        for (int key = 0; key < KEYS; key++) {
+            long estimate = sketch.estimate(key);
+            assertThat(estimate).isGreaterThanOrEqualTo(exact[key]);
+            if (estimate - exact[key] <= bound) {
+                withinBound++;
+            }
+        }
+        assertThat((double) withinBound / KEYS).isGreaterThanOrEqualTo(1 - Math.exp(-DEPTH));
+    }
+
+    @Test
+    void clearForgetsEverything() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH, DEPTH);
+        sketch.add(7, 10);
+        sketch.clear();
+
+        assertThat(sketch.total()).isZero();
+        assertThat(sketch.estimate(7)).isZero();
+    }
+}
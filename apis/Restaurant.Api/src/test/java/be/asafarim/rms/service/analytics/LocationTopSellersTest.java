@@ -0,0 +1,99 @@
+package be.asafarim.rms.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the sketched rankings against exact counts of the same stream.
+ */
+class LocationTopSellersTest {
+
+    private static final int ITEMS = 2_000;
+    private static final int TOP = 10;
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:30Z");
+
+    // Seeded like the stream: the e / width bound only holds with high probability, so a run must not depend
+    // on where random IDs happen to hash
+    private final Random ids = new Random(2024);
+    private final UUID[] menuItems = IntStream.range(0, ITEMS)
+            .mapToObj(i -> new UUID(ids.nextLong(), ids.nextLong()))
+            .toArray(UUID[]::new);
+
+    @Test
+    void rankingsMatchExactCountsWithinTheReportedOvercount() {
+        LocationTopSellers tracker = new LocationTopSellers(50, 200, 272, 4, 1_000, ZoneOffset.UTC);
+        Map<TopSellerWindow, Map<UUID, Long>> exact = new HashMap<>();
+        for (TopSellerWindow window : TopSellerWindow.values()) {
+            exact.put(window, new HashMap<>());
+        }
+
+        // Two hours of sales, so the hour window has to drop the oldest slices.
+        ZipfStream stream = new ZipfStream(ITEMS, 1.1, 2024);
+        long start = NOW.getEpochSecond() - 2 * 3600;
+        for (int i = 0; i < 240_000; i++) {
+            Instant at = Instant.ofEpochSecond(start + (long) i * 2 * 3600 / 240_000);
+            UUID item = menuItems[stream.next()];
+            int quantity = 1 + stream.nextInt(3);
+            tracker.record(item, quantity, at);
+
+            long ageSeconds = NOW.getEpochSecond() / 60 * 60 - at.getEpochSecond() / 60 * 60;
+            exact.get(TopSellerWindow.TODAY).merge(item, (long) quantity, Long::sum);
+            if (ageSeconds < 3600) {
+                exact.get(TopSellerWindow.LAST_HOUR).merge(item, (long) quantity, Long::sum);
+            }
+            if (ageSeconds < 15 * 60) {
+                exact.get(TopSellerWindow.LAST_15_MINUTES).merge(item, (long) quantity, Long::sum);
+            }
+        }
+
+        for (TopSellerWindow window : TopSellerWindow.values()) {
+            Map<UUID, Long> counts = exact.get(window);
+            long volume = counts.values().stream().mapToLong(Long::longValue).sum();
+            List<LocationTopSellers.TopSeller> top = tracker.top(window, NOW).subList(0, TOP);
+
+            for (LocationTopSellers.TopSeller seller : top) {
+                long actual = counts.getOrDefault(seller.menuItemId(), 0L);
+                // Count-Min never undercounts, and the reported overcount is a hard bound.
+                assertThat(seller.quantity()).as(window + " quantity").isGreaterThanOrEqualTo(actual);
+                assertThat(seller.quantity() - actual).as(window + " overcount")
+                        .isLessThanOrEqualTo(seller.maxOvercount());
+                // e / width of the window volume, the Count-Min error bound.
+                assertThat((double) (seller.quantity() - actual)).as(window + " error")
+                        .isLessThanOrEqualTo(Math.E / 272 * volume);
+            }
+
+            List<UUID> exactTop = counts.entrySet().stream()
+                    .sorted(Map.Entry.<UUID, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(TOP)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            List<UUID> reportedTop = top.stream().map(LocationTopSellers.TopSeller::menuItemId).toList();
+            assertThat(reportedTop.subList(0, 3)).as(window + " top 3").isEqualTo(exactTop.subList(0, 3));
+            assertThat(reportedTop.stream().filter(exactTop::contains).count()).as(window + " recall")
+                    .isGreaterThanOrEqualTo(TOP - 1);
+        }
+    }
+
+    @Test
+    void todayResetsAtMidnight() {
+        LocationTopSellers tracker = new LocationTopSellers(50, 200, 272, 4, 0, ZoneOffset.UTC);
+        tracker.record(menuItems[0], 5, Instant.parse("2024-05-31T23:59:00Z"));
+        tracker.record(menuItems[1], 1, Instant.parse("2024-06-01T00:01:00Z"));
+
+        List<LocationTopSellers.TopSeller> today =
+                tracker.top(TopSellerWindow.TODAY, Instant.parse("2024-06-01T00:02:00Z"));
+
+        assertThat(today).extracting(LocationTopSellers.TopSeller::menuItemId).containsExactly(menuItems[1]);
+    }
+}
@@ -0,0 +1,63 @@
+package be.asafarim.rms.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevenueRingBufferTest {
+
+    private static final int SIZE = 4;
+    private static final long NOW = 1_000;
+
+    private final RevenueRingBuffer buffer = new RevenueRingBuffer(SIZE);
+
+    @Test
+    void rangeIsOldestFirstWithZeroesForQuietMinutes() {
+        buffer.recordOrder(NOW - 2, 1_250, 100);
+        buffer.recordOrder(NOW, 500, 0);
+        buffer.recordOrder(NOW, 700, 50);
+
+        List<RevenueRingBuffer.Point> points = buffer.range(NOW, 3);
+
+        assertThat(points).extracting(RevenueRingBuffer.Point::epochMinute).containsExactly(NOW - 2, NOW - 1, NOW);
+        assertThat(points).extracting(RevenueRingBuffer.Point::revenueCents).containsExactly(1_250L, 0L, 1_200L);
+        assertThat(points).extracting(RevenueRingBuffer.Point::orders).containsExactly(1L, 0L, 2L);
+    }
+
+    @Test
+    void wrappingAroundReplacesTheMinuteASlotHeld() {
+        for (long minute = NOW - SIZE + 1; minute <= NOW; minute++) {
+            buffer.recordOrder(minute, 100, 0);
+        }
+        // Same slot as NOW - SIZE + 1
+        buffer.recordOrder(NOW + 1, 900, 0);
+
+        List<RevenueRingBuffer.Point> points = buffer.range(NOW + 1, SIZE);
+
+        assertThat(points).extracting(RevenueRingBuffer.Point::epochMinute)
+                .containsExactly(NOW - 2, NOW - 1, NOW, NOW + 1);
+        assertThat(points).extracting(RevenueRingBuffer.Point::revenueCents)
+                .containsExactly(100L, 100L, 100L, 900L);
+        assertThat(buffer.totalRevenueCents()).isEqualTo(1_300);
+    }
+
+    @Test
+    void minutesOlderThanTheRingOnlyCountTowardsTheTotals() {
+        buffer.recordOrder(NOW, 100, 0);
+        buffer.recordOrder(NOW - SIZE, 400, 0);
+
+        assertThat(buffer.range(NOW, SIZE)).extracting(RevenueRingBuffer.Point::revenueCents)
+                .containsExactly(0L, 0L, 0L, 100L);
+        assertThat(buffer.totalRevenueCents()).isEqualTo(500);
+        assertThat(buffer.totalOrders()).isEqualTo(2);
+    }
+
+    @Test
+    void rangeIsClampedToTheRing() {
+        assertThat(buffer.range(NOW, -1)).isEmpty();
+        assertThat(buffer.range(NOW, 0)).isEmpty();
+        assertThat(buffer.range(NOW, Integer.MAX_VALUE)).hasSize(SIZE);
+    }
+}
@@ -0,0 +1,57 @@
+package be.asafarim.rms.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    private static final int KEYS = 5_000;
+    private static final int CAPACITY = 50;
+
+    @Test
+    void keepsEveryHeavyHitterWithBoundedCounts() {
+        SpaceSaving<Integer> summary = new SpaceSaving<>(CAPACITY);
+        long[] exact = new long[KEYS];
+        ZipfStream stream = new ZipfStream(KEYS, 1.1, 7);
+        for (int i = 0; i < 200_000; i++) {
+            int key = stream.next();
+            int weight = 1 + stream.nextInt(3);
+            exact[key] += weight;
+            summary.offer(key, weight);
+        }
+
+        List<SpaceSaving.Counter<Integer>> counters = summary.counters();
+        assertThat(counters).hasSize(CAPACITY);
+        for (SpaceSaving.Counter<Integer> counter : counters) {
+            assertThat(exact[counter.key()])
+                    .isBetween(counter.count() - counter.error(), counter.count());
+        }
+
+        // Any key above total / capacity is guaranteed to be tracked.
+        Set<Integer> tracked = counters.stream().map(SpaceSaving.Counter::key).collect(Collectors.toSet());
+        for (int key = 0; key < KEYS; key++) {
+            if (exact[key] > summary.total() / CAPACITY) {
+                assertThat(tracked).contains(key);
+            }
+        }
+        // The heaviest items of a skewed stream come out in the right order.
+        assertThat(counters.subList(0, 5)).extracting(SpaceSaving.Counter::key).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void countsExactlyWhileUnderCapacity() {
+        SpaceSaving<String> summary = new SpaceSaving<>(3);
+        summary.offer("a", 2);
+        summary.offer("b", 5);
+        summary.offer("a", 1);
+
+        assertThat(summary.counters()).containsExactly(
+                new SpaceSaving.Counter<>("b", 5, 0),
+                new SpaceSaving.Counter<>("a", 3, 0));
+    }
+}
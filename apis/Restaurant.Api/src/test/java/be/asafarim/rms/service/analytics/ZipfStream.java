@@ -0,0 +1,35 @@
+package be.asafarim.rms.service.analytics;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Seeded Zipf-distributed ranks, the shape of real menu sales: a few items sell most of the volume.
+ */
+final class ZipfStream {
+
+    private final double[] cumulative;
+    private final Random random;
+
+    ZipfStream(int items, double exponent, long seed) {
+        cumulative = new double[items];
+        double sum = 0;
+        for (int rank = 0; rank < items; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < items; rank++) {
+            cumulative[rank] /= sum;
+        }
+        random = new Random(seed);
+    }
+
+    int next() {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+}
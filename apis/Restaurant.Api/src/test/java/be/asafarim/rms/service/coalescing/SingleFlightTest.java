@@ -0,0 +1,164 @@
+package be.asafarim.rms.service.coalescing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+    private static final String KEY = "order-1";
+
+    private final Map<SingleFlight.Outcome, AtomicInteger> outcomes = new EnumMap<>(SingleFlight.Outcome.class);
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    SingleFlightTest() {
+        for (SingleFlight.Outcome outcome : SingleFlight.Outcome.values()) {
+            outcomes.put(outcome, new AtomicInteger());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersForOneKeyRunTheLoaderOnce() throws Exception {
+        SingleFlight<String, Object> flight = singleFlight(Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        Object value = new Object();
+
+        List<Future<Object>> results = callAll(() -> flight.load(KEY, () -> {
+            loads.incrementAndGet();
+            awaitOtherCallers();
+            return value;
+        }));
+
+        for (Future<Object> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(value);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(outcomes.get(SingleFlight.Outcome.LOADED)).hasValue(1);
+        assertThat(outcomes.get(SingleFlight.Outcome.COALESCED)).hasValue(CALLERS - 1);
+    }
+
+    @Test
+    void everyWaiterGetsTheLoadersException() throws Exception {
+        SingleFlight<String, Object> flight = singleFlight(Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("database unavailable");
+
+        List<Future<Object>> results = callAll(() -> flight.load(KEY, () -> {
+            loads.incrementAndGet();
+            awaitOtherCallers();
+            throw failure;
+        }));
+
+        for (Future<Object> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseReference(failure);
+        }
+        assertThat(loads).hasValue(1);
+        // Failures are not cached, even within the TTL
+        assertThat(flight.contains(KEY)).isFalse();
+    }
+
+    @Test
+    void aKeyIsLoadedAgainOnceItsLoadHasFinished() {
+        SingleFlight<String, String> flight = singleFlight(Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<String> loader = () -> "v" + loads.incrementAndGet();
+
+        assertThat(flight.load(KEY, loader)).isEqualTo("v1");
+        assertThat(flight.load(KEY, loader)).isEqualTo("v2");
+
+        assertThatThrownBy(() -> flight.load(KEY, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(flight.load(KEY, loader)).isEqualTo("v3");
+        assertThat(outcomes.get(SingleFlight.Outcome.LOADED)).hasValue(4);
+    }
+
+    @Test
+    void resultsAreServedForTheTtlUnlessInvalidated() {
+        SingleFlight<String, String> flight = singleFlight(Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<String> loader = () -> "v" + loads.incrementAndGet();
+
+        assertThat(flight.load(KEY, loader)).isEqualTo("v1");
+        assertThat(flight.load(KEY, loader)).isEqualTo("v1");
+        assertThat(outcomes.get(SingleFlight.Outcome.CACHED)).hasValue(1);
+
+        flight.invalidate(KEY);
+        assertThat(flight.load(KEY, loader)).isEqualTo("v2");
+    }
+
+    @Test
+    void differentKeysLoadIndependently() throws Exception {
+        SingleFlight<String, String> flight = singleFlight(Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> blocked = callers.submit(() -> flight.load("slow", () -> {
+            await(release);
+            return "slow";
+        }));
+
+        assertThat(flight.load("fast", () -> "fast")).isEqualTo("fast");
+        assertThat(blocked).isNotDone();
+        release.countDown();
+        assertThat(blocked.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+    }
+
+    private <V> SingleFlight<String, V> singleFlight(Duration ttl) {
+        return new SingleFlight<>(ttl.toNanos(), outcome -> outcomes.get(outcome).incrementAndGet());
+    }
+
+    private List<Future<Object>> callAll(Callable<Object> call) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                await(start);
+                return call.call();
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    // Holds the leader until every other caller has joined its flight
+    private void awaitOtherCallers() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (outcomes.get(SingleFlight.Outcome.COALESCED).get() < CALLERS - 1) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("callers did not coalesce within 5 s");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+}
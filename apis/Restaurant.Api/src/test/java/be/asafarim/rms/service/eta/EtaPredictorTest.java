@@ -0,0 +1,93 @@
+package be.asafarim.rms.service.eta;
+
+import be.asafarim.rms.api.order.dto.OrderEtaResponse;
+import be.asafarim.rms.config.EtaProperties;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import be.asafarim.rms.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class EtaPredictorTest {
+
+    private final OrderEtaStreams streams = mock(OrderEtaStreams.class);
+    private final EtaPredictor predictor = new EtaPredictor(
+            new EtaProperties(3, null, Duration.ofMinutes(8), 0.2, Duration.ofDays(14),
+                    Duration.ofSeconds(15), Duration.ofSeconds(30), Duration.ofMinutes(30)),
+            mock(OrderRepository.class), streams, new SimpleMeterRegistry());
+
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID locationId = UUID.randomUUID();
+
+    @ParameterizedTest
+    @EnumSource(value = OrderStatus.class, names = {"READY", "COMPLETED"})
+    void readyAndCompletedOrdersCloseTheStreamAsReady(OrderStatus status) {
+        OrderEtaResponse last = closeWith(status);
+
+        assertThat(last.ready()).isTrue();
+        assertThat(last.closed()).isTrue();
+        assertThat(last.estimatedReadyAt()).isNotNull();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = OrderStatus.class, names = {"CANCELLED", "REFUNDED"})
+    void withdrawnOrdersCloseTheStreamWithoutBecomingReady(OrderStatus status) {
+        OrderEtaResponse last = closeWith(status);
+
+        assertThat(last.ready()).isFalse();
+        assertThat(last.closed()).isTrue();
+        assertThat(last.estimatedReadyAt()).isNull();
+        assertThat(predictor.current(orderId)).isEmpty();
+    }
+
+    @Test
+    void openOrdersAreNeitherReadyNorClosed() {
+        place();
+
+        assertThat(predictor.current(orderId)).hasValueSatisfying(eta -> {
+            assertThat(eta.ready()).isFalse();
+            assertThat(eta.closed()).isFalse();
+        });
+    }
+
+    private OrderEtaResponse closeWith(OrderStatus status) {
+        place();
+        predictor.onOrderStatusChanged(OrderStatusChangedEvent.builder()
+                .orderId(orderId)
+                .locationId(locationId)
+                .previousStatus(OrderStatus.IN_PROGRESS)
+                .newStatus(status)
+                .occurredAt(Instant.now())
+                .build());
+
+        ArgumentCaptor<OrderEtaResponse> published = ArgumentCaptor.forClass(OrderEtaResponse.class);
+        verify(streams, atLeastOnce()).publish(published.capture());
+        return published.getAllValues().get(published.getAllValues().size() - 1);
+    }
+
+    private void place() {
+        predictor.onOrderPlaced(OrderPlacedEvent.builder()
+                .orderId(orderId)
+                .locationId(locationId)
+                .lines(List.of(OrderPlacedEvent.Line.builder()
+                        .orderItemId(UUID.randomUUID())
+                        .menuItemId(UUID.randomUUID())
+                        .quantity(1)
+                        .build()))
+                .build());
+    }
+}
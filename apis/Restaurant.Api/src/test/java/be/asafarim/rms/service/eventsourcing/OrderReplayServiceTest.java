@@ -0,0 +1,96 @@
+package be.asafarim.rms.service.eventsourcing;
+
+import be.asafarim.rms.config.ReplayProperties;
+import be.asafarim.rms.domain.order.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderReplayServiceTest {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int ORDERS = 2 * BATCH_SIZE + 50;
+
+    private final OrderEventStore eventStore = mock(OrderEventStore.class);
+    private final UUID restaurantId = UUID.randomUUID();
+
+    @Test
+    void writesEachBatchInItsOwnReadWriteTransactionWhileStreaming() {
+        List<Boolean> writesReadOnly = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        List<OrderProjection> written = Collections.synchronizedList(new ArrayList<>());
+        boolean[] streaming = new boolean[1];
+        int[] writesWhileStreaming = new int[1];
+
+        when(eventStore.findRestaurantIds()).thenReturn(List.of(restaurantId));
+        doAnswer(invocation -> {
+            Consumer<OrderEventRecord> consumer = invocation.getArgument(2);
+            assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isTrue();
+            streaming[0] = true;
+            long eventId = 0;
+            for (int i = 0; i < ORDERS; i++) {
+                UUID orderId = UUID.randomUUID();
+                for (OrderStatus status : List.of(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.READY)) {
+                    consumer.accept(event(++eventId, orderId, status));
+                }
+            }
+            streaming[0] = false;
+            return null;
+        }).when(eventStore).streamRestaurant(any(), anyInt(), any());
+        doAnswer(invocation -> {
+            List<OrderProjection> batch = invocation.getArgument(0);
+            writesReadOnly.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            batchSizes.add(batch.size());
+            written.addAll(batch);
+            if (streaming[0]) {
+                writesWhileStreaming[0]++;
+            }
+            return null;
+        }).when(eventStore).upsertProjections(anyList());
+
+        OrderReplayService.ReplayReport report = service().replayAll();
+
+        assertThat(report.orders()).isEqualTo(ORDERS);
+        assertThat(report.events()).isEqualTo(3L * ORDERS);
+        assertThat(batchSizes).containsExactly(BATCH_SIZE, BATCH_SIZE, ORDERS - 2 * BATCH_SIZE);
+        assertThat(writesReadOnly).containsOnly(false);
+        assertThat(writesWhileStreaming[0]).isEqualTo(2);
+        assertThat(written).hasSize(ORDERS)
+                .allSatisfy(projection -> assertThat(projection.status()).isEqualTo(OrderStatus.READY));
+        assertThat(written.stream().map(OrderProjection::orderId).distinct()).hasSize(ORDERS);
+    }
+
+    private OrderReplayService service() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:replay;DB_CLOSE_DELAY=-1");
+        return new OrderReplayService(eventStore, new ReplayProperties(true, 2, 500, BATCH_SIZE),
+                new DataSourceTransactionManager(dataSource));
+    }
+
+    private OrderEventRecord event(long id, UUID orderId, OrderStatus status) {
+        return OrderEventRecord.builder()
+                .id(id)
+                .orderId(orderId)
+                .restaurantId(restaurantId)
+                .locationId(restaurantId)
+                .type(OrderEventType.STATUS_CHANGED)
+                .status(status)
+                .occurredAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package be.asafarim.rms.service.inventory;
+
+import be.asafarim.rms.config.InventoryProperties;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryDeductionPipelineTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final InventoryStore store = mock(InventoryStore.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID pepper = UUID.randomUUID();
+    private final UUID flour = UUID.randomUUID();
+    private final UUID deleted = UUID.randomUUID();
+    private final UUID pizza = UUID.randomUUID();
+    private final UUID special = UUID.randomUUID();
+    private final List<List<StockMovement>> written = new ArrayList<>();
+    private InventoryDeductionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        when(store.loadRecipes()).thenReturn(new HashMap<>(Map.of(
+                pizza, List.of(new RecipeLine(pepper, new BigDecimal("0.0040")),
+                        new RecipeLine(flour, new BigDecimal("0.2500"))),
+                special, List.of(new RecipeLine(deleted, new BigDecimal("1.0000"))))));
+        when(store.applyDeltas(anyMap())).thenReturn(List.of());
+        doAnswer(invocation -> written.add(List.copyOf(invocation.getArgument(0))))
+                .when(store).insertMovements(anyList());
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        pipeline = new InventoryDeductionPipeline(
+                new InventoryProperties(true, Duration.ofHours(1), Duration.ofHours(1), MAX_ATTEMPTS),
+                store, new TransactionTemplate(transactionManager), mock(ApplicationEventPublisher.class),
+                meterRegistry);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void keepsTheConsumptionOfSmallPortions() {
+        pipeline.onOrderPlaced(placed(UUID.randomUUID(), pizza, 1));
+        pipeline.flush();
+
+        assertThat(written).hasSize(1);
+        assertThat(written.get(0)).extracting(StockMovement::ingredientId, StockMovement::quantity)
+                .containsExactlyInAnyOrder(
+                        tuple(pepper, new BigDecimal("0.0040")),
+                        tuple(flour, new BigDecimal("0.2500")));
+    }
+
+    @Test
+    void aBadOrderIsDroppedWithoutBlockingTheOthers() {
+        UUID good = UUID.randomUUID();
+        UUID bad = UUID.randomUUID();
+        doAnswer(invocation -> {
+            List<StockMovement> movements = invocation.getArgument(0);
+            if (movements.stream().anyMatch(m -> m.ingredientId().equals(deleted))) {
+                throw new DataIntegrityViolationException("ingredient does not exist");
+            }
+            written.add(List.copyOf(movements));
+            return null;
+        }).when(store).insertMovements(anyList());
+
+        pipeline.onOrderPlaced(placed(good, pizza, 2));
+        pipeline.onOrderPlaced(placed(bad, special, 1));
+        pipeline.flush();
+        pipeline.flush();
+
+        assertThat(written).hasSize(1);
+        assertThat(written.get(0)).allMatch(m -> m.referenceId().equals(good));
+        assertThat(meterRegistry.counter("rms.inventory.failed").count()).isEqualTo(1.0);
+        // Nothing was put back, so the second flush had nothing to write.
+        verify(store, times(3)).insertMovements(anyList());
+    }
+
+    @Test
+    void transientFailuresAreRetriedUpToTheLimit() {
+        doAnswer(invocation -> {
+            throw new TransientDataAccessResourceException("connection refused");
+        }).when(store).insertMovements(anyList());
+
+        pipeline.onOrderPlaced(placed(UUID.randomUUID(), pizza, 1));
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            pipeline.flush();
+            assertThat(meterRegistry.counter("rms.inventory.failed").count()).isZero();
+        }
+        // The last attempt falls back to writing order by order, which fails too: the order is dropped.
+        pipeline.flush();
+        assertThat(meterRegistry.counter("rms.inventory.failed").count()).isEqualTo(1.0);
+
+        pipeline.flush();
+        verify(store, times(MAX_ATTEMPTS + 1)).insertMovements(anyList());
+    }
+
+    @Test
+    void aTransientFailureKeepsTheMovementsForTheNextFlush() {
+        boolean[] down = {true};
+        doAnswer(invocation -> {
+            if (down[0]) {
+                throw new TransientDataAccessResourceException("connection refused");
+            }
+            written.add(List.copyOf(invocation.getArgument(0)));
+            return null;
+        }).when(store).insertMovements(anyList());
+
+        pipeline.onOrderPlaced(placed(UUID.randomUUID(), pizza, 1));
+        pipeline.flush();
+        down[0] = false;
+        pipeline.onOrderPlaced(placed(UUID.randomUUID(), pizza, 1));
+        pipeline.flush();
+
+        assertThat(written).hasSize(1);
+        assertThat(written.get(0)).hasSize(4);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<UUID, BigDecimal>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(store).applyDeltas(deltas.capture());
+        assertThat(deltas.getValue().get(pepper)).isEqualByComparingTo("-0.0080");
+        verify(store, never()).reverseOrderMovements(anyList());
+    }
+
+    private static OrderPlacedEvent placed(UUID orderId, UUID menuItemId, int quantity) {
+        return OrderPlacedEvent.builder()
+                .orderId(orderId)
+                .lines(List.of(OrderPlacedEvent.Line.builder()
+                        .orderItemId(UUID.randomUUID())
+                        .menuItemId(menuItemId)
+                        .quantity(quantity)
+                        .build()))
+                .build();
+    }
+}
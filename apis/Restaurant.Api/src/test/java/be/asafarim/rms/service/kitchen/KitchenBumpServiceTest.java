@@ -0,0 +1,135 @@
+package be.asafarim.rms.service.kitchen;
+
+import be.asafarim.rms.api.kitchen.dto.ItemBumpRequest;
+import be.asafarim.rms.api.kitchen.dto.ItemBumpResponse;
+import be.asafarim.rms.domain.order.OrderItemStatus;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.event.OrderItemsBumpedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the bump against a scripted JDBC connection: the SQL itself needs PostgreSQL, but how the item and order
+ * IDs are bound and how the returned rows are turned into a response does not.
+ */
+class KitchenBumpServiceTest {
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID third = UUID.randomUUID();
+    private final UUID alreadyServed = UUID.randomUUID();
+    private final UUID readyOrder = UUID.randomUUID();
+    private final UUID busyOrder = UUID.randomUUID();
+
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement lock = mock(PreparedStatement.class);
+    private final PreparedStatement bump = mock(PreparedStatement.class);
+    private final PreparedStatement promote = mock(PreparedStatement.class);
+    private final PreparedStatement history = mock(PreparedStatement.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private KitchenBumpService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf(eq("uuid"), any())).thenAnswer(call -> mock(Array.class));
+        when(connection.prepareStatement(anyString())).thenAnswer(call -> {
+            String sql = call.getArgument(0);
+            if (sql.contains("FOR UPDATE")) {
+                return lock;
+            }
+            if (sql.contains("UPDATE order_items")) {
+                return bump;
+            }
+            if (sql.contains("UPDATE orders")) {
+                return promote;
+            }
+            return history;
+        });
+        when(history.getConnection()).thenReturn(connection);
+
+        ResultSet noRows = mock(ResultSet.class);
+        when(lock.executeQuery()).thenReturn(noRows);
+
+        // Two items of one order and one of another; the served item is not returned
+        ResultSet bumped = mock(ResultSet.class);
+        when(bumped.next()).thenReturn(true, true, true, false);
+        when(bumped.getObject(1, UUID.class)).thenReturn(first, second, third);
+        when(bumped.getObject(2, UUID.class)).thenReturn(readyOrder, readyOrder, busyOrder);
+        when(bump.executeQuery()).thenReturn(bumped);
+
+        ResultSet promoted = mock(ResultSet.class);
+        when(promoted.next()).thenReturn(true, false);
+        when(promoted.getObject("id", UUID.class)).thenReturn(readyOrder);
+        when(promote.executeQuery()).thenReturn(promoted);
+
+        service = new KitchenBumpService(new JdbcTemplate(dataSource), eventPublisher, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void bumpingSeveralItemsBindsThemAsOneUuidArray() throws SQLException {
+        ItemBumpResponse response = service.bump(
+                new ItemBumpRequest("grill", List.of(first, second, first, third, alreadyServed), null),
+                UUID.randomUUID());
+
+        UUID[] items = {first, second, third, alreadyServed};
+        // Lock and bump each get the deduplicated items, in request order
+        verify(connection, times(2)).createArrayOf(eq("uuid"), argThat(ids -> List.of(ids).equals(List.of(items))));
+        verify(connection).createArrayOf(eq("uuid"),
+                argThat(ids -> List.of(ids).equals(List.of(readyOrder, busyOrder))));
+        verify(lock).setArray(eq(1), any());
+        verify(bump).setArray(eq(3), any());
+        verify(promote).setArray(eq(1), any());
+        verify(lock, never()).setObject(eq(1), any());
+
+        assertThat(response.status()).isEqualTo(OrderItemStatus.READY);
+        assertThat(response.bumpedItemIds()).containsExactly(first, second, third);
+        assertThat(response.skippedItemIds()).containsExactly(alreadyServed);
+        assertThat(response.readyOrderIds()).containsExactly(readyOrder);
+    }
+
+    @Test
+    void promotedOrdersGetOneHistoryRowAndEventEach() throws SQLException {
+        UUID cook = UUID.randomUUID();
+        service.bump(new ItemBumpRequest("grill", List.of(first, second, third), OrderItemStatus.READY), cook);
+
+        verify(history).setObject(1, readyOrder);
+        verify(history).setObject(3, cook);
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).hasExactlyElementsOfTypes(OrderStatusChangedEvent.class,
+                OrderItemsBumpedEvent.class);
+        OrderStatusChangedEvent ready = (OrderStatusChangedEvent) events.getAllValues().get(0);
+        assertThat(ready.orderId()).isEqualTo(readyOrder);
+        assertThat(ready.newStatus()).isEqualTo(OrderStatus.READY);
+        OrderItemsBumpedEvent itemsBumped = (OrderItemsBumpedEvent) events.getAllValues().get(1);
+        assertThat(itemsBumped.orderItemIds()).containsExactly(first, second, third);
+        assertThat(itemsBumped.orderIds()).containsExactly(readyOrder, busyOrder);
+    }
+}
@@ -0,0 +1,142 @@
+package be.asafarim.rms.service.loyalty;
+
+import be.asafarim.rms.config.LoyaltyProperties;
+import be.asafarim.rms.domain.order.Order;
+import be.asafarim.rms.exception.InvalidOrderStateException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoyaltyLedgerTest {
+
+    private final LoyaltyLedgerStore store = mock(LoyaltyLedgerStore.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UUID customerId = UUID.randomUUID();
+    private final LoyaltyLedger ledger = ledger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ledger.stop();
+    }
+
+    @Test
+    void redemptionIsDecidedByTheStore() {
+        when(store.redeem(customerId, 50)).thenReturn(OptionalInt.empty());
+        when(store.loadBalance(customerId)).thenReturn(20);
+
+        assertThatThrownBy(() -> ledger.applyOrder(order(50, 10)))
+                .isInstanceOf(InvalidOrderStateException.class)
+                .hasMessageContaining("50 requested, 20 available");
+    }
+
+    @Test
+    void redemptionAndEarnedPointsAreWrittenInTheOrderTransaction() {
+        when(store.redeem(customerId, 50)).thenReturn(OptionalInt.of(70));
+        Order order = order(50, 12);
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.applyOrder(order);
+        verify(store, never()).appendApplied(any());
+
+        // The ID is assigned when the order is saved, after applyOrder.
+        order.setId(UUID.randomUUID());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.beforeCommit(false));
+
+        ArgumentCaptor<LoyaltyEntry> redeemed = ArgumentCaptor.forClass(LoyaltyEntry.class);
+        verify(store).appendApplied(redeemed.capture());
+        assertThat(redeemed.getValue().orderId()).isEqualTo(order.getId());
+        assertThat(redeemed.getValue().points()).isEqualTo(-50);
+        assertThat(redeemed.getValue().balanceAfter()).isEqualTo(70);
+
+        assertThat(appended()).satisfies(entry -> {
+            assertThat(entry.type()).isEqualTo(LoyaltyTransactionType.EARN);
+            assertThat(entry.orderId()).isEqualTo(order.getId());
+            assertThat(entry.points()).isEqualTo(12);
+            assertThat(entry.balanceAfter()).isNull();
+        });
+    }
+
+    @Test
+    void rolledBackOrdersCreditNothing() {
+        when(store.redeem(customerId, 50)).thenReturn(OptionalInt.of(70));
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.applyOrder(order(50, 12));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(store, never()).append(any());
+    }
+
+    @Test
+    void cancellationTakesBackEarnedPointsAndRefundsInTheSameTransaction() {
+        when(store.debit(customerId, 12)).thenReturn(-5);
+        Order order = order(50, 12);
+        order.setId(UUID.randomUUID());
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.reverseOrder(order);
+
+        ArgumentCaptor<LoyaltyEntry> reversal = ArgumentCaptor.forClass(LoyaltyEntry.class);
+        verify(store).appendApplied(reversal.capture());
+        assertThat(reversal.getValue().points()).isEqualTo(-12);
+        assertThat(reversal.getValue().balanceAfter()).isEqualTo(-5);
+
+        // Not deferred to the commit, so nothing is left in memory to lose
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+        assertThat(appended()).satisfies(entry -> {
+            assertThat(entry.type()).isEqualTo(LoyaltyTransactionType.ADJUST);
+            assertThat(entry.points()).isEqualTo(50);
+        });
+        assertThat(registry.get("rms.loyalty.entries").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void compactionOnlyRunsOnceTheApplicationIsReady() throws InterruptedException {
+        Thread.sleep(20);
+        verify(store, never()).compact();
+
+        ledger.start();
+        verify(store, timeout(2_000).atLeastOnce()).compact();
+    }
+
+    private LoyaltyLedger ledger() {
+        return new LoyaltyLedger(new LoyaltyProperties(Duration.ofMillis(1)), store, registry);
+    }
+
+    private LoyaltyEntry appended() {
+        ArgumentCaptor<LoyaltyEntry> entry = ArgumentCaptor.forClass(LoyaltyEntry.class);
+        verify(store).append(entry.capture());
+        return entry.getValue();
+    }
+
+    private Order order(int used, int earned) {
+        return Order.builder()
+                .customerId(customerId)
+                .orderNumber("ORD-1")
+                .loyaltyPointsUsed(used)
+                .loyaltyPointsEarned(earned)
+                .build();
+    }
+}
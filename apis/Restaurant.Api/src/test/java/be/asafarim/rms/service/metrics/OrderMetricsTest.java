@@ -0,0 +1,54 @@
+package be.asafarim.rms.service.metrics;
+
+import be.asafarim.rms.config.MetricsProperties;
+import be.asafarim.rms.domain.order.OrderSource;
+import be.asafarim.rms.domain.order.OrderType;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OrderMetrics metrics = new OrderMetrics(registry, new MetricsProperties(100));
+
+    @Test
+    void batchOfOneRestaurantKeepsItsTags() {
+        UUID restaurant = UUID.randomUUID();
+        try (OrderOperationTimer timer = metrics.start("place_batch")) {
+            timer.include(restaurant, OrderSource.THIRD_PARTY, OrderType.DELIVERY);
+            timer.include(restaurant, OrderSource.THIRD_PARTY, OrderType.DELIVERY);
+            timer.success(null);
+        }
+
+        Timer timer = registry.get("rms.orders.operation")
+                .tag("operation", "place_batch")
+                .tag("outcome", "success")
+                .tag("restaurant", restaurant.toString())
+                .tag("source", "THIRD_PARTY")
+                .tag("type", "DELIVERY")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    void batchSpanningRestaurantsIsTaggedMixedInsteadOfAfterItsFirstOrder() {
+        try (OrderOperationTimer timer = metrics.start("place_batch")) {
+            timer.include(UUID.randomUUID(), OrderSource.THIRD_PARTY, OrderType.DELIVERY);
+            timer.include(UUID.randomUUID(), OrderSource.THIRD_PARTY, OrderType.TAKEOUT);
+        }
+
+        Timer timer = registry.get("rms.orders.operation")
+                .tag("operation", "place_batch")
+                .tag("outcome", "error")
+                .tag("restaurant", OrderMetrics.MIXED)
+                .tag("source", "THIRD_PARTY")
+                .tag("type", OrderMetrics.MIXED)
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+}
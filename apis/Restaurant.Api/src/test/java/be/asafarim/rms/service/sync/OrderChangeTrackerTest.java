@@ -0,0 +1,98 @@
+package be.asafarim.rms.service.sync;
+
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.event.OrderItemsBumpedEvent;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderChangeTrackerTest {
+
+    private final OrderChangeVersionStore store = mock(OrderChangeVersionStore.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final OrderChangeTracker tracker = new OrderChangeTracker(store, entityManager);
+    private final UUID placed = UUID.randomUUID();
+    private final UUID changed = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void ordersAreStampedOnceJustBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.onOrderPlaced(OrderPlacedEvent.builder().orderId(placed).status(OrderStatus.PENDING).build());
+        tracker.onOrderStatusChanged(OrderStatusChangedEvent.builder().orderId(changed).build());
+        tracker.onOrderItemsBumped(OrderItemsBumpedEvent.builder().orderIds(List.of(placed, changed)).build());
+        verify(store, never()).stamp(any());
+
+        beforeCommit();
+
+        InOrder order = inOrder(entityManager, store);
+        order.verify(entityManager).flush();
+        order.verify(store).stamp(List.of(placed, changed));
+    }
+
+    @Test
+    void stampingEarlyReturnsTheVersionsAndLeavesLaterWritesToTheCommit() {
+        when(store.stamp(List.of(placed))).thenReturn(Map.of(placed, 7L));
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.onOrderPlaced(OrderPlacedEvent.builder().orderId(placed).status(OrderStatus.PENDING).build());
+
+        assertThat(tracker.stampPending()).containsExactly(Map.entry(placed, 7L));
+        assertThat(tracker.stampPending()).isEmpty();
+
+        tracker.onOrderStatusChanged(OrderStatusChangedEvent.builder().orderId(changed).build());
+        beforeCommit();
+
+        verify(store).stamp(List.of(placed));
+        verify(store).stamp(List.of(changed));
+    }
+
+    @Test
+    void nothingIsStampedTwiceWhenNothingChangedAfterAnEarlyStamp() {
+        when(store.stamp(List.of(placed))).thenReturn(Map.of(placed, 7L));
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.onOrderPlaced(OrderPlacedEvent.builder().orderId(placed).status(OrderStatus.PENDING).build());
+
+        tracker.stampPending();
+        beforeCommit();
+
+        verify(store).stamp(any());
+    }
+
+    @Test
+    void writesOutsideATransactionAreStampedAtOnce() {
+        tracker.onOrderStatusChanged(OrderStatusChangedEvent.builder().orderId(changed).build());
+
+        verify(store).stamp(List.of(changed));
+        assertThat(tracker.stampPending()).isEmpty();
+    }
+
+    private static void beforeCommit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.beforeCommit(false));
+    }
+}
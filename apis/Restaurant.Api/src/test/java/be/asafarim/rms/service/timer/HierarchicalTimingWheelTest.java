@@ -0,0 +1,161 @@
+package be.asafarim.rms.service.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int WHEEL_SIZE = 4;
+    private static final int LEVELS = 3;
+    // WHEEL_SIZE^LEVELS ticks
+    private static final long HORIZON_TICKS = 64;
+
+    record Fired(String key, String value, long tick) {
+    }
+
+    private final List<Fired> fired = new ArrayList<>();
+    private long now;
+
+    private final HierarchicalTimingWheel<String, String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE,
+            LEVELS, 0, (key, value) -> fired.add(new Fired(key, value, now / TICK)));
+
+    @Test
+    void firesOnTheTickOfItsDeadlineAndNotBefore() {
+        wheel.schedule("on-boundary", "a", 20);
+        wheel.schedule("between", "b", 25);
+
+        advanceTo(19);
+        assertThat(fired).isEmpty();
+
+        advanceTo(20);
+        assertThat(fired).containsExactly(new Fired("on-boundary", "a", 2));
+
+        // Rounded up to the next tick
+        advanceTo(29);
+        assertThat(fired).hasSize(1);
+        advanceTo(30);
+        assertThat(fired).containsExactly(new Fired("on-boundary", "a", 2), new Fired("between", "b", 3));
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void entriesCascadeFromHigherWheelsOnTheirExactTick() {
+        for (long tick = 1; tick < HORIZON_TICKS; tick++) {
+            wheel.schedule("t" + tick, "v", tick * TICK);
+        }
+
+        for (long tick = 1; tick < HORIZON_TICKS; tick++) {
+            advanceTo(tick * TICK);
+            assertThat(fired).last().isEqualTo(new Fired("t" + tick, "v", tick));
+            assertThat(fired).hasSize((int) tick);
+        }
+    }
+
+    @Test
+    void cascadingIsRelativeToWhereTheWheelStands() {
+        // Not aligned to any level, so every deadline lands in a partly turned wheel
+        long start = 7;
+        advanceTo(start * TICK);
+
+        for (long tick = start + 1; tick < start + HORIZON_TICKS; tick++) {
+            wheel.schedule("t" + tick, "v", tick * TICK);
+        }
+        for (long tick = start + 1; tick < start + HORIZON_TICKS; tick++) {
+            advanceTo(tick * TICK);
+            assertThat(fired).last().isEqualTo(new Fired("t" + tick, "v", tick));
+        }
+        assertThat(fired).hasSize((int) HORIZON_TICKS - 1);
+    }
+
+    @Test
+    void oneLargeAdvanceFiresInDeadlineOrder() {
+        wheel.schedule("level2", "v", 40 * TICK);
+        wheel.schedule("level0", "v", 3 * TICK);
+        wheel.schedule("level1", "v", 9 * TICK);
+        wheel.schedule("past", "v", -5 * TICK);
+
+        assertThat(wheel.advance(100 * TICK)).isEqualTo(4);
+
+        assertThat(fired).extracting(Fired::key).containsExactly("past", "level0", "level1", "level2");
+    }
+
+    @Test
+    void deadlinesBeyondTheHorizonAreClampedAndStillFireOnTime() {
+        long deadline = 3 * HORIZON_TICKS + 5;
+        wheel.schedule("far", "v", deadline * TICK);
+
+        for (long tick = 1; tick < deadline; tick++) {
+            advanceTo(tick * TICK);
+        }
+        assertThat(fired).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        advanceTo(deadline * TICK);
+        assertThat(fired).containsExactly(new Fired("far", "v", deadline));
+    }
+
+    @Test
+    void clampedDeadlinesFireOnTimeAfterALargeAdvance() {
+        long deadline = 2 * HORIZON_TICKS + 3;
+        wheel.schedule("far", "v", deadline * TICK);
+
+        advanceTo((deadline - 1) * TICK);
+        assertThat(fired).isEmpty();
+
+        advanceTo(deadline * TICK);
+        assertThat(fired).containsExactly(new Fired("far", "v", deadline));
+    }
+
+    @Test
+    void cancelledEntriesNeverFire() {
+        wheel.schedule("kept", "v", 5 * TICK);
+        wheel.schedule("cancelled", "v", 20 * TICK);
+
+        assertThat(wheel.cancel("cancelled")).isTrue();
+        assertThat(wheel.cancel("cancelled")).isFalse();
+        assertThat(wheel.cancel("unknown")).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        advanceTo(100 * TICK);
+        assertThat(fired).extracting(Fired::key).containsExactly("kept");
+    }
+
+    @Test
+    void reArmingReplacesTheDeadlineAndValue() {
+        wheel.schedule("later", "pending", 5 * TICK);
+        wheel.schedule("later", "confirmed", 30 * TICK);
+        wheel.schedule("sooner", "pending", 30 * TICK);
+        wheel.schedule("sooner", "confirmed", 2 * TICK);
+        assertThat(wheel.size()).isEqualTo(2);
+
+        advanceTo(2 * TICK);
+        assertThat(fired).containsExactly(new Fired("sooner", "confirmed", 2));
+
+        advanceTo(29 * TICK);
+        assertThat(fired).hasSize(1);
+        advanceTo(30 * TICK);
+        assertThat(fired).containsExactly(new Fired("sooner", "confirmed", 2), new Fired("later", "confirmed", 30));
+    }
+
+    @Test
+    void aFiredKeyCanBeArmedAgain() {
+        wheel.schedule("order", "pending", 2 * TICK);
+        advanceTo(2 * TICK);
+        assertThat(wheel.cancel("order")).isFalse();
+
+        wheel.schedule("order", "confirmed", 10 * TICK);
+        advanceTo(10 * TICK);
+
+        assertThat(fired).containsExactly(new Fired("order", "pending", 2), new Fired("order", "confirmed", 10));
+    }
+
+    private void advanceTo(long millis) {
+        now = millis;
+        wheel.advance(millis);
+    }
+}
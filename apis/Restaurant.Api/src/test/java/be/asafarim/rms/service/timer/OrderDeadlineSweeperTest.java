@@ -0,0 +1,124 @@
+package be.asafarim.rms.service.timer;
+
+import be.asafarim.rms.config.MetricsProperties;
+import be.asafarim.rms.config.OrderSweeperProperties;
+import be.asafarim.rms.domain.order.OrderStatus;
+import be.asafarim.rms.domain.order.event.OrderPlacedEvent;
+import be.asafarim.rms.domain.order.event.OrderStatusChangedEvent;
+import be.asafarim.rms.repository.OrderRepository;
+import be.asafarim.rms.service.OrderService;
+import be.asafarim.rms.service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderDeadlineSweeperTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderService orderService = mock(OrderService.class);
+    private OrderDeadlineSweeper sweeper;
+
+    @AfterEach
+    void stop() {
+        if (sweeper != null) {
+            sweeper.stop();
+        }
+    }
+
+    @Test
+    void statusChangesReArmTheOrderAndTerminalStatusesDisarmIt() {
+        sweeper = sweeper(true, Duration.ofMinutes(15));
+        UUID orderId = UUID.randomUUID();
+
+        sweeper.onOrderPlaced(placed(orderId, Instant.now()));
+        assertThat(armed()).isEqualTo(1);
+
+        sweeper.onOrderStatusChanged(changed(orderId, OrderStatus.CONFIRMED));
+        sweeper.onOrderStatusChanged(changed(orderId, OrderStatus.IN_PROGRESS));
+        assertThat(armed()).isEqualTo(1);
+
+        sweeper.onOrderStatusChanged(changed(orderId, OrderStatus.COMPLETED));
+        assertThat(armed()).isZero();
+    }
+
+    @Test
+    void disabledSweeperArmsNothing() {
+        sweeper = sweeper(false, Duration.ofMinutes(15));
+
+        sweeper.onOrderPlaced(placed(UUID.randomUUID(), Instant.now()));
+
+        assertThat(armed()).isZero();
+    }
+
+    @Test
+    void overduePendingOrderIsAutoCancelledAndTimedOutsideTheService() throws InterruptedException {
+        when(orderRepository.findDeadlineViewsByStatusIn(any())).thenReturn(List.of());
+        when(orderService.cancelIfStillPending(any(), anyString(), any())).thenReturn(true);
+        sweeper = sweeper(true, Duration.ofMillis(1));
+        sweeper.start();
+        UUID orderId = UUID.randomUUID();
+
+        sweeper.onOrderPlaced(placed(orderId, Instant.now().minusSeconds(60)));
+
+        verify(orderService, timeout(2_000)).cancelIfStillPending(eq(orderId), anyString(), any());
+        // The timer closes just after the call returns, on the sweeper's action thread
+        assertThat(autoCancelsTimedWithin(Duration.ofSeconds(2))).isEqualTo(1);
+        assertThat(armed()).isZero();
+        assertThat(registry.get("rms.orders.deadline.expired").tag("action", "auto_cancel").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private OrderDeadlineSweeper sweeper(boolean enabled, Duration pendingTimeout) {
+        OrderSweeperProperties properties = new OrderSweeperProperties(enabled, Duration.ofMillis(10),
+                pendingTimeout, Duration.ofMinutes(20), Duration.ofMinutes(5));
+        return new OrderDeadlineSweeper(properties, orderRepository, orderService,
+                new OrderMetrics(registry, new MetricsProperties(100)), registry);
+    }
+
+    private long autoCancelsTimedWithin(Duration wait) throws InterruptedException {
+        long deadline = System.nanoTime() + wait.toNanos();
+        Timer timer;
+        while ((timer = registry.find("rms.orders.operation").tag("operation", "auto_cancel")
+                .tag("outcome", "success").timer()) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return timer != null ? timer.count() : 0;
+    }
+
+    private double armed() {
+        return registry.get("rms.orders.deadline.armed").gauge().value();
+    }
+
+    private static OrderPlacedEvent placed(UUID orderId, Instant at) {
+        return OrderPlacedEvent.builder()
+                .orderId(orderId)
+                .status(OrderStatus.PENDING)
+                .occurredAt(at)
+                .build();
+    }
+
+    private static OrderStatusChangedEvent changed(UUID orderId, OrderStatus status) {
+        return OrderStatusChangedEvent.builder()
+                .orderId(orderId)
+                .newStatus(status)
+                .occurredAt(Instant.now())
+                .estimatedReadyAt(Instant.now().plusSeconds(600))
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package be.asafarim.learn.javanotesapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the Java Notes API.
@@ -10,8 +11,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - @Configuration: Marks this as a source of bean definitions
  * - @EnableAutoConfiguration: Tells Spring Boot to auto-configure based on dependencies
  * - @ComponentScan: Scans for components in this package and sub-packages
+ *
+ * @EnableScheduling runs the periodic maintenance jobs (e.g. note stats reconciliation).
  */
 @SpringBootApplication
+@EnableScheduling
 public class JavaNotesApiApplication {
 
     public static void main(String[] args) {
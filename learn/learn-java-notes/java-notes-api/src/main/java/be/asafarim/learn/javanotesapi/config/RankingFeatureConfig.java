@@ -0,0 +1,47 @@
+package be.asafarim.learn.javanotesapi.config;
+
+import be.asafarim.learn.javanotesapi.search.RankingFeature;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDateTime;
+
+/**
+ * Default query-independent boosts of the search ranking. The SQL engine mirrors these in its query, so a change
+ * here should be reflected in {@code SqlNoteSearch} for its rankings to stay comparable.
+ */
+@Configuration
+public class RankingFeatureConfig {
+
+    /**
+     * Popularity, on a log scale to prevent runaway scores
+     */
+    @Bean
+    public RankingFeature popularityFeature() {
+        return signals -> signals.viewCount() > 0 ? Math.log10(signals.viewCount() + 1) * 5.0 : 0.0;
+    }
+
+    /**
+     * Attachment presence, capped at five attachments
+     */
+    @Bean
+    public RankingFeature attachmentFeature() {
+        return signals -> Math.min(signals.attachmentCount() * 2.0, 10.0);
+    }
+
+    /**
+     * Freshness: notes updated in the last 7 days
+     */
+    @Bean
+    public RankingFeature freshnessFeature() {
+        return signals -> signals.updatedAt().isAfter(LocalDateTime.now().minusDays(7)) ? 5.0 : 0.0;
+    }
+
+    /**
+     * Well-organized notes: one point per tag, for up to five tags
+     */
+    @Bean
+    public RankingFeature tagCountFeature() {
+        return signals -> signals.tagCount() > 0 && signals.tagCount() <= 5 ? signals.tagCount() : 0.0;
+    }
+}
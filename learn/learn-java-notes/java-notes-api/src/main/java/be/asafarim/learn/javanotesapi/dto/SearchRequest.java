@@ -2,6 +2,7 @@ package be.asafarim.learn.javanotesapi.dto;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO for search requests with multi-field filtering
@@ -17,6 +18,9 @@ public class SearchRequest {
     private String sort; // relevance, date, popularity, updated
     private Integer limit;
     private Integer offset;
+    private String engine; // index, sql, scan; empty picks the index once it is loaded
+    private Boolean autoCorrect; // re-run a query without hits with its best spelling correction
+    private Map<String, List<String>> facets; // tag, type, year, author, visibility -> any of these values
 
     public SearchRequest() {
         this.limit = 30;
@@ -103,4 +107,28 @@ public class SearchRequest {
     public void setOffset(Integer offset) {
         this.offset = offset != null ? offset : 0;
     }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public Boolean getAutoCorrect() {
+        return autoCorrect;
+    }
+
+    public void setAutoCorrect(Boolean autoCorrect) {
+        this.autoCorrect = autoCorrect;
+    }
+
+    public Map<String, List<String>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<String>> facets) {
+        this.facets = facets;
+    }
 }
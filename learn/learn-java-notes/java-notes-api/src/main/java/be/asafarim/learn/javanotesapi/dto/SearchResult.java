@@ -1,6 +1,7 @@
 package be.asafarim.learn.javanotesapi.dto;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO for search response containing hits and metadata
@@ -14,6 +15,9 @@ public class SearchResult {
     private long searchTimeMs;
     private List<String> suggestions;
     private List<TagSuggestion> relatedTags;
+    private String engine;
+    private String correctedQuery; // set when the hits are for this spelling correction instead of the query
+    private Map<String, List<FacetValue>> facets; // counts over all hits, not just the page
 
     public SearchResult() {}
 
@@ -42,6 +46,23 @@ public class SearchResult {
         public void setCount(long count) { this.count = count; }
     }
 
+    public static class FacetValue {
+        private String value;
+        private long count;
+
+        public FacetValue() {}
+
+        public FacetValue(String value, long count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() { return value; }
+        public void setValue(String value) { this.value = value; }
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+
     // Getters and setters
     public List<SearchHit> getHits() {
         return hits;
@@ -99,6 +120,30 @@ public class SearchResult {
         this.suggestions = suggestions;
     }
 
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public String getCorrectedQuery() {
+        return correctedQuery;
+    }
+
+    public void setCorrectedQuery(String correctedQuery) {
+        this.correctedQuery = correctedQuery;
+    }
+
+    public Map<String, List<FacetValue>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetValue>> facets) {
+        this.facets = facets;
+    }
+
     public List<TagSuggestion> getRelatedTags() {
         return relatedTags;
     }
@@ -73,10 +73,14 @@ public class AdminUserDto {
 
     // Request DTOs as inner classes
     public static class UpdateUserRequest {
+        private String username;
         private String displayName;
         private String email;
         private List<String> roles;
 
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
         public String getDisplayName() { return displayName; }
         public void setDisplayName(String displayName) { this.displayName = displayName; }
 
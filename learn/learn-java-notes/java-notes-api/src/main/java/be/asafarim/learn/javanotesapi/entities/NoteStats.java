@@ -0,0 +1,62 @@
+package be.asafarim.learn.javanotesapi.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Materialized per-note counters, so search and listings can read view, attachment and citation counts for a
+ * whole page in one query. Rows are written only through the native upserts in
+ * {@link be.asafarim.learn.javanotesapi.repositories.NoteStatsRepository}; a missing row means all zero.
+ */
+@Entity
+@Table(name = "note_stats")
+public class NoteStats {
+
+    @Id
+    @Column(name = "note_id")
+    private UUID noteId;
+
+    @Column(nullable = false)
+    private long viewCount;
+
+    @Column(nullable = false)
+    private long uniqueViewers;
+
+    @Column(nullable = false)
+    private int attachmentCount;
+
+    @Column(nullable = false)
+    private int publicAttachmentCount;
+
+    @Column(nullable = false)
+    private int citationsIn;
+
+    @Column(nullable = false)
+    private int citationsOut;
+
+    private LocalDateTime lastViewedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public NoteStats() {}
+
+    public static NoteStats empty(UUID noteId) {
+        NoteStats stats = new NoteStats();
+        stats.noteId = noteId;
+        return stats;
+    }
+
+    // Getters
+    public UUID getNoteId() { return noteId; }
+    public long getViewCount() { return viewCount; }
+    public long getUniqueViewers() { return uniqueViewers; }
+    public int getAttachmentCount() { return attachmentCount; }
+    public int getPublicAttachmentCount() { return publicAttachmentCount; }
+    public int getCitationsIn() { return citationsIn; }
+    public int getCitationsOut() { return citationsOut; }
+    public LocalDateTime getLastViewedAt() { return lastViewedAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
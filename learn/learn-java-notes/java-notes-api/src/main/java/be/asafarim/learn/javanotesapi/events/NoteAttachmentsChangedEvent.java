@@ -0,0 +1,10 @@
+package be.asafarim.learn.javanotesapi.events;
+
+import java.util.UUID;
+
+/**
+ * Published when attachments were added to ({@code delta > 0}) or removed from a note, or when their visibility
+ * changed ({@code delta == 0}).
+ */
+public record NoteAttachmentsChangedEvent(UUID noteId, int delta) {
+}
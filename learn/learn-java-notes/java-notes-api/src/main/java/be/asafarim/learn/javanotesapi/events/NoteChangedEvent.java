@@ -0,0 +1,10 @@
+package be.asafarim.learn.javanotesapi.events;
+
+import be.asafarim.learn.javanotesapi.entities.StudyNote;
+
+/**
+ * Published when a note is created or its content, tags or visibility changed.
+ * Listeners that read the note should run after commit.
+ */
+public record NoteChangedEvent(StudyNote note) {
+}
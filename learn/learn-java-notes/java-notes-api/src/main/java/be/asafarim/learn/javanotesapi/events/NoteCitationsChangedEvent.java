@@ -0,0 +1,9 @@
+package be.asafarim.learn.javanotesapi.events;
+
+import java.util.UUID;
+
+/**
+ * Published when a citation from {@code citingNoteId} to {@code citedNoteId} was added or removed.
+ */
+public record NoteCitationsChangedEvent(UUID citingNoteId, UUID citedNoteId) {
+}
@@ -0,0 +1,9 @@
+package be.asafarim.learn.javanotesapi.events;
+
+import java.util.UUID;
+
+/**
+ * Published when a note is deleted.
+ */
+public record NoteDeletedEvent(UUID noteId) {
+}
@@ -0,0 +1,10 @@
+package be.asafarim.learn.javanotesapi.events;
+
+import java.util.UUID;
+
+/**
+ * Published when a (deduplicated) note view was recorded. {@code newViewer} is set when the user or, for
+ * anonymous views, the IP address had never viewed the note before.
+ */
+public record NoteViewedEvent(UUID noteId, boolean newViewer) {
+}
@@ -0,0 +1,10 @@
+package be.asafarim.learn.javanotesapi.events;
+
+import java.util.List;
+
+/**
+ * Published when tags come into existence by creation or rename, whether or not a note uses them yet. Notes
+ * that do use them publish their own {@link NoteChangedEvent}s.
+ */
+public record TagsCreatedEvent(List<String> names) {
+}
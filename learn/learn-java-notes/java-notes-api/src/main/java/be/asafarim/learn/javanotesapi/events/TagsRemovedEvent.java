@@ -0,0 +1,10 @@
+package be.asafarim.learn.javanotesapi.events;
+
+import java.util.List;
+
+/**
+ * Published when tags disappear by rename, merge or deletion. The affected notes publish their own
+ * {@link NoteChangedEvent}s first.
+ */
+public record TagsRemovedEvent(List<String> names) {
+}
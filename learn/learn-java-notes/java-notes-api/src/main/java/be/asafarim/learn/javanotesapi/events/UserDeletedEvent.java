@@ -0,0 +1,9 @@
+package be.asafarim.learn.javanotesapi.events;
+
+import java.util.UUID;
+
+/**
+ * Published when a user account is deleted; the database cascades the deletion to the user's notes.
+ */
+public record UserDeletedEvent(UUID userId) {
+}
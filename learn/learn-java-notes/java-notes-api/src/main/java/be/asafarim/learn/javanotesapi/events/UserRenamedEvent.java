@@ -0,0 +1,10 @@
+package be.asafarim.learn.javanotesapi.events;
+
+import java.util.UUID;
+
+/**
+ * Published when a user's username changes; notes refer to their author by ID, so only copies of the name need
+ * refreshing.
+ */
+public record UserRenamedEvent(UUID userId, String username) {
+}
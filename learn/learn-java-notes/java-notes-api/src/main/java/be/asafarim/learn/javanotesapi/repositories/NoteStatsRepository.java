@@ -0,0 +1,117 @@
+package be.asafarim.learn.javanotesapi.repositories;
+
+import be.asafarim.learn.javanotesapi.entities.NoteStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface NoteStatsRepository extends JpaRepository<NoteStats, UUID> {
+
+    /**
+     * Count one recorded view; {@code newViewer} is 1 when the viewer had never viewed the note before
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO note_stats (note_id, view_count, unique_viewers, last_viewed_at, updated_at)
+            VALUES (:noteId, 1, :newViewer, :viewedAt, now())
+            ON CONFLICT (note_id) DO UPDATE SET
+                view_count = note_stats.view_count + 1,
+                unique_viewers = note_stats.unique_viewers + EXCLUDED.unique_viewers,
+                last_viewed_at = GREATEST(note_stats.last_viewed_at, EXCLUDED.last_viewed_at),
+                updated_at = now()
+            """, nativeQuery = true)
+    void recordView(@Param("noteId") UUID noteId, @Param("newViewer") int newViewer,
+                    @Param("viewedAt") LocalDateTime viewedAt);
+
+    /**
+     * Recount a note's attachments (both counters change together, including bulk visibility updates)
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO note_stats (note_id, attachment_count, public_attachment_count, updated_at)
+            SELECT n.id,
+                   (SELECT COUNT(*) FROM attachments a WHERE a.note_id = n.id),
+                   (SELECT COUNT(*) FROM attachments a WHERE a.note_id = n.id AND a.is_public),
+                   now()
+            FROM study_notes n WHERE n.id = :noteId
+            ON CONFLICT (note_id) DO UPDATE SET
+                attachment_count = EXCLUDED.attachment_count,
+                public_attachment_count = EXCLUDED.public_attachment_count,
+                updated_at = now()
+            """, nativeQuery = true)
+    void refreshAttachmentCounts(@Param("noteId") UUID noteId);
+
+    /**
+     * Recount citations into and out of a note
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO note_stats (note_id, citations_in, citations_out, updated_at)
+            SELECT n.id,
+                   (SELECT COUNT(*) FROM note_citations c WHERE c.referenced_note_id = n.id),
+                   (SELECT COUNT(*) FROM note_citations c WHERE c.note_id = n.id),
+                   now()
+            FROM study_notes n WHERE n.id = :noteId
+            ON CONFLICT (note_id) DO UPDATE SET
+                citations_in = EXCLUDED.citations_in,
+                citations_out = EXCLUDED.citations_out,
+                updated_at = now()
+            """, nativeQuery = true)
+    void refreshCitationCounts(@Param("noteId") UUID noteId);
+
+    /**
+     * Recompute every note's counters from the source tables and rewrite the rows that drifted.
+     * Returns the number of rows inserted or corrected.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO note_stats (note_id, view_count, unique_viewers, attachment_count, public_attachment_count,
+                                    citations_in, citations_out, last_viewed_at, updated_at)
+            SELECT n.id,
+                   COALESCE(v.view_count, 0),
+                   COALESCE(v.unique_viewers, 0),
+                   COALESCE(a.attachment_count, 0),
+                   COALESCE(a.public_attachment_count, 0),
+                   COALESCE(ci.citations, 0),
+                   COALESCE(co.citations, 0),
+                   v.last_viewed_at,
+                   now()
+            FROM study_notes n
+            LEFT JOIN (
+                SELECT note_id,
+                       COUNT(*) AS view_count,
+                       COUNT(DISTINCT CASE WHEN user_id IS NOT NULL THEN user_id::text ELSE ip_address END) AS unique_viewers,
+                       MAX(viewed_at) AS last_viewed_at
+                FROM note_views GROUP BY note_id
+            ) v ON v.note_id = n.id
+            LEFT JOIN (
+                SELECT note_id, COUNT(*) AS attachment_count, COUNT(*) FILTER (WHERE is_public) AS public_attachment_count
+                FROM attachments GROUP BY note_id
+            ) a ON a.note_id = n.id
+            LEFT JOIN (SELECT referenced_note_id, COUNT(*) AS citations FROM note_citations GROUP BY referenced_note_id) ci
+                ON ci.referenced_note_id = n.id
+            LEFT JOIN (SELECT note_id, COUNT(*) AS citations FROM note_citations GROUP BY note_id) co
+                ON co.note_id = n.id
+            ON CONFLICT (note_id) DO UPDATE SET
+                view_count = EXCLUDED.view_count,
+                unique_viewers = EXCLUDED.unique_viewers,
+                attachment_count = EXCLUDED.attachment_count,
+                public_attachment_count = EXCLUDED.public_attachment_count,
+                citations_in = EXCLUDED.citations_in,
+                citations_out = EXCLUDED.citations_out,
+                last_viewed_at = EXCLUDED.last_viewed_at,
+                updated_at = now()
+            WHERE (note_stats.view_count, note_stats.unique_viewers, note_stats.attachment_count,
+                   note_stats.public_attachment_count, note_stats.citations_in, note_stats.citations_out,
+                   note_stats.last_viewed_at)
+                IS DISTINCT FROM
+                  (EXCLUDED.view_count, EXCLUDED.unique_viewers, EXCLUDED.attachment_count,
+                   EXCLUDED.public_attachment_count, EXCLUDED.citations_in, EXCLUDED.citations_out,
+                   EXCLUDED.last_viewed_at)
+            """, nativeQuery = true)
+    int reconcile();
+}
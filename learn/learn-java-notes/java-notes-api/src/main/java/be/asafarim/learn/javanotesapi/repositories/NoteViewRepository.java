@@ -68,6 +68,18 @@ public interface NoteViewRepository extends JpaRepository<NoteView, UUID> {
     @Query("SELECT COUNT(v) > 0 FROM NoteView v WHERE v.note.id = :noteId AND v.ipAddress = :ipAddress AND v.viewedAt >= :since")
     boolean hasIpViewedSince(@Param("noteId") UUID noteId, @Param("ipAddress") String ipAddress, @Param("since") LocalDateTime since);
 
+    /**
+     * Check if a user has ever viewed a note (unique viewer tracking)
+     */
+    @Query("SELECT COUNT(v) > 0 FROM NoteView v WHERE v.note.id = :noteId AND v.user.id = :userId")
+    boolean hasUserViewed(@Param("noteId") UUID noteId, @Param("userId") UUID userId);
+
+    /**
+     * Check if an IP has ever viewed a note anonymously (unique viewer tracking)
+     */
+    @Query("SELECT COUNT(v) > 0 FROM NoteView v WHERE v.note.id = :noteId AND v.user IS NULL AND v.ipAddress = :ipAddress")
+    boolean hasIpViewed(@Param("noteId") UUID noteId, @Param("ipAddress") String ipAddress);
+
     /**
      * Get unique viewer count for a note
      * Counts distinct combinations of authenticated users and anonymous IPs
@@ -0,0 +1,164 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Case-insensitive Aho-Corasick automaton over a small set of patterns.
+ * <p>
+ * Case is folded per character while scanning, so the text is never copied. Edges are stored per state as a
+ * sorted {@code char[]} with a parallel target array; scanning allocates nothing.
+ */
+final class AhoCorasick {
+
+    /**
+     * Receives each occurrence as it is found, ordered by end offset. Returning {@code false} stops the scan.
+     */
+    interface MatchSink {
+        boolean onMatch(int pattern, int start, int end);
+    }
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final int[] patternLengths;
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[] output;
+    private final int[] outputLink;
+
+    /**
+     * @param patterns non-empty, distinct patterns; they are folded the same way as the scanned text
+     */
+    AhoCorasick(List<String> patterns) {
+        List<StringBuilder> edgeKeys = new ArrayList<>();
+        List<List<Integer>> edgeTargets = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        edgeKeys.add(new StringBuilder());
+        edgeTargets.add(new ArrayList<>());
+        outputs.add(-1);
+
+        patternLengths = new int[patterns.size()];
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            patternLengths[p] = pattern.length();
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = fold(pattern.charAt(i));
+                int edge = edgeKeys.get(state).indexOf(String.valueOf(c));
+                if (edge >= 0) {
+                    state = edgeTargets.get(state).get(edge);
+                } else {
+                    int next = edgeKeys.size();
+                    edgeKeys.add(new StringBuilder());
+                    edgeTargets.add(new ArrayList<>());
+                    outputs.add(-1);
+                    edgeKeys.get(state).append(c);
+                    edgeTargets.get(state).add(next);
+                    state = next;
+                }
+            }
+            outputs.set(state, p);
+        }
+
+        int states = edgeKeys.size();
+        keys = new char[states][];
+        targets = new int[states][];
+        output = new int[states];
+        for (int s = 0; s < states; s++) {
+            freezeEdges(s, edgeKeys.get(s), edgeTargets.get(s));
+            output[s] = outputs.get(s);
+        }
+
+        // Breadth-first: a state's failure link is the longest proper suffix that is also a trie path.
+        fail = new int[states];
+        outputLink = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int child : targets[0]) {
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            for (int e = 0; e < keys[state].length; e++) {
+                int child = targets[state][e];
+                int f = fail[state];
+                while (f > 0 && edge(f, keys[state][e]) < 0) {
+                    f = fail[f];
+                }
+                int target = edge(f, keys[state][e]);
+                fail[child] = target >= 0 && target != child ? target : 0;
+                queue[tail++] = child;
+            }
+            int f = fail[state];
+            outputLink[state] = output[f] >= 0 ? f : outputLink[f];
+        }
+    }
+
+    int patternLength(int pattern) {
+        return patternLengths[pattern];
+    }
+
+    void scan(CharSequence text, MatchSink sink) {
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = fold(text.charAt(i));
+            int next = edge(state, c);
+            while (next < 0 && state > 0) {
+                state = fail[state];
+                next = edge(state, c);
+            }
+            state = next < 0 ? 0 : next;
+            for (int s = output[state] >= 0 ? state : outputLink[state]; s > 0; s = outputLink[s]) {
+                int pattern = output[s];
+                if (!sink.onMatch(pattern, i + 1 - patternLengths[pattern], i + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private int edge(int state, char c) {
+        char[] stateKeys = keys[state];
+        if (stateKeys.length < 8) {
+            for (int i = 0; i < stateKeys.length; i++) {
+                if (stateKeys[i] == c) {
+                    return targets[state][i];
+                }
+            }
+            return -1;
+        }
+        int i = Arrays.binarySearch(stateKeys, c);
+        return i >= 0 ? targets[state][i] : -1;
+    }
+
+    private void freezeEdges(int state, StringBuilder stateKeys, List<Integer> stateTargets) {
+        int n = stateKeys.length();
+        if (n == 0) {
+            keys[state] = NO_KEYS;
+            targets[state] = NO_TARGETS;
+            return;
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Character.compare(stateKeys.charAt(a), stateKeys.charAt(b)));
+        keys[state] = new char[n];
+        targets[state] = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[state][i] = stateKeys.charAt(order[i]);
+            targets[state][i] = stateTargets.get(order[i]);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.events.NoteChangedEvent;
+import be.asafarim.learn.javanotesapi.events.NoteDeletedEvent;
+import be.asafarim.learn.javanotesapi.events.TagsCreatedEvent;
+import be.asafarim.learn.javanotesapi.events.TagsRemovedEvent;
+import be.asafarim.learn.javanotesapi.events.UserDeletedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory completions for the search box.
+ * <p>
+ * Tag names, public note titles and popular queries live in tries shared by all users; each user additionally
+ * gets a small trie with the titles of their own notes. Suggestions are weighted so the merged completions come
+ * back ranked: tags by how many notes use them, own titles above other users' public titles, queries by how
+ * often they were searched with results in the last 30 days.
+ * <p>
+ * Suggested queries are the {@value #MAX_QUERIES} most frequent public searches of that window that were run at
+ * least {@value #MIN_QUERY_SEARCHES} times. Searches over a user's own notes never become suggestions, since
+ * their text can reveal private content, and live searches only raise the weight of queries already suggested,
+ * so the set of queries stays bounded between the daily reloads.
+ * <p>
+ * Titles are indexed under every word start, so "sp" completes "Intro to Spring". Title keys are cut after
+ * {@value #MAX_TITLE_KEY_LENGTH} characters; longer prefixes are looked up by their head and then checked
+ * against the full title.
+ * <p>
+ * Like {@link NoteSearchIndex}, the tries are loaded once the application is ready and then maintained from
+ * note and tag events after commit; until then {@link #isReady()} is {@code false} and callers fall back to
+ * the database. Query weights are reloaded daily so old searches fade out.
+ */
+@Component
+public class AutosuggestIndex {
+    private static final Logger logger = LoggerFactory.getLogger(AutosuggestIndex.class);
+
+    private static final String TAG_PREFIX = "tag:";
+    private static final long TAG_WEIGHT = 1_000;
+    private static final long OWN_TITLE_WEIGHT = 500;
+    private static final long PUBLIC_TITLE_WEIGHT = 100;
+    private static final int MAX_TITLE_KEY_LENGTH = 16;
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int MAX_QUERIES = 1_000;
+    private static final int MIN_QUERY_SEARCHES = 3;
+    private static final int QUERY_WINDOW_DAYS = 30;
+    private static final int FETCH_SIZE = 500;
+
+    private record NoteEntry(UUID ownerId, String title, boolean publicNote, List<String> tags) {
+    }
+
+    private final SuggestionTrie tags = new SuggestionTrie();
+    private final SuggestionTrie publicTitles = new SuggestionTrie();
+    private final SuggestionTrie queries = new SuggestionTrie();
+    private final Map<UUID, SuggestionTrie> ownTitles = new ConcurrentHashMap<>();
+
+    // Bookkeeping for incremental updates, guarded by "this"
+    private final Map<UUID, NoteEntry> notes = new HashMap<>();
+    private final Map<String, Integer> tagUsage = new HashMap<>();
+    private final Map<String, Long> queryCounts = new HashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Object buildLock = new Object();
+    private List<Runnable> pendingChanges;
+    private volatile boolean ready;
+
+    public AutosuggestIndex(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Up to {@code limit} completions of {@code prefix}, best first: tags as {@code tag:name}, then titles and
+     * queries, without duplicates
+     *
+     * @param userId the user whose own titles are included; {@code null} for anonymous users
+     */
+    public List<String> complete(String prefix, UUID userId, int limit) {
+        String lookup = prefix.length() > MAX_TITLE_KEY_LENGTH ? prefix.substring(0, MAX_TITLE_KEY_LENGTH) : prefix;
+        List<SuggestionTrie.Suggestion> candidates = new ArrayList<>();
+        candidates.addAll(tags.complete(prefix, limit));
+        SuggestionTrie own = userId != null ? ownTitles.get(userId) : null;
+        if (own != null) {
+            candidates.addAll(titles(own, lookup, prefix, limit));
+        }
+        candidates.addAll(titles(publicTitles, lookup, prefix, limit));
+        candidates.addAll(queries.complete(prefix, limit));
+
+        // Stable sort: equal weights keep the order tags, own titles, public titles, queries
+        candidates.sort(Comparator.comparingLong(SuggestionTrie.Suggestion::weight).reversed());
+        Set<String> suggestions = new LinkedHashSet<>();
+        for (SuggestionTrie.Suggestion candidate : candidates) {
+            if (suggestions.size() >= limit) {
+                break;
+            }
+            suggestions.add(candidate.text());
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * Counts a public search towards the weight of the suggested query it repeats; other searches are ignored
+     */
+    public void recordQuery(String query, int resultCount, boolean publicSearch) {
+        String trimmed = query != null ? query.trim() : "";
+        if (publicSearch && resultCount > 0 && trimmed.length() >= MIN_QUERY_LENGTH) {
+            apply(() -> boostQuery(trimmed));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (buildLock) {
+            pendingChanges = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        try {
+            clear();
+            readOnlyTransaction.executeWithoutResult(status -> load());
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the autosuggest index; suggestions keep using the database", e);
+            synchronized (buildLock) {
+                pendingChanges = null;
+            }
+            return;
+        }
+        synchronized (buildLock) {
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges = null;
+            ready = true;
+        }
+        logger.info("Loaded {} notes, {} tags and {} queries for autosuggest in {} ms",
+                notes.size(), tagUsage.size(), queryCounts.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Rebuild the suggested queries from the analytics, so searches older than the window stop counting and
+     * queries that fell out of the top list or below the threshold are dropped
+     */
+    @Scheduled(cron = "${app.autosuggest.refresh-cron:0 45 3 * * *}")
+    public void refreshQueries() {
+        if (!ready) {
+            return;
+        }
+        Map<String, Long> counts = readOnlyTransaction.execute(status -> loadQueryCounts());
+        if (counts != null) {
+            apply(() -> replaceQueries(counts));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteChanged(NoteChangedEvent event) {
+        NoteDocument document = NoteDocument.of(event.note());
+        NoteEntry entry = new NoteEntry(document.ownerId(), document.title(), document.publicNote(), document.tags());
+        apply(() -> putNote(document.id(), entry));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteDeleted(NoteDeletedEvent event) {
+        apply(() -> removeNote(event.noteId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        apply(() -> removeOwnedBy(event.userId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsCreated(TagsCreatedEvent event) {
+        apply(() -> addTags(event.names()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsRemoved(TagsRemovedEvent event) {
+        apply(() -> removeTags(event.names()));
+    }
+
+    private void apply(Runnable change) {
+        synchronized (buildLock) {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+                return;
+            }
+        }
+        change.run();
+    }
+
+    private void load() {
+        Map<UUID, List<String>> noteTags = new HashMap<>();
+        jdbcTemplate.query("SELECT snt.study_note_id, t.name FROM study_note_tags snt JOIN tags t ON t.id = snt.tag_id",
+                (RowCallbackHandler) rs -> noteTags
+                        .computeIfAbsent(rs.getObject(1, UUID.class), id -> new ArrayList<>())
+                        .add(rs.getString(2)));
+
+        // Unused tags are suggested too
+        jdbcTemplate.query("SELECT name FROM tags", (RowCallbackHandler) rs -> addTagUsage(rs.getString(1), 0));
+
+        jdbcTemplate.query("SELECT id, user_id, title, is_public FROM study_notes",
+                (RowCallbackHandler) rs -> {
+                    UUID id = rs.getObject("id", UUID.class);
+                    putNote(id, new NoteEntry(
+                            rs.getObject("user_id", UUID.class),
+                            rs.getString("title"),
+                            rs.getBoolean("is_public"),
+                            noteTags.getOrDefault(id, List.of())));
+                });
+
+        replaceQueries(loadQueryCounts());
+    }
+
+    private Map<String, Long> loadQueryCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        Instant since = Instant.now().minus(QUERY_WINDOW_DAYS, ChronoUnit.DAYS);
+        jdbcTemplate.query("SELECT query, COUNT(*) FROM search_analytics "
+                        + "WHERE timestamp > ? AND is_public_search = true AND result_count > 0 "
+                        + "AND length(trim(query)) >= ? "
+                        + "GROUP BY query HAVING COUNT(*) >= ? ORDER BY COUNT(*) DESC LIMIT ?",
+                (RowCallbackHandler) rs -> counts.merge(rs.getString(1).trim(), rs.getLong(2), Long::sum),
+                Timestamp.from(since), MIN_QUERY_LENGTH, MIN_QUERY_SEARCHES, MAX_QUERIES);
+        return counts;
+    }
+
+    private synchronized void clear() {
+        tags.clear();
+        publicTitles.clear();
+        queries.clear();
+        ownTitles.clear();
+        notes.clear();
+        tagUsage.clear();
+        queryCounts.clear();
+    }
+
+    private synchronized void putNote(UUID noteId, NoteEntry entry) {
+        NoteEntry previous = notes.put(noteId, entry);
+        if (previous != null) {
+            unindexTitle(previous);
+            previous.tags().forEach(tag -> addTagUsage(tag, -1));
+        }
+        indexTitle(entry);
+        entry.tags().forEach(tag -> addTagUsage(tag, 1));
+    }
+
+    private synchronized void removeNote(UUID noteId) {
+        NoteEntry previous = notes.remove(noteId);
+        if (previous != null) {
+            unindexTitle(previous);
+            previous.tags().forEach(tag -> addTagUsage(tag, -1));
+        }
+    }
+
+    private synchronized void removeOwnedBy(UUID userId) {
+        List<UUID> owned = notes.entrySet().stream()
+                .filter(e -> e.getValue().ownerId().equals(userId))
+                .map(Map.Entry::getKey)
+                .toList();
+        owned.forEach(this::removeNote);
+        ownTitles.remove(userId);
+    }
+
+    /**
+     * Suggests new tags before any note uses them; tags already known keep their usage
+     */
+    private synchronized void addTags(List<String> names) {
+        names.forEach(name -> addTagUsage(name, 0));
+    }
+
+    private synchronized void removeTags(List<String> names) {
+        for (String name : names) {
+            if (tagUsage.remove(name) != null) {
+                tags.remove(name, TAG_PREFIX + name);
+            }
+        }
+    }
+
+    private synchronized void boostQuery(String query) {
+        if (queryCounts.computeIfPresent(query, (q, count) -> count + 1) != null) {
+            queries.increment(query, query, 1);
+        }
+    }
+
+    private synchronized void replaceQueries(Map<String, Long> counts) {
+        for (String query : queryCounts.keySet()) {
+            if (!counts.containsKey(query)) {
+                queries.remove(query, query);
+            }
+        }
+        queryCounts.clear();
+        queryCounts.putAll(counts);
+        counts.forEach((query, count) -> queries.put(query, query, count));
+    }
+
+    private void addTagUsage(String name, int delta) {
+        int usage = Math.max(0, tagUsage.getOrDefault(name, 0) + delta);
+        tagUsage.put(name, usage);
+        tags.put(name, TAG_PREFIX + name, TAG_WEIGHT + usage);
+    }
+
+    private void indexTitle(NoteEntry entry) {
+        if (entry.title() == null || entry.title().isBlank()) {
+            return;
+        }
+        SuggestionTrie own = ownTitles.computeIfAbsent(entry.ownerId(), id -> new SuggestionTrie());
+        for (String key : titleKeys(entry.title())) {
+            own.increment(key, entry.title(), OWN_TITLE_WEIGHT);
+            if (entry.publicNote()) {
+                publicTitles.increment(key, entry.title(), PUBLIC_TITLE_WEIGHT);
+            }
+        }
+    }
+
+    private void unindexTitle(NoteEntry entry) {
+        if (entry.title() == null || entry.title().isBlank()) {
+            return;
+        }
+        SuggestionTrie own = ownTitles.get(entry.ownerId());
+        for (String key : titleKeys(entry.title())) {
+            if (own != null) {
+                own.increment(key, entry.title(), -OWN_TITLE_WEIGHT);
+            }
+            if (entry.publicNote()) {
+                publicTitles.increment(key, entry.title(), -PUBLIC_TITLE_WEIGHT);
+            }
+        }
+        if (own != null && own.isEmpty()) {
+            ownTitles.remove(entry.ownerId());
+        }
+    }
+
+    /**
+     * The title from each word start on, cut to the key length
+     */
+    private static Set<String> titleKeys(String title) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < title.length(); i++) {
+            if (isWordStart(title, i)) {
+                keys.add(title.substring(i, Math.min(title.length(), i + MAX_TITLE_KEY_LENGTH)));
+            }
+        }
+        return keys;
+    }
+
+    private static List<SuggestionTrie.Suggestion> titles(SuggestionTrie trie, String lookup, String prefix,
+                                                           int limit) {
+        if (lookup.length() == prefix.length()) {
+            return trie.complete(lookup, limit);
+        }
+        // The prefix is longer than the keys: over-fetch and keep titles that really contain it at a word start
+        return trie.complete(lookup, limit * 4).stream()
+                .filter(s -> containsAtWordStart(s.text(), prefix))
+                .limit(limit)
+                .toList();
+    }
+
+    private static boolean containsAtWordStart(String title, String prefix) {
+        for (int i = 0; i + prefix.length() <= title.length(); i++) {
+            if (isWordStart(title, i) && title.regionMatches(true, i, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordStart(String text, int i) {
+        return Character.isLetterOrDigit(text.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+    }
+}
@@ -0,0 +1,49 @@
+package be.asafarim.learn.javanotesapi.search;
+
+/**
+ * BM25F text relevance over the indexed note fields.
+ * <p>
+ * Per query term, the occurrences in each field are length-normalized against that field's average length and
+ * summed with the field weight into one pseudo term frequency, which then saturates once with {@link #K1} and is
+ * multiplied by the term's inverse document frequency. Everything it reads (term frequencies, field lengths,
+ * document frequencies) is kept up to date by {@link InvertedIndex}.
+ */
+final class Bm25f {
+
+    static final double K1 = 1.2;
+
+    // Indexed by InvertedIndex field number: title, content, tags, abstract, keywords
+    private static final double[] WEIGHTS = {3.0, 1.0, 2.0, 1.5, 2.0};
+    private static final double[] LENGTH_NORMALIZATION = {0.5, 0.75, 0.3, 0.75, 0.5};
+
+    private Bm25f() {
+    }
+
+    /**
+     * @param termFrequencies   occurrences of the term per field in the note
+     * @param fieldLengths      terms per field in the note
+     * @param averageLengths    average terms per field over all notes
+     * @param documentFrequency notes containing the term
+     * @param documentCount     notes in the index
+     */
+    static double termScore(int[] termFrequencies, int[] fieldLengths, double[] averageLengths,
+                            int documentFrequency, int documentCount) {
+        double pseudoFrequency = 0.0;
+        for (int field = 0; field < termFrequencies.length; field++) {
+            if (termFrequencies[field] == 0) {
+                continue;
+            }
+            double b = LENGTH_NORMALIZATION[field];
+            double relativeLength = averageLengths[field] > 0 ? fieldLengths[field] / averageLengths[field] : 1.0;
+            pseudoFrequency += WEIGHTS[field] * termFrequencies[field] / (1 - b + b * relativeLength);
+        }
+        if (pseudoFrequency == 0.0) {
+            return 0.0;
+        }
+        return idf(documentFrequency, documentCount) * pseudoFrequency / (K1 + pseudoFrequency);
+    }
+
+    static double idf(int documentFrequency, int documentCount) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+}
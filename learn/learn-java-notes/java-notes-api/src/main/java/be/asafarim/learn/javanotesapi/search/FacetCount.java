@@ -0,0 +1,16 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.util.Comparator;
+
+/**
+ * Number of matching notes with one facet value.
+ */
+public record FacetCount(String value, long count) {
+
+    /**
+     * Most common first, ties by value
+     */
+    static final Comparator<FacetCount> BY_COUNT = Comparator
+            .comparingLong(FacetCount::count).reversed()
+            .thenComparing(FacetCount::value);
+}
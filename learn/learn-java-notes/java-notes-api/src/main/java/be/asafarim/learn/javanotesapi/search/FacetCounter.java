@@ -0,0 +1,70 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts facet values one note or one grouped row at a time, for the engines that have no {@link FacetIndex}.
+ * Values are merged case-insensitively under the label first seen and ranked like the index's counts, so all
+ * engines report the same facets for the same matches.
+ */
+public final class FacetCounter {
+
+    /**
+     * A facet value as first counted, with its running count
+     */
+    private static final class Value {
+        private final String label;
+        private long count;
+
+        Value(String label) {
+            this.label = label;
+        }
+    }
+
+    // facet -> normalized value -> count
+    private final Map<String, Map<String, Value>> facets = new LinkedHashMap<>();
+
+    public FacetCounter() {
+        for (String facet : FacetFilter.FACETS) {
+            facets.put(facet, new HashMap<>());
+        }
+    }
+
+    public void add(NoteDocument document) {
+        for (String facet : FacetFilter.FACETS) {
+            for (String label : FacetIndex.valuesOf(facet, document.tags(), document.noteType(),
+                    document.createdAt(), document.author(), document.publicNote())) {
+                add(facet, label, 1);
+            }
+        }
+    }
+
+    /**
+     * Adds {@code count} notes with {@code label} for {@code facet}; unknown facets and blank labels are ignored
+     */
+    public void add(String facet, String label, long count) {
+        Map<String, Value> values = facets.get(facet);
+        if (values == null || label == null || label.isBlank()) {
+            return;
+        }
+        values.computeIfAbsent(FacetFilter.normalize(label), key -> new Value(label)).count += count;
+    }
+
+    /**
+     * Per facet, the {@code maxValues} most common values
+     */
+    public Map<String, List<FacetCount>> top(int maxValues) {
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        facets.forEach((facet, values) -> {
+            List<FacetCount> sorted = new ArrayList<>(values.size());
+            values.values().forEach(value -> sorted.add(new FacetCount(value.label, value.count)));
+            sorted.sort(FacetCount.BY_COUNT);
+            counts.put(facet, List.copyOf(sorted.size() > maxValues ? sorted.subList(0, maxValues) : sorted));
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,75 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.dto.SearchRequest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The facet restrictions of a search: tags a note must all carry, and per facet the values a note must have at
+ * least one of. Facets combine with AND. Names and values are compared case-insensitively; unknown facet names
+ * are ignored.
+ */
+public record FacetFilter(List<String> allTags, Map<String, List<String>> anyOf) {
+
+    public static final String TAG = "tag";
+    public static final String TYPE = "type";
+    public static final String YEAR = "year";
+    public static final String AUTHOR = "author";
+    public static final String VISIBILITY = "visibility";
+    public static final List<String> FACETS = List.of(TAG, TYPE, YEAR, AUTHOR, VISIBILITY);
+
+    public static final FacetFilter NONE = new FacetFilter(List.of(), Map.of());
+
+    /**
+     * The request's tag filter and facet selections, lowercased, with empty selections dropped
+     */
+    public static FacetFilter of(SearchRequest request) {
+        List<String> tags = request.getTags() != null
+                ? request.getTags().stream().map(FacetFilter::normalize).distinct().toList()
+                : List.of();
+        Map<String, List<String>> anyOf = new TreeMap<>();
+        if (request.getFacets() != null) {
+            request.getFacets().forEach((facet, values) -> {
+                String name = facet != null ? normalize(facet) : "";
+                if (FACETS.contains(name) && values != null && !values.isEmpty()) {
+                    anyOf.put(name, values.stream().map(FacetFilter::normalize).distinct().sorted().toList());
+                }
+            });
+        }
+        return tags.isEmpty() && anyOf.isEmpty() ? NONE : new FacetFilter(tags, Map.copyOf(anyOf));
+    }
+
+    public boolean isEmpty() {
+        return allTags.isEmpty() && anyOf.isEmpty();
+    }
+
+    /**
+     * Whether {@code document} passes the filter; the index evaluates the same filter with bitmaps instead
+     */
+    public boolean matches(NoteDocument document) {
+        if (isEmpty()) {
+            return true;
+        }
+        if (!valuesOf(TAG, document).containsAll(allTags)) {
+            return false;
+        }
+        for (Map.Entry<String, List<String>> selection : anyOf.entrySet()) {
+            if (valuesOf(selection.getKey(), document).stream().noneMatch(selection.getValue()::contains)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> valuesOf(String facet, NoteDocument document) {
+        return FacetIndex.valuesOf(facet, document.tags(), document.noteType(), document.createdAt(),
+                document.author(), document.publicNote()).stream().map(FacetFilter::normalize).toList();
+    }
+
+    static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
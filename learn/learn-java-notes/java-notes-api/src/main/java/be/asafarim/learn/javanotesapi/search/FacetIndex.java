@@ -0,0 +1,141 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link OrdinalBitmap} of live note ordinals per facet value (tag, note type, creation year, author,
+ * visibility).
+ * <p>
+ * Facet filters become unions and intersections of these bitmaps, evaluated before any postings are read, and
+ * facet counts for a result set are intersection cardinalities, so neither needs to look at a single note.
+ * Maintained by {@link InvertedIndex} under its lock.
+ */
+final class FacetIndex {
+
+    /**
+     * A facet value as first indexed, with the notes that have it
+     */
+    private record Value(String label, OrdinalBitmap notes) {
+    }
+
+    // facet -> normalized value -> notes
+    private final Map<String, Map<String, Value>> facets = new LinkedHashMap<>();
+
+    FacetIndex() {
+        for (String facet : FacetFilter.FACETS) {
+            facets.put(facet, new HashMap<>());
+        }
+    }
+
+    void add(IndexedNote note) {
+        for (Map.Entry<String, Map<String, Value>> facet : facets.entrySet()) {
+            for (String label : valuesOf(facet.getKey(), note)) {
+                facet.getValue()
+                        .computeIfAbsent(FacetFilter.normalize(label), key -> new Value(label, new OrdinalBitmap()))
+                        .notes().add(note.getOrdinal());
+            }
+        }
+    }
+
+    void remove(IndexedNote note) {
+        for (Map.Entry<String, Map<String, Value>> facet : facets.entrySet()) {
+            for (String label : valuesOf(facet.getKey(), note)) {
+                String key = FacetFilter.normalize(label);
+                Value value = facet.getValue().get(key);
+                if (value != null) {
+                    value.notes().remove(note.getOrdinal());
+                    if (value.notes().isEmpty()) {
+                        facet.getValue().remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    void clear() {
+        facets.values().forEach(Map::clear);
+    }
+
+    /**
+     * The notes passing {@code filter}, or {@code null} when it does not restrict anything. The result may be
+     * one of the index's own bitmaps, so it is only valid under the index lock and must not be modified.
+     */
+    OrdinalBitmap restrict(FacetFilter filter) {
+        if (filter.isEmpty()) {
+            return null;
+        }
+        OrdinalBitmap allowed = null;
+        for (String tag : filter.allTags()) {
+            allowed = intersect(allowed, bitmapOf(FacetFilter.TAG, tag));
+        }
+        for (Map.Entry<String, List<String>> selection : filter.anyOf().entrySet()) {
+            OrdinalBitmap any = new OrdinalBitmap();
+            for (String value : selection.getValue()) {
+                OrdinalBitmap notes = bitmapOf(selection.getKey(), value);
+                if (notes != null) {
+                    any = any.or(notes);
+                }
+            }
+            allowed = intersect(allowed, any);
+        }
+        return allowed;
+    }
+
+    /**
+     * Per facet, the {@code maxValues} values most common among {@code results}, with their counts
+     */
+    Map<String, List<FacetCount>> counts(OrdinalBitmap results, int maxValues) {
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Value>> facet : facets.entrySet()) {
+            List<FacetCount> values = new ArrayList<>();
+            if (!results.isEmpty()) {
+                for (Value value : facet.getValue().values()) {
+                    int count = results.andCardinality(value.notes());
+                    if (count > 0) {
+                        values.add(new FacetCount(value.label(), count));
+                    }
+                }
+            }
+            values.sort(FacetCount.BY_COUNT);
+            counts.put(facet.getKey(), List.copyOf(values.size() > maxValues ? values.subList(0, maxValues) : values));
+        }
+        return counts;
+    }
+
+    private OrdinalBitmap bitmapOf(String facet, String normalizedValue) {
+        Value value = facets.get(facet).get(normalizedValue);
+        return value != null ? value.notes() : null;
+    }
+
+    private static OrdinalBitmap intersect(OrdinalBitmap allowed, OrdinalBitmap notes) {
+        if (notes == null) {
+            return new OrdinalBitmap();
+        }
+        return allowed == null ? notes : allowed.and(notes);
+    }
+
+    private static List<String> valuesOf(String facet, IndexedNote note) {
+        return valuesOf(facet, note.getTags(), note.getNoteType(), note.getCreatedAt(), note.getAuthor(),
+                note.isPublicNote());
+    }
+
+    /**
+     * The values a note has for {@code facet}, as displayed
+     */
+    static List<String> valuesOf(String facet, List<String> tags, String noteType, LocalDateTime createdAt,
+                                 String author, boolean publicNote) {
+        return switch (facet) {
+            case FacetFilter.TAG -> tags != null ? tags : List.of();
+            case FacetFilter.TYPE -> noteType != null ? List.of(noteType) : List.of();
+            case FacetFilter.YEAR -> createdAt != null ? List.of(String.valueOf(createdAt.getYear())) : List.of();
+            case FacetFilter.AUTHOR -> author != null ? List.of(author) : List.of();
+            case FacetFilter.VISIBILITY -> List.of(publicNote ? "public" : "private");
+            default -> List.of();
+        };
+    }
+}
@@ -0,0 +1,206 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.dto.SearchHit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds a search query in note text without lowercasing or copying it.
+ * <p>
+ * The whole query phrase and, for multi-word queries, each of its words are matched together in a single
+ * case-insensitive Aho-Corasick pass. Phrase checks ({@link #indexOf}, {@link #count}) only look at the phrase;
+ * {@link #highlight} marks every pattern and merges matches whose context windows overlap into one snippet.
+ * <p>
+ * Compile one instance per search and reuse it for every note. Instances keep their scan state in fields to
+ * avoid per-call allocation and are therefore not thread-safe.
+ */
+public final class Highlighter implements AhoCorasick.MatchSink {
+
+    private static final int PHRASE = 0;
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private enum Mode { FIND, COUNT, HIGHLIGHT }
+
+    private final String phrase;
+    private final AhoCorasick automaton;
+
+    private Mode mode;
+    private int found;
+    private int count;
+    private int limit;
+    private int lastEnd;
+
+    private String field;
+    private String text;
+    private int context;
+    private List<SearchHit.HighlightMatch> out;
+    private int windowStart;
+    private int windowEnd;
+    private int matchStart;
+    private int matchEnd;
+
+    private Highlighter(String phrase, AhoCorasick automaton) {
+        this.phrase = phrase;
+        this.automaton = automaton;
+    }
+
+    /**
+     * @param query the search query; blank queries produce a highlighter that never matches
+     */
+    public static Highlighter forQuery(String query) {
+        String phrase = query != null ? query.trim() : "";
+        if (phrase.isEmpty()) {
+            return new Highlighter(phrase, null);
+        }
+        List<String> patterns = new ArrayList<>();
+        patterns.add(phrase);
+        String[] words = phrase.split("\\s+");
+        if (words.length > 1) {
+            for (String word : words) {
+                if (word.length() >= MIN_TERM_LENGTH && !containsIgnoreCase(patterns, word)) {
+                    patterns.add(word);
+                }
+            }
+        }
+        return new Highlighter(phrase, new AhoCorasick(patterns));
+    }
+
+    public boolean isEmpty() {
+        return automaton == null;
+    }
+
+    /**
+     * Offset of the first occurrence of the phrase, or -1
+     */
+    public int indexOf(CharSequence text) {
+        if (automaton == null || text == null) {
+            return -1;
+        }
+        mode = Mode.FIND;
+        found = -1;
+        automaton.scan(text, this);
+        return found;
+    }
+
+    /**
+     * Non-overlapping occurrences of the phrase, counting stops at {@code max}
+     */
+    public int count(CharSequence text, int max) {
+        if (automaton == null || text == null || max <= 0) {
+            return 0;
+        }
+        mode = Mode.COUNT;
+        count = 0;
+        limit = max;
+        lastEnd = 0;
+        automaton.scan(text, this);
+        return count;
+    }
+
+    public boolean titleEquals(String title) {
+        return title != null && title.length() == phrase.length() && startsWith(title);
+    }
+
+    public boolean startsWith(String text) {
+        return automaton != null && text != null && text.regionMatches(true, 0, phrase, 0, phrase.length());
+    }
+
+    /**
+     * Adds up to {@code maxSnippets} snippets of {@code text} to {@code out}. Each snippet keeps {@code context}
+     * characters around its matches; overlapping snippets are merged and report the offsets of their first and
+     * last match.
+     */
+    public void highlight(String field, String text, int maxSnippets, int context,
+                          List<SearchHit.HighlightMatch> out) {
+        if (automaton == null || text == null || text.isEmpty() || maxSnippets <= 0) {
+            return;
+        }
+        this.mode = Mode.HIGHLIGHT;
+        this.field = field;
+        this.text = text;
+        this.context = context;
+        this.out = out;
+        this.limit = out.size() + maxSnippets;
+        this.windowStart = -1;
+        this.lastEnd = 0;
+        automaton.scan(text, this);
+        if (windowStart >= 0 && out.size() < limit) {
+            emitWindow();
+        }
+        this.text = null;
+        this.out = null;
+    }
+
+    @Override
+    public boolean onMatch(int pattern, int start, int end) {
+        switch (mode) {
+            case FIND -> {
+                if (pattern == PHRASE) {
+                    found = start;
+                    return false;
+                }
+                return true;
+            }
+            case COUNT -> {
+                if (pattern == PHRASE && start >= lastEnd) {
+                    lastEnd = end;
+                    return ++count < limit;
+                }
+                return true;
+            }
+            default -> {
+                return addMatch(start, end);
+            }
+        }
+    }
+
+    private boolean addMatch(int start, int end) {
+        if (start < lastEnd) {
+            // Overlaps a match already taken, e.g. a word inside the phrase: widen the current snippet.
+            if (start < matchStart) {
+                matchStart = start;
+                windowStart = Math.min(windowStart, Math.max(0, start - context));
+            }
+            if (end > matchEnd) {
+                lastEnd = end;
+                matchEnd = end;
+                windowEnd = Math.max(windowEnd, Math.min(text.length(), end + context));
+            }
+            return true;
+        }
+        lastEnd = end;
+        int from = Math.max(0, start - context);
+        int to = Math.min(text.length(), end + context);
+        if (windowStart >= 0 && from <= windowEnd) {
+            windowEnd = Math.max(windowEnd, to);
+            matchEnd = end;
+            return true;
+        }
+        if (windowStart >= 0) {
+            emitWindow();
+            if (out.size() >= limit) {
+                return false;
+            }
+        }
+        windowStart = from;
+        windowEnd = to;
+        matchStart = start;
+        matchEnd = end;
+        return true;
+    }
+
+    private void emitWindow() {
+        out.add(new SearchHit.HighlightMatch(field, text.substring(windowStart, windowEnd), matchStart, matchEnd));
+        windowStart = -1;
+    }
+
+    private static boolean containsIgnoreCase(List<String> values, String value) {
+        for (String v : values) {
+            if (v.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-note metadata kept next to the postings: everything access filtering, request filters and ranking need
+ * without loading the note. Content is not kept; hits are hydrated from the database per page.
+ */
+public final class IndexedNote {
+
+    private int ordinal; // reassigned by InvertedIndex under its write lock when it compacts
+    private final UUID id;
+    private final UUID ownerId;
+    private final String title;
+    private final List<String> tags;
+    private final String noteType;
+    private volatile String author; // replaced in place when the owner is renamed
+    private final boolean publicNote;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final int[] fieldLengths;
+    // Counted without the index's write lock, so concurrent views of different notes never contend
+    private final AtomicLong viewCount = new AtomicLong();
+    private volatile int attachmentCount;
+
+    IndexedNote(int ordinal, NoteDocument document, int[] fieldLengths) {
+        this.ordinal = ordinal;
+        this.id = document.id();
+        this.ownerId = document.ownerId();
+        this.title = document.title();
+        this.tags = document.tags() != null ? List.copyOf(document.tags()) : List.of();
+        this.noteType = document.noteType();
+        this.author = document.author();
+        this.publicNote = document.publicNote();
+        this.createdAt = document.createdAt();
+        this.updatedAt = document.updatedAt();
+        this.fieldLengths = fieldLengths;
+    }
+
+    public boolean isVisibleTo(UUID viewerId) {
+        return publicNote || (viewerId != null && viewerId.equals(ownerId));
+    }
+
+    public int getOrdinal() { return ordinal; }
+    public UUID getId() { return id; }
+    public UUID getOwnerId() { return ownerId; }
+    public String getTitle() { return title; }
+    public List<String> getTags() { return tags; }
+    public String getNoteType() { return noteType; }
+    public String getAuthor() { return author; }
+    public boolean isPublicNote() { return publicNote; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public int getTitleLength() { return fieldLengths[InvertedIndex.TITLE]; }
+    public int getContentLength() { return fieldLengths[InvertedIndex.CONTENT]; }
+
+    /**
+     * Number of terms per indexed field, by {@link InvertedIndex} field number
+     */
+    int[] getFieldLengths() { return fieldLengths; }
+    public long getViewCount() { return viewCount.get(); }
+    public int getAttachmentCount() { return attachmentCount; }
+
+    void setOrdinal(int ordinal) { this.ordinal = ordinal; }
+    void setViewCount(long viewCount) { this.viewCount.set(viewCount); }
+    void recordView() { viewCount.incrementAndGet(); }
+    void setAttachmentCount(int attachmentCount) { this.attachmentCount = attachmentCount; }
+    void setAuthor(String author) { this.author = author; }
+}
@@ -0,0 +1,717 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index over note titles, content, tags, abstracts and keywords.
+ * <p>
+ * Every indexed note gets a new ordinal, so postings lists are appended in ordinal order and stay sorted without
+ * re-sorting. Updating a note retires its old ordinal and indexes it again under a new one; retired ordinals are
+ * skipped at query time. Once they outnumber the live notes the index is compacted: live notes are renumbered
+ * densely in their existing order, which keeps every postings list sorted, and the per-ordinal tables shrink
+ * back to the live notes. Positions are stored per posting with the field in the high bits, which makes phrase
+ * checks a binary search per query term and gives {@link Bm25f} its per-field term frequencies.
+ * <p>
+ * A posting costs eight bytes, its ordinal and where its positions end, plus four per occurrence, kept in flat
+ * arrays per term; an array per posting would cost more in headers than one or two positions take. For notes
+ * of 80 words that is about 0.9 KB per note, and with the per-note metadata and the list of postings each note
+ * is in, about 2.3 KB: 2.3 GB for a million notes (see {@code InvertedIndexBenchmark}). The positions
+ * themselves are under a fifth of it, and phrase matching, title-exact ranking and BM25F all need them.
+ * <p>
+ * The index also maintains what {@link Bm25f} needs: per-note field lengths, per-field length totals and the
+ * number of live notes in each postings list, so matches are scored without touching note text. Facet values
+ * are kept as bitmaps of ordinals in a {@link FacetIndex}, which restricts searches before postings are read
+ * and counts facets for whole result sets.
+ * <p>
+ * Queries are evaluated under a read lock, writes under the write lock. Views are counted under the read lock
+ * on an atomic per-note counter, so they do not serialize searches.
+ */
+public final class InvertedIndex {
+
+    static final int TITLE = 0;
+    static final int CONTENT = 1;
+    static final int TAGS = 2;
+    static final int ABSTRACT = 3;
+    static final int KEYWORDS = 4;
+    static final int FIELD_COUNT = 5;
+
+    private static final int FIELD_SHIFT = 28;
+    private static final int POSITION_MASK = (1 << FIELD_SHIFT) - 1;
+    private static final int MAX_POSITION = POSITION_MASK >> 1;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> dictionary = new TreeMap<>();
+    private final ArrayList<IndexedNote> notes = new ArrayList<>();
+    // Postings each note is listed in, by ordinal, to keep document frequencies live on removal
+    private final ArrayList<Postings[]> notePostings = new ArrayList<>();
+    private final long[] totalFieldLengths = new long[FIELD_COUNT];
+    private final HashMap<UUID, IndexedNote> byId = new HashMap<>();
+    private final FacetIndex facets = new FacetIndex();
+    private int retired;
+
+    /**
+     * Indexes {@code document}, replacing any previous version of the same note. View and attachment counts
+     * carry over.
+     *
+     * @return the replaced version, or {@code null} for a new note
+     */
+    public IndexedNote put(NoteDocument document) {
+        Map<String, IntList> termPositions = new HashMap<>();
+        int[] fieldLengths = new int[FIELD_COUNT];
+        fieldLengths[TITLE] = Tokenizer.tokenize(document.title(),
+                (term, position) -> addPosition(termPositions, term, TITLE, position));
+        fieldLengths[CONTENT] = Tokenizer.tokenize(document.content(),
+                (term, position) -> addPosition(termPositions, term, CONTENT, position));
+        fieldLengths[ABSTRACT] = Tokenizer.tokenize(document.abstractText(),
+                (term, position) -> addPosition(termPositions, term, ABSTRACT, position));
+        fieldLengths[KEYWORDS] = Tokenizer.tokenize(document.keywords(),
+                (term, position) -> addPosition(termPositions, term, KEYWORDS, position));
+        if (document.tags() != null) {
+            int offset = 0;
+            for (String tag : document.tags()) {
+                int tagOffset = offset;
+                int tagLength = Tokenizer.tokenize(tag,
+                        (term, position) -> addPosition(termPositions, term, TAGS, tagOffset + position));
+                fieldLengths[TAGS] += tagLength;
+                // Leave a gap between tags so a phrase cannot span two of them
+                offset += tagLength + 1;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            IndexedNote note = new IndexedNote(notes.size(), document, fieldLengths);
+            IndexedNote previous = byId.put(note.getId(), note);
+            if (previous != null) {
+                note.setViewCount(previous.getViewCount());
+                note.setAttachmentCount(previous.getAttachmentCount());
+                retire(previous);
+            }
+            notes.add(note);
+            Postings[] listed = new Postings[termPositions.size()];
+            int i = 0;
+            for (Map.Entry<String, IntList> entry : termPositions.entrySet()) {
+                Postings postings = dictionary.computeIfAbsent(entry.getKey(), term -> new Postings());
+                postings.add(note.getOrdinal(), entry.getValue().toArray());
+                listed[i++] = postings;
+            }
+            notePostings.add(listed);
+            facets.add(note);
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                totalFieldLengths[field] += fieldLengths[field];
+            }
+            compactIfNeeded();
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the removed note, or {@code null} when it was not indexed
+     */
+    public IndexedNote remove(UUID noteId) {
+        lock.writeLock().lock();
+        try {
+            IndexedNote note = byId.remove(noteId);
+            if (note == null) {
+                return null;
+            }
+            retire(note);
+            compactIfNeeded();
+            return note;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int removeOwnedBy(UUID ownerId) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            for (Iterator<IndexedNote> it = byId.values().iterator(); it.hasNext(); ) {
+                IndexedNote note = it.next();
+                if (note.getOwnerId().equals(ownerId)) {
+                    it.remove();
+                    retire(note);
+                    removed++;
+                }
+            }
+            compactIfNeeded();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Files the notes of {@code ownerId} under {@code author} from now on. The author is only a stored field and
+     * a facet, not indexed text, so the notes keep their ordinals and postings.
+     *
+     * @return the number of notes whose author changed
+     */
+    public int renameAuthor(UUID ownerId, String author) {
+        lock.writeLock().lock();
+        try {
+            int renamed = 0;
+            for (IndexedNote note : byId.values()) {
+                if (note.getOwnerId().equals(ownerId) && !Objects.equals(note.getAuthor(), author)) {
+                    facets.remove(note);
+                    note.setAuthor(author);
+                    facets.add(note);
+                    renamed++;
+                }
+            }
+            return renamed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public IndexedNote get(UUID noteId) {
+        lock.readLock().lock();
+        try {
+            return byId.get(noteId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void setCounts(UUID noteId, long viewCount, int attachmentCount) {
+        lock.writeLock().lock();
+        try {
+            IndexedNote note = byId.get(noteId);
+            if (note != null) {
+                note.setViewCount(viewCount);
+                note.setAttachmentCount(attachmentCount);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void recordView(UUID noteId) {
+        // The read lock only keeps byId stable and orders the increment against put() carrying counts over
+        lock.readLock().lock();
+        try {
+            IndexedNote note = byId.get(noteId);
+            if (note != null) {
+                note.recordView();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void adjustAttachments(UUID noteId, int delta) {
+        lock.writeLock().lock();
+        try {
+            IndexedNote note = byId.get(noteId);
+            if (note != null) {
+                note.setAttachmentCount(Math.max(0, note.getAttachmentCount() + delta));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            dictionary.clear();
+            notes.clear();
+            notePostings.clear();
+            facets.clear();
+            byId.clear();
+            Arrays.fill(totalFieldLengths, 0);
+            retired = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Notes visible to {@code viewerId} (public notes only when {@code null}) that pass {@code facetFilter} and
+     * {@code filter} and contain the query terms as a phrase in one of their fields. The last term also matches
+     * as a prefix, so partially typed words still hit. A blank query matches every visible note, unscored.
+     * <p>
+     * Each match carries its {@link Bm25f} score: the sum over the query terms, where the prefix term counts
+     * with its best-scoring expansion. A prefix expands to at most {@value #MAX_PREFIX_EXPANSIONS} terms, those
+     * in the most notes. The facet filter is evaluated on bitmaps first; when it leaves fewer notes
+     * than the rarest query term, those notes drive the phrase checks instead of the postings.
+     */
+    public List<NoteMatch> search(String query, UUID viewerId, FacetFilter facetFilter,
+                                  Predicate<IndexedNote> filter) {
+        List<String> terms = Tokenizer.terms(query);
+        lock.readLock().lock();
+        try {
+            OrdinalBitmap allowed = facets.restrict(facetFilter);
+            if (allowed != null && allowed.isEmpty()) {
+                return List.of();
+            }
+            if (terms.isEmpty()) {
+                if (query != null && !query.isBlank()) {
+                    return List.of();
+                }
+                List<NoteMatch> all = new ArrayList<>();
+                if (allowed != null) {
+                    for (int ordinal : allowed.toArray()) {
+                        IndexedNote note = notes.get(ordinal);
+                        if (note != null && note.isVisibleTo(viewerId) && filter.test(note)) {
+                            all.add(NoteMatch.unscored(note));
+                        }
+                    }
+                    return all;
+                }
+                for (IndexedNote note : byId.values()) {
+                    if (note.isVisibleTo(viewerId) && filter.test(note)) {
+                        all.add(NoteMatch.unscored(note));
+                    }
+                }
+                return all;
+            }
+
+            int last = terms.size() - 1;
+            List<Postings[]> resolved = new ArrayList<>(terms.size());
+            int driver = 0;
+            long driverSize = Long.MAX_VALUE;
+            for (int i = 0; i < terms.size(); i++) {
+                Postings[] postings = i == last ? expand(terms.get(i)) : exact(terms.get(i));
+                if (postings.length == 0) {
+                    return List.of();
+                }
+                long size = 0;
+                for (Postings p : postings) {
+                    size += p.size;
+                }
+                if (size < driverSize) {
+                    driver = i;
+                    driverSize = size;
+                }
+                resolved.add(postings);
+            }
+
+            Cursor[][] cursors = new Cursor[terms.size()][];
+            for (int i = 0; i < cursors.length; i++) {
+                cursors[i] = Arrays.stream(resolved.get(i)).map(Cursor::new).toArray(Cursor[]::new);
+            }
+            Postings exactLastPostings = dictionary.get(terms.get(last));
+            Cursor exactLast = exactLastPostings != null ? new Cursor(exactLastPostings) : null;
+            int[][] positions = new int[terms.size()][];
+            double[] averageLengths = averageFieldLengths();
+            int[] termFrequencies = new int[FIELD_COUNT];
+            List<NoteMatch> matches = new ArrayList<>();
+            boolean facetDriven = allowed != null && allowed.cardinality() < driverSize;
+            int[] candidates = facetDriven ? allowed.toArray() : ordinals(resolved.get(driver));
+            for (int ordinal : candidates) {
+                if (!facetDriven && allowed != null && !allowed.contains(ordinal)) {
+                    continue;
+                }
+                IndexedNote note = notes.get(ordinal);
+                if (note == null || !note.isVisibleTo(viewerId) || !filter.test(note)) {
+                    continue;
+                }
+                if (!collectPositions(cursors, ordinal, positions)) {
+                    continue;
+                }
+                NoteMatch match = matchPhrase(note, positions,
+                        exactLast != null && exactLast.moveTo(ordinal) ? exactLast.positions() : null,
+                        score(cursors, ordinal, note, averageLengths, termFrequencies));
+                if (match != null) {
+                    matches.add(match);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Per facet, the {@code maxValues} most common values among {@code matches}, counted by intersecting the
+     * facet bitmaps with a bitmap of the matches. Notes changed since the search ran are no longer counted.
+     */
+    public Map<String, List<FacetCount>> facetCounts(List<NoteMatch> matches, int maxValues) {
+        lock.readLock().lock();
+        try {
+            // Ordinals are read under the lock: compaction may have renumbered the notes since the search
+            IntList ordinals = new IntList();
+            for (NoteMatch match : matches) {
+                IndexedNote note = match.note();
+                if (note.getOrdinal() < notes.size() && notes.get(note.getOrdinal()) == note) {
+                    ordinals.add(note.getOrdinal());
+                }
+            }
+            return facets.counts(OrdinalBitmap.of(ordinals.toSortedDistinctArray()), maxValues);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double score(Cursor[][] cursors, int ordinal, IndexedNote note, double[] averageLengths,
+                         int[] termFrequencies) {
+        int documentCount = byId.size();
+        double score = 0.0;
+        for (Cursor[] termCursors : cursors) {
+            double best = 0.0;
+            for (Cursor cursor : termCursors) {
+                if (!cursor.moveTo(ordinal)) {
+                    continue;
+                }
+                Postings p = cursor.postings;
+                Arrays.fill(termFrequencies, 0);
+                for (int i = p.start(cursor.entry), end = p.end(cursor.entry); i < end; i++) {
+                    termFrequencies[p.positions[i] >>> FIELD_SHIFT]++;
+                }
+                best = Math.max(best, Bm25f.termScore(termFrequencies, note.getFieldLengths(), averageLengths,
+                        p.live, documentCount));
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private double[] averageFieldLengths() {
+        double[] averages = new double[FIELD_COUNT];
+        int documentCount = byId.size();
+        if (documentCount > 0) {
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                averages[field] = (double) totalFieldLengths[field] / documentCount;
+            }
+        }
+        return averages;
+    }
+
+    private Postings[] exact(String term) {
+        Postings postings = dictionary.get(term);
+        return postings != null ? new Postings[]{postings} : new Postings[0];
+    }
+
+    /**
+     * The postings of the terms starting with {@code prefix}; past the expansion limit, those in the most live
+     * notes, so a short prefix does not drop common words for alphabetically earlier rare ones
+     */
+    private Postings[] expand(String prefix) {
+        PriorityQueue<Postings> expansions = new PriorityQueue<>(Comparator.comparingInt((Postings p) -> p.live));
+        for (Postings postings : dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (postings.live == 0) {
+                continue;
+            }
+            if (expansions.size() < MAX_PREFIX_EXPANSIONS) {
+                expansions.add(postings);
+            } else if (postings.live > expansions.peek().live) {
+                expansions.poll();
+                expansions.add(postings);
+            }
+        }
+        return expansions.toArray(Postings[]::new);
+    }
+
+    private static int[] ordinals(Postings[] postings) {
+        if (postings.length == 1) {
+            return Arrays.copyOf(postings[0].ordinals, postings[0].size);
+        }
+        IntList merged = new IntList();
+        for (Postings p : postings) {
+            merged.addAll(p.ordinals, p.size);
+        }
+        return merged.toSortedDistinctArray();
+    }
+
+    private static boolean collectPositions(Cursor[][] cursors, int ordinal, int[][] positions) {
+        for (int i = 0; i < positions.length; i++) {
+            Cursor[] termCursors = cursors[i];
+            if (termCursors.length == 1) {
+                positions[i] = termCursors[0].moveTo(ordinal) ? termCursors[0].positions() : null;
+            } else {
+                IntList merged = null;
+                for (Cursor cursor : termCursors) {
+                    if (cursor.moveTo(ordinal)) {
+                        if (merged == null) {
+                            merged = new IntList();
+                        }
+                        Postings p = cursor.postings;
+                        merged.addAll(p.positions, p.start(cursor.entry), p.end(cursor.entry));
+                    }
+                }
+                positions[i] = merged != null ? merged.toSortedDistinctArray() : null;
+            }
+            if (positions[i] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static NoteMatch matchPhrase(IndexedNote note, int[][] positions, int[] exactLastPositions,
+                                         double textScore) {
+        int length = positions.length;
+        int occurrences = 0;
+        int titleOccurrences = 0;
+        int contentOccurrences = 0;
+        boolean titleStartsWith = false;
+        boolean titleExact = false;
+        for (int start : positions[0]) {
+            boolean phrase = true;
+            for (int i = 1; i < length && phrase; i++) {
+                phrase = Arrays.binarySearch(positions[i], start + i) >= 0;
+            }
+            if (!phrase) {
+                continue;
+            }
+            occurrences++;
+            int field = start >>> FIELD_SHIFT;
+            if (field == TITLE) {
+                titleOccurrences++;
+                if ((start & POSITION_MASK) == 0) {
+                    titleStartsWith = true;
+                    titleExact = length == note.getTitleLength() && exactLastPositions != null
+                            && Arrays.binarySearch(exactLastPositions, start + length - 1) >= 0;
+                }
+            } else if (field == CONTENT) {
+                contentOccurrences++;
+            }
+        }
+        if (occurrences == 0) {
+            return null;
+        }
+        return new NoteMatch(note, titleOccurrences, contentOccurrences, titleStartsWith, titleExact, textScore);
+    }
+
+    private static void addPosition(Map<String, IntList> termPositions, String term, int field, int position) {
+        if (position <= MAX_POSITION) {
+            termPositions.computeIfAbsent(term, t -> new IntList()).add((field << FIELD_SHIFT) | position);
+        }
+    }
+
+    private void retire(IndexedNote note) {
+        notes.set(note.getOrdinal(), null);
+        for (Postings postings : notePostings.set(note.getOrdinal(), null)) {
+            postings.live--;
+        }
+        int[] fieldLengths = note.getFieldLengths();
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            totalFieldLengths[field] -= fieldLengths[field];
+        }
+        facets.remove(note);
+        retired++;
+    }
+
+    /**
+     * Drops retired ordinals from the postings and renumbers the live notes {@code 0..n-1} in ordinal order.
+     * The renumbering is monotonic, so postings stay sorted; facet bitmaps are rebuilt under the new ordinals.
+     */
+    private void compactIfNeeded() {
+        if (retired < COMPACTION_THRESHOLD || retired < byId.size()) {
+            return;
+        }
+        int[] renumbered = new int[notes.size()];
+        int live = 0;
+        for (int ordinal = 0; ordinal < notes.size(); ordinal++) {
+            IndexedNote note = notes.get(ordinal);
+            if (note == null) {
+                renumbered[ordinal] = -1;
+                continue;
+            }
+            renumbered[ordinal] = live;
+            note.setOrdinal(live);
+            notes.set(live, note);
+            notePostings.set(live++, notePostings.get(ordinal));
+        }
+        notes.subList(live, notes.size()).clear();
+        notePostings.subList(live, notePostings.size()).clear();
+        notes.trimToSize();
+        notePostings.trimToSize();
+
+        for (Iterator<Postings> it = dictionary.values().iterator(); it.hasNext(); ) {
+            Postings postings = it.next();
+            postings.renumber(renumbered);
+            if (postings.size == 0) {
+                it.remove();
+            }
+        }
+        facets.clear();
+        notes.forEach(facets::add);
+        retired = 0;
+    }
+
+    /**
+     * Slots in the per-ordinal tables, live or retired
+     */
+    int capacity() {
+        lock.readLock().lock();
+        try {
+            return notes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The notes a term occurs in, by ascending ordinal, with its positions in each. The positions of all
+     * entries share one array, delimited by {@code ends}, rather than one array per entry: most terms occur
+     * once or twice in a note, where a separate array's header and reference would cost more than the
+     * positions themselves.
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private int[] ends = new int[2]; // end of each entry's positions, exclusive; each starts at the previous end
+        private int[] positions = new int[2];
+        private int size;
+        private int live; // document frequency: entries whose note is still indexed
+
+        void add(int ordinal, int[] termPositions) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            int start = start(size);
+            if (start + termPositions.length > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, start + termPositions.length));
+            }
+            System.arraycopy(termPositions, 0, positions, start, termPositions.length);
+            ordinals[size] = ordinal;
+            ends[size++] = start + termPositions.length;
+            live++;
+        }
+
+        int start(int entry) {
+            return entry == 0 ? 0 : ends[entry - 1];
+        }
+
+        int end(int entry) {
+            return ends[entry];
+        }
+
+        /**
+         * Maps every ordinal through {@code renumbered}, dropping those mapped to -1 and their positions
+         */
+        void renumber(int[] renumbered) {
+            int kept = 0;
+            int keptEnd = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = renumbered[ordinals[i]];
+                int start = start(i);
+                int end = ends[i];
+                if (ordinal >= 0) {
+                    System.arraycopy(positions, start, positions, keptEnd, end - start);
+                    keptEnd += end - start;
+                    ordinals[kept] = ordinal;
+                    ends[kept++] = keptEnd;
+                }
+            }
+            size = kept;
+            if (size < ordinals.length / 4) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(2, size));
+                ends = Arrays.copyOf(ends, Math.max(2, size));
+            }
+            if (keptEnd < positions.length / 4) {
+                positions = Arrays.copyOf(positions, Math.max(2, keptEnd));
+            }
+        }
+    }
+
+    /**
+     * Reads one postings list during a search. Candidates are visited in ascending ordinal order, so each lookup
+     * gallops forward from the previous one instead of binary searching the whole list again.
+     */
+    private static final class Cursor {
+        private final Postings postings;
+        private int entry;
+
+        Cursor(Postings postings) {
+            this.postings = postings;
+        }
+
+        /**
+         * Moves to the first entry at or after {@code ordinal}, which must not be below an earlier target
+         *
+         * @return whether that entry is {@code ordinal}'s, that is, whether the term occurs in the note
+         */
+        boolean moveTo(int ordinal) {
+            int[] ordinals = postings.ordinals;
+            int size = postings.size;
+            if (entry < size && ordinals[entry] < ordinal) {
+                int low = entry;
+                int step = 1;
+                while (low + step < size && ordinals[low + step] < ordinal) {
+                    low += step;
+                    step <<= 1;
+                }
+                int found = Arrays.binarySearch(ordinals, low + 1, Math.min(size, low + step + 1), ordinal);
+                entry = found >= 0 ? found : -found - 1;
+            }
+            return entry < size && ordinals[entry] == ordinal;
+        }
+
+        /**
+         * The positions of the current entry
+         */
+        int[] positions() {
+            return Arrays.copyOfRange(postings.positions, postings.start(entry), postings.end(entry));
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(int[] source, int count) {
+            addAll(source, 0, count);
+        }
+
+        void addAll(int[] source, int from, int to) {
+            int count = to - from;
+            if (size + count > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + count));
+            }
+            System.arraycopy(source, from, values, size, count);
+            size += count;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        int[] toSortedDistinctArray() {
+            Arrays.sort(values, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || values[i] != values[distinct - 1]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            return Arrays.copyOf(values, distinct);
+        }
+    }
+}
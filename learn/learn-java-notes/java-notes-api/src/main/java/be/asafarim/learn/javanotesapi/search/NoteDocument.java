@@ -0,0 +1,43 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.entities.StudyNote;
+import be.asafarim.learn.javanotesapi.entities.Tag;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The parts of a note the search index reads.
+ */
+public record NoteDocument(
+        UUID id,
+        UUID ownerId,
+        String title,
+        String content,
+        String abstractText,
+        String keywords,
+        List<String> tags,
+        String noteType,
+        String author,
+        boolean publicNote,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+
+    public static NoteDocument of(StudyNote note) {
+        return new NoteDocument(
+                note.getId(),
+                note.getUser().getId(),
+                note.getTitle(),
+                note.getContent(),
+                note.getAbstractText(),
+                note.getKeywords(),
+                note.getTags().stream().map(Tag::getName).sorted().toList(),
+                note.getNoteType() != null ? note.getNoteType().name() : null,
+                note.getUser().getUsername(),
+                note.isPublic(),
+                note.getCreatedAt(),
+                note.getUpdatedAt());
+    }
+}
@@ -0,0 +1,18 @@
+package be.asafarim.learn.javanotesapi.search;
+
+/**
+ * A note that matched a query, with the phrase occurrences and the {@link Bm25f} text score the ranking reads.
+ */
+public record NoteMatch(
+        IndexedNote note,
+        int titleOccurrences,
+        int contentOccurrences,
+        boolean titleStartsWith,
+        boolean titleExact,
+        double textScore
+) {
+
+    static NoteMatch unscored(IndexedNote note) {
+        return new NoteMatch(note, 0, 0, false, false, 0.0);
+    }
+}
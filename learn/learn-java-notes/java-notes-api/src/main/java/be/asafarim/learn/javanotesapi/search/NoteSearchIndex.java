@@ -0,0 +1,230 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.events.NoteAttachmentsChangedEvent;
+import be.asafarim.learn.javanotesapi.events.NoteChangedEvent;
+import be.asafarim.learn.javanotesapi.events.NoteDeletedEvent;
+import be.asafarim.learn.javanotesapi.events.NoteViewedEvent;
+import be.asafarim.learn.javanotesapi.events.UserDeletedEvent;
+import be.asafarim.learn.javanotesapi.events.UserRenamedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the {@link InvertedIndex} in sync with the database.
+ * <p>
+ * The index is loaded once the application is ready and then maintained from note events after their
+ * transaction commits. Changes that arrive while the initial load is running are queued and replayed on top of
+ * it, so the newest state always wins. Until the load has finished {@link #isReady()} is {@code false} and
+ * callers fall back to querying the database.
+ * <p>
+ * Every applied change that can alter search results bumps a version: the public version for changes to
+ * public notes (including notes leaving or entering the public set), and the owner's version for changes to any
+ * of their notes. Results computed at the same versions are still valid. View counts do not bump versions.
+ */
+@Component
+public class NoteSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(NoteSearchIndex.class);
+
+    private static final int FETCH_SIZE = 500;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Object buildLock = new Object();
+    private List<Runnable> pendingChanges;
+    private volatile boolean ready;
+    private final AtomicLong publicVersion = new AtomicLong();
+    private final Map<UUID, Long> ownerVersions = new ConcurrentHashMap<>();
+
+    public NoteSearchIndex(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        // Own template so the streaming fetch size does not leak into other queries.
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Bumped by every change to a public note and by every rebuild
+     */
+    public long publicVersion() {
+        return publicVersion.get();
+    }
+
+    /**
+     * Bumped by every change to a note owned by {@code ownerId}
+     */
+    public long ownerVersion(UUID ownerId) {
+        return ownerVersions.getOrDefault(ownerId, 0L);
+    }
+
+    public List<NoteMatch> search(String query, UUID viewerId, FacetFilter facetFilter,
+                                  Predicate<IndexedNote> filter) {
+        return index.search(query, viewerId, facetFilter, filter);
+    }
+
+    public Map<String, List<FacetCount>> facetCounts(List<NoteMatch> matches, int maxValues) {
+        return index.facetCounts(matches, maxValues);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (buildLock) {
+            pendingChanges = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        try {
+            index.clear();
+            readOnlyTransaction.executeWithoutResult(status -> load());
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the note search index; search keeps using the database", e);
+            synchronized (buildLock) {
+                pendingChanges = null;
+            }
+            return;
+        }
+        synchronized (buildLock) {
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges = null;
+            publicVersion.incrementAndGet(); // user-scoped results include public notes, so this covers them too
+            ready = true;
+        }
+        logger.info("Indexed {} notes for search in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteChanged(NoteChangedEvent event) {
+        NoteDocument document = NoteDocument.of(event.note());
+        apply(() -> {
+            IndexedNote previous = index.put(document);
+            bump(document.ownerId(), document.publicNote() || (previous != null && previous.isPublicNote()));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteDeleted(NoteDeletedEvent event) {
+        apply(() -> {
+            IndexedNote removed = index.remove(event.noteId());
+            if (removed != null) {
+                bump(removed.getOwnerId(), removed.isPublicNote());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        apply(() -> {
+            if (index.removeOwnedBy(event.userId()) > 0) {
+                bump(event.userId(), true);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRenamed(UserRenamedEvent event) {
+        apply(() -> {
+            if (index.renameAuthor(event.userId(), event.username()) > 0) {
+                bump(event.userId(), true);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteViewed(NoteViewedEvent event) {
+        apply(() -> index.recordView(event.noteId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttachmentsChanged(NoteAttachmentsChangedEvent event) {
+        if (event.delta() == 0) {
+            return; // visibility change only
+        }
+        apply(() -> {
+            index.adjustAttachments(event.noteId(), event.delta());
+            IndexedNote note = index.get(event.noteId());
+            if (note != null) {
+                bump(note.getOwnerId(), note.isPublicNote());
+            }
+        });
+    }
+
+    private void bump(UUID ownerId, boolean publicNote) {
+        ownerVersions.merge(ownerId, 1L, Long::sum);
+        if (publicNote) {
+            publicVersion.incrementAndGet();
+        }
+    }
+
+    private void apply(Runnable change) {
+        synchronized (buildLock) {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+                return;
+            }
+        }
+        change.run();
+    }
+
+    private void load() {
+        Map<UUID, List<String>> tags = new HashMap<>();
+        jdbcTemplate.query("SELECT snt.study_note_id, t.name FROM study_note_tags snt JOIN tags t ON t.id = snt.tag_id",
+                (RowCallbackHandler) rs -> tags
+                        .computeIfAbsent(rs.getObject(1, UUID.class), id -> new ArrayList<>())
+                        .add(rs.getString(2)));
+
+        jdbcTemplate.query("SELECT n.id, n.user_id, n.title, n.content, n.abstract_text, n.keywords, n.note_type, "
+                        + "u.username, n.is_public, n.created_at, n.updated_at "
+                        + "FROM study_notes n JOIN users u ON u.id = n.user_id",
+                (RowCallbackHandler) rs -> {
+                    UUID id = rs.getObject("id", UUID.class);
+                    index.put(new NoteDocument(
+                            id,
+                            rs.getObject("user_id", UUID.class),
+                            rs.getString("title"),
+                            rs.getString("content"),
+                            rs.getString("abstract_text"),
+                            rs.getString("keywords"),
+                            tags.getOrDefault(id, List.of()).stream().sorted().toList(),
+                            rs.getString("note_type"),
+                            rs.getString("username"),
+                            rs.getBoolean("is_public"),
+                            toLocalDateTime(rs.getTimestamp("created_at")),
+                            toLocalDateTime(rs.getTimestamp("updated_at"))));
+                });
+
+        jdbcTemplate.query("SELECT note_id, view_count, attachment_count FROM note_stats",
+                (RowCallbackHandler) rs -> index.setCounts(rs.getObject(1, UUID.class), rs.getLong(2), rs.getInt(3)));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,410 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap of note ordinals, organized like a Roaring bitmap.
+ * <p>
+ * Ordinals are split into chunks of 65536 by their high 16 bits. A chunk with at most {@link #ARRAY_LIMIT}
+ * members stores them as a sorted {@code char[]} of low bits; a denser chunk switches to a plain 1024-word
+ * bitset. Sparse facets (most tags, authors) stay a few bytes per note, dense ones (visibility, note type) a
+ * fixed 8 KB per chunk, and intersections pick the cheapest strategy per pair of chunks: merging two arrays,
+ * probing a bitset from an array, or AND-ing and counting words; {@link #or} and {@link #andNot} work chunk by
+ * chunk the same way.
+ * <p>
+ * Not thread-safe; {@link InvertedIndex} guards its bitmaps with its own lock.
+ */
+final class OrdinalBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITSET_WORDS = 1024;
+
+    private char[] keys = new char[0];
+    private Chunk[] chunks = new Chunk[0];
+    private int size; // chunks in use
+    private int cardinality;
+
+    /**
+     * A bitmap holding {@code ordinals}; sorted input appends to the last chunk without shifting
+     */
+    static OrdinalBitmap of(int[] ordinals) {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        for (int ordinal : ordinals) {
+            bitmap.add(ordinal);
+        }
+        return bitmap;
+    }
+
+    void add(int ordinal) {
+        char key = (char) (ordinal >>> 16);
+        int i = chunkIndex(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertChunk(i, key, new Chunk());
+        }
+        if (chunks[i].add((char) ordinal)) {
+            cardinality++;
+        }
+    }
+
+    void remove(int ordinal) {
+        int i = chunkIndex((char) (ordinal >>> 16));
+        if (i < 0 || !chunks[i].remove((char) ordinal)) {
+            return;
+        }
+        cardinality--;
+        if (chunks[i].cardinality == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(chunks, i + 1, chunks, i, size - i - 1);
+            chunks[--size] = null;
+        }
+    }
+
+    boolean contains(int ordinal) {
+        int i = chunkIndex((char) (ordinal >>> 16));
+        return i >= 0 && chunks[i].contains((char) ordinal);
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * The members in ascending order
+     */
+    int[] toArray() {
+        int[] ordinals = new int[cardinality];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            Chunk chunk = chunks[i];
+            if (chunk.words != null) {
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    long word = chunk.words[w];
+                    while (word != 0) {
+                        ordinals[n++] = high | (w << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                for (int k = 0; k < chunk.cardinality; k++) {
+                    ordinals[n++] = high | chunk.array[k];
+                }
+            }
+        }
+        return ordinals;
+    }
+
+    /**
+     * Members of both bitmaps, without materializing them
+     */
+    int andCardinality(OrdinalBitmap other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += chunks[i++].andCardinality(other.chunks[j++]);
+            }
+        }
+        return count;
+    }
+
+    OrdinalBitmap and(OrdinalBitmap other) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Chunk chunk = chunks[i].and(other.chunks[j]);
+                if (chunk.cardinality > 0) {
+                    result.insertChunk(result.size, keys[i], chunk);
+                    result.cardinality += chunk.cardinality;
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    OrdinalBitmap or(OrdinalBitmap other) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            Chunk chunk;
+            char key;
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                key = keys[i];
+                chunk = chunks[i++].copy();
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                key = other.keys[j];
+                chunk = other.chunks[j++].copy();
+            } else {
+                key = keys[i];
+                chunk = chunks[i++].or(other.chunks[j++]);
+            }
+            result.insertChunk(result.size, key, chunk);
+            result.cardinality += chunk.cardinality;
+        }
+        return result;
+    }
+
+    /**
+     * Members of this bitmap that are not in {@code other}
+     */
+    OrdinalBitmap andNot(OrdinalBitmap other) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Chunk chunk = j < other.size && other.keys[j] == keys[i]
+                    ? chunks[i].andNot(other.chunks[j])
+                    : chunks[i].copy();
+            if (chunk.cardinality > 0) {
+                result.insertChunk(result.size, keys[i], chunk);
+                result.cardinality += chunk.cardinality;
+            }
+        }
+        return result;
+    }
+
+    private int chunkIndex(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertChunk(int index, char key, Chunk chunk) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            chunks = Arrays.copyOf(chunks, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(chunks, index, chunks, index + 1, size - index);
+        keys[index] = key;
+        chunks[index] = chunk;
+        size++;
+    }
+
+    /**
+     * The low 16 bits of the members of one chunk: a sorted array while sparse, a bitset once dense
+     */
+    private static final class Chunk {
+        private char[] array = new char[4];
+        private long[] words;
+        private int cardinality;
+
+        boolean add(char low) {
+            if (words != null) {
+                long before = words[low >>> 6];
+                words[low >>> 6] = before | (1L << low);
+                if (before == words[low >>> 6]) {
+                    return false;
+                }
+                cardinality++;
+                return true;
+            }
+            int i = Arrays.binarySearch(array, 0, cardinality, low);
+            if (i >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                toBitset();
+                return add(low);
+            }
+            i = -i - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_LIMIT, cardinality * 2));
+            }
+            System.arraycopy(array, i, array, i + 1, cardinality - i);
+            array[i] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (words != null) {
+                long before = words[low >>> 6];
+                words[low >>> 6] = before & ~(1L << low);
+                if (before == words[low >>> 6]) {
+                    return false;
+                }
+                cardinality--;
+                if (cardinality <= ARRAY_LIMIT / 2) {
+                    toArray();
+                }
+                return true;
+            }
+            int i = Arrays.binarySearch(array, 0, cardinality, low);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(array, i + 1, array, i, cardinality - i - 1);
+            cardinality--;
+            return true;
+        }
+
+        boolean contains(char low) {
+            return words != null
+                    ? (words[low >>> 6] & (1L << low)) != 0
+                    : Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+        }
+
+        int andCardinality(Chunk other) {
+            if (words != null && other.words != null) {
+                int count = 0;
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    count += Long.bitCount(words[w] & other.words[w]);
+                }
+                return count;
+            }
+            if (words != null || other.words != null) {
+                Chunk sparse = words != null ? other : this;
+                Chunk dense = words != null ? this : other;
+                int count = 0;
+                for (int k = 0; k < sparse.cardinality; k++) {
+                    char low = sparse.array[k];
+                    if ((dense.words[low >>> 6] & (1L << low)) != 0) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                if (array[i] < other.array[j]) {
+                    i++;
+                } else if (array[i] > other.array[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        }
+
+        Chunk and(Chunk other) {
+            Chunk result = new Chunk();
+            if (words != null && other.words != null) {
+                result.words = new long[BITSET_WORDS];
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    result.words[w] = words[w] & other.words[w];
+                    result.cardinality += Long.bitCount(result.words[w]);
+                }
+                if (result.cardinality <= ARRAY_LIMIT) {
+                    result.toArray();
+                }
+                return result;
+            }
+            Chunk sparse = words == null ? this : other;
+            Chunk probe = sparse == this ? other : this;
+            result.array = new char[Math.max(1, sparse.cardinality)];
+            for (int k = 0; k < sparse.cardinality; k++) {
+                if (probe.contains(sparse.array[k])) {
+                    result.array[result.cardinality++] = sparse.array[k];
+                }
+            }
+            return result;
+        }
+
+        Chunk or(Chunk other) {
+            Chunk result = copy();
+            if (other.words != null) {
+                if (result.words == null) {
+                    result.toBitset();
+                }
+                result.cardinality = 0;
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    result.words[w] |= other.words[w];
+                    result.cardinality += Long.bitCount(result.words[w]);
+                }
+            } else {
+                for (int k = 0; k < other.cardinality; k++) {
+                    result.add(other.array[k]);
+                }
+            }
+            return result;
+        }
+
+        Chunk andNot(Chunk other) {
+            Chunk result = new Chunk();
+            if (words != null) {
+                result.words = words.clone();
+                if (other.words != null) {
+                    for (int w = 0; w < BITSET_WORDS; w++) {
+                        result.words[w] &= ~other.words[w];
+                    }
+                } else {
+                    for (int k = 0; k < other.cardinality; k++) {
+                        result.words[other.array[k] >>> 6] &= ~(1L << other.array[k]);
+                    }
+                }
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    result.cardinality += Long.bitCount(result.words[w]);
+                }
+                if (result.cardinality <= ARRAY_LIMIT) {
+                    result.toArray();
+                }
+                return result;
+            }
+            result.array = new char[Math.max(1, cardinality)];
+            for (int k = 0; k < cardinality; k++) {
+                if (!other.contains(array[k])) {
+                    result.array[result.cardinality++] = array[k];
+                }
+            }
+            return result;
+        }
+
+        Chunk copy() {
+            Chunk copy = new Chunk();
+            copy.cardinality = cardinality;
+            if (words != null) {
+                copy.words = words.clone();
+            } else {
+                copy.array = Arrays.copyOf(array, Math.max(1, cardinality));
+            }
+            return copy;
+        }
+
+        private void toBitset() {
+            words = new long[BITSET_WORDS];
+            for (int k = 0; k < cardinality; k++) {
+                words[array[k] >>> 6] |= 1L << array[k];
+            }
+            array = null;
+        }
+
+        private void toArray() {
+            array = new char[Math.max(1, cardinality)];
+            int k = 0;
+            for (int w = 0; w < BITSET_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    array[k++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            words = null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * A query-independent boost added to the relevance score of every ranked note.
+ * <p>
+ * Features are Spring beans; every {@code RankingFeature} in the context is summed into the score, so a boost is
+ * added, replaced or removed by declaring a bean (see {@code RankingFeatureConfig} for the defaults). They read
+ * the counts the engines already keep, never the note text.
+ */
+@FunctionalInterface
+public interface RankingFeature {
+
+    /**
+     * What a feature may look at: counts and timestamps of one note
+     */
+    record Signals(long viewCount, long attachmentCount, LocalDateTime updatedAt, int tagCount) {
+    }
+
+    double score(Signals signals);
+}
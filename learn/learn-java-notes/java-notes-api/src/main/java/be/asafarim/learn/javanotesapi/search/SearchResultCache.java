@@ -0,0 +1,149 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.dto.SearchRequest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caches the ranking of index searches, so repeated searches only page and hydrate.
+ * <p>
+ * Entries are keyed by the normalized request (query, tags, facet filters, other filters, sort; paging excluded)
+ * and the viewer, and hold the ranked note ids with their scores and the facet counts, not response DTOs. Each
+ * entry remembers the {@link NoteSearchIndex} versions it was computed at: public entries are valid while the
+ * public version is unchanged, a user's entries additionally while that user's version is unchanged. View counts
+ * and freshness boosts do not bump versions, so entries also expire after a short time to let those catch up.
+ * <p>
+ * Metrics: {@code search.cache.gets} tagged {@code result=hit|miss}, {@code search.cache.hit.ratio} and
+ * {@code search.cache.size}.
+ */
+@Component
+public class SearchResultCache {
+
+    /**
+     * Only the first this many ranked notes are cached; deeper pages are computed per request
+     */
+    public static final int MAX_RANKED = 1_000;
+
+    public record RankedNote(UUID id, double score, long viewCount, int attachmentCount) {
+    }
+
+    public record Ranking(List<RankedNote> notes, int totalCount, Map<String, List<FacetCount>> facets) {
+    }
+
+    private record Key(UUID viewerId, String query, List<String> tags, Map<String, List<String>> facets,
+                       Boolean hasAttachments,
+                       Instant createdAfter, Instant createdBefore, Instant updatedAfter, Instant updatedBefore,
+                       String sort) {
+    }
+
+    private record Entry(Ranking ranking, long publicVersion, long ownerVersion, long expiresAt) {
+    }
+
+    private final NoteSearchIndex searchIndex;
+    private final Map<Key, Entry> entries;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SearchResultCache(
+            NoteSearchIndex searchIndex,
+            MeterRegistry meterRegistry,
+            @Value("${app.search.cache.max-entries:1000}") int maxEntries,
+            @Value("${app.search.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.searchIndex = searchIndex;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        FunctionCounter.builder("search.cache.gets", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Search rankings served from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("search.cache.gets", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Search rankings computed because no valid entry was cached")
+                .register(meterRegistry);
+        Gauge.builder("search.cache.hit.ratio", this, SearchResultCache::hitRatio)
+                .description("Share of search rankings served from the cache")
+                .register(meterRegistry);
+        Gauge.builder("search.cache.size", this, cache -> cache.size())
+                .description("Cached search rankings")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached ranking for {@code request} as seen by {@code viewerId} ({@code null} for public search), or the
+     * ranking computed by {@code ranker}, which is then cached
+     */
+    public Ranking get(SearchRequest request, UUID viewerId, Supplier<Ranking> ranker) {
+        Key key = keyOf(request, viewerId);
+        // Read the versions before ranking: a change applied meanwhile makes the new entry stale, never wrong
+        long publicVersion = searchIndex.publicVersion();
+        long ownerVersion = viewerId != null ? searchIndex.ownerVersion(viewerId) : 0;
+        long now = System.nanoTime();
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.publicVersion() == publicVersion && entry.ownerVersion() == ownerVersion
+                && now - entry.expiresAt() < 0) {
+            hits.increment();
+            return entry.ranking();
+        }
+
+        misses.increment();
+        Ranking ranking = ranker.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(ranking, publicVersion, ownerVersion, now + ttlNanos));
+        }
+        return ranking;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private static Key keyOf(SearchRequest request, UUID viewerId) {
+        String query = request.getQuery() != null ? request.getQuery().toLowerCase().trim() : "";
+        // Tag order does not affect filtering or scoring
+        List<String> tags = request.getTags() != null
+                ? request.getTags().stream().map(String::toLowerCase).sorted().toList()
+                : List.of();
+        String sort = request.getSort() != null ? request.getSort().toLowerCase(Locale.ROOT) : "relevance";
+        Boolean hasAttachments = Boolean.TRUE.equals(request.getHasAttachments()) ? Boolean.TRUE : null;
+        return new Key(viewerId, query, tags, FacetFilter.of(request).anyOf(), hasAttachments,
+                request.getCreatedAfter(), request.getCreatedBefore(),
+                request.getUpdatedAfter(), request.getUpdatedBefore(), sort);
+    }
+}
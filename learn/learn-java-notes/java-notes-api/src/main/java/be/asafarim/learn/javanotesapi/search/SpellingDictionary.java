@@ -0,0 +1,230 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Symmetric-delete spelling dictionary (as in SymSpell).
+ * <p>
+ * Every word is stored under each string obtained by deleting up to {@link #MAX_EDIT_DISTANCE} characters from
+ * its first {@link #PREFIX_LENGTH} characters. A lookup generates the same deletes for the misspelled term, so
+ * candidates are found with hash lookups only; each candidate is then verified with the optimal string alignment
+ * distance. Words carry a frequency that breaks ties between candidates at the same distance.
+ * <p>
+ * Words are added and removed by adjusting their frequency; a word whose frequency drops to zero is removed
+ * together with its deletes. Reads share a read lock, updates take the write lock.
+ */
+public final class SpellingDictionary {
+
+    public static final int MAX_EDIT_DISTANCE = 2;
+    public static final int MIN_WORD_LENGTH = 3;
+    private static final int PREFIX_LENGTH = 7;
+    private static final int MAX_WORD_LENGTH = 32;
+    private static final String[] NO_WORDS = new String[0];
+
+    public record Correction(String word, int distance, long frequency) {
+    }
+
+    private static final Comparator<Correction> RANKING = Comparator
+            .comparingInt(Correction::distance)
+            .thenComparing(Comparator.comparingLong(Correction::frequency).reversed())
+            .thenComparing(Correction::word);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Long> frequencies = new HashMap<>();
+    private final Map<String, String[]> deletes = new HashMap<>();
+
+    /**
+     * Adds {@code delta} to the frequency of {@code word}; words outside the indexed lengths are ignored
+     */
+    public void adjust(String word, long delta) {
+        if (word.length() < MIN_WORD_LENGTH || word.length() > MAX_WORD_LENGTH || delta == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long previous = frequencies.getOrDefault(word, 0L);
+            long frequency = Math.max(0, previous + delta);
+            if (frequency > 0) {
+                frequencies.put(word, frequency);
+                if (previous == 0) {
+                    for (String delete : deletesOf(word)) {
+                        deletes.merge(delete, new String[]{word}, SpellingDictionary::append);
+                    }
+                }
+            } else if (previous > 0) {
+                removeWord(word);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes {@code word} whatever its frequency
+     */
+    public void remove(String word) {
+        lock.writeLock().lock();
+        try {
+            if (frequencies.containsKey(word)) {
+                removeWord(word);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeWord(String word) {
+        frequencies.remove(word);
+        for (String delete : deletesOf(word)) {
+            String[] words = without(deletes.get(delete), word);
+            if (words.length == 0) {
+                deletes.remove(delete);
+            } else {
+                deletes.put(delete, words);
+            }
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            frequencies.clear();
+            deletes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return frequencies.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String word) {
+        lock.readLock().lock();
+        try {
+            return frequencies.containsKey(word);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code max} known words within the edit distance of {@code term}, closest and most frequent first.
+     * Terms of up to four characters only get corrections one edit away.
+     *
+     * @param term a lowercase term as produced by {@link Tokenizer}
+     */
+    public List<Correction> lookup(String term, int max) {
+        if (term.length() < MIN_WORD_LENGTH || term.length() > MAX_WORD_LENGTH) {
+            return List.of();
+        }
+        int maxDistance = term.length() <= 4 ? 1 : MAX_EDIT_DISTANCE;
+        lock.readLock().lock();
+        try {
+            List<Correction> corrections = new ArrayList<>();
+            Set<String> checked = new HashSet<>();
+            for (String delete : deletesOf(term)) {
+                for (String word : deletes.getOrDefault(delete, NO_WORDS)) {
+                    if (Math.abs(word.length() - term.length()) > maxDistance || !checked.add(word)) {
+                        continue;
+                    }
+                    int distance = distance(term, word, maxDistance);
+                    if (distance <= maxDistance) {
+                        corrections.add(new Correction(word, distance, frequencies.get(word)));
+                    }
+                }
+            }
+            corrections.sort(RANKING);
+            return corrections.size() > max ? corrections.subList(0, max) : corrections;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The word itself and every string reached by deleting up to the maximum number of characters from its prefix
+     */
+    private static Set<String> deletesOf(String word) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> result = new HashSet<>();
+        result.add(prefix);
+        List<String> frontier = List.of(prefix);
+        for (int d = 0; d < MAX_EDIT_DISTANCE; d++) {
+            List<String> next = new ArrayList<>();
+            for (String s : frontier) {
+                if (s.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < s.length(); i++) {
+                    String delete = s.substring(0, i) + s.substring(i + 1);
+                    if (result.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    /**
+     * Optimal string alignment distance (adjacent transpositions count as one edit), capped at {@code max + 1}
+     */
+    static int distance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static String[] append(String[] words, String[] added) {
+        String[] result = Arrays.copyOf(words, words.length + added.length);
+        System.arraycopy(added, 0, result, words.length, added.length);
+        return result;
+    }
+
+    private static String[] without(String[] words, String word) {
+        if (words == null) {
+            return NO_WORDS;
+        }
+        int i = Arrays.asList(words).indexOf(word);
+        if (i < 0) {
+            return words;
+        }
+        String[] result = new String[words.length - 1];
+        System.arraycopy(words, 0, result, 0, i);
+        System.arraycopy(words, i + 1, result, i, words.length - i - 1);
+        return result;
+    }
+}
@@ -0,0 +1,282 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.events.NoteChangedEvent;
+import be.asafarim.learn.javanotesapi.events.NoteDeletedEvent;
+import be.asafarim.learn.javanotesapi.events.UserDeletedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * "Did you mean" corrections for search queries.
+ * <p>
+ * The vocabulary is every term of the public notes' titles and contents, weighted by the number of notes that
+ * use it. Successful public searches add to the weight of the terms they contain but never add new words. The
+ * number of public notes using each word is kept apart from that weight, and a word is dropped as soon as no
+ * public note uses it any more, so corrections only ever point at words that currently appear in public notes.
+ * <p>
+ * Like {@link NoteSearchIndex}, the dictionary is loaded once the application is ready and then maintained from
+ * note events after commit; until then {@link #isReady()} is {@code false} and no corrections are offered.
+ */
+@Component
+public class SpellingIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SpellingIndex.class);
+
+    private static final int CANDIDATES_PER_TERM = 3;
+    private static final int MAX_VARIED_TERMS = 3;
+    private static final int MAX_QUERIES = 5_000;
+    private static final int QUERY_WINDOW_DAYS = 30;
+    private static final int FETCH_SIZE = 500;
+    private static final String[] NO_TERMS = new String[0];
+
+    private record NoteTerms(UUID ownerId, String[] terms) {
+    }
+
+    private record Phrase(List<String> terms, int distance, long frequency) {
+    }
+
+    private static final Comparator<Phrase> PHRASE_RANKING = Comparator
+            .comparingInt(Phrase::distance)
+            .thenComparing(Comparator.comparingLong(Phrase::frequency).reversed());
+
+    private final SpellingDictionary dictionary = new SpellingDictionary();
+    // Distinct terms of each public note and the number of public notes using each term, guarded by "this"
+    private final Map<UUID, NoteTerms> notes = new HashMap<>();
+    private final Map<String, Integer> noteCounts = new HashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Object buildLock = new Object();
+    private List<Runnable> pendingChanges;
+    private volatile boolean ready;
+
+    public SpellingIndex(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The best correction of {@code query}, or {@code null} when every term is known or nothing close enough
+     * exists
+     */
+    public String correct(String query) {
+        List<String> corrections = suggest(query, 1);
+        return corrections.isEmpty() ? null : corrections.get(0);
+    }
+
+    /**
+     * Up to {@code max} corrected queries, best first. Unknown terms are replaced by the closest known words;
+     * the query is returned lowercased with its terms separated by single spaces.
+     */
+    public List<String> suggest(String query, int max) {
+        if (!ready || query == null || query.isBlank() || max <= 0) {
+            return List.of();
+        }
+        List<String> terms = Tokenizer.terms(query);
+        List<List<SpellingDictionary.Correction>> options = new ArrayList<>(terms.size());
+        int varied = 0;
+        boolean corrected = false;
+        for (String term : terms) {
+            boolean known = dictionary.contains(term) || term.length() < SpellingDictionary.MIN_WORD_LENGTH;
+            List<SpellingDictionary.Correction> candidates = known
+                    ? List.of()
+                    : dictionary.lookup(term, varied < MAX_VARIED_TERMS ? CANDIDATES_PER_TERM : 1);
+            if (candidates.isEmpty()) {
+                options.add(List.of(new SpellingDictionary.Correction(term, 0, 0)));
+            } else {
+                options.add(candidates);
+                corrected = true;
+                varied++;
+            }
+        }
+        if (!corrected) {
+            return List.of();
+        }
+
+        List<Phrase> phrases = new ArrayList<>();
+        combine(options, 0, new ArrayList<>(), 0, 0, phrases);
+        phrases.sort(PHRASE_RANKING);
+        Set<String> suggestions = new LinkedHashSet<>();
+        for (Phrase phrase : phrases) {
+            if (suggestions.size() >= max) {
+                break;
+            }
+            suggestions.add(String.join(" ", phrase.terms()));
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * Counts the terms of a successful public search towards the words they already match; searches that may
+     * cover private notes are ignored
+     */
+    public void recordQuery(String query, int resultCount, boolean publicSearch) {
+        if (publicSearch && resultCount > 0 && query != null && !query.isBlank()) {
+            List<String> terms = Tokenizer.terms(query);
+            apply(() -> boostKnown(terms, 1));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (buildLock) {
+            pendingChanges = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        try {
+            clear();
+            readOnlyTransaction.executeWithoutResult(status -> load());
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the spelling index; searches get no corrections", e);
+            synchronized (buildLock) {
+                pendingChanges = null;
+            }
+            return;
+        }
+        synchronized (buildLock) {
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges = null;
+            ready = true;
+        }
+        logger.info("Loaded {} words for spelling correction in {} ms",
+                dictionary.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteChanged(NoteChangedEvent event) {
+        NoteDocument document = NoteDocument.of(event.note());
+        NoteTerms terms = new NoteTerms(document.ownerId(),
+                document.publicNote() ? distinctTerms(document.title(), document.content()) : NO_TERMS);
+        apply(() -> putNote(document.id(), terms));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteDeleted(NoteDeletedEvent event) {
+        apply(() -> removeNote(event.noteId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        apply(() -> removeOwnedBy(event.userId()));
+    }
+
+    private void apply(Runnable change) {
+        synchronized (buildLock) {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+                return;
+            }
+        }
+        change.run();
+    }
+
+    private void load() {
+        jdbcTemplate.query("SELECT id, user_id, title, content FROM study_notes WHERE is_public = true",
+                (RowCallbackHandler) rs -> putNote(
+                        rs.getObject("id", UUID.class),
+                        new NoteTerms(rs.getObject("user_id", UUID.class),
+                                distinctTerms(rs.getString("title"), rs.getString("content")))));
+
+        Instant since = Instant.now().minus(QUERY_WINDOW_DAYS, ChronoUnit.DAYS);
+        jdbcTemplate.query("SELECT query, COUNT(*) FROM search_analytics "
+                        + "WHERE timestamp > ? AND is_public_search = true AND result_count > 0 AND query <> '' "
+                        + "GROUP BY query ORDER BY COUNT(*) DESC LIMIT ?",
+                (RowCallbackHandler) rs -> boostKnown(Tokenizer.terms(rs.getString(1)), rs.getLong(2)),
+                Timestamp.from(since), MAX_QUERIES);
+    }
+
+    private synchronized void clear() {
+        dictionary.clear();
+        notes.clear();
+        noteCounts.clear();
+    }
+
+    private synchronized void putNote(UUID noteId, NoteTerms terms) {
+        NoteTerms previous = terms.terms().length > 0 ? notes.put(noteId, terms) : notes.remove(noteId);
+        // Count the new terms first, so words the note keeps never drop to zero in between
+        for (String term : terms.terms()) {
+            noteCounts.merge(term, 1, Integer::sum);
+            dictionary.adjust(term, 1);
+        }
+        if (previous != null) {
+            for (String term : previous.terms()) {
+                if (noteCounts.merge(term, -1, Integer::sum) > 0) {
+                    dictionary.adjust(term, -1);
+                } else {
+                    // Search weight alone never keeps a word
+                    noteCounts.remove(term);
+                    dictionary.remove(term);
+                }
+            }
+        }
+    }
+
+    private synchronized void removeNote(UUID noteId) {
+        putNote(noteId, new NoteTerms(null, NO_TERMS));
+    }
+
+    private synchronized void removeOwnedBy(UUID userId) {
+        List<UUID> owned = notes.entrySet().stream()
+                .filter(e -> e.getValue().ownerId().equals(userId))
+                .map(Map.Entry::getKey)
+                .toList();
+        owned.forEach(this::removeNote);
+    }
+
+    private synchronized void boostKnown(List<String> terms, long count) {
+        for (String term : new LinkedHashSet<>(terms)) {
+            if (noteCounts.containsKey(term)) {
+                dictionary.adjust(term, count);
+            }
+        }
+    }
+
+    private static String[] distinctTerms(String title, String content) {
+        Set<String> terms = new LinkedHashSet<>();
+        Tokenizer.tokenize(title, (term, position) -> terms.add(term));
+        Tokenizer.tokenize(content, (term, position) -> terms.add(term));
+        return terms.toArray(NO_TERMS);
+    }
+
+    /**
+     * Every combination of the per-term candidates, scored by total edit distance and summed frequency
+     */
+    private static void combine(List<List<SpellingDictionary.Correction>> options, int index, List<String> terms,
+                                int distance, long frequency, List<Phrase> out) {
+        if (index == options.size()) {
+            out.add(new Phrase(List.copyOf(terms), distance, frequency));
+            return;
+        }
+        for (SpellingDictionary.Correction option : options.get(index)) {
+            terms.add(option.word());
+            combine(options, index + 1, terms, distance + option.distance(), frequency + option.frequency(), out);
+            terms.remove(terms.size() - 1);
+        }
+    }
+}
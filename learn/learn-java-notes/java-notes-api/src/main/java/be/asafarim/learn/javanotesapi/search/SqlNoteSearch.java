@@ -0,0 +1,260 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.dto.SearchRequest;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Runs a {@link SearchRequest} entirely in PostgreSQL: visibility, tag and date filters, the full-text match on
+ * {@code search_vector}, ranking and paging happen in one statement, and only the ids of the requested page come
+ * back together with their view/attachment counts and the total number of matches.
+ * <p>
+ * Relevance is {@code ts_rank_cd} over the weighted vector (title A, content B) plus the same popularity,
+ * attachment, freshness and tag boosts the in-memory ranking uses. Counts for the boosts are only computed when
+ * the sort needs them; otherwise they are looked up for the page rows alone. The total comes from a window count
+ * in the same statement. Facet counts run as a second statement over the same matches, grouped per facet.
+ */
+@Component
+public class SqlNoteSearch {
+
+    private static final String TS_QUERY = "websearch_to_tsquery('english', :query)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SqlNoteSearch(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record Row(UUID id, double score, long viewCount, int attachmentCount) {
+    }
+
+    public record Page(List<Row> rows, long totalCount) {
+    }
+
+    /**
+     * @param viewerId the searching user, whose own notes are visible besides public ones; {@code null} for public
+     *                 search
+     */
+    public Page search(SearchRequest request, UUID viewerId, int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String query = request.getQuery() != null ? request.getQuery().trim() : "";
+        boolean textSearch = !query.isEmpty();
+        String matched = matchedNotes(request, viewerId, query, params);
+
+        String sort = request.getSort() != null ? request.getSort().toLowerCase(Locale.ROOT) : "relevance";
+        String sql = switch (sort) {
+            case "date" -> pageThenCount(matched, "created_at DESC, id");
+            case "updated" -> pageThenCount(matched, "updated_at DESC, id");
+            case "popularity" -> countThenPage(matched, textSearch, "view_count DESC, id");
+            default -> countThenPage(matched, textSearch, "score DESC, id");
+        };
+        params.addValue("limit", limit);
+        params.addValue("offset", offset);
+
+        List<Row> rows = new ArrayList<>();
+        long[] total = {-1};
+        jdbcTemplate.query(sql, params, (RowCallbackHandler) rs -> {
+            rows.add(new Row(
+                    rs.getObject("id", UUID.class),
+                    rs.getDouble("score"),
+                    rs.getLong("view_count"),
+                    rs.getInt("attachment_count")));
+            total[0] = rs.getLong("total_count");
+        });
+
+        if (total[0] < 0) {
+            // Empty page: either nothing matched, or the offset is past the end and the window count is missing.
+            total[0] = offset == 0 ? 0 : jdbcTemplate.queryForObject(
+                    "WITH matched AS (" + matched + ") SELECT COUNT(*) FROM matched", params, Long.class);
+        }
+        return new Page(rows, total[0]);
+    }
+
+    /**
+     * Per facet, the {@code maxValues} most common values among all notes matching {@code request}
+     */
+    public Map<String, List<FacetCount>> facetCounts(SearchRequest request, UUID viewerId, int maxValues) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String query = request.getQuery() != null ? request.getQuery().trim() : "";
+        String sql = "WITH matched AS (" + matchedNotes(request, viewerId, query, params) + ") "
+                + "SELECT '" + FacetFilter.TAG + "' AS facet, t.name AS value, COUNT(*) AS notes FROM matched m "
+                + "JOIN study_note_tags snt ON snt.study_note_id = m.id JOIN tags t ON t.id = snt.tag_id "
+                + "GROUP BY t.name "
+                + "UNION ALL SELECT '" + FacetFilter.TYPE + "', m.note_type, COUNT(*) FROM matched m "
+                + "GROUP BY m.note_type "
+                + "UNION ALL SELECT '" + FacetFilter.YEAR + "', to_char(m.created_at, 'YYYY'), COUNT(*) "
+                + "FROM matched m GROUP BY to_char(m.created_at, 'YYYY') "
+                + "UNION ALL SELECT '" + FacetFilter.AUTHOR + "', u.username, COUNT(*) FROM matched m "
+                + "JOIN users u ON u.id = m.user_id GROUP BY u.username "
+                + "UNION ALL SELECT '" + FacetFilter.VISIBILITY + "', "
+                + "CASE WHEN m.is_public THEN 'public' ELSE 'private' END, COUNT(*) FROM matched m "
+                + "GROUP BY m.is_public";
+
+        FacetCounter counter = new FacetCounter();
+        jdbcTemplate.query(sql, params, (RowCallbackHandler) rs ->
+                counter.add(rs.getString("facet"), rs.getString("value"), rs.getLong("notes")));
+        return counter.top(maxValues);
+    }
+
+    /**
+     * Ranked sorts need the counts of every match to order them.
+     */
+    private static String countThenPage(String matched, boolean textSearch, String order) {
+        return "WITH matched AS (" + matched + "), "
+                + "counted AS (SELECT m.*, " + counts("m") + " FROM matched m) "
+                + "SELECT c.*, " + score(textSearch) + " AS score, COUNT(*) OVER () AS total_count "
+                + "FROM counted c ORDER BY " + order + " LIMIT :limit OFFSET :offset";
+    }
+
+    /**
+     * Date sorts can page first and look up counts for the page rows only.
+     */
+    private static String pageThenCount(String matched, String order) {
+        return "WITH matched AS (" + matched + "), "
+                + "page AS (SELECT m.*, COUNT(*) OVER () AS total_count FROM matched m "
+                + "ORDER BY " + order + " LIMIT :limit OFFSET :offset) "
+                + "SELECT p.*, " + counts("p") + ", 0.0 AS score FROM page p ORDER BY " + order;
+    }
+
+    private static String counts(String alias) {
+        return "COALESCE((SELECT s.view_count FROM note_stats s WHERE s.note_id = " + alias + ".id), 0) AS view_count, "
+                + "COALESCE((SELECT s.attachment_count FROM note_stats s WHERE s.note_id = " + alias + ".id), 0)"
+                + " AS attachment_count, "
+                + "(SELECT COUNT(*) FROM study_note_tags snt WHERE snt.study_note_id = " + alias + ".id) AS tag_count";
+    }
+
+    private String matchedNotes(SearchRequest request, UUID viewerId, String query, MapSqlParameterSource params) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT n.id, n.user_id, n.title, n.note_type, n.is_public, n.created_at, n.updated_at");
+        if (!query.isEmpty()) {
+            sql.append(", ts_rank_cd('{0.1, 0.2, 0.4, 1.0}', n.search_vector, ").append(TS_QUERY)
+                    .append(") AS text_rank");
+            params.addValue("query", query);
+            params.addValue("lowerQuery", query.toLowerCase(Locale.ROOT));
+        } else {
+            sql.append(", 0.0 AS text_rank");
+        }
+        sql.append(" FROM study_notes n WHERE ");
+
+        if (viewerId != null) {
+            sql.append("(n.user_id = :viewerId OR n.is_public = true)");
+            params.addValue("viewerId", viewerId);
+        } else {
+            sql.append("n.is_public = true");
+        }
+        if (!query.isEmpty()) {
+            sql.append(" AND n.search_vector @@ ").append(TS_QUERY);
+        }
+
+        List<String> tags = request.getTags() != null
+                ? request.getTags().stream().map(t -> t.toLowerCase(Locale.ROOT).trim()).distinct().toList()
+                : List.of();
+        if (!tags.isEmpty()) {
+            sql.append(" AND n.id IN (SELECT snt.study_note_id FROM study_note_tags snt ")
+                    .append("JOIN tags t ON t.id = snt.tag_id WHERE lower(t.name) IN (:tags) ")
+                    .append("GROUP BY snt.study_note_id HAVING COUNT(DISTINCT lower(t.name)) = :tagCount)");
+            params.addValue("tags", tags);
+            params.addValue("tagCount", tags.size());
+        }
+        appendFacets(sql, params, FacetFilter.of(request));
+        if (Boolean.TRUE.equals(request.getHasAttachments())) {
+            sql.append(" AND EXISTS (SELECT 1 FROM note_stats s WHERE s.note_id = n.id AND s.attachment_count > 0)");
+        }
+        appendRange(sql, params, "n.created_at >= :createdAfter", "createdAfter", request.getCreatedAfter());
+        appendRange(sql, params, "n.created_at <= :createdBefore", "createdBefore", request.getCreatedBefore());
+        appendRange(sql, params, "n.updated_at >= :updatedAfter", "updatedAfter", request.getUpdatedAfter());
+        appendRange(sql, params, "n.updated_at <= :updatedBefore", "updatedBefore", request.getUpdatedBefore());
+        params.addValue("tagBoost", tags.size() * 10.0);
+        return sql.toString();
+    }
+
+    /**
+     * Facet selections, each matching any of its values; same semantics as the index's facet bitmaps
+     */
+    private static void appendFacets(StringBuilder sql, MapSqlParameterSource params, FacetFilter filter) {
+        filter.anyOf().forEach((facet, values) -> {
+            switch (facet) {
+                case FacetFilter.TAG -> {
+                    sql.append(" AND n.id IN (SELECT snt.study_note_id FROM study_note_tags snt ")
+                            .append("JOIN tags t ON t.id = snt.tag_id WHERE lower(t.name) IN (:facetTags))");
+                    params.addValue("facetTags", values);
+                }
+                case FacetFilter.TYPE -> {
+                    sql.append(" AND lower(n.note_type) IN (:facetTypes)");
+                    params.addValue("facetTypes", values);
+                }
+                case FacetFilter.YEAR -> {
+                    List<Integer> years = values.stream()
+                            .filter(v -> !v.isEmpty() && v.length() <= 4 && v.chars().allMatch(Character::isDigit))
+                            .map(Integer::valueOf)
+                            .toList();
+                    if (years.isEmpty()) {
+                        sql.append(" AND false");
+                    } else {
+                        sql.append(" AND EXTRACT(YEAR FROM n.created_at) IN (:facetYears)");
+                        params.addValue("facetYears", years);
+                    }
+                }
+                case FacetFilter.AUTHOR -> {
+                    sql.append(" AND n.user_id IN (SELECT u.id FROM users u ")
+                            .append("WHERE lower(u.username) IN (:facetAuthors))");
+                    params.addValue("facetAuthors", values);
+                }
+                case FacetFilter.VISIBILITY -> {
+                    List<Boolean> visibilities = values.stream()
+                            .filter(v -> v.equals("public") || v.equals("private"))
+                            .map(v -> v.equals("public"))
+                            .toList();
+                    if (visibilities.isEmpty()) {
+                        sql.append(" AND false");
+                    } else {
+                        sql.append(" AND n.is_public IN (:facetVisibilities)");
+                        params.addValue("facetVisibilities", visibilities);
+                    }
+                }
+                default -> {
+                }
+            }
+        });
+    }
+
+    private static void appendRange(StringBuilder sql, MapSqlParameterSource params,
+                                    String condition, String name, Instant value) {
+        if (value != null) {
+            sql.append(" AND ").append(condition);
+            // Timestamps are stored as UTC local date-times
+            params.addValue(name, Timestamp.valueOf(LocalDateTime.ofInstant(value, ZoneOffset.UTC)));
+        }
+    }
+
+    /**
+     * Mirrors the in-memory relevance score: text match (title weighted above content, exact and prefix title
+     * matches boosted), matched filter tags, then popularity, attachments, freshness and tag count as declared in
+     * {@code RankingFeatureConfig}.
+     */
+    private static String score(boolean textSearch) {
+        String text = textSearch
+                ? "c.text_rank * 100.0"
+                + " + CASE WHEN lower(c.title) = :lowerQuery THEN 50.0"
+                + " WHEN starts_with(lower(c.title), :lowerQuery) THEN 20.0 ELSE 0.0 END"
+                : "0.0";
+        return "(" + text
+                + " + :tagBoost"
+                + " + CASE WHEN c.view_count > 0 THEN log(c.view_count + 1) * 5.0 ELSE 0.0 END"
+                + " + LEAST(c.attachment_count * 2.0, 10.0)"
+                + " + CASE WHEN c.updated_at > now() - INTERVAL '7 days' THEN 5.0 ELSE 0.0 END"
+                + " + CASE WHEN c.tag_count BETWEEN 1 AND 5 THEN c.tag_count ELSE 0 END)";
+    }
+}
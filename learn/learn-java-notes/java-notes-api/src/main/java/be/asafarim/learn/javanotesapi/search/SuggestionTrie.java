@@ -0,0 +1,237 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Weighted prefix trie for completions.
+ * <p>
+ * Keys are case-folded; each key holds one or more suggestions (the text shown to the user) with a weight.
+ * Every node also stores the best weight found anywhere below it, so {@link #complete} walks the prefix and
+ * then expands nodes best-first, touching only as much of the subtree as the requested number of completions
+ * needs. Edges are kept per node as a sorted {@code char[]} with a parallel child array.
+ * <p>
+ * Reads share a read lock, updates take the write lock.
+ */
+public final class SuggestionTrie {
+
+    public record Suggestion(String text, long weight) {
+    }
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final String[] NO_TEXTS = new String[0];
+    private static final long[] NO_WEIGHTS = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+
+    /**
+     * Sets the weight of {@code text} under {@code key}, adding it if needed
+     */
+    public void put(String key, String text, long weight) {
+        update(key, text, weight, false);
+    }
+
+    /**
+     * Adds {@code delta} to the weight of {@code text} under {@code key}, adding it if needed
+     */
+    public void increment(String key, String text, long delta) {
+        update(key, text, delta, true);
+    }
+
+    public void remove(String key, String text) {
+        update(key, text, 0, false);
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.keys = NO_KEYS;
+            root.children = NO_CHILDREN;
+            root.texts = NO_TEXTS;
+            root.weights = NO_WEIGHTS;
+            root.best = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.readLock().lock();
+        try {
+            return root.best == 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} distinct suggestions whose key starts with {@code prefix}, highest weight first
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(AhoCorasick.fold(prefix.charAt(i)));
+            }
+            if (node == null || node.best == 0 || limit <= 0) {
+                return List.of();
+            }
+
+            Set<String> seen = new LinkedHashSet<>();
+            List<Suggestion> results = new ArrayList<>(limit);
+            PriorityQueue<Candidate> queue = new PriorityQueue<>();
+            queue.add(new Candidate(node, null, node.best));
+            while (!queue.isEmpty() && results.size() < limit) {
+                Candidate candidate = queue.poll();
+                if (candidate.text != null) {
+                    if (seen.add(candidate.text)) {
+                        results.add(new Suggestion(candidate.text, candidate.weight));
+                    }
+                    continue;
+                }
+                Node current = candidate.node;
+                for (int i = 0; i < current.texts.length; i++) {
+                    queue.add(new Candidate(null, current.texts[i], current.weights[i]));
+                }
+                for (Node child : current.children) {
+                    queue.add(new Candidate(child, null, child.best));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(String key, String text, long weight, boolean increment) {
+        lock.writeLock().lock();
+        try {
+            Node[] path = new Node[key.length() + 1];
+            char[] folded = new char[key.length()];
+            path[0] = root;
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                folded[i] = AhoCorasick.fold(key.charAt(i));
+                Node next = node.child(folded[i]);
+                if (next == null) {
+                    if (weight <= 0 && !increment) {
+                        return; // removing something that is not there
+                    }
+                    next = node.addChild(folded[i]);
+                }
+                node = next;
+                path[i + 1] = node;
+            }
+
+            node.setWeight(text, weight, increment);
+
+            // Recompute subtree maxima bottom-up and drop branches that became empty.
+            for (int i = key.length(); i >= 0; i--) {
+                Node current = path[i];
+                current.recomputeBest();
+                if (i > 0 && current.best == 0) {
+                    path[i - 1].removeChild(folded[i - 1]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Candidate(Node node, String text, long weight) implements Comparable<Candidate> {
+        @Override
+        public int compareTo(Candidate other) {
+            int byWeight = Long.compare(other.weight, weight);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            // Entries before nodes of the same weight, so finished suggestions surface first.
+            return Boolean.compare(text == null, other.text == null);
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private String[] texts = NO_TEXTS;
+        private long[] weights = NO_WEIGHTS;
+        private long best;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node addChild(char c) {
+            int insertAt = -(Arrays.binarySearch(keys, c) + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            Node child = new Node();
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void setWeight(String text, long weight, boolean increment) {
+            int i = Arrays.asList(texts).indexOf(text);
+            long newWeight = increment ? Math.max(0, (i >= 0 ? weights[i] : 0) + weight) : weight;
+            if (i >= 0 && newWeight > 0) {
+                weights[i] = newWeight;
+            } else if (i >= 0) {
+                String[] newTexts = new String[texts.length - 1];
+                long[] newWeights = new long[weights.length - 1];
+                System.arraycopy(texts, 0, newTexts, 0, i);
+                System.arraycopy(weights, 0, newWeights, 0, i);
+                System.arraycopy(texts, i + 1, newTexts, i, texts.length - i - 1);
+                System.arraycopy(weights, i + 1, newWeights, i, weights.length - i - 1);
+                texts = newTexts;
+                weights = newWeights;
+            } else if (newWeight > 0) {
+                texts = Arrays.copyOf(texts, texts.length + 1);
+                weights = Arrays.copyOf(weights, weights.length + 1);
+                texts[texts.length - 1] = text;
+                weights[weights.length - 1] = newWeight;
+            }
+        }
+
+        void recomputeBest() {
+            long max = 0;
+            for (long weight : weights) {
+                max = Math.max(max, weight);
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.best);
+            }
+            best = max;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into lowercase terms made of letters and digits. Case is folded per code point while scanning,
+ * so the input is never copied or lowercased as a whole.
+ */
+public final class Tokenizer {
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    @FunctionalInterface
+    public interface TermSink {
+        void accept(String term, int position);
+    }
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Feeds every term of {@code text} with its position to {@code sink}.
+     *
+     * @return the number of terms
+     */
+    public static int tokenize(CharSequence text, TermSink sink) {
+        if (text == null) {
+            return 0;
+        }
+        StringBuilder term = new StringBuilder(16);
+        int position = 0;
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (term.length() < MAX_TERM_LENGTH) {
+                    term.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+            } else if (!term.isEmpty()) {
+                sink.accept(term.toString(), position++);
+                term.setLength(0);
+            }
+        }
+        if (!term.isEmpty()) {
+            sink.accept(term.toString(), position++);
+        }
+        return position;
+    }
+
+    public static List<String> terms(CharSequence text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, (term, position) -> terms.add(term));
+        return terms;
+    }
+}
@@ -6,11 +6,13 @@ import be.asafarim.learn.javanotesapi.entities.AccountActivity.ActivityType;
 import be.asafarim.learn.javanotesapi.entities.User;
 import be.asafarim.learn.javanotesapi.entities.UserPreference;
 import be.asafarim.learn.javanotesapi.entities.UserSession;
+import be.asafarim.learn.javanotesapi.events.UserDeletedEvent;
 import be.asafarim.learn.javanotesapi.repositories.AccountActivityRepository;
 import be.asafarim.learn.javanotesapi.repositories.UserPreferenceRepository;
 import be.asafarim.learn.javanotesapi.repositories.UserRepository;
 import be.asafarim.learn.javanotesapi.repositories.UserSessionRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,6 +37,7 @@ public class AccountService {
     private final UserPreferenceRepository preferenceRepository;
     private final AuthService authService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.upload.avatar-dir:uploads/avatars}")
     private String avatarUploadDir;
@@ -48,13 +51,15 @@ public class AccountService {
             AccountActivityRepository activityRepository,
             UserPreferenceRepository preferenceRepository,
             AuthService authService,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.sessionRepository = sessionRepository;
         this.activityRepository = activityRepository;
         this.preferenceRepository = preferenceRepository;
         this.authService = authService;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     // ============ Profile Methods ============
@@ -310,6 +315,7 @@ public class AccountService {
 
         // Delete user
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserDeletedEvent(user.getId()));
 
         return new SuccessResponse(true, "Account deleted");
     }
@@ -4,9 +4,12 @@ import be.asafarim.learn.javanotesapi.dto.admin.AdminUserDto;
 import be.asafarim.learn.javanotesapi.entities.AuditLog;
 import be.asafarim.learn.javanotesapi.entities.Role;
 import be.asafarim.learn.javanotesapi.entities.User;
+import be.asafarim.learn.javanotesapi.events.UserDeletedEvent;
+import be.asafarim.learn.javanotesapi.events.UserRenamedEvent;
 import be.asafarim.learn.javanotesapi.repositories.AuditLogRepository;
 import be.asafarim.learn.javanotesapi.repositories.RoleRepository;
 import be.asafarim.learn.javanotesapi.repositories.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -25,15 +28,17 @@ public class AdminUserService {
     private final AuditLogRepository auditLogRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthService authService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AdminUserService(UserRepository userRepository, RoleRepository roleRepository,
                            AuditLogRepository auditLogRepository, PasswordEncoder passwordEncoder,
-                           AuthService authService) {
+                           AuthService authService, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.auditLogRepository = auditLogRepository;
         this.passwordEncoder = passwordEncoder;
         this.authService = authService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Page<AdminUserDto> getAllUsers(Pageable pageable) {
@@ -109,6 +114,17 @@ public class AdminUserService {
         if (request.getDisplayName() != null) {
             user.setDisplayName(request.getDisplayName());
         }
+        if (request.getUsername() != null && !request.getUsername().equals(user.getUsername())) {
+            if (userRepository.existsByUsername(request.getUsername())) {
+                throw new RuntimeException("Username already exists");
+            }
+            AuditLog log = new AuditLog("USER_RENAMED", "USER", user.getId(),
+                currentAdmin.getId(), currentAdmin.getUsername());
+            log.setDetails("User '" + user.getUsername() + "' was renamed to '" + request.getUsername() + "'");
+            auditLogRepository.save(log);
+            user.setUsername(request.getUsername());
+            eventPublisher.publishEvent(new UserRenamedEvent(user.getId(), user.getUsername()));
+        }
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
             if (userRepository.existsByEmail(request.getEmail())) {
                 throw new RuntimeException("Email already in use");
@@ -231,6 +247,7 @@ public class AdminUserService {
         auditLogRepository.save(log);
 
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserDeletedEvent(userId));
     }
 
     @Transactional
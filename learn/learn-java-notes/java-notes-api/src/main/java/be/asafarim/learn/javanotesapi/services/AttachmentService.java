@@ -5,11 +5,13 @@ import be.asafarim.learn.javanotesapi.dto.AttachmentMetadataDto;
 import be.asafarim.learn.javanotesapi.entities.Attachment;
 import be.asafarim.learn.javanotesapi.entities.StudyNote;
 import be.asafarim.learn.javanotesapi.entities.User;
+import be.asafarim.learn.javanotesapi.events.NoteAttachmentsChangedEvent;
 import be.asafarim.learn.javanotesapi.repositories.AttachmentRepository;
 import be.asafarim.learn.javanotesapi.repositories.StudyNoteRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -32,6 +34,7 @@ public class AttachmentService {
     private final AttachmentRepository attachmentRepository;
     private final StudyNoteRepository noteRepository;
     private final AuthService authService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.attachments.storage-root:uploads}")
     private String storageRoot;
@@ -47,10 +50,12 @@ public class AttachmentService {
 
     public AttachmentService(AttachmentRepository attachmentRepository,
                            StudyNoteRepository noteRepository,
-                           AuthService authService) {
+                           AuthService authService,
+                           ApplicationEventPublisher eventPublisher) {
         this.attachmentRepository = attachmentRepository;
         this.noteRepository = noteRepository;
         this.authService = authService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -91,6 +96,7 @@ public class AttachmentService {
             String relativePath = storeOnFilesystem(noteId, attachment.getId(), file);
             attachment.setStoragePath(relativePath);
             attachmentRepository.save(attachment);
+            eventPublisher.publishEvent(new NoteAttachmentsChangedEvent(noteId, 1));
 
             return toMetadataDto(attachment);
         } catch (IOException e) {
@@ -178,6 +184,7 @@ public class AttachmentService {
         }
 
         attachmentRepository.delete(attachment);
+        eventPublisher.publishEvent(new NoteAttachmentsChangedEvent(attachment.getNote().getId(), -1));
     }
 
     @Transactional
@@ -202,6 +209,7 @@ public class AttachmentService {
         attachment.setPublic(isPublic);
         logger.info("After setPublic: attachment.isPublic()={}", attachment.isPublic());
         Attachment saved = attachmentRepository.save(attachment);
+        eventPublisher.publishEvent(new NoteAttachmentsChangedEvent(attachment.getNote().getId(), 0));
         logger.info("After save: saved.isPublic()={}", saved.isPublic());
         AttachmentMetadataDto dto = toMetadataDto(saved);
         logger.info("DTO created with isPublic={}", saved.isPublic());
@@ -211,6 +219,7 @@ public class AttachmentService {
     @Transactional
     public void makeAllPrivate(UUID noteId) {
         attachmentRepository.makeAllPrivateByNoteId(noteId);
+        eventPublisher.publishEvent(new NoteAttachmentsChangedEvent(noteId, 0));
     }
 
     private void validateFile(MultipartFile file) {
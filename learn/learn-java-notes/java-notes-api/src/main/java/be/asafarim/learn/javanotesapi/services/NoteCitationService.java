@@ -5,9 +5,11 @@ import be.asafarim.learn.javanotesapi.entities.NoteCitation;
 import be.asafarim.learn.javanotesapi.entities.StudyNote;
 import be.asafarim.learn.javanotesapi.entities.User;
 import be.asafarim.learn.javanotesapi.enums.CitationStyle;
+import be.asafarim.learn.javanotesapi.events.NoteCitationsChangedEvent;
 import be.asafarim.learn.javanotesapi.repositories.NoteCitationRepository;
 import be.asafarim.learn.javanotesapi.repositories.StudyNoteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +32,9 @@ public class NoteCitationService {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // ==================== Citation CRUD ====================
 
     /**
@@ -70,6 +75,7 @@ public class NoteCitationService {
         citation.setCitationCount(request.getCitationCount() != null ? request.getCitationCount() : 1);
 
         NoteCitation saved = citationRepository.save(citation);
+        eventPublisher.publishEvent(new NoteCitationsChangedEvent(noteId, referencedNoteId));
         return NoteCitationDto.fromEntity(saved);
     }
 
@@ -120,6 +126,8 @@ public class NoteCitationService {
         }
 
         citationRepository.delete(citation);
+        eventPublisher.publishEvent(new NoteCitationsChangedEvent(
+                citation.getNote().getId(), citation.getReferencedNote().getId()));
     }
 
     /**
@@ -136,6 +144,8 @@ public class NoteCitationService {
         }
 
         citationRepository.delete(citation);
+        eventPublisher.publishEvent(new NoteCitationsChangedEvent(
+                citation.getNote().getId(), citation.getReferencedNote().getId()));
     }
 
     // ==================== Query Operations ====================
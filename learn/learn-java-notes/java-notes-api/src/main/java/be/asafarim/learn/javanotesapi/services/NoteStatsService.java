@@ -0,0 +1,90 @@
+package be.asafarim.learn.javanotesapi.services;
+
+import be.asafarim.learn.javanotesapi.entities.NoteStats;
+import be.asafarim.learn.javanotesapi.events.NoteAttachmentsChangedEvent;
+import be.asafarim.learn.javanotesapi.events.NoteCitationsChangedEvent;
+import be.asafarim.learn.javanotesapi.events.NoteViewedEvent;
+import be.asafarim.learn.javanotesapi.repositories.NoteStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maintains the {@code note_stats} counters and serves them in bulk.
+ * <p>
+ * Counters are updated in the same transaction as the view, attachment or citation change that publishes the
+ * event, so they commit or roll back together. Changes that bypass the events (cascading deletes, manual SQL)
+ * are corrected by the periodic reconciliation.
+ */
+@Service
+@Transactional(readOnly = true)
+public class NoteStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(NoteStatsService.class);
+
+    private final NoteStatsRepository statsRepository;
+
+    public NoteStatsService(NoteStatsRepository statsRepository) {
+        this.statsRepository = statsRepository;
+    }
+
+    public NoteStats getStats(UUID noteId) {
+        return statsRepository.findById(noteId).orElseGet(() -> NoteStats.empty(noteId));
+    }
+
+    /**
+     * Stats for a page of notes in one query; notes without a row get all-zero stats
+     */
+    public Map<UUID, NoteStats> getStats(Collection<UUID> noteIds) {
+        Map<UUID, NoteStats> stats = new HashMap<>();
+        if (noteIds.isEmpty()) {
+            return stats;
+        }
+        statsRepository.findAllById(noteIds).forEach(s -> stats.put(s.getNoteId(), s));
+        for (UUID noteId : noteIds) {
+            stats.computeIfAbsent(noteId, NoteStats::empty);
+        }
+        return stats;
+    }
+
+    @EventListener
+    @Transactional
+    public void onNoteViewed(NoteViewedEvent event) {
+        statsRepository.recordView(event.noteId(), event.newViewer() ? 1 : 0, LocalDateTime.now());
+    }
+
+    @EventListener
+    @Transactional
+    public void onAttachmentsChanged(NoteAttachmentsChangedEvent event) {
+        statsRepository.refreshAttachmentCounts(event.noteId());
+    }
+
+    @EventListener
+    @Transactional
+    public void onCitationsChanged(NoteCitationsChangedEvent event) {
+        statsRepository.refreshCitationCounts(event.citingNoteId());
+        statsRepository.refreshCitationCounts(event.citedNoteId());
+    }
+
+    /**
+     * Recompute all counters from the source tables and fix the rows that drifted
+     */
+    @Scheduled(cron = "${app.stats.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        int corrected = statsRepository.reconcile();
+        if (corrected > 0) {
+            logger.info("Reconciled note stats: {} rows inserted or corrected in {} ms",
+                    corrected, System.currentTimeMillis() - start);
+        }
+    }
+}
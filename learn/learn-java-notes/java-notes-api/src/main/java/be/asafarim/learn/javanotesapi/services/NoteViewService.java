@@ -4,8 +4,10 @@ import be.asafarim.learn.javanotesapi.dto.NoteAnalytics;
 import be.asafarim.learn.javanotesapi.entities.NoteView;
 import be.asafarim.learn.javanotesapi.entities.StudyNote;
 import be.asafarim.learn.javanotesapi.entities.User;
+import be.asafarim.learn.javanotesapi.events.NoteViewedEvent;
 import be.asafarim.learn.javanotesapi.repositories.NoteViewRepository;
 import be.asafarim.learn.javanotesapi.repositories.StudyNoteRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,13 +26,16 @@ public class NoteViewService {
     private final NoteViewRepository viewRepository;
     private final StudyNoteRepository noteRepository;
     private final AuthService authService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public NoteViewService(NoteViewRepository viewRepository, 
                           StudyNoteRepository noteRepository,
-                          AuthService authService) {
+                          AuthService authService,
+                          ApplicationEventPublisher eventPublisher) {
         this.viewRepository = viewRepository;
         this.noteRepository = noteRepository;
         this.authService = authService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -51,8 +56,10 @@ public class NoteViewService {
             return; // Already viewed today from this IP
         }
 
+        boolean newViewer = ipAddress != null && !viewRepository.hasIpViewed(noteId, ipAddress);
         NoteView view = new NoteView(note, null, true, userAgent, ipAddress);
         viewRepository.save(view);
+        eventPublisher.publishEvent(new NoteViewedEvent(noteId, newViewer));
     }
 
     /**
@@ -89,8 +96,10 @@ public class NoteViewService {
             return; // Already viewed today
         }
 
+        boolean newViewer = !viewRepository.hasUserViewed(noteId, currentUser.getId());
         NoteView view = new NoteView(note, currentUser, false, userAgent, ipAddress);
         viewRepository.save(view);
+        eventPublisher.publishEvent(new NoteViewedEvent(noteId, newViewer));
     }
 
     /**
@@ -2,10 +2,10 @@ package be.asafarim.learn.javanotesapi.services;
 
 import be.asafarim.learn.javanotesapi.dto.PublicNoteListItem;
 import be.asafarim.learn.javanotesapi.dto.PublicNoteResponse;
+import be.asafarim.learn.javanotesapi.entities.NoteStats;
 import be.asafarim.learn.javanotesapi.entities.StudyNote;
 import be.asafarim.learn.javanotesapi.entities.Tag;
 import be.asafarim.learn.javanotesapi.enums.NoteVisibility;
-import be.asafarim.learn.javanotesapi.repositories.AttachmentRepository;
 import be.asafarim.learn.javanotesapi.repositories.StudyNoteRepository;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -14,21 +14,23 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 @Transactional(readOnly = true)
 public class PublicSharingService {
 
     private final StudyNoteRepository noteRepository;
-    private final AttachmentRepository attachmentRepository;
     private final NoteViewService noteViewService;
+    private final NoteStatsService noteStatsService;
 
     public PublicSharingService(StudyNoteRepository noteRepository,
-                                AttachmentRepository attachmentRepository,
-                                NoteViewService noteViewService) {
+                                NoteViewService noteViewService,
+                                NoteStatsService noteStatsService) {
         this.noteRepository = noteRepository;
-        this.attachmentRepository = attachmentRepository;
         this.noteViewService = noteViewService;
+        this.noteStatsService = noteStatsService;
     }
 
     /**
@@ -52,7 +54,7 @@ public class PublicSharingService {
     public List<PublicNoteListItem> getFeaturedNotes(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         List<StudyNote> notes = noteRepository.findFeaturedNotes(pageable);
-        return notes.stream().map(this::toListItem).toList();
+        return toListItems(notes);
     }
 
     /**
@@ -62,7 +64,7 @@ public class PublicSharingService {
         LocalDateTime since = LocalDateTime.now().minusDays(7);
         Pageable pageable = PageRequest.of(page, size);
         List<StudyNote> notes = noteRepository.findTrendingNotes(since, pageable);
-        return notes.stream().map(this::toListItem).toList();
+        return toListItems(notes);
     }
 
     /**
@@ -71,7 +73,7 @@ public class PublicSharingService {
     public List<PublicNoteListItem> getRecentNotes(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         List<StudyNote> notes = noteRepository.findRecentPublicNotes(pageable);
-        return notes.stream().map(this::toListItem).toList();
+        return toListItems(notes);
     }
 
     /**
@@ -80,7 +82,7 @@ public class PublicSharingService {
     public List<PublicNoteListItem> getNotesByTag(String tagName, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         List<StudyNote> notes = noteRepository.findPublicNotesByTag(tagName, pageable);
-        return notes.stream().map(this::toListItem).toList();
+        return toListItems(notes);
     }
 
     /**
@@ -110,12 +112,19 @@ public class PublicSharingService {
         response.setWordCount(calculateWordCount(note.getContent()));
         response.setVisibility(note.getVisibility());
         response.setAuthorDisplayName(note.getUser() != null ? note.getUser().getUsername() : "Anonymous");
-        response.setHasPublicAttachments(attachmentRepository.countPublicByNoteId(note.getId()) > 0);
-        response.setViewCount(noteViewService.getViewCount(note.getId()));
+        NoteStats stats = noteStatsService.getStats(note.getId());
+        response.setHasPublicAttachments(stats.getPublicAttachmentCount() > 0);
+        response.setViewCount(stats.getViewCount());
         return response;
     }
 
-    private PublicNoteListItem toListItem(StudyNote note) {
+    private List<PublicNoteListItem> toListItems(List<StudyNote> notes) {
+        // View counts for the whole page in one query
+        Map<UUID, NoteStats> stats = noteStatsService.getStats(notes.stream().map(StudyNote::getId).toList());
+        return notes.stream().map(note -> toListItem(note, stats.get(note.getId()))).toList();
+    }
+
+    private PublicNoteListItem toListItem(StudyNote note, NoteStats stats) {
         PublicNoteListItem item = new PublicNoteListItem();
         item.setId(note.getId());
         item.setPublicId(note.getPublicId());
@@ -126,7 +135,7 @@ public class PublicSharingService {
         item.setCreatedAt(note.getCreatedAt());
         item.setReadingTimeMinutes(calculateReadingTime(note.getContent()));
         item.setAuthorDisplayName(note.getUser() != null ? note.getUser().getUsername() : "Anonymous");
-        item.setViewCount(noteViewService.getViewCount(note.getId()));
+        item.setViewCount(stats.getViewCount());
         return item;
     }
 
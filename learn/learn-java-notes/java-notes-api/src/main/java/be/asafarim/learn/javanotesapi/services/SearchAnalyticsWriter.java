@@ -0,0 +1,202 @@
+package be.asafarim.learn.javanotesapi.services;
+
+import be.asafarim.learn.javanotesapi.entities.SearchAnalytics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes search and click analytics off the request path.
+ * <p>
+ * {@link #enqueue} never blocks: events go into a bounded lock-free queue and are dropped (and counted) once it is
+ * full. A background thread flushes them with JDBC batch inserts whenever a batch has filled up or the flush
+ * interval has passed, whichever comes first. On shutdown the thread stops and whatever is still queued is
+ * written before the data source closes.
+ * <p>
+ * Metrics: {@code search.analytics.queue.depth}, and the counters {@code search.analytics.written},
+ * {@code search.analytics.dropped} and {@code search.analytics.failed} (rows the database rejected).
+ */
+@Service
+public class SearchAnalyticsWriter implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(SearchAnalyticsWriter.class);
+
+    private static final String INSERT = "INSERT INTO search_analytics (query, user_id, result_count, "
+            + "clicked_note_id, click_position, search_duration_ms, timestamp, is_public_search, tags_used, "
+            + "has_attachment_filter, sort_option) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_QUERY_LENGTH = 500;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+    private final ConcurrentLinkedQueue<SearchAnalytics> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final JdbcTemplate jdbcTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public SearchAnalyticsWriter(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${app.analytics.queue-capacity:10000}") int capacity,
+            @Value("${app.analytics.batch-size:200}") int batchSize,
+            @Value("${app.analytics.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        Gauge.builder("search.analytics.queue.depth", depth, AtomicInteger::get)
+                .description("Analytics events waiting to be written")
+                .register(meterRegistry);
+        this.written = Counter.builder("search.analytics.written")
+                .description("Analytics events written to the database")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("search.analytics.dropped")
+                .description("Analytics events dropped because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("search.analytics.failed")
+                .description("Analytics events the database rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an event for writing; drops it when the queue is full
+     */
+    public void enqueue(SearchAnalytics event) {
+        int size = depth.incrementAndGet();
+        if (size > capacity) {
+            depth.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(event);
+        Thread thread = writer;
+        if (size >= batchSize && thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::run, "search-analytics-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        // Anything queued after the writer's last pass
+        drain();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the web server, so events from requests finishing during graceful shutdown are still written
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        while (running) {
+            if (depth.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flushBatch();
+        }
+        drain();
+    }
+
+    private void drain() {
+        while (flushBatch() > 0) {
+            // keep flushing until the queue is empty
+        }
+    }
+
+    private int flushBatch() {
+        List<SearchAnalytics> batch = new ArrayList<>(Math.min(batchSize, depth.get()));
+        SearchAnalytics event;
+        while (batch.size() < batchSize && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        depth.addAndGet(-batch.size());
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), SearchAnalyticsWriter::bind);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            // One bad row (e.g. a click on a note deleted meanwhile) fails the batch: retry row by row
+            logger.warn("Batch insert of {} search analytics events failed, retrying one by one", batch.size(), e);
+            for (SearchAnalytics a : batch) {
+                try {
+                    jdbcTemplate.update(INSERT, ps -> bind(ps, a));
+                    written.increment();
+                } catch (RuntimeException rowError) {
+                    failed.increment();
+                }
+            }
+        }
+        return batch.size();
+    }
+
+    private static void bind(PreparedStatement ps, SearchAnalytics a) throws SQLException {
+        String query = a.getQuery() != null ? a.getQuery() : "";
+        ps.setString(1, query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query);
+        ps.setObject(2, a.getUserId());
+        ps.setInt(3, a.getResultCount());
+        ps.setObject(4, a.getClickedNoteId());
+        ps.setObject(5, a.getClickPosition(), Types.INTEGER);
+        ps.setLong(6, a.getSearchDurationMs());
+        ps.setTimestamp(7, a.getTimestamp() != null ? Timestamp.from(a.getTimestamp()) : null);
+        ps.setBoolean(8, a.isPublicSearch());
+        ps.setString(9, a.getTagsUsed());
+        ps.setObject(10, a.getHasAttachmentFilter(), Types.BOOLEAN);
+        ps.setString(11, a.getSortOption());
+    }
+}
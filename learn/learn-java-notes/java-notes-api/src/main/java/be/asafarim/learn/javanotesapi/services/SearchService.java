@@ -5,7 +5,21 @@ import be.asafarim.learn.javanotesapi.entities.StudyNote;
 import be.asafarim.learn.javanotesapi.entities.Tag;
 import be.asafarim.learn.javanotesapi.entities.User;
 import be.asafarim.learn.javanotesapi.entities.SearchAnalytics;
+import be.asafarim.learn.javanotesapi.entities.NoteStats;
 import be.asafarim.learn.javanotesapi.repositories.*;
+import be.asafarim.learn.javanotesapi.search.AutosuggestIndex;
+import be.asafarim.learn.javanotesapi.search.FacetCount;
+import be.asafarim.learn.javanotesapi.search.FacetCounter;
+import be.asafarim.learn.javanotesapi.search.FacetFilter;
+import be.asafarim.learn.javanotesapi.search.Highlighter;
+import be.asafarim.learn.javanotesapi.search.IndexedNote;
+import be.asafarim.learn.javanotesapi.search.NoteDocument;
+import be.asafarim.learn.javanotesapi.search.NoteMatch;
+import be.asafarim.learn.javanotesapi.search.NoteSearchIndex;
+import be.asafarim.learn.javanotesapi.search.RankingFeature;
+import be.asafarim.learn.javanotesapi.search.SearchResultCache;
+import be.asafarim.learn.javanotesapi.search.SpellingIndex;
+import be.asafarim.learn.javanotesapi.search.SqlNoteSearch;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,34 +32,79 @@ import java.util.stream.Collectors;
 
 @Service
 public class SearchService {
+    static final String ENGINE_INDEX = "index";
+    static final String ENGINE_SQL = "sql";
+    static final String ENGINE_SCAN = "scan";
+
+    // Scales the BM25F text score of the index engine to the range of the boosts below
+    private static final double TEXT_SCORE_WEIGHT = 20.0;
+    private static final int MAX_FACET_VALUES = 20;
+
     private final StudyNoteRepository noteRepository;
     private final NoteViewService noteViewService;
-    private final AttachmentRepository attachmentRepository;
     private final TagRepository tagRepository;
     private final SearchAnalyticsRepository analyticsRepository;
-    private final NoteViewRepository noteViewRepository;
+    private final NoteStatsService noteStatsService;
+    private final NoteSearchIndex searchIndex;
+    private final SqlNoteSearch sqlNoteSearch;
+    private final AutosuggestIndex autosuggestIndex;
+    private final SpellingIndex spellingIndex;
+    private final SearchAnalyticsWriter analyticsWriter;
+    private final SearchResultCache resultCache;
+    private final List<RankingFeature> rankingFeatures;
 
     public SearchService(
             StudyNoteRepository noteRepository,
             NoteViewService noteViewService,
-            AttachmentRepository attachmentRepository,
             TagRepository tagRepository,
             SearchAnalyticsRepository analyticsRepository,
-            NoteViewRepository noteViewRepository) {
+            NoteStatsService noteStatsService,
+            NoteSearchIndex searchIndex,
+            SqlNoteSearch sqlNoteSearch,
+            AutosuggestIndex autosuggestIndex,
+            SpellingIndex spellingIndex,
+            SearchAnalyticsWriter analyticsWriter,
+            SearchResultCache resultCache,
+            List<RankingFeature> rankingFeatures) {
         this.noteRepository = noteRepository;
         this.noteViewService = noteViewService;
-        this.attachmentRepository = attachmentRepository;
         this.tagRepository = tagRepository;
         this.analyticsRepository = analyticsRepository;
-        this.noteViewRepository = noteViewRepository;
+        this.noteStatsService = noteStatsService;
+        this.searchIndex = searchIndex;
+        this.sqlNoteSearch = sqlNoteSearch;
+        this.autosuggestIndex = autosuggestIndex;
+        this.spellingIndex = spellingIndex;
+        this.analyticsWriter = analyticsWriter;
+        this.resultCache = resultCache;
+        this.rankingFeatures = rankingFeatures;
     }
 
     /**
      * Advanced search for authenticated users - sees own notes + public notes
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public SearchResult advancedSearch(SearchRequest request, User user) {
+        SearchResult result = runAdvancedSearch(request, user);
+        String correction = autoCorrection(request, result);
+        if (correction == null) {
+            return result;
+        }
+        return corrected(runAdvancedSearch(withQuery(request, correction), user), request.getQuery(), correction);
+    }
+
+    private SearchResult runAdvancedSearch(SearchRequest request, User user) {
         long startTime = System.currentTimeMillis();
+
+        String engine = resolveEngine(request);
+        if (!ENGINE_SCAN.equals(engine)) {
+            SearchResult result = ENGINE_SQL.equals(engine)
+                    ? sqlSearch(request, user.getId(), startTime)
+                    : indexedSearch(request, user.getId(), startTime);
+            result.setEngine(engine);
+            trackSearch(request, user.getId(), (int) result.getTotalCount(), false);
+            return result;
+        }
         
         // Get user's notes + public notes
         List<StudyNote> allNotes = new ArrayList<>();
@@ -77,6 +136,8 @@ public class SearchService {
         result.setSearchTimeMs(System.currentTimeMillis() - startTime);
         result.setRelatedTags(getRelatedTags(request.getQuery(), pagedHits));
         result.setSuggestions(getSuggestions(request.getQuery(), hits.isEmpty()));
+        result.setFacets(scanFacets(allNotes, hits));
+        result.setEngine(ENGINE_SCAN);
         
         // Track analytics
         trackSearch(request, user.getId(), (int) totalCount, false);
@@ -87,9 +148,28 @@ public class SearchService {
     /**
      * Public search - only sees public notes
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public SearchResult publicSearch(SearchRequest request) {
+        SearchResult result = runPublicSearch(request);
+        String correction = autoCorrection(request, result);
+        if (correction == null) {
+            return result;
+        }
+        return corrected(runPublicSearch(withQuery(request, correction)), request.getQuery(), correction);
+    }
+
+    private SearchResult runPublicSearch(SearchRequest request) {
         long startTime = System.currentTimeMillis();
+
+        String engine = resolveEngine(request);
+        if (!ENGINE_SCAN.equals(engine)) {
+            SearchResult result = ENGINE_SQL.equals(engine)
+                    ? sqlSearch(request, null, startTime)
+                    : indexedSearch(request, null, startTime);
+            result.setEngine(engine);
+            trackSearch(request, null, (int) result.getTotalCount(), true);
+            return result;
+        }
         
         List<StudyNote> publicNotes = noteRepository.findAllPublicNotes();
         List<SearchHit> hits = filterAndRank(publicNotes, request);
@@ -108,6 +188,8 @@ public class SearchService {
         result.setSearchTimeMs(System.currentTimeMillis() - startTime);
         result.setRelatedTags(getRelatedTags(request.getQuery(), pagedHits));
         result.setSuggestions(getSuggestions(request.getQuery(), hits.isEmpty()));
+        result.setFacets(scanFacets(publicNotes, hits));
+        result.setEngine(ENGINE_SCAN);
         
         // Track analytics (null user for public)
         trackSearch(request, null, (int) totalCount, true);
@@ -115,17 +197,310 @@ public class SearchService {
         return result;
     }
 
+    /**
+     * The spelling correction to search instead, when the request asks for it and its query found nothing
+     */
+    private String autoCorrection(SearchRequest request, SearchResult result) {
+        if (!Boolean.TRUE.equals(request.getAutoCorrect()) || result.getTotalCount() > 0) {
+            return null;
+        }
+        return spellingIndex.correct(request.getQuery());
+    }
+
+    private static SearchRequest withQuery(SearchRequest request, String query) {
+        SearchRequest copy = new SearchRequest();
+        copy.setQuery(query);
+        copy.setTags(request.getTags());
+        copy.setHasAttachments(request.getHasAttachments());
+        copy.setCreatedAfter(request.getCreatedAfter());
+        copy.setCreatedBefore(request.getCreatedBefore());
+        copy.setUpdatedAfter(request.getUpdatedAfter());
+        copy.setUpdatedBefore(request.getUpdatedBefore());
+        copy.setSort(request.getSort());
+        copy.setLimit(request.getLimit());
+        copy.setOffset(request.getOffset());
+        copy.setEngine(request.getEngine());
+        copy.setFacets(request.getFacets());
+        return copy;
+    }
+
+    private static SearchResult corrected(SearchResult result, String originalQuery, String correction) {
+        result.setQuery(originalQuery);
+        result.setCorrectedQuery(correction);
+        return result;
+    }
+
+    /**
+     * The engine a request runs on: {@code sql} and {@code scan} when asked for explicitly, otherwise the
+     * in-memory index once it is loaded. Lets the same request be compared across rankings.
+     */
+    private String resolveEngine(SearchRequest request) {
+        String requested = request.getEngine() != null ? request.getEngine().trim().toLowerCase() : "";
+        return switch (requested) {
+            case ENGINE_SQL -> ENGINE_SQL;
+            case ENGINE_SCAN -> ENGINE_SCAN;
+            default -> searchIndex.isReady() ? ENGINE_INDEX : ENGINE_SCAN;
+        };
+    }
+
+    /**
+     * The ids of the top {@code k} public notes for {@code request} on the index, without analytics, caching or
+     * spelling correction; used by the ranking evaluation in the tests
+     */
+    List<UUID> rankPublic(SearchRequest request, int k) {
+        String query = request.getQuery() != null ? request.getQuery().toLowerCase().trim() : "";
+        List<String> queryTags = request.getTags() != null ? request.getTags() : Collections.emptyList();
+        return rank(request, null, query, queryTags, 0, k).notes().stream()
+                .map(SearchResultCache.RankedNote::id)
+                .toList();
+    }
+
+    /**
+     * Filter, rank and page in PostgreSQL; only the notes of the returned page are loaded
+     */
+    private SearchResult sqlSearch(SearchRequest request, UUID viewerId, long startTime) {
+        String query = request.getQuery() != null ? request.getQuery().toLowerCase().trim() : "";
+        List<String> queryTags = request.getTags() != null ? request.getTags() : Collections.emptyList();
+        int offset = request.getOffset() != null ? request.getOffset() : 0;
+        int limit = request.getLimit() != null ? request.getLimit() : 30;
+
+        SqlNoteSearch.Page page = sqlNoteSearch.search(request, viewerId, offset, limit);
+        Map<UUID, StudyNote> notes = loadNotes(page.rows().stream().map(SqlNoteSearch.Row::id).toList());
+        Highlighter highlighter = Highlighter.forQuery(query);
+        List<SearchHit> pagedHits = new ArrayList<>(page.rows().size());
+        for (SqlNoteSearch.Row row : page.rows()) {
+            StudyNote note = notes.get(row.id());
+            if (note != null) {
+                pagedHits.add(buildSearchHit(note, queryTags, highlighter,
+                        row.attachmentCount(), row.viewCount(), row.score()));
+            }
+        }
+
+        SearchResult result = new SearchResult(pagedHits, page.totalCount(), limit, offset);
+        result.setQuery(request.getQuery());
+        result.setSearchTimeMs(System.currentTimeMillis() - startTime);
+        result.setRelatedTags(getRelatedTags(request.getQuery(), pagedHits));
+        result.setSuggestions(getSuggestions(request.getQuery(), page.totalCount() == 0));
+        result.setFacets(toFacetValues(page.totalCount() > 0
+                ? sqlNoteSearch.facetCounts(request, viewerId, MAX_FACET_VALUES)
+                : new FacetCounter().top(MAX_FACET_VALUES)));
+        return result;
+    }
+
+    /**
+     * Filter and rank against the in-memory index, then load only the requested page from the database.
+     * A null viewer sees public notes only. Rankings are cached, so repeated searches and further pages of the
+     * same search skip ranking altogether. Facet counts and related tags cover all matches, not just the page.
+     */
+    private SearchResult indexedSearch(SearchRequest request, UUID viewerId, long startTime) {
+        String query = request.getQuery() != null ? request.getQuery().toLowerCase().trim() : "";
+        List<String> queryTags = request.getTags() != null ? request.getTags() : Collections.emptyList();
+        int offset = request.getOffset() != null ? request.getOffset() : 0;
+        int limit = request.getLimit() != null ? request.getLimit() : 30;
+
+        SearchResultCache.Ranking ranking;
+        List<SearchResultCache.RankedNote> page;
+        if ((long) offset + limit <= SearchResultCache.MAX_RANKED) {
+            ranking = resultCache.get(request, viewerId,
+                    () -> rank(request, viewerId, query, queryTags, 0, SearchResultCache.MAX_RANKED));
+            List<SearchResultCache.RankedNote> ranked = ranking.notes();
+            page = ranked.subList(Math.min(offset, ranked.size()), Math.min(offset + limit, ranked.size()));
+        } else {
+            ranking = rank(request, viewerId, query, queryTags, offset, limit);
+            page = ranking.notes();
+        }
+        int totalCount = ranking.totalCount();
+        List<SearchHit> pagedHits = hydrate(page, query, queryTags);
+
+        SearchResult result = new SearchResult(pagedHits, totalCount, limit, offset);
+        result.setQuery(request.getQuery());
+        result.setSearchTimeMs(System.currentTimeMillis() - startTime);
+        result.setFacets(toFacetValues(ranking.facets()));
+        result.setRelatedTags(ranking.facets().getOrDefault(FacetFilter.TAG, List.of()).stream()
+                .limit(10)
+                .map(tag -> new SearchResult.TagSuggestion(tag.value(), tag.count()))
+                .collect(Collectors.toList()));
+        result.setSuggestions(getSuggestions(request.getQuery(), totalCount == 0));
+        return result;
+    }
+
+    /**
+     * The ranked slice {@code [offset, offset + limit)} of all matches, with the total number of matches and the
+     * facet counts over all of them
+     */
+    private SearchResultCache.Ranking rank(SearchRequest request, UUID viewerId, String query,
+                                           List<String> queryTags, int offset, int limit) {
+        List<NoteMatch> matches = searchIndex.search(query, viewerId, FacetFilter.of(request),
+                note -> matchesFilters(note, request));
+        List<RankedMatch> ranked = new ArrayList<>(matches.size());
+        for (NoteMatch match : matches) {
+            ranked.add(new RankedMatch(match, calculateRelevanceScore(match, query, queryTags)));
+        }
+        List<SearchResultCache.RankedNote> notes = new ArrayList<>();
+        for (RankedMatch match : selectPage(ranked, getRankedComparator(request.getSort()), offset, limit)) {
+            IndexedNote note = match.match().note();
+            notes.add(new SearchResultCache.RankedNote(
+                    note.getId(), match.score(), note.getViewCount(), note.getAttachmentCount()));
+        }
+        return new SearchResultCache.Ranking(List.copyOf(notes), matches.size(),
+                searchIndex.facetCounts(matches, MAX_FACET_VALUES));
+    }
+
+    /**
+     * Facet counts over every hit of a scan, from the notes it already loaded
+     */
+    private static Map<String, List<SearchResult.FacetValue>> scanFacets(List<StudyNote> notes, List<SearchHit> hits) {
+        Set<UUID> hitIds = hits.stream().map(SearchHit::getId).collect(Collectors.toSet());
+        FacetCounter counter = new FacetCounter();
+        for (StudyNote note : notes) {
+            if (hitIds.contains(note.getId())) {
+                counter.add(NoteDocument.of(note));
+            }
+        }
+        return toFacetValues(counter.top(MAX_FACET_VALUES));
+    }
+
+    private static Map<String, List<SearchResult.FacetValue>> toFacetValues(Map<String, List<FacetCount>> facets) {
+        Map<String, List<SearchResult.FacetValue>> values = new LinkedHashMap<>();
+        facets.forEach((facet, counts) -> values.put(facet, counts.stream()
+                .map(count -> new SearchResult.FacetValue(count.value(), count.count()))
+                .collect(Collectors.toList())));
+        return values;
+    }
+
+    private record RankedMatch(NoteMatch match, double score) {
+    }
+
+    /**
+     * Sorts only as much as the page needs: a bounded heap keeps the best offset + limit matches
+     */
+    private List<RankedMatch> selectPage(List<RankedMatch> ranked, Comparator<RankedMatch> comparator,
+                                         int offset, int limit) {
+        int end = (int) Math.min((long) offset + limit, ranked.size());
+        if (offset >= end) {
+            return Collections.emptyList();
+        }
+        if (end * 2 >= ranked.size()) {
+            List<RankedMatch> sorted = new ArrayList<>(ranked);
+            sorted.sort(comparator);
+            return sorted.subList(offset, end);
+        }
+        PriorityQueue<RankedMatch> best = new PriorityQueue<>(end + 1, comparator.reversed());
+        for (RankedMatch match : ranked) {
+            best.offer(match);
+            if (best.size() > end) {
+                best.poll();
+            }
+        }
+        List<RankedMatch> top = new ArrayList<>(best);
+        top.sort(comparator);
+        return top.subList(offset, top.size());
+    }
+
+    /**
+     * Load the notes of one page and turn them into hits, keeping the ranked order
+     */
+    private List<SearchHit> hydrate(List<SearchResultCache.RankedNote> page, String query, List<String> queryTags) {
+        Map<UUID, StudyNote> notes = loadNotes(page.stream().map(SearchResultCache.RankedNote::id).toList());
+        Highlighter highlighter = Highlighter.forQuery(query);
+
+        List<SearchHit> hits = new ArrayList<>(page.size());
+        for (SearchResultCache.RankedNote ranked : page) {
+            StudyNote note = notes.get(ranked.id());
+            if (note != null) { // deleted since the index was read
+                hits.add(buildSearchHit(note, queryTags, highlighter,
+                        ranked.attachmentCount(), ranked.viewCount(), ranked.score()));
+            }
+        }
+        return hits;
+    }
+
+    private Map<UUID, StudyNote> loadNotes(List<UUID> ids) {
+        Map<UUID, StudyNote> notes = new HashMap<>();
+        noteRepository.findAllById(ids).forEach(note -> notes.put(note.getId(), note));
+        return notes;
+    }
+
+    /**
+     * The filters the facet bitmaps do not cover; the tag filter is applied by the index before this
+     */
+    private boolean matchesFilters(IndexedNote note, SearchRequest request) {
+        if (Boolean.TRUE.equals(request.getHasAttachments()) && note.getAttachmentCount() == 0) {
+            return false;
+        }
+        if (request.getCreatedAfter() != null
+                && note.getCreatedAt().toInstant(ZoneOffset.UTC).isBefore(request.getCreatedAfter())) return false;
+        if (request.getCreatedBefore() != null
+                && note.getCreatedAt().toInstant(ZoneOffset.UTC).isAfter(request.getCreatedBefore())) return false;
+        if (request.getUpdatedAfter() != null
+                && note.getUpdatedAt().toInstant(ZoneOffset.UTC).isBefore(request.getUpdatedAfter())) return false;
+        if (request.getUpdatedBefore() != null
+                && note.getUpdatedAt().toInstant(ZoneOffset.UTC).isAfter(request.getUpdatedBefore())) return false;
+        return true;
+    }
+
+    /**
+     * BM25F text relevance over title, content, tags, abstract and keywords, read from the statistics the index
+     * keeps, plus bonuses for the phrase opening or being the whole title, the tag filter and the ranking features
+     */
+    private double calculateRelevanceScore(NoteMatch match, String query, List<String> queryTags) {
+        if (query.isEmpty() && queryTags.isEmpty()) {
+            return 1.0;
+        }
+
+        IndexedNote note = match.note();
+        double score = match.textScore() * TEXT_SCORE_WEIGHT;
+        if (match.titleExact()) {
+            score += 50.0;
+        } else if (match.titleStartsWith()) {
+            score += 20.0;
+        }
+
+        if (!queryTags.isEmpty()) {
+            long matchedCount = queryTags.stream()
+                    .filter(qt -> note.getTags().contains(qt.toLowerCase()))
+                    .count();
+            score += matchedCount * 10.0;
+        }
+
+        return score + boosts(note.getViewCount(), note.getAttachmentCount(), note.getUpdatedAt(),
+                note.getTags().size());
+    }
+
+    private Comparator<RankedMatch> getRankedComparator(String sort) {
+        if (sort == null) sort = "relevance";
+
+        return switch (sort.toLowerCase()) {
+            case "date" -> Comparator.comparing((RankedMatch r) -> r.match().note().getCreatedAt()).reversed();
+            case "updated" -> Comparator.comparing((RankedMatch r) -> r.match().note().getUpdatedAt()).reversed();
+            case "popularity" -> Comparator.comparingLong((RankedMatch r) -> r.match().note().getViewCount()).reversed();
+            default -> Comparator.comparingDouble(RankedMatch::score).reversed();
+        };
+    }
+
     /**
      * Filter and rank notes based on search criteria
      */
     private List<SearchHit> filterAndRank(List<StudyNote> notes, SearchRequest request) {
         String query = request.getQuery() != null ? request.getQuery().toLowerCase().trim() : "";
         List<String> queryTags = request.getTags() != null ? request.getTags() : Collections.emptyList();
+        Highlighter highlighter = Highlighter.forQuery(query);
+        FacetFilter facetFilter = FacetFilter.of(request);
         
-        return notes.stream()
+        List<StudyNote> candidates = notes.stream()
                 .filter(note -> matchesFilters(note, request))
-                .filter(note -> matchesQuery(note, query)) // Must match query in title or content
-                .map(note -> createSearchHit(note, query, queryTags))
+                .filter(note -> facetFilter.anyOf().isEmpty() || facetFilter.matches(NoteDocument.of(note)))
+                .filter(note -> matchesQuery(note, highlighter)) // Must match query in title or content
+                .collect(Collectors.toList());
+
+        // Counts for every candidate in one query
+        Map<UUID, NoteStats> stats = noteStatsService.getStats(
+                candidates.stream().map(StudyNote::getId).collect(Collectors.toList()));
+        boolean attachmentsRequired = Boolean.TRUE.equals(request.getHasAttachments());
+
+        return candidates.stream()
+                .filter(note -> !attachmentsRequired || stats.get(note.getId()).getAttachmentCount() > 0)
+                .map(note -> createSearchHit(note, query, queryTags, highlighter, stats.get(note.getId())))
                 .filter(hit -> hit.getRelevanceScore() > 0 || query.isEmpty())
                 .sorted(getComparator(request.getSort()))
                 .collect(Collectors.toList());
@@ -135,16 +510,13 @@ public class SearchService {
      * Check if note matches the search query in title or content
      * Returns true if no query (show all), or if query is found in title/content
      */
-    private boolean matchesQuery(StudyNote note, String query) {
-        if (query.isEmpty()) {
+    private boolean matchesQuery(StudyNote note, Highlighter highlighter) {
+        if (highlighter.isEmpty()) {
             return true; // No query filter, show all
         }
         
-        String title = note.getTitle() != null ? note.getTitle().toLowerCase() : "";
-        String content = note.getContent() != null ? note.getContent().toLowerCase() : "";
-        
         // Must match in title or content (not just tags)
-        return title.contains(query) || content.contains(query);
+        return highlighter.indexOf(note.getTitle()) >= 0 || highlighter.indexOf(note.getContent()) >= 0;
     }
 
     /**
@@ -161,11 +533,7 @@ public class SearchService {
             if (!hasAllTags) return false;
         }
         
-        // Attachment filter
-        if (Boolean.TRUE.equals(request.getHasAttachments())) {
-            long attachmentCount = attachmentRepository.countByNoteId(note.getId());
-            if (attachmentCount == 0) return false;
-        }
+        // Attachment filter is applied from note stats in filterAndRank
         
         // Date filters
         if (request.getCreatedAfter() != null) {
@@ -191,7 +559,16 @@ public class SearchService {
     /**
      * Create a SearchHit with relevance scoring
      */
-    private SearchHit createSearchHit(StudyNote note, String query, List<String> queryTags) {
+    private SearchHit createSearchHit(StudyNote note, String query, List<String> queryTags,
+                                      Highlighter highlighter, NoteStats stats) {
+        long attachmentCount = stats.getAttachmentCount();
+        long viewCount = stats.getViewCount();
+        double score = calculateRelevanceScore(note, query, queryTags, highlighter, viewCount, attachmentCount);
+        return buildSearchHit(note, queryTags, highlighter, attachmentCount, viewCount, score);
+    }
+
+    private SearchHit buildSearchHit(StudyNote note, List<String> queryTags, Highlighter highlighter,
+                                     long attachmentCount, long viewCount, double score) {
         SearchHit hit = new SearchHit();
         hit.setId(note.getId());
         hit.setTitle(note.getTitle());
@@ -216,21 +593,13 @@ public class SearchService {
                 .collect(Collectors.toList());
         hit.setMatchedTags(matchedTags);
         
-        // Attachments
-        long attachmentCount = attachmentRepository.countByNoteId(note.getId());
         hit.setAttachmentCount((int) attachmentCount);
-        
-        // View count
-        long viewCount = noteViewRepository.countByNoteId(note.getId());
         hit.setViewCount(viewCount);
-        
-        // Calculate relevance score
-        double score = calculateRelevanceScore(note, query, queryTags, viewCount, attachmentCount);
         hit.setRelevanceScore(score);
         
         // Highlights
-        if (!query.isEmpty()) {
-            hit.setHighlights(findHighlights(note, query));
+        if (!highlighter.isEmpty()) {
+            hit.setHighlights(findHighlights(note, highlighter));
         }
         
         return hit;
@@ -240,33 +609,31 @@ public class SearchService {
      * Calculate relevance score based on multiple factors
      */
     private double calculateRelevanceScore(StudyNote note, String query, List<String> queryTags,
-                                          long viewCount, long attachmentCount) {
+                                          Highlighter highlighter, long viewCount, long attachmentCount) {
         if (query.isEmpty() && queryTags.isEmpty()) {
             return 1.0; // Default score when no query
         }
         
         double score = 0.0;
-        String title = note.getTitle() != null ? note.getTitle().toLowerCase() : "";
-        String content = note.getContent() != null ? note.getContent().toLowerCase() : "";
+        String title = note.getTitle();
         
         if (!query.isEmpty()) {
             // Exact title match (highest weight)
-            if (title.equals(query)) {
+            if (highlighter.titleEquals(title)) {
                 score += 100.0;
-            } else if (title.contains(query)) {
+            } else if (highlighter.indexOf(title) >= 0) {
                 // Title contains query
                 score += 50.0;
                 // Bonus for query at start of title
-                if (title.startsWith(query)) {
+                if (highlighter.startsWith(title)) {
                     score += 20.0;
                 }
             }
             
-            // Content match
-            if (content.contains(query)) {
+            // Content match, counting occurrences (up to 5)
+            int occurrences = highlighter.count(note.getContent(), 5);
+            if (occurrences > 0) {
                 score += 20.0;
-                // Count occurrences (up to 5)
-                int occurrences = Math.min(5, countOccurrences(content, query));
                 score += occurrences * 2.0;
             }
             
@@ -292,68 +659,28 @@ public class SearchService {
             score += matchedCount * 10.0;
         }
         
-        // Popularity boost (log scale to prevent runaway scores)
-        if (viewCount > 0) {
-            score += Math.log10(viewCount + 1) * 5.0;
-        }
-        
-        // Attachment presence boost
-        if (attachmentCount > 0) {
-            score += Math.min(attachmentCount * 2.0, 10.0);
-        }
-        
-        // Freshness boost (notes updated in last 7 days)
-        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-        if (note.getUpdatedAt().isAfter(weekAgo)) {
-            score += 5.0;
-        }
-        
-        // Tag count bonus (well-organized notes)
-        int tagCount = note.getTags().size();
-        if (tagCount > 0 && tagCount <= 5) {
-            score += tagCount;
-        }
-        
-        return score;
+        return score + boosts(viewCount, attachmentCount, note.getUpdatedAt(), note.getTags().size());
     }
 
-    private int countOccurrences(String text, String query) {
-        int count = 0;
-        int idx = 0;
-        while ((idx = text.indexOf(query, idx)) != -1) {
-            count++;
-            idx += query.length();
+    /**
+     * Query-independent boosts shared by both scoring paths: the sum of the ranking features
+     */
+    private double boosts(long viewCount, long attachmentCount, LocalDateTime updatedAt, int tagCount) {
+        RankingFeature.Signals signals = new RankingFeature.Signals(viewCount, attachmentCount, updatedAt, tagCount);
+        double score = 0.0;
+        for (RankingFeature feature : rankingFeatures) {
+            score += feature.score(signals);
         }
-        return count;
+        return score;
     }
 
     /**
-     * Find highlight matches in note
+     * Find highlight matches in note: one snippet in the title, up to three merged snippets in the content
      */
-    private List<SearchHit.HighlightMatch> findHighlights(StudyNote note, String query) {
+    private List<SearchHit.HighlightMatch> findHighlights(StudyNote note, Highlighter highlighter) {
         List<SearchHit.HighlightMatch> highlights = new ArrayList<>();
-        String title = note.getTitle() != null ? note.getTitle() : "";
-        String content = note.getContent() != null ? note.getContent() : "";
-        
-        // Find in title
-        int titleIdx = title.toLowerCase().indexOf(query);
-        if (titleIdx >= 0) {
-            int start = Math.max(0, titleIdx - 20);
-            int end = Math.min(title.length(), titleIdx + query.length() + 20);
-            highlights.add(new SearchHit.HighlightMatch("title", title.substring(start, end), titleIdx, titleIdx + query.length()));
-        }
-        
-        // Find in content (first 3 matches)
-        int contentIdx = 0;
-        int matchCount = 0;
-        while ((contentIdx = content.toLowerCase().indexOf(query, contentIdx)) != -1 && matchCount < 3) {
-            int start = Math.max(0, contentIdx - 30);
-            int end = Math.min(content.length(), contentIdx + query.length() + 30);
-            highlights.add(new SearchHit.HighlightMatch("content", content.substring(start, end), contentIdx, contentIdx + query.length()));
-            contentIdx += query.length();
-            matchCount++;
-        }
-        
+        highlighter.highlight("title", note.getTitle(), 1, 20, highlights);
+        highlighter.highlight("content", note.getContent(), 3, 30, highlights);
         return highlights;
     }
 
@@ -393,33 +720,34 @@ public class SearchService {
     }
 
     /**
-     * Get search suggestions for zero-result queries
+     * Get search suggestions for zero-result queries: spelling corrections first, then similar popular queries
      */
     private List<String> getSuggestions(String query, boolean noResults) {
         if (!noResults || query == null || query.isBlank()) {
             return Collections.emptyList();
         }
         
+        Set<String> suggestions = new LinkedHashSet<>(spellingIndex.suggest(query, 3));
+        
         // Get popular queries that are similar
-        List<String> suggestions = new ArrayList<>();
         Instant since = Instant.now().minus(30, ChronoUnit.DAYS);
         
         List<Object[]> topQueries = analyticsRepository.findTopQueries(since, 20);
         for (Object[] row : topQueries) {
+            if (suggestions.size() >= 5) break;
             String topQuery = (String) row[0];
             if (topQuery != null && !topQuery.equalsIgnoreCase(query) && 
                 (topQuery.toLowerCase().contains(query.toLowerCase()) || 
                  query.toLowerCase().contains(topQuery.toLowerCase()))) {
                 suggestions.add(topQuery);
-                if (suggestions.size() >= 5) break;
             }
         }
         
-        return suggestions;
+        return new ArrayList<>(suggestions);
     }
 
     /**
-     * Track search for analytics
+     * Track search for analytics; written asynchronously
      */
     private void trackSearch(SearchRequest request, UUID userId, int resultCount, boolean isPublic) {
         SearchAnalytics analytics = new SearchAnalytics();
@@ -435,13 +763,14 @@ public class SearchService {
             analytics.setTagsUsed(String.join(",", request.getTags()));
         }
         
-        analyticsRepository.save(analytics);
+        analyticsWriter.enqueue(analytics);
+        autosuggestIndex.recordQuery(analytics.getQuery(), resultCount, isPublic);
+        spellingIndex.recordQuery(analytics.getQuery(), resultCount, isPublic);
     }
 
     /**
      * Track click on search result
      */
-    @Transactional
     public void trackSearchClick(UUID searchId, UUID noteId, int position) {
         // Find recent search by user and update it
         // For simplicity, we create a new click event
@@ -450,13 +779,12 @@ public class SearchService {
         click.setClickedNoteId(noteId);
         click.setClickPosition(position);
         click.setTimestamp(Instant.now());
-        analyticsRepository.save(click);
+        analyticsWriter.enqueue(click);
     }
 
     /**
      * Track click on public search result (anonymous users)
      */
-    @Transactional
     public void trackPublicSearchClick(UUID noteId, int position) {
         // Create a public search click event
         SearchAnalytics click = new SearchAnalytics();
@@ -465,7 +793,7 @@ public class SearchService {
         click.setClickPosition(position);
         click.setTimestamp(Instant.now());
         click.setPublicSearch(true);
-        analyticsRepository.save(click);
+        analyticsWriter.enqueue(click);
     }
 
     /**
@@ -521,13 +849,16 @@ public class SearchService {
     }
 
     /**
-     * Get autosuggest results
+     * Get autosuggest results. Served from the in-memory index without a transaction; the database is only
+     * queried while the index is still loading.
      */
-    @Transactional(readOnly = true)
     public List<String> getAutosuggest(String prefix, User user, int limit) {
         if (prefix == null || prefix.length() < 2) {
             return Collections.emptyList();
         }
+        if (autosuggestIndex.isReady()) {
+            return autosuggestIndex.complete(prefix, user != null ? user.getId() : null, limit);
+        }
         
         Set<String> suggestions = new LinkedHashSet<>();
         String lowerPrefix = prefix.toLowerCase();
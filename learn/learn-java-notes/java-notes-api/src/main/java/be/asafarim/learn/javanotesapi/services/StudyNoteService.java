@@ -9,10 +9,13 @@ import be.asafarim.learn.javanotesapi.entities.StudyNote;
 import be.asafarim.learn.javanotesapi.entities.Tag;
 import be.asafarim.learn.javanotesapi.entities.User;
 import be.asafarim.learn.javanotesapi.enums.NoteVisibility;
+import be.asafarim.learn.javanotesapi.events.NoteChangedEvent;
+import be.asafarim.learn.javanotesapi.events.NoteDeletedEvent;
 import be.asafarim.learn.javanotesapi.repositories.StudyNoteRepository;
 import be.asafarim.learn.javanotesapi.utils.PublicIdGenerator;
 import be.asafarim.learn.javanotesapi.utils.SlugGenerator;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,18 +40,20 @@ public class StudyNoteService {
     private final AuthService authService;
     private final NoteViewService noteViewService;
     private final AttachmentService attachmentService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.base-url:http://localhost:5183}")
     private String baseUrl;
 
     public StudyNoteService(StudyNoteRepository repository, TagService tagService,
             AuthService authService, NoteViewService noteViewService,
-            AttachmentService attachmentService) {
+            AttachmentService attachmentService, ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
         this.tagService = tagService;
         this.authService = authService;
         this.noteViewService = noteViewService;
         this.attachmentService = attachmentService;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<StudyNoteResponse> getAll(String sort) {
@@ -315,6 +320,7 @@ public class StudyNoteService {
         setAcademicMetadata(note, req, currentUser);
 
         repository.save(note);
+        eventPublisher.publishEvent(new NoteChangedEvent(note));
         return toResponse(note);
     }
     
@@ -390,6 +396,7 @@ public class StudyNoteService {
         setAcademicMetadata(note, req, currentUser);
 
         repository.save(note);
+        eventPublisher.publishEvent(new NoteChangedEvent(note));
 
         // Sync attachment visibility: if note becomes private, make all attachments private
         if (wasPublic && !willBePublic) {
@@ -408,6 +415,7 @@ public class StudyNoteService {
         if (note != null) {
             note.getTags().clear();
             repository.delete(note);
+            eventPublisher.publishEvent(new NoteDeletedEvent(id));
         }
     }
 
@@ -597,6 +605,7 @@ public class StudyNoteService {
         }
 
         repository.save(note);
+        eventPublisher.publishEvent(new NoteChangedEvent(note));
         return buildVisibilityResponse(note);
     }
 
@@ -3,8 +3,12 @@ package be.asafarim.learn.javanotesapi.services;
 import be.asafarim.learn.javanotesapi.dto.*;
 import be.asafarim.learn.javanotesapi.entities.StudyNote;
 import be.asafarim.learn.javanotesapi.entities.Tag;
+import be.asafarim.learn.javanotesapi.events.NoteChangedEvent;
+import be.asafarim.learn.javanotesapi.events.TagsCreatedEvent;
+import be.asafarim.learn.javanotesapi.events.TagsRemovedEvent;
 import be.asafarim.learn.javanotesapi.repositories.StudyNoteRepository;
 import be.asafarim.learn.javanotesapi.repositories.TagRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,10 +22,13 @@ public class TagManagementService {
 
     private final TagRepository tagRepository;
     private final StudyNoteRepository noteRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TagManagementService(TagRepository tagRepository, StudyNoteRepository noteRepository) {
+    public TagManagementService(TagRepository tagRepository, StudyNoteRepository noteRepository,
+                                ApplicationEventPublisher eventPublisher) {
         this.tagRepository = tagRepository;
         this.noteRepository = noteRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -58,8 +65,14 @@ public class TagManagementService {
             throw new RuntimeException("A tag with this name already exists");
         }
 
+        String oldName = tag.getName();
         tag.setName(normalizedName);
         tagRepository.save(tag);
+        tag.getNotes().forEach(note -> eventPublisher.publishEvent(new NoteChangedEvent(note)));
+        if (!oldName.equals(normalizedName)) {
+            eventPublisher.publishEvent(new TagsCreatedEvent(List.of(normalizedName)));
+            eventPublisher.publishEvent(new TagsRemovedEvent(List.of(oldName)));
+        }
 
         long usageCount = tag.getNotes().size();
         return new TagUsageDto(tag.getId(), tag.getName(), usageCount, Instant.now());
@@ -81,8 +94,9 @@ public class TagManagementService {
         // Find or create target tag
         Tag targetTag = tagRepository.findByNameIgnoreCase(normalizedTargetName)
                 .orElseGet(() -> {
-                    Tag newTag = new Tag(normalizedTargetName);
-                    return tagRepository.save(newTag);
+                    Tag newTag = tagRepository.save(new Tag(normalizedTargetName));
+                    eventPublisher.publishEvent(new TagsCreatedEvent(List.of(normalizedTargetName)));
+                    return newTag;
                 });
 
         // Get source tags
@@ -103,10 +117,14 @@ public class TagManagementService {
                 note.getTags().remove(sourceTag);
                 note.getTags().add(targetTag);
                 noteRepository.save(note);
+                eventPublisher.publishEvent(new NoteChangedEvent(note));
             }
             // Delete source tag
             tagRepository.delete(sourceTag);
         }
+        if (!sourceTags.isEmpty()) {
+            eventPublisher.publishEvent(new TagsRemovedEvent(sourceTags.stream().map(Tag::getName).toList()));
+        }
 
         // Refresh target tag to get updated note count
         Tag finalTargetTag = tagRepository.findById(targetTag.getId())
@@ -139,9 +157,11 @@ public class TagManagementService {
             for (StudyNote note : notes) {
                 note.getTags().remove(tag);
                 noteRepository.save(note);
+                eventPublisher.publishEvent(new NoteChangedEvent(note));
             }
         }
 
         tagRepository.delete(tag);
+        eventPublisher.publishEvent(new TagsRemovedEvent(List.of(tag.getName())));
     }
 }
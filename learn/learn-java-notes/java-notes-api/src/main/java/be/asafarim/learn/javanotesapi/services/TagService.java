@@ -1,10 +1,13 @@
 package be.asafarim.learn.javanotesapi.services;
 
 import be.asafarim.learn.javanotesapi.entities.Tag;
+import be.asafarim.learn.javanotesapi.events.TagsCreatedEvent;
 import be.asafarim.learn.javanotesapi.repositories.TagRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -15,9 +18,11 @@ import java.util.stream.Collectors;
 public class TagService {
 
     private final TagRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TagService(TagRepository repository) {
+    public TagService(TagRepository repository, ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -67,13 +72,18 @@ public class TagService {
 
         // Create new tags for names that don't exist
         Set<Tag> result = new HashSet<>(existingTags);
+        List<String> createdNames = new ArrayList<>();
         for (String name : normalizedNames) {
             if (!existingNames.contains(name)) {
                 Tag newTag = new Tag(name);
                 repository.save(newTag);
                 result.add(newTag);
+                createdNames.add(name);
             }
         }
+        if (!createdNames.isEmpty()) {
+            eventPublisher.publishEvent(new TagsCreatedEvent(createdNames));
+        }
 
         return result;
     }
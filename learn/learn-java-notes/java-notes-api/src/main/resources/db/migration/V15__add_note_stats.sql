@@ -0,0 +1,45 @@
+-- Materialized per-note counters for search and listings
+-- Maintained incrementally on view, attachment and citation changes and reconciled periodically
+CREATE TABLE IF NOT EXISTS note_stats (
+    note_id UUID PRIMARY KEY REFERENCES study_notes(id) ON DELETE CASCADE,
+    view_count BIGINT NOT NULL DEFAULT 0,
+    unique_viewers BIGINT NOT NULL DEFAULT 0,
+    attachment_count INTEGER NOT NULL DEFAULT 0,
+    public_attachment_count INTEGER NOT NULL DEFAULT 0,
+    citations_in INTEGER NOT NULL DEFAULT 0,
+    citations_out INTEGER NOT NULL DEFAULT 0,
+    last_viewed_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Backfill from the source tables
+INSERT INTO note_stats (note_id, view_count, unique_viewers, attachment_count, public_attachment_count,
+                        citations_in, citations_out, last_viewed_at)
+SELECT n.id,
+       COALESCE(v.view_count, 0),
+       COALESCE(v.unique_viewers, 0),
+       COALESCE(a.attachment_count, 0),
+       COALESCE(a.public_attachment_count, 0),
+       COALESCE(ci.citations, 0),
+       COALESCE(co.citations, 0),
+       v.last_viewed_at
+FROM study_notes n
+LEFT JOIN (
+    SELECT note_id,
+           COUNT(*) AS view_count,
+           COUNT(DISTINCT CASE WHEN user_id IS NOT NULL THEN user_id::text ELSE ip_address END) AS unique_viewers,
+           MAX(viewed_at) AS last_viewed_at
+    FROM note_views GROUP BY note_id
+) v ON v.note_id = n.id
+LEFT JOIN (
+    SELECT note_id, COUNT(*) AS attachment_count, COUNT(*) FILTER (WHERE is_public) AS public_attachment_count
+    FROM attachments GROUP BY note_id
+) a ON a.note_id = n.id
+LEFT JOIN (SELECT referenced_note_id, COUNT(*) AS citations FROM note_citations GROUP BY referenced_note_id) ci
+    ON ci.referenced_note_id = n.id
+LEFT JOIN (SELECT note_id, COUNT(*) AS citations FROM note_citations GROUP BY note_id) co
+    ON co.note_id = n.id
+ON CONFLICT (note_id) DO NOTHING;
+
+-- Listings sort by popularity
+CREATE INDEX IF NOT EXISTS idx_note_stats_view_count ON note_stats(view_count DESC);
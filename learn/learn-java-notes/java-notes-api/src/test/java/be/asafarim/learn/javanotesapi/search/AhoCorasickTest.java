@@ -0,0 +1,65 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickTest {
+
+    private record Match(int pattern, int start, int end) {
+    }
+
+    @Test
+    void reportsOverlappingAndNestedPatternsByEndOffset() {
+        AhoCorasick automaton = new AhoCorasick(List.of("he", "she", "his", "hers"));
+
+        assertThat(scan(automaton, "ushers")).containsExactly(
+                new Match(1, 1, 4),  // she
+                new Match(0, 2, 4),  // he, through the output link of "she"
+                new Match(3, 2, 6)); // hers
+        assertThat(scan(automaton, "ahishe")).containsExactly(
+                new Match(2, 1, 4),
+                new Match(1, 3, 6),
+                new Match(0, 4, 6));
+    }
+
+    @Test
+    void foldsCaseOfPatternsAndText() {
+        AhoCorasick automaton = new AhoCorasick(List.of("Spring", "ÉTÉ"));
+
+        assertThat(scan(automaton, "SPRING spring été")).containsExactly(
+                new Match(0, 0, 6),
+                new Match(0, 7, 13),
+                new Match(1, 14, 17));
+    }
+
+    @Test
+    void followsFailureLinksAfterPartialMatches() {
+        AhoCorasick automaton = new AhoCorasick(List.of("abcd", "bce"));
+
+        assertThat(scan(automaton, "abce")).containsExactly(new Match(1, 1, 4));
+        assertThat(scan(automaton, "aaabcd")).containsExactly(new Match(0, 2, 6));
+    }
+
+    @Test
+    void stopsWhenTheSinkSaysSo() {
+        AhoCorasick automaton = new AhoCorasick(List.of("a"));
+        List<Integer> starts = new ArrayList<>();
+
+        automaton.scan("aaaa", (pattern, start, end) -> {
+            starts.add(start);
+            return starts.size() < 2;
+        });
+
+        assertThat(starts).containsExactly(0, 1);
+    }
+
+    private static List<Match> scan(AhoCorasick automaton, String text) {
+        List<Match> matches = new ArrayList<>();
+        automaton.scan(text, (pattern, start, end) -> matches.add(new Match(pattern, start, end)));
+        return matches;
+    }
+}
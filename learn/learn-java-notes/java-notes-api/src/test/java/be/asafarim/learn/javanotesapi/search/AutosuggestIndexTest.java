@@ -0,0 +1,133 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.events.NoteDeletedEvent;
+import be.asafarim.learn.javanotesapi.events.TagsCreatedEvent;
+import be.asafarim.learn.javanotesapi.events.TagsRemovedEvent;
+import be.asafarim.learn.javanotesapi.events.UserDeletedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutosuggestIndexTest {
+
+    private final SearchTestDatabase database = new SearchTestDatabase();
+    private final AutosuggestIndex index = new AutosuggestIndex(database.dataSource, database.transactionManager);
+    private final UUID owner = UUID.randomUUID();
+    private final UUID other = UUID.randomUUID();
+
+    @Test
+    void ranksTagsByUsageAboveTitles() {
+        database.note(owner, "Spark basics", "", true, "spring");
+        database.note(owner, "Notes", "", true, "spring", "sql");
+        database.tag("spanish");
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.complete("sp", null, 10))
+                .containsExactly("tag:spring", "tag:spanish", "Spark basics");
+    }
+
+    @Test
+    void completesTitlesFromEveryWordStart() {
+        database.note(owner, "Intro to Spring", "", true);
+        index.rebuild();
+
+        assertThat(index.complete("spr", null, 5)).containsExactly("Intro to Spring");
+        assertThat(index.complete("to sp", null, 5)).containsExactly("Intro to Spring");
+        assertThat(index.complete("ntro", null, 5)).isEmpty();
+    }
+
+    @Test
+    void prefixesLongerThanTheTitleKeyAreCheckedAgainstTheWholeTitle() {
+        database.note(owner, "Distributed transactions in practice", "", true);
+        database.note(owner, "Distributed transactions explained", "", true);
+        index.rebuild();
+
+        assertThat(index.complete("distributed transactions e", null, 5))
+                .containsExactly("Distributed transactions explained");
+    }
+
+    @Test
+    void privateTitlesAreOnlySuggestedToTheirOwner() {
+        database.note(owner, "Secret plans", "", false);
+        database.note(other, "Second thoughts", "", true);
+        index.rebuild();
+
+        assertThat(index.complete("se", owner, 5)).containsExactly("Secret plans", "Second thoughts");
+        assertThat(index.complete("se", other, 5)).containsExactly("Second thoughts");
+        assertThat(index.complete("se", null, 5)).containsExactly("Second thoughts");
+    }
+
+    @Test
+    void suggestsPopularPublicQueriesFromTheLastThirtyDays() {
+        database.searched("kafka streams", 4, 5, 1);
+        database.searched("kafka connect", 4, 3, 1);
+        database.searched("kafka rare", 4, 2, 1);
+        database.searched("kafka old", 4, 9, 60);
+        database.searched("kafka nothing", 0, 9, 1);
+        database.searched("kafka my private notes", 4, 9, 1, false);
+        index.rebuild();
+
+        assertThat(index.complete("kaf", null, 5)).containsExactly("kafka streams", "kafka connect");
+    }
+
+    @Test
+    void liveSearchesOnlyBoostQueriesAlreadySuggested() {
+        database.searched("kafka streams", 4, 5, 1);
+        database.searched("kafka connect", 4, 3, 1);
+        index.rebuild();
+
+        for (int i = 0; i < 3; i++) {
+            index.recordQuery("kafka connect", 4, true);
+            index.recordQuery("kafka secrets", 4, true);
+            index.recordQuery("kafka streams", 4, false);
+        }
+
+        assertThat(index.complete("kaf", null, 5)).containsExactly("kafka connect", "kafka streams");
+    }
+
+    @Test
+    void dailyRefreshDropsQueriesBelowTheThreshold() {
+        database.searched("kafka streams", 4, 3, 1);
+        index.rebuild();
+        assertThat(index.complete("kaf", null, 5)).containsExactly("kafka streams");
+
+        database.jdbc.update("DELETE FROM search_analytics WHERE query = 'kafka streams'");
+        database.searched("kafka streams", 4, 2, 1);
+        database.searched("kafka connect", 4, 4, 1);
+        index.refreshQueries();
+
+        assertThat(index.complete("kaf", null, 5)).containsExactly("kafka connect");
+    }
+
+    @Test
+    void suggestsNewAndRenamedTagsBeforeAnyNoteUsesThem() {
+        database.note(owner, "Notes", "", true, "graphs");
+        index.rebuild();
+
+        index.onTagsCreated(new TagsCreatedEvent(List.of("grafana", "graphs")));
+        assertThat(index.complete("gra", null, 5)).containsExactly("tag:graphs", "tag:grafana");
+
+        // Renaming an unused tag: the new name appears, then the old one goes
+        index.onTagsCreated(new TagsCreatedEvent(List.of("grpc")));
+        index.onTagsRemoved(new TagsRemovedEvent(List.of("grafana")));
+        assertThat(index.complete("gr", null, 5)).containsExactly("tag:graphs", "tag:grpc");
+    }
+
+    @Test
+    void followsDeletionsOfNotesTagsAndUsers() {
+        UUID noteId = database.note(owner, "Graph theory", "", true, "graphs");
+        database.note(other, "Grammar", "", true);
+        index.rebuild();
+
+        index.onNoteDeleted(new NoteDeletedEvent(noteId));
+        index.onTagsRemoved(new TagsRemovedEvent(List.of("graphs")));
+        assertThat(index.complete("gr", owner, 5)).containsExactly("Grammar");
+
+        index.onUserDeleted(new UserDeletedEvent(other));
+        assertThat(index.complete("gr", null, 5)).isEmpty();
+    }
+}
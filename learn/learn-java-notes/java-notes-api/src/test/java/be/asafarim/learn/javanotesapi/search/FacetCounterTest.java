@@ -0,0 +1,57 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetCounterTest {
+
+    private static final UUID OWNER = UUID.randomUUID();
+
+    @Test
+    void countsTheSameFacetsAsTheIndex() {
+        List<NoteDocument> documents = List.of(
+                document(List.of("java", "spring"), "SIMPLE", 2024, "alice", true),
+                document(List.of("Java"), "SIMPLE", 2025, "bob", true),
+                document(List.of("kafka"), "RESEARCH", 2025, "alice", false),
+                document(List.of(), null, 2025, "alice", true));
+        InvertedIndex index = new InvertedIndex();
+        FacetCounter counter = new FacetCounter();
+        for (NoteDocument document : documents) {
+            index.put(document);
+            counter.add(document);
+        }
+
+        List<NoteMatch> all = index.search("", OWNER, FacetFilter.NONE, note -> true);
+        assertThat(counter.top(10)).isEqualTo(index.facetCounts(all, 10));
+        assertThat(counter.top(10).get(FacetFilter.TAG))
+                .containsExactly(new FacetCount("java", 2), new FacetCount("kafka", 1), new FacetCount("spring", 1));
+    }
+
+    @Test
+    void groupedRowsMergeCaseInsensitivelyAndKeepTheTopValues() {
+        FacetCounter counter = new FacetCounter();
+        counter.add(FacetFilter.TAG, "Java", 3);
+        counter.add(FacetFilter.TAG, "java", 2);
+        counter.add(FacetFilter.TAG, "kafka", 4);
+        counter.add(FacetFilter.TAG, "spring", 1);
+        counter.add(FacetFilter.TYPE, null, 7);
+        counter.add("unknown", "value", 1);
+
+        assertThat(counter.top(2).get(FacetFilter.TAG))
+                .containsExactly(new FacetCount("Java", 5), new FacetCount("kafka", 4));
+        assertThat(counter.top(2).get(FacetFilter.TYPE)).isEmpty();
+        assertThat(counter.top(2)).containsOnlyKeys(FacetFilter.FACETS);
+    }
+
+    private static NoteDocument document(List<String> tags, String type, int year, String author,
+                                         boolean publicNote) {
+        LocalDateTime created = LocalDateTime.of(year, 6, 1, 12, 0);
+        return new NoteDocument(UUID.randomUUID(), OWNER, "Title", "content", null, null, tags, type, author,
+                publicNote, created, created);
+    }
+}
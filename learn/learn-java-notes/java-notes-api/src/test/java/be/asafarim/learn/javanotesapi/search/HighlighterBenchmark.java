@@ -0,0 +1,81 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.dto.SearchHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-note cost of what a search does with each hit (match check, occurrence count, highlights) on a large
+ * note, for {@link Highlighter} against the lowercase-and-indexOf code it replaced.
+ * <p>
+ * Run {@link #main} from the IDE, or after {@code mvn test-compile} with the test classpath and
+ * {@code org.openjdk.jmh.Main HighlighterBenchmark -prof gc}; {@code gc.alloc.rate.norm} is the allocation per
+ * note.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighlighterBenchmark {
+
+    @Param({"5000", "50000"})
+    int contentLength;
+
+    @Param({"transaction", "distributed transaction", "missing"})
+    String query;
+
+    private String title;
+    private String content;
+    private Highlighter highlighter;
+
+    @Setup
+    public void setUp() {
+        title = "Notes on Distributed Transaction Processing";
+        content = HighlighterComparisonTest.note(contentLength, 2_000, 42);
+        highlighter = Highlighter.forQuery(query);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        blackhole.consume(LegacyHighlighting.matchesQuery(title, content, query));
+        blackhole.consume(LegacyHighlighting.contentOccurrences(content, query));
+        blackhole.consume(LegacyHighlighting.findHighlights(title, content, query));
+    }
+
+    @Benchmark
+    public void highlighter(Blackhole blackhole) {
+        blackhole.consume(highlighter.indexOf(title) >= 0 || highlighter.indexOf(content) >= 0);
+        blackhole.consume(highlighter.count(content, 5));
+        List<SearchHit.HighlightMatch> highlights = new ArrayList<>();
+        highlighter.highlight("title", title, 1, 20, highlights);
+        highlighter.highlight("content", content, 3, 30, highlights);
+        blackhole.consume(highlights);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HighlighterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.dto.SearchHit;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * {@link Highlighter} against the code it replaced ({@link LegacyHighlighting}) on large notes: same matches,
+ * counts and snippets, with the time and allocation of both reported. Occurrences are spaced further apart than
+ * two snippet contexts, where merging windows cannot change the snippets; {@link HighlighterBenchmark} has the
+ * precise numbers.
+ */
+class HighlighterComparisonTest {
+    private static final Logger logger = LoggerFactory.getLogger(HighlighterComparisonTest.class);
+
+    private static final String TITLE = "Notes on Distributed Transaction Processing";
+    private static final String[] WORDS = {"lorem", "ipsum", "kafka", "spring", "index", "commit", "Replica",
+            "queue", "LATENCY", "shard", "cache", "partition", "offset", "snapshot"};
+    private static final int ROUNDS = 200;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"transaction", "distributed transaction", "processing", "missing"})
+    void producesTheSameResultsAsTheLegacyCodeWithFarLessAllocation(String query) {
+        for (long seed = 1; seed <= 5; seed++) {
+            String content = note(50_000, 2_000, seed);
+            Highlighter highlighter = Highlighter.forQuery(query);
+
+            assertThat(highlighter.indexOf(TITLE) >= 0 || highlighter.indexOf(content) >= 0)
+                    .isEqualTo(LegacyHighlighting.matchesQuery(TITLE, content, query));
+            assertThat(highlighter.count(content, 5))
+                    .isEqualTo(LegacyHighlighting.contentOccurrences(content, query));
+            assertThat(highlights(highlighter, content))
+                    .extracting(SearchHit.HighlightMatch::getField, SearchHit.HighlightMatch::getText,
+                            SearchHit.HighlightMatch::getStartIndex, SearchHit.HighlightMatch::getEndIndex)
+                    .containsExactlyElementsOf(LegacyHighlighting.findHighlights(TITLE, content, query).stream()
+                            .map(h -> tuple(h.getField(), h.getText(), h.getStartIndex(), h.getEndIndex()))
+                            .toList());
+        }
+
+        String content = note(50_000, 2_000, 42);
+        Highlighter highlighter = Highlighter.forQuery(query);
+        Measurement legacy = measure(() -> {
+            LegacyHighlighting.matchesQuery(TITLE, content, query);
+            LegacyHighlighting.contentOccurrences(content, query);
+            LegacyHighlighting.findHighlights(TITLE, content, query);
+        });
+        Measurement current = measure(() -> {
+            highlighter.indexOf(TITLE);
+            highlighter.indexOf(content);
+            highlighter.count(content, 5);
+            highlights(highlighter, content);
+        });
+        logger.info("'{}' on a 50 KB note: legacy {} us and {} bytes per note, highlighter {} us and {} bytes",
+                query, legacy.micros(), legacy.bytes(), current.micros(), current.bytes());
+
+        // Every legacy call lowercases a copy of the 50 KB content; the highlighter only allocates snippets
+        assertThat(current.bytes()).isLessThan(legacy.bytes() / 10);
+    }
+
+    /**
+     * ASCII text of {@code length} characters with "Distributed Transaction" every {@code spacing} characters
+     */
+    static String note(int length, int spacing, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(length + 64);
+        int nextPhrase = spacing / 2;
+        while (text.length() < length) {
+            if (text.length() >= nextPhrase) {
+                text.append(random.nextBoolean() ? "Distributed Transaction" : "distributed TRANSACTION");
+                nextPhrase += spacing;
+            } else {
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            text.append(random.nextInt(10) == 0 ? ". " : " ");
+        }
+        return text.toString();
+    }
+
+    private static List<SearchHit.HighlightMatch> highlights(Highlighter highlighter, String content) {
+        List<SearchHit.HighlightMatch> highlights = new ArrayList<>();
+        highlighter.highlight("title", TITLE, 1, 20, highlights);
+        highlighter.highlight("content", content, 3, 30, highlights);
+        return highlights;
+    }
+
+    private record Measurement(long micros, long bytes) {
+    }
+
+    private static Measurement measure(Runnable perNote) {
+        for (int i = 0; i < ROUNDS; i++) {
+            perNote.run(); // warm up
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            perNote.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Measurement(elapsed / ROUNDS / 1_000, allocated / ROUNDS);
+    }
+}
@@ -0,0 +1,93 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.dto.SearchHit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HighlighterTest {
+
+    @Test
+    void findsAndCountsThePhraseIgnoringCase() {
+        Highlighter highlighter = Highlighter.forQuery("  Spring Boot ");
+
+        assertThat(highlighter.indexOf("Learn SPRING boot, then spring boot again")).isEqualTo(6);
+        assertThat(highlighter.indexOf("spring and boot")).isEqualTo(-1);
+        assertThat(highlighter.count("spring boot / Spring Boot / SPRING BOOT", 10)).isEqualTo(3);
+        assertThat(highlighter.count("spring boot / Spring Boot / SPRING BOOT", 2)).isEqualTo(2);
+        assertThat(highlighter.titleEquals("SPRING BOOT")).isTrue();
+        assertThat(highlighter.startsWith("spring boot in action")).isTrue();
+        assertThat(highlighter.startsWith("in action: spring boot")).isFalse();
+    }
+
+    @Test
+    void countsNonOverlappingOccurrences() {
+        assertThat(Highlighter.forQuery("aa").count("aaaaa", 10)).isEqualTo(2);
+    }
+
+    @Test
+    void blankQueryNeverMatches() {
+        Highlighter highlighter = Highlighter.forQuery("  ");
+        List<SearchHit.HighlightMatch> out = new ArrayList<>();
+
+        highlighter.highlight("content", "anything", 3, 10, out);
+
+        assertThat(highlighter.isEmpty()).isTrue();
+        assertThat(highlighter.indexOf("anything")).isEqualTo(-1);
+        assertThat(out).isEmpty();
+    }
+
+    @Test
+    void distantMatchesGetTheirOwnSnippets() {
+        String text = "x".repeat(50) + "Spring" + "y".repeat(50) + "boot" + "z".repeat(50);
+        List<SearchHit.HighlightMatch> out = new ArrayList<>();
+
+        Highlighter.forQuery("spring boot").highlight("content", text, 5, 3, out);
+
+        assertThat(out).extracting(SearchHit.HighlightMatch::getText).containsExactly("xxxSpringyyy", "yyybootzzz");
+        assertThat(out.get(0).getStartIndex()).isEqualTo(50);
+        assertThat(out.get(0).getEndIndex()).isEqualTo(56);
+        assertThat(out.get(1).getStartIndex()).isEqualTo(106);
+        assertThat(out.get(1).getEndIndex()).isEqualTo(110);
+    }
+
+    @Test
+    void overlappingWindowsAreMergedIntoOneSnippet() {
+        String text = "aaaa spring then boot bbbb";
+        List<SearchHit.HighlightMatch> out = new ArrayList<>();
+
+        Highlighter.forQuery("spring boot").highlight("content", text, 5, 5, out);
+
+        assertThat(out).hasSize(1);
+        SearchHit.HighlightMatch snippet = out.get(0);
+        assertThat(snippet.getText()).isEqualTo("aaaa spring then boot bbbb");
+        assertThat(snippet.getStartIndex()).isEqualTo(5);
+        assertThat(snippet.getEndIndex()).isEqualTo(21);
+    }
+
+    @Test
+    void phraseAndItsWordsFormOneMatch() {
+        String text = "---- spring boot ----";
+        List<SearchHit.HighlightMatch> out = new ArrayList<>();
+
+        Highlighter.forQuery("spring boot").highlight("title", text, 5, 2, out);
+
+        assertThat(out).hasSize(1);
+        assertThat(out.get(0).getField()).isEqualTo("title");
+        assertThat(out.get(0).getStartIndex()).isEqualTo(5);
+        assertThat(out.get(0).getEndIndex()).isEqualTo(16);
+    }
+
+    @Test
+    void stopsAtTheSnippetLimit() {
+        String text = String.join("..........", List.of("java", "java", "java", "java"));
+        List<SearchHit.HighlightMatch> out = new ArrayList<>();
+
+        Highlighter.forQuery("java").highlight("content", text, 2, 1, out);
+
+        assertThat(out).hasSize(2);
+    }
+}
@@ -0,0 +1,145 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of an index search over a synthetic corpus of {@link #noteCount} notes: 1,000 owners, a third of the
+ * notes public, 80-word contents and 6-word titles drawn from a 20,000-word vocabulary with Zipf-like
+ * frequencies, and one to three of 200 tags. The queries cover a mid-frequency word, a two-word phrase, a
+ * partially typed word, a rare word restricted by a tag facet, and the most common word, which matches nearly
+ * every public note and is the worst case. Facet counts and ranking are not included.
+ * <p>
+ * The 10 ms target holds for selective queries; a search still visits every note of its rarest term, so a
+ * query made only of common words takes time in proportion to the notes it matches. Setup prints the heap the
+ * built index retains.
+ * <p>
+ * Run {@link #main} from the IDE, or after {@code mvn test-compile} with the test classpath and
+ * {@code org.openjdk.jmh.Main InvertedIndexBenchmark}. The forked JVM needs about 4 GB of heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InvertedIndexBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int OWNERS = 1_000;
+    private static final int TAGS = 200;
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Param({"1000000"})
+    int noteCount;
+
+    @Param({"mid-frequency", "phrase", "prefix", "rare-in-tag", "most-common"})
+    String query;
+
+    private InvertedIndex index;
+    private String text;
+    private FacetFilter facetFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] words = vocabulary(random);
+        List<UUID> owners = new ArrayList<>(OWNERS);
+        for (int i = 0; i < OWNERS; i++) {
+            owners.add(UUID.randomUUID());
+        }
+
+        long heapBefore = usedHeap();
+        index = new InvertedIndex();
+        for (int i = 0; i < noteCount; i++) {
+            int owner = random.nextInt(OWNERS);
+            List<String> tags = new ArrayList<>();
+            for (int t = random.nextInt(3); t >= 0; t--) {
+                tags.add("tag" + random.nextInt(TAGS));
+            }
+            index.put(new NoteDocument(UUID.randomUUID(), owners.get(owner), text(words, 6, random),
+                    text(words, 80, random), null, null, tags, "GENERAL", "user" + owner, random.nextInt(3) == 0,
+                    START.plusMinutes(i), START.plusMinutes(i)));
+        }
+        System.out.printf("%nIndexed %,d notes, %,d MB retained%n", noteCount, (usedHeap() - heapBefore) >> 20);
+
+        facetFilter = FacetFilter.NONE;
+        text = switch (query) {
+            case "mid-frequency" -> words[100];
+            case "phrase" -> words[20] + " " + words[40];
+            case "prefix" -> words[300].substring(0, 3);
+            case "rare-in-tag" -> {
+                facetFilter = new FacetFilter(List.of("tag7"), Map.of());
+                yield words[5_000];
+            }
+            case "most-common" -> words[0];
+            default -> throw new IllegalArgumentException(query);
+        };
+    }
+
+    @Benchmark
+    public void search(Blackhole blackhole) {
+        blackhole.consume(index.search(text, null, facetFilter, note -> true));
+    }
+
+    /**
+     * Distinct lowercase words of four to nine letters; lower indexes are drawn more often
+     */
+    private static String[] vocabulary(Random random) {
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < VOCABULARY) {
+            StringBuilder word = new StringBuilder();
+            for (int length = 4 + random.nextInt(6); length > 0; length--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return words.toArray(String[]::new);
+    }
+
+    private static String text(String[] words, int length, Random random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            // Log-uniform rank: word i is drawn with probability roughly proportional to 1 / (i + 1)
+            int rank = (int) Math.exp(random.nextDouble() * Math.log(words.length + 1)) - 1;
+            text.append(words[Math.min(rank, words.length - 1)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InvertedIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
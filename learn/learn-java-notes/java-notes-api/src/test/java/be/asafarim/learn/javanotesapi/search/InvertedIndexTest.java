@@ -0,0 +1,229 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    private static final UUID OWNER = UUID.randomUUID();
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void matchesQueryTermsOnlyAsAPhrase() {
+        UUID adjacent = put("Notes", "testing spring boot applications", List.of());
+        UUID apart = put("Notes", "spring is not boot", List.of());
+
+        assertThat(ids(search("spring boot"))).containsExactly(adjacent);
+        assertThat(ids(search("boot spring"))).isEmpty();
+        assertThat(ids(search("spring"))).containsExactlyInAnyOrder(adjacent, apart);
+    }
+
+    @Test
+    void phraseDoesNotSpanTwoTags() {
+        put("Tagged", "", List.of("spring", "boot"));
+        UUID oneTag = put("Tagged", "", List.of("spring boot"));
+
+        assertThat(ids(search("spring boot"))).containsExactly(oneTag);
+    }
+
+    @Test
+    void phraseMatchInTheTitleIsReported() {
+        put("Spring Boot", "something else", List.of());
+
+        NoteMatch match = search("spring boot").get(0);
+
+        assertThat(match.titleOccurrences()).isEqualTo(1);
+        assertThat(match.titleStartsWith()).isTrue();
+        assertThat(match.titleExact()).isTrue();
+        assertThat(match.textScore()).isPositive();
+    }
+
+    @Test
+    void lastTermMatchesAsPrefix() {
+        UUID spring = put("Spring", "spring boot", List.of());
+        put("Summer", "summer holidays", List.of());
+
+        assertThat(ids(search("spr"))).containsExactly(spring);
+        assertThat(ids(search("spring bo"))).containsExactly(spring);
+        // Only the last term is a prefix
+        assertThat(ids(search("spr boot"))).isEmpty();
+    }
+
+    @Test
+    void prefixExpansionKeepsTheTermsInTheMostNotes() {
+        // 70 rare terms sort before the common one, more than a prefix expands to
+        for (int i = 0; i < 70; i++) {
+            put("Rare", "aa%02d".formatted(i), List.of());
+        }
+        List<UUID> common = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            common.add(put("Common", "azure", List.of()));
+        }
+
+        assertThat(ids(search("a"))).containsAll(common).hasSize(64 - 1 + common.size());
+    }
+
+    @Test
+    void privateNotesAreOnlyVisibleToTheirOwner() {
+        UUID hidden = put(UUID.randomUUID(), "Diary", "private words", List.of(), false);
+
+        assertThat(ids(index.search("private", null, FacetFilter.NONE, note -> true))).isEmpty();
+        assertThat(ids(index.search("private", OWNER, FacetFilter.NONE, note -> true))).isEmpty();
+        IndexedNote note = index.get(hidden);
+        assertThat(ids(index.search("private", note.getOwnerId(), FacetFilter.NONE, n -> true)))
+                .containsExactly(hidden);
+    }
+
+    @Test
+    void updateReplacesTheOldVersionAndKeepsCounts() {
+        UUID id = put("Old title", "old content", List.of());
+        index.setCounts(id, 5, 1);
+
+        IndexedNote previous = index.put(document(id, OWNER, "New title", "new content", List.of(), true));
+
+        assertThat(previous).isNotNull();
+        assertThat(ids(search("old"))).isEmpty();
+        assertThat(ids(search("new content"))).containsExactly(id);
+        assertThat(index.get(id).getViewCount()).isEqualTo(5);
+        assertThat(index.get(id).getAttachmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void removedNotesNoLongerMatch() {
+        UUID removed = put("Gone", "shared", List.of());
+        UUID kept = put("Kept", "shared", List.of());
+
+        assertThat(index.remove(removed)).isNotNull();
+        assertThat(index.remove(removed)).isNull();
+        assertThat(ids(search("shared"))).containsExactly(kept);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void compactionReclaimsRetiredOrdinalsAndKeepsResultsAndFacets() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(put("Note " + i, "common", List.of(i % 2 == 0 ? "even" : "odd")));
+        }
+        // 2000 updates retire 2000 ordinals, well past the compaction threshold
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < ids.size(); i++) {
+                index.put(document(ids.get(i), OWNER, "Note " + i, "common round" + round,
+                        List.of(i % 2 == 0 ? "even" : "odd"), true));
+            }
+        }
+
+        assertThat(index.capacity()).isLessThan(2 * 1024);
+        List<NoteMatch> matches = search("common");
+        assertThat(ids(matches)).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(ids(search("round19"))).hasSize(100);
+        // Positions move with their notes
+        assertThat(ids(search("common round19"))).hasSize(100);
+        assertThat(ids(search("round19 common"))).isEmpty();
+        assertThat(ids(search("round3"))).isEmpty();
+        assertThat(ids(index.search("", null, new FacetFilter(List.of("even"), Map.of()), n -> true)))
+                .hasSize(50);
+        assertThat(index.facetCounts(matches, 5).get(FacetFilter.TAG))
+                .containsExactlyInAnyOrder(new FacetCount("even", 50), new FacetCount("odd", 50));
+    }
+
+    @Test
+    void facetCountsSkipNotesChangedSinceTheSearch() {
+        UUID changed = put("Changed", "word", List.of("tag"));
+        put("Stable", "word", List.of("tag"));
+        List<NoteMatch> matches = search("word");
+
+        index.put(document(changed, OWNER, "Changed", "word", List.of("tag"), true));
+
+        assertThat(index.facetCounts(matches, 5).get(FacetFilter.TAG)).containsExactly(new FacetCount("tag", 1));
+    }
+
+    @Test
+    void renamingAnAuthorRefilesTheirNotes() {
+        UUID first = put("First", "word", List.of());
+        UUID second = put("Second", "word", List.of());
+        UUID other = put(UUID.randomUUID(), "Other", "word", List.of(), true);
+
+        assertThat(index.renameAuthor(OWNER, "renamed")).isEqualTo(2);
+        assertThat(index.renameAuthor(OWNER, "renamed")).isZero();
+
+        assertThat(index.get(first).getAuthor()).isEqualTo("renamed");
+        assertThat(ids(index.search("word", null, byAuthor("renamed"), n -> true)))
+                .containsExactlyInAnyOrder(first, second);
+        assertThat(ids(index.search("word", null, byAuthor("author"), n -> true))).containsExactly(other);
+        assertThat(index.facetCounts(search("word"), 5).get(FacetFilter.AUTHOR))
+                .containsExactly(new FacetCount("renamed", 2), new FacetCount("author", 1));
+    }
+
+    @Test
+    void repeatedTermsKeepAllTheirPositions() {
+        UUID id = put("Title", "to be or not to be", List.of());
+
+        assertThat(ids(search("not to be"))).containsExactly(id);
+        assertThat(ids(search("to be or"))).containsExactly(id);
+        assertThat(search("to be").get(0).contentOccurrences()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentViewsAreAllCounted() throws Exception {
+        UUID id = put("Popular", "content", List.of());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        index.recordView(id);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(index.get(id).getViewCount()).isEqualTo(80_000);
+    }
+
+    private List<NoteMatch> search(String query) {
+        return index.search(query, null, FacetFilter.NONE, note -> true);
+    }
+
+    private static FacetFilter byAuthor(String author) {
+        return new FacetFilter(List.of(), Map.of(FacetFilter.AUTHOR, List.of(author)));
+    }
+
+    private UUID put(String title, String content, List<String> tags) {
+        return put(OWNER, title, content, tags, true);
+    }
+
+    private UUID put(UUID owner, String title, String content, List<String> tags, boolean publicNote) {
+        UUID id = UUID.randomUUID();
+        index.put(document(id, owner, title, content, tags, publicNote));
+        return id;
+    }
+
+    private static NoteDocument document(UUID id, UUID owner, String title, String content, List<String> tags,
+                                         boolean publicNote) {
+        return new NoteDocument(id, owner, title, content, null, null, tags, "NOTE", "author", publicNote,
+                CREATED, CREATED);
+    }
+
+    private static List<UUID> ids(List<NoteMatch> matches) {
+        return matches.stream().map(match -> match.note().getId()).toList();
+    }
+}
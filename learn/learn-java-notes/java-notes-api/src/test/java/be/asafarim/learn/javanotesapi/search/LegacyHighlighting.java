@@ -0,0 +1,70 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.dto.SearchHit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The query matching and highlighting {@code SearchService} did before {@link Highlighter}, kept verbatim as the
+ * baseline for {@link HighlighterBenchmark} and {@link HighlighterComparisonTest}. {@code query} is lowercased
+ * and trimmed, as the service passed it.
+ */
+final class LegacyHighlighting {
+
+    private LegacyHighlighting() {
+    }
+
+    static boolean matchesQuery(String title, String content, String query) {
+        String lowerTitle = title != null ? title.toLowerCase() : "";
+        String lowerContent = content != null ? content.toLowerCase() : "";
+        return lowerTitle.contains(query) || lowerContent.contains(query);
+    }
+
+    /**
+     * Content occurrences as the relevance score counted them, up to 5
+     */
+    static int contentOccurrences(String content, String query) {
+        String lowerContent = content != null ? content.toLowerCase() : "";
+        if (!lowerContent.contains(query)) {
+            return 0;
+        }
+        return Math.min(5, countOccurrences(lowerContent, query));
+    }
+
+    static List<SearchHit.HighlightMatch> findHighlights(String title, String content, String query) {
+        List<SearchHit.HighlightMatch> highlights = new ArrayList<>();
+        title = title != null ? title : "";
+        content = content != null ? content : "";
+
+        int titleIdx = title.toLowerCase().indexOf(query);
+        if (titleIdx >= 0) {
+            int start = Math.max(0, titleIdx - 20);
+            int end = Math.min(title.length(), titleIdx + query.length() + 20);
+            highlights.add(new SearchHit.HighlightMatch("title", title.substring(start, end), titleIdx,
+                    titleIdx + query.length()));
+        }
+
+        int contentIdx = 0;
+        int matchCount = 0;
+        while ((contentIdx = content.toLowerCase().indexOf(query, contentIdx)) != -1 && matchCount < 3) {
+            int start = Math.max(0, contentIdx - 30);
+            int end = Math.min(content.length(), contentIdx + query.length() + 30);
+            highlights.add(new SearchHit.HighlightMatch("content", content.substring(start, end), contentIdx,
+                    contentIdx + query.length()));
+            contentIdx += query.length();
+            matchCount++;
+        }
+        return highlights;
+    }
+
+    private static int countOccurrences(String text, String query) {
+        int count = 0;
+        int idx = 0;
+        while ((idx = text.indexOf(query, idx)) != -1) {
+            count++;
+            idx += query.length();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,100 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrdinalBitmapTest {
+
+    private static final int RANGE = 4 * 65536;
+
+    @Test
+    void addRemoveAndContainsAcrossArrayAndBitsetChunks() {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        // Past the array limit, so the first chunk turns into a bitset and back
+        for (int i = 0; i < 6000; i++) {
+            bitmap.add(i * 2);
+        }
+        bitmap.add(70_000);
+        bitmap.add(70_000);
+
+        assertThat(bitmap.cardinality()).isEqualTo(6001);
+        assertThat(bitmap.contains(11_998)).isTrue();
+        assertThat(bitmap.contains(11_999)).isFalse();
+        assertThat(bitmap.contains(70_000)).isTrue();
+
+        for (int i = 0; i < 5000; i++) {
+            bitmap.remove(i * 2);
+        }
+        bitmap.remove(70_000);
+        bitmap.remove(70_000);
+
+        assertThat(bitmap.cardinality()).isEqualTo(1000);
+        assertThat(bitmap.toArray()).startsWith(10_000, 10_002).endsWith(11_998);
+        assertThat(bitmap.contains(70_000)).isFalse();
+    }
+
+    @Test
+    void setOperationsMatchBitSetForSparseAndDenseChunks() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            BitSet left = randomSet(random);
+            BitSet right = randomSet(random);
+            OrdinalBitmap a = bitmapOf(left);
+            OrdinalBitmap b = bitmapOf(right);
+
+            BitSet and = (BitSet) left.clone();
+            and.and(right);
+            BitSet or = (BitSet) left.clone();
+            or.or(right);
+            BitSet andNot = (BitSet) left.clone();
+            andNot.andNot(right);
+
+            assertThat(a.and(b).toArray()).isEqualTo(and.stream().toArray());
+            assertThat(a.andCardinality(b)).isEqualTo(and.cardinality());
+            assertThat(a.or(b).toArray()).isEqualTo(or.stream().toArray());
+            assertThat(a.andNot(b).toArray()).isEqualTo(andNot.stream().toArray());
+            assertThat(a.andNot(b).cardinality()).isEqualTo(andNot.cardinality());
+        }
+    }
+
+    @Test
+    void operationsLeaveTheirOperandsUnchanged() {
+        OrdinalBitmap a = OrdinalBitmap.of(new int[]{1, 2, 3, 70_000});
+        OrdinalBitmap b = OrdinalBitmap.of(new int[]{2, 3, 4});
+
+        assertThat(a.andNot(b).toArray()).containsExactly(1, 70_000);
+        assertThat(b.andNot(a).toArray()).containsExactly(4);
+        assertThat(a.andNot(a).isEmpty()).isTrue();
+        assertThat(a.toArray()).containsExactly(1, 2, 3, 70_000);
+        assertThat(b.toArray()).containsExactly(2, 3, 4);
+    }
+
+    /**
+     * Per chunk a random density, so pairs mix empty, array and bitset chunks
+     */
+    private static BitSet randomSet(Random random) {
+        BitSet set = new BitSet(RANGE);
+        for (int chunk = 0; chunk < RANGE / 65536; chunk++) {
+            double density = switch (random.nextInt(4)) {
+                case 0 -> 0.0;
+                case 1 -> 0.01;
+                case 2 -> 0.2;
+                default -> 0.9;
+            };
+            for (int low = 0; low < 65536; low++) {
+                if (random.nextDouble() < density) {
+                    set.set(chunk * 65536 + low);
+                }
+            }
+        }
+        return set;
+    }
+
+    private static OrdinalBitmap bitmapOf(BitSet set) {
+        return OrdinalBitmap.of(set.stream().toArray());
+    }
+}
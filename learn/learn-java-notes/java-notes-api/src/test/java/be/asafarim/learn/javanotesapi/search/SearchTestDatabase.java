@@ -0,0 +1,61 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * An in-memory H2 database with just the columns the search indexes load at startup.
+ */
+final class SearchTestDatabase {
+
+    final DriverManagerDataSource dataSource;
+    final DataSourceTransactionManager transactionManager;
+    final JdbcTemplate jdbc;
+
+    SearchTestDatabase() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE study_notes (id UUID PRIMARY KEY, user_id UUID, title VARCHAR(255), "
+                + "content VARCHAR(10000), is_public BOOLEAN)");
+        jdbc.execute("CREATE TABLE tags (id UUID PRIMARY KEY, name VARCHAR(100))");
+        jdbc.execute("CREATE TABLE study_note_tags (study_note_id UUID, tag_id UUID)");
+        jdbc.execute("CREATE TABLE search_analytics (query VARCHAR(500), result_count INT, "
+                + "\"TIMESTAMP\" TIMESTAMP, is_public_search BOOLEAN)");
+    }
+
+    UUID note(UUID ownerId, String title, String content, boolean publicNote, String... tags) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO study_notes VALUES (?, ?, ?, ?, ?)", id, ownerId, title, content, publicNote);
+        for (String tag : tags) {
+            UUID tagId = jdbc.queryForList("SELECT id FROM tags WHERE name = ?", UUID.class, tag).stream()
+                    .findFirst()
+                    .orElseGet(() -> tag(tag));
+            jdbc.update("INSERT INTO study_note_tags VALUES (?, ?)", id, tagId);
+        }
+        return id;
+    }
+
+    UUID tag(String name) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO tags VALUES (?, ?)", id, name);
+        return id;
+    }
+
+    void searched(String query, int resultCount, int times, int daysAgo) {
+        searched(query, resultCount, times, daysAgo, true);
+    }
+
+    void searched(String query, int resultCount, int times, int daysAgo, boolean publicSearch) {
+        Timestamp at = Timestamp.from(Instant.now().minus(daysAgo, ChronoUnit.DAYS));
+        for (int i = 0; i < times; i++) {
+            jdbc.update("INSERT INTO search_analytics VALUES (?, ?, ?, ?)", query, resultCount, at, publicSearch);
+        }
+    }
+}
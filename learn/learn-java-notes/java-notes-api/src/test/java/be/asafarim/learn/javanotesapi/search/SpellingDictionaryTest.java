@@ -0,0 +1,82 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpellingDictionaryTest {
+
+    private final SpellingDictionary dictionary = new SpellingDictionary();
+
+    @Test
+    void findsWordsWithinTwoEdits() {
+        dictionary.adjust("spring", 1);
+        dictionary.adjust("hibernate", 1);
+
+        assertThat(dictionary.lookup("sprng", 3)).extracting(SpellingDictionary.Correction::word)
+                .containsExactly("spring");
+        assertThat(dictionary.lookup("hibrenat", 3)).extracting(SpellingDictionary.Correction::distance)
+                .containsExactly(2);
+        assertThat(dictionary.lookup("hbrnat", 3)).isEmpty();
+    }
+
+    @Test
+    void transpositionCountsAsOneEdit() {
+        dictionary.adjust("java", 1);
+
+        assertThat(dictionary.lookup("jaav", 1))
+                .containsExactly(new SpellingDictionary.Correction("java", 1, 1));
+        assertThat(SpellingDictionary.distance("java", "jaav", 2)).isEqualTo(1);
+    }
+
+    @Test
+    void shortTermsOnlyGetCorrectionsOneEditAway() {
+        dictionary.adjust("java", 1);
+
+        assertThat(dictionary.lookup("jv", 3)).isEmpty();
+        assertThat(dictionary.lookup("jxvx", 3)).isEmpty();
+        assertThat(dictionary.lookup("jova", 3)).extracting(SpellingDictionary.Correction::word)
+                .containsExactly("java");
+    }
+
+    @Test
+    void closerWordsComeFirstThenMoreFrequentOnes() {
+        dictionary.adjust("spring", 1);
+        dictionary.adjust("sprint", 50);
+        dictionary.adjust("string", 10);
+
+        assertThat(dictionary.lookup("sprinh", 3)).extracting(SpellingDictionary.Correction::word)
+                .containsExactly("sprint", "spring", "string");
+        assertThat(dictionary.lookup("spring", 3)).extracting(SpellingDictionary.Correction::word)
+                .startsWith("spring");
+    }
+
+    @Test
+    void lookupsStillMatchWordsLongerThanTheDeletePrefix() {
+        dictionary.adjust("configuration", 1);
+
+        assertThat(dictionary.lookup("configuratoin", 1)).extracting(SpellingDictionary.Correction::word)
+                .containsExactly("configuration");
+    }
+
+    @Test
+    void wordsDisappearWhenTheirFrequencyDropsToZero() {
+        dictionary.adjust("spring", 2);
+        dictionary.adjust("spring", -1);
+        assertThat(dictionary.contains("spring")).isTrue();
+
+        dictionary.adjust("spring", -1);
+
+        assertThat(dictionary.contains("spring")).isFalse();
+        assertThat(dictionary.size()).isZero();
+        assertThat(dictionary.lookup("sprng", 3)).isEmpty();
+    }
+
+    @Test
+    void ignoresWordsOutsideTheIndexedLengths() {
+        dictionary.adjust("go", 1);
+        dictionary.adjust("x".repeat(40), 1);
+
+        assertThat(dictionary.size()).isZero();
+    }
+}
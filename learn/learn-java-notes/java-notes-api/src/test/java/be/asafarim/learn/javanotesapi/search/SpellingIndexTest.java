@@ -0,0 +1,131 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import be.asafarim.learn.javanotesapi.entities.StudyNote;
+import be.asafarim.learn.javanotesapi.entities.User;
+import be.asafarim.learn.javanotesapi.events.NoteChangedEvent;
+import be.asafarim.learn.javanotesapi.events.NoteDeletedEvent;
+import be.asafarim.learn.javanotesapi.events.UserDeletedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpellingIndexTest {
+
+    private final SearchTestDatabase database = new SearchTestDatabase();
+    private final SpellingIndex index = new SpellingIndex(database.dataSource, database.transactionManager);
+    private final UUID owner = UUID.randomUUID();
+
+    @Test
+    void offersNothingUntilBuilt() {
+        database.note(owner, "Spring", "spring", true);
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.correct("sprng")).isNull();
+    }
+
+    @Test
+    void correctsUnknownTermsAgainstPublicNotes() {
+        database.note(owner, "Spring Boot", "configuring spring applications", true);
+        index.rebuild();
+
+        assertThat(index.correct("Sprng  Boot")).isEqualTo("spring boot");
+        assertThat(index.correct("spring boot")).isNull();
+        assertThat(index.suggest("confguring aplications", 3)).first().isEqualTo("configuring applications");
+    }
+
+    @Test
+    void privateNotesStayOutOfTheVocabulary() {
+        database.note(owner, "Diary", "confidential", false);
+        index.rebuild();
+
+        assertThat(index.correct("confidental")).isNull();
+    }
+
+    @Test
+    void queriesOnlyBoostWordsThatAreAlreadyKnown() {
+        database.note(owner, "Notes", "spring sprint", true);
+        database.searched("sprint", 3, 5, 1);
+        database.searched("sprinkle", 3, 5, 1);
+        index.rebuild();
+
+        assertThat(index.correct("sprinx")).isEqualTo("sprint");
+        index.recordQuery("sprinkles", 4, true);
+        assertThat(index.correct("sprinklez")).isNull();
+    }
+
+    @Test
+    void onlyPublicSearchesBoostWords() {
+        database.note(owner, "Notes", "sprint", true);
+        database.note(owner, "Notes", "spring", true);
+        database.searched("sprint", 3, 5, 1, false);
+        index.rebuild();
+        index.recordQuery("sprint", 3, false);
+
+        // A tie on distance and weight falls back to alphabetical order
+        assertThat(index.correct("sprinx")).isEqualTo("spring");
+
+        index.recordQuery("sprint", 3, true);
+        assertThat(index.correct("sprinx")).isEqualTo("sprint");
+    }
+
+    @Test
+    void searchedWordsLeaveWithTheirLastPublicNote() {
+        UUID madePrivate = database.note(owner, "Roadmap", "acquisition", true);
+        UUID deleted = database.note(owner, "Plans", "reorganisation", true);
+        database.searched("acquisition reorganisation", 3, 20, 1);
+        index.rebuild();
+        index.recordQuery("acquisition", 3, true);
+        assertThat(index.correct("aquisition")).isEqualTo("acquisition");
+        assertThat(index.correct("reorganisaton")).isEqualTo("reorganisation");
+
+        index.onNoteChanged(new NoteChangedEvent(note(madePrivate, "Roadmap", false)));
+        index.onNoteDeleted(new NoteDeletedEvent(deleted));
+
+        assertThat(index.correct("aquisition")).isNull();
+        assertThat(index.correct("reorganisaton")).isNull();
+    }
+
+    @Test
+    void editingANoteKeepsTheSearchWeightOfItsWords() {
+        UUID noteId = database.note(owner, "Notes", "sprint", true);
+        database.note(owner, "Notes", "spring", true);
+        database.searched("sprint", 3, 5, 1);
+        index.rebuild();
+
+        index.onNoteChanged(new NoteChangedEvent(note(noteId, "sprint", true)));
+
+        assertThat(index.correct("sprinx")).isEqualTo("sprint");
+    }
+
+    @Test
+    void followsNoteChangesAndDeletions() {
+        UUID noteId = database.note(owner, "Old", "hibernate", true);
+        index.rebuild();
+        assertThat(index.correct("hibernat")).isEqualTo("hibernate");
+
+        index.onNoteDeleted(new NoteDeletedEvent(noteId));
+        assertThat(index.correct("hibernat")).isNull();
+
+        index.onNoteChanged(new NoteChangedEvent(note(noteId, "Kafka streams", true)));
+        assertThat(index.correct("kafak")).isEqualTo("kafka");
+
+        index.onNoteChanged(new NoteChangedEvent(note(noteId, "Kafka streams", false)));
+        assertThat(index.correct("kafak")).isNull();
+
+        index.onNoteChanged(new NoteChangedEvent(note(noteId, "Kafka streams", true)));
+        index.onUserDeleted(new UserDeletedEvent(owner));
+        assertThat(index.correct("kafak")).isNull();
+    }
+
+    private StudyNote note(UUID id, String title, boolean publicNote) {
+        User user = new User();
+        user.setId(owner);
+        user.setUsername("owner");
+        StudyNote note = new StudyNote(title, "", user);
+        note.setId(id);
+        note.setPublic(publicNote);
+        return note;
+    }
+}
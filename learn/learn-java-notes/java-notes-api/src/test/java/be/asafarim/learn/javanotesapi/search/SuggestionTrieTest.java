@@ -0,0 +1,73 @@
+package be.asafarim.learn.javanotesapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    private final SuggestionTrie trie = new SuggestionTrie();
+
+    @Test
+    void completesPrefixesHighestWeightFirst() {
+        trie.put("spring", "Spring", 10);
+        trie.put("spring boot", "Spring Boot", 30);
+        trie.put("sql", "SQL", 20);
+        trie.put("java", "Java", 100);
+
+        assertThat(trie.complete("s", 10)).extracting(SuggestionTrie.Suggestion::text)
+                .containsExactly("Spring Boot", "SQL", "Spring");
+        assertThat(trie.complete("SPR", 1)).extracting(SuggestionTrie.Suggestion::text)
+                .containsExactly("Spring Boot");
+        assertThat(trie.complete("x", 10)).isEmpty();
+    }
+
+    @Test
+    void sameTextUnderSeveralKeysIsSuggestedOnce() {
+        trie.put("intro to spring", "Intro to Spring", 5);
+        trie.put("spring", "Intro to Spring", 5);
+        trie.put("sp", "Spaces", 1);
+
+        assertThat(trie.complete("", 10)).extracting(SuggestionTrie.Suggestion::text)
+                .containsExactly("Intro to Spring", "Spaces");
+    }
+
+    @Test
+    void incrementsAccumulateAndDropEntriesAtZero() {
+        trie.increment("java", "Java", 3);
+        trie.increment("java", "Java", 2);
+        assertThat(trie.complete("ja", 1)).containsExactly(new SuggestionTrie.Suggestion("Java", 5));
+
+        trie.increment("java", "Java", -5);
+
+        assertThat(trie.complete("ja", 1)).isEmpty();
+        assertThat(trie.isEmpty()).isTrue();
+    }
+
+    @Test
+    void removalPrunesEmptyBranchesAndKeepsSiblings() {
+        trie.put("spring", "Spring", 10);
+        trie.put("sprint", "Sprint", 5);
+
+        trie.remove("spring", "Spring");
+
+        assertThat(trie.complete("spr", 10)).containsExactly(new SuggestionTrie.Suggestion("Sprint", 5));
+        assertThat(trie.complete("spri", 10)).hasSize(1);
+        assertThat(trie.complete("spring", 10)).isEmpty();
+
+        trie.remove("sprint", "Sprint");
+        trie.remove("missing", "Missing");
+
+        assertThat(trie.isEmpty()).isTrue();
+    }
+
+    @Test
+    void removingOneTextKeepsOthersUnderTheSameKey() {
+        trie.put("notes", "Notes", 3);
+        trie.put("notes", "NOTES", 7);
+
+        trie.remove("notes", "NOTES");
+
+        assertThat(trie.complete("no", 10)).containsExactly(new SuggestionTrie.Suggestion("Notes", 3));
+    }
+}
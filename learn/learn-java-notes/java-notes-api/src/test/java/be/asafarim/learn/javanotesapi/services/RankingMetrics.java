@@ -0,0 +1,60 @@
+package be.asafarim.learn.javanotesapi.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranking quality against graded relevance judgments: nDCG@k, reciprocal rank and precision@k.
+ * <p>
+ * Grades run from 0 (irrelevant) to 3 (perfect); unjudged results count as 0. A result is relevant for reciprocal
+ * rank and precision when its grade is above 0.
+ */
+final class RankingMetrics {
+
+    private RankingMetrics() {
+    }
+
+    /**
+     * Discounted cumulative gain of the top k with gain 2^grade - 1, divided by that of the ideal ordering
+     */
+    static <T> double ndcg(List<T> ranking, Map<T, Integer> grades, int k) {
+        double dcg = 0.0;
+        for (int i = 0; i < Math.min(k, ranking.size()); i++) {
+            dcg += gain(grades.getOrDefault(ranking.get(i), 0)) / log2(i + 2);
+        }
+        List<Integer> ideal = new ArrayList<>(grades.values());
+        ideal.sort(Collections.reverseOrder());
+        double idealDcg = 0.0;
+        for (int i = 0; i < Math.min(k, ideal.size()); i++) {
+            idealDcg += gain(ideal.get(i)) / log2(i + 2);
+        }
+        return idealDcg > 0 ? dcg / idealDcg : 0.0;
+    }
+
+    static <T> double reciprocalRank(List<T> ranking, Map<T, Integer> grades) {
+        for (int i = 0; i < ranking.size(); i++) {
+            if (grades.getOrDefault(ranking.get(i), 0) > 0) {
+                return 1.0 / (i + 1);
+            }
+        }
+        return 0.0;
+    }
+
+    static <T> double precision(List<T> ranking, Map<T, Integer> grades, int k) {
+        long relevant = ranking.stream()
+                .limit(k)
+                .filter(id -> grades.getOrDefault(id, 0) > 0)
+                .count();
+        return (double) relevant / k;
+    }
+
+    private static double gain(int grade) {
+        return grade > 0 ? Math.pow(2, grade) - 1 : 0.0;
+    }
+
+    private static double log2(int x) {
+        return Math.log(x) / Math.log(2);
+    }
+}
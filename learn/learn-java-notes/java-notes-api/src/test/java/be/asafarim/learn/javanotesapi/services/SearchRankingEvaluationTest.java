@@ -0,0 +1,129 @@
+package be.asafarim.learn.javanotesapi.services;
+
+import be.asafarim.learn.javanotesapi.config.RankingFeatureConfig;
+import be.asafarim.learn.javanotesapi.dto.SearchRequest;
+import be.asafarim.learn.javanotesapi.search.InvertedIndex;
+import be.asafarim.learn.javanotesapi.search.NoteDocument;
+import be.asafarim.learn.javanotesapi.search.NoteSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Offline ranking evaluation: the judged queries of {@code search/relevance-judgments.json} run as public searches
+ * on the index ranking over the fixture notes, scored with nDCG@10, mean reciprocal rank and precision@10.
+ * <p>
+ * The floors are the current scores rounded down; a ranking change that lowers them should come with new
+ * judgments or a reason, one that raises them should raise the floors. The per-query scores are logged.
+ */
+class SearchRankingEvaluationTest {
+    private static final Logger logger = LoggerFactory.getLogger(SearchRankingEvaluationTest.class);
+
+    private static final int K = 10;
+    private static final UUID OWNER = UUID.randomUUID();
+    // Old enough for the freshness boost not to apply
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    record Fixture(List<FixtureNote> notes, List<JudgedQuery> queries) {
+    }
+
+    record FixtureNote(String key, String title, String content, List<String> tags, String abstractText,
+                       String keywords, long views) {
+    }
+
+    record JudgedQuery(String query, List<String> tags, Map<String, Integer> grades) {
+        JudgedQuery {
+            tags = tags != null ? tags : List.of();
+        }
+    }
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final Map<UUID, String> keys = new HashMap<>();
+    private Fixture fixture;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/search/relevance-judgments.json")) {
+            fixture = new ObjectMapper().readValue(in, Fixture.class);
+        }
+        for (FixtureNote note : fixture.notes()) {
+            UUID id = UUID.randomUUID();
+            index.put(new NoteDocument(id, OWNER, note.title(), note.content(), note.abstractText(),
+                    note.keywords(), note.tags(), "NOTE", "author", true, CREATED, CREATED));
+            index.setCounts(id, note.views(), 0);
+            keys.put(id, note.key());
+        }
+
+        NoteSearchIndex searchIndex = mock(NoteSearchIndex.class);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(any(), any(), any(), any())).thenAnswer(call ->
+                index.search(call.getArgument(0), call.getArgument(1), call.getArgument(2), call.getArgument(3)));
+
+        RankingFeatureConfig features = new RankingFeatureConfig();
+        searchService = new SearchService(null, null, null, null, null, searchIndex, null, null, null, null, null,
+                List.of(features.popularityFeature(), features.attachmentFeature(), features.freshnessFeature(),
+                        features.tagCountFeature()));
+    }
+
+    @Test
+    void rankingMeetsTheJudgedQuality() {
+        double ndcgSum = 0.0;
+        double reciprocalRankSum = 0.0;
+        double precisionSum = 0.0;
+        for (JudgedQuery judged : fixture.queries()) {
+            SearchRequest request = new SearchRequest();
+            request.setQuery(judged.query());
+            request.setTags(judged.tags());
+            request.setLimit(K);
+            List<String> ranking = searchService.rankPublic(request, K).stream().map(keys::get).toList();
+
+            double ndcg = RankingMetrics.ndcg(ranking, judged.grades(), K);
+            double reciprocalRank = RankingMetrics.reciprocalRank(ranking, judged.grades());
+            double precision = RankingMetrics.precision(ranking, judged.grades(), K);
+            logger.info("'{}' {}: nDCG@{} {}, RR {}, P@{} {} -> {}", judged.query(), judged.tags(), K,
+                    "%.3f".formatted(ndcg), "%.3f".formatted(reciprocalRank), K, "%.2f".formatted(precision),
+                    ranking);
+            ndcgSum += ndcg;
+            reciprocalRankSum += reciprocalRank;
+            precisionSum += precision;
+        }
+        int count = fixture.queries().size();
+        double meanNdcg = ndcgSum / count;
+        double meanReciprocalRank = reciprocalRankSum / count;
+        double meanPrecision = precisionSum / count;
+        logger.info("Mean over {} queries: nDCG@{} {}, MRR {}, P@{} {}", count, K, "%.3f".formatted(meanNdcg),
+                "%.3f".formatted(meanReciprocalRank), K, "%.3f".formatted(meanPrecision));
+
+        assertThat(meanNdcg).isGreaterThanOrEqualTo(0.85);
+        assertThat(meanReciprocalRank).isGreaterThanOrEqualTo(0.90);
+        assertThat(meanPrecision).isGreaterThanOrEqualTo(0.20);
+    }
+
+    @Test
+    void metricsOfAPerfectAndAnEmptyRanking() {
+        Map<String, Integer> grades = Map.of("a", 3, "b", 1, "c", 0);
+
+        assertThat(RankingMetrics.ndcg(List.of("a", "b", "c"), grades, K)).isEqualTo(1.0);
+        assertThat(RankingMetrics.ndcg(List.of("b", "a"), grades, K)).isBetween(0.0, 1.0);
+        assertThat(RankingMetrics.reciprocalRank(List.of("c", "b"), grades)).isEqualTo(0.5);
+        assertThat(RankingMetrics.precision(List.of("a", "c"), grades, 2)).isEqualTo(0.5);
+        assertThat(RankingMetrics.ndcg(List.of(), grades, K)).isZero();
+        assertThat(RankingMetrics.reciprocalRank(List.of(), grades)).isZero();
+    }
+}